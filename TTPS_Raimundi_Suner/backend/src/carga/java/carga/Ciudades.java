@@ -0,0 +1,84 @@
+package carga;
+
+import java.util.Random;
+
+/**
+ * Centros urbanos de Argentina pesados por población. Los puntos se reparten alrededor de cada centro con una
+ * normal de desvío {@code dispersionKm}, así la densidad se parece a la real: mucho en AMBA, poco en el resto.
+ */
+final class Ciudades {
+
+    private record Ciudad(String nombre, double lat, double lng, double peso, double dispersionKm,
+                          String provinciaId, String departamentoId, String localidadId) {}
+
+    private static final Ciudad[] CIUDADES = {
+            new Ciudad("CABA", -34.6037, -58.3816, 3.1, 6, "02", "02007", "02007010001"),
+            new Ciudad("Conurbano", -34.7000, -58.4500, 9.9, 15, "06", "06427", "06427010000"),
+            new Ciudad("La Plata", -34.9214, -57.9545, 0.9, 5, "06", "06441", "06441030000"),
+            new Ciudad("Córdoba", -31.4201, -64.1888, 1.5, 7, "14", "14014", "14014010000"),
+            new Ciudad("Rosario", -32.9442, -60.6505, 1.3, 6, "82", "82084", "82084270000"),
+            new Ciudad("Mendoza", -32.8895, -68.8458, 1.1, 6, "50", "50007", "50007010000"),
+            new Ciudad("Tucumán", -26.8083, -65.2176, 0.9, 5, "90", "90084", "90084010000"),
+            new Ciudad("Mar del Plata", -38.0055, -57.5426, 0.6, 4, "06", "06357", "06357110000"),
+            new Ciudad("Salta", -24.7821, -65.4232, 0.6, 4, "66", "66028", "66028050000"),
+            new Ciudad("Santa Fe", -31.6333, -60.7000, 0.5, 4, "82", "82063", "82063170000"),
+            new Ciudad("Neuquén", -38.9516, -68.0591, 0.3, 4, "58", "58035", "58035070000"),
+            new Ciudad("Bahía Blanca", -38.7183, -62.2663, 0.3, 3, "06", "06056", "06056010000")
+    };
+
+    private static final double[] ACUMULADO = new double[CIUDADES.length];
+
+    static {
+        double total = 0;
+        for (Ciudad ciudad : CIUDADES) {
+            total += ciudad.peso();
+        }
+        double suma = 0;
+        for (int i = 0; i < CIUDADES.length; i++) {
+            suma += CIUDADES[i].peso() / total;
+            ACUMULADO[i] = suma;
+        }
+    }
+
+    private Ciudades() {
+    }
+
+    /**
+     * Índice de una ciudad elegida al azar según su peso.
+     */
+    static int elegir(Random random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < ACUMULADO.length - 1; i++) {
+            if (r < ACUMULADO[i]) {
+                return i;
+            }
+        }
+        return ACUMULADO.length - 1;
+    }
+
+    /**
+     * Punto {lat, lng} alrededor de la ciudad.
+     */
+    static double[] punto(int ciudad, Random random) {
+        Ciudad c = CIUDADES[ciudad];
+        double lat = c.lat() + random.nextGaussian() * c.dispersionKm() / 111.0;
+        double lng = c.lng() + random.nextGaussian() * c.dispersionKm() / (111.0 * Math.cos(Math.toRadians(c.lat())));
+        return new double[]{lat, lng};
+    }
+
+    static String nombre(int ciudad) {
+        return CIUDADES[ciudad].nombre();
+    }
+
+    static String provinciaId(int ciudad) {
+        return CIUDADES[ciudad].provinciaId();
+    }
+
+    static String departamentoId(int ciudad) {
+        return CIUDADES[ciudad].departamentoId();
+    }
+
+    static String localidadId(int ciudad) {
+        return CIUDADES[ciudad].localidadId();
+    }
+}
@@ -0,0 +1,407 @@
+package carga;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Driver de carga HTTP contra una instancia levantada (idealmente con datos de {@link GeneradorDatos}).
+ * Reproduce una mezcla configurable de consultas de mascotas, publicaciones y avistamientos, logins y subidas de
+ * imágenes, y al final informa throughput y latencias p50/p99/p999 por ruta.
+ * <p>
+ * Argumentos ({@code --clave=valor}):
+ * <ul>
+ *   <li>{@code --base} (http://localhost:8080), {@code --hilos} (16), {@code --duracion} (60 s),
+ *       {@code --calentamiento} (10 s, no se cuentan)</li>
+ *   <li>{@code --tasa} (0): requests por segundo en total. Con 0 cada hilo manda el siguiente request apenas recibe
+ *       la respuesta (lazo cerrado). Con tasa fija la latencia se mide desde el momento en que el request debía
+ *       salir, así una respuesta lenta no esconde a los que quedaron esperando detrás (omisión coordinada).</li>
+ *   <li>{@code --mezcla} (mascotas:40,publicaciones:30,avistamientos:15,login:10,upload:5): pesos relativos</li>
+ *   <li>{@code --usuarios}, {@code --mascotas}, {@code --publicaciones}, {@code --avistamientos}: rangos de ids
+ *       {@code desde..hasta} como los informa el generador (1..100000, 1..150000, 1..40000, 1..100000)</li>
+ *   <li>{@code --password} (carga1234), {@code --sesiones} (20 usuarios logueados para los requests autenticados),
+ *       {@code --imagenes} (200 imágenes distintas para las subidas)</li>
+ * </ul>
+ * El servidor limita los logins por IP: para probar login con carga, levantarlo con
+ * {@code --app.intentos.maximoPorIp} y {@code --app.intentos.maximoPorCuenta} altos.
+ */
+public final class DriverCarga {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern USUARIO_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final String BOUNDARY = "----limite-driver-carga";
+
+    private record Sesion(long usuarioId, String token) {}
+
+    private record Rango(long desde, long hasta) {
+        static Rango de(String texto) {
+            String[] partes = texto.split("\\.\\.");
+            return new Rango(Long.parseLong(partes[0].trim()), Long.parseLong(partes[1].trim()));
+        }
+
+        long elegir(Random random) {
+            return desde + (long) (random.nextDouble() * (hasta - desde + 1));
+        }
+    }
+
+    // Una operación elegida: ruta para el reporte y request a mandar
+    private record Operacion(String ruta, HttpRequest request) {}
+
+    private final Map<String, String> args;
+    private final URI base;
+    private final HttpClient cliente;
+    private final Rango usuarios;
+    private final Rango mascotas;
+    private final Rango publicaciones;
+    private final Rango avistamientos;
+    private final String password;
+    private final String[] mezcla;
+    private final double[] mezclaAcumulada;
+    private final List<byte[]> imagenes = new ArrayList<>();
+    private final List<Sesion> sesiones = new ArrayList<>();
+
+    private DriverCarga(Map<String, String> args) {
+        this.args = args;
+        this.base = URI.create(valor("base", "http://localhost:8080"));
+        this.cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.usuarios = Rango.de(valor("usuarios", "1..100000"));
+        this.mascotas = Rango.de(valor("mascotas", "1..150000"));
+        this.publicaciones = Rango.de(valor("publicaciones", "1..40000"));
+        this.avistamientos = Rango.de(valor("avistamientos", "1..100000"));
+        this.password = valor("password", "carga1234");
+
+        String[] pesos = valor("mezcla", "mascotas:40,publicaciones:30,avistamientos:15,login:10,upload:5").split(",");
+        this.mezcla = new String[pesos.length];
+        this.mezclaAcumulada = new double[pesos.length];
+        double total = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            String[] partes = pesos[i].split(":");
+            mezcla[i] = partes[0].trim();
+            total += Double.parseDouble(partes[1].trim());
+            mezclaAcumulada[i] = total;
+        }
+        for (int i = 0; i < mezclaAcumulada.length; i++) {
+            mezclaAcumulada[i] /= total;
+        }
+    }
+
+    public static void main(String[] argumentos) throws Exception {
+        Map<String, String> args = new HashMap<>();
+        for (String argumento : argumentos) {
+            if (!argumento.startsWith("--") || !argumento.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (se espera --clave=valor): " + argumento);
+            }
+            int igual = argumento.indexOf('=');
+            args.put(argumento.substring(2, igual), argumento.substring(igual + 1));
+        }
+        new DriverCarga(args).correr();
+    }
+
+    private void correr() throws Exception {
+        int hilos = Integer.parseInt(valor("hilos", "16"));
+        long duracionNs = Duration.ofSeconds(Long.parseLong(valor("duracion", "60"))).toNanos();
+        long calentamientoNs = Duration.ofSeconds(Long.parseLong(valor("calentamiento", "10"))).toNanos();
+        double tasa = Double.parseDouble(valor("tasa", "0"));
+
+        prepararImagenes(Integer.parseInt(valor("imagenes", "200")));
+        prepararSesiones(Integer.parseInt(valor("sesiones", "20")));
+        System.out.printf("Carga contra %s: %d hilos, %s, %d s (+%d s de calentamiento)%n", base, hilos,
+                tasa > 0 ? tasa + " req/s" : "lazo cerrado", duracionNs / 1_000_000_000L, calentamientoNs / 1_000_000_000L);
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + calentamientoNs;
+        long fin = inicioMedicion + duracionNs;
+        // Con tasa fija cada hilo manda un request cada 'intervalo', desfasado del resto
+        long intervaloNs = tasa > 0 ? (long) (hilos * 1_000_000_000L / tasa) : 0;
+
+        List<Thread> trabajadores = new ArrayList<>();
+        List<Registro> registros = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            Registro registro = new Registro();
+            registros.add(registro);
+            long desfase = intervaloNs * h / hilos;
+            Thread t = new Thread(() -> trabajar(registro, inicio + desfase, intervaloNs, inicioMedicion, fin),
+                    "driver-carga-" + h);
+            trabajadores.add(t);
+            t.start();
+        }
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+
+        Registro total = new Registro();
+        registros.forEach(total::sumar);
+        total.imprimir(duracionNs);
+    }
+
+    private void trabajar(Registro registro, long primero, long intervaloNs, long inicioMedicion, long fin) {
+        Random random = ThreadLocalRandom.current();
+        long programado = primero;
+        while (true) {
+            long ahora = System.nanoTime();
+            if (intervaloNs > 0) {
+                if (programado > ahora) {
+                    dormirHasta(programado);
+                }
+            } else {
+                programado = ahora;
+            }
+            if (programado >= fin) {
+                return;
+            }
+
+            Operacion operacion = elegirOperacion(random);
+            int estado;
+            try {
+                estado = cliente.send(operacion.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                estado = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long terminado = System.nanoTime();
+            if (programado >= inicioMedicion) {
+                registro.anotar(operacion.ruta(), terminado - programado, estado);
+            }
+            programado += intervaloNs;
+        }
+    }
+
+    private Operacion elegirOperacion(Random random) {
+        double r = random.nextDouble();
+        String tipo = mezcla[mezcla.length - 1];
+        for (int i = 0; i < mezclaAcumulada.length; i++) {
+            if (r < mezclaAcumulada[i]) {
+                tipo = mezcla[i];
+                break;
+            }
+        }
+        return switch (tipo) {
+            case "mascotas" -> consultaMascotas(random);
+            case "publicaciones" -> consultaPublicaciones(random);
+            case "avistamientos" -> consultaAvistamientos(random);
+            case "login" -> login(random);
+            case "upload" -> subirImagen(random);
+            default -> throw new IllegalArgumentException("Operación desconocida en la mezcla: " + tipo);
+        };
+    }
+
+    private Operacion consultaMascotas(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> get("GET /api/mascotas/{id}", "/api/mascotas/" + mascotas.elegir(random), null);
+            case 1 -> get("GET /api/mascotas/perdidas", "/api/mascotas/perdidas?page=" + random.nextInt(20) + "&size=20", null);
+            case 2 -> get("GET /api/mascotas/filtro", "/api/mascotas/filtro?tipo=" + (random.nextBoolean() ? "Perro" : "Gato")
+                    + "&page=" + random.nextInt(20) + "&size=20", null);
+            default -> get("GET /api/mascotas/{id}/coincidencias",
+                    "/api/mascotas/" + mascotas.elegir(random) + "/coincidencias", null);
+        };
+    }
+
+    private Operacion consultaPublicaciones(Random random) {
+        if (random.nextBoolean()) {
+            return get("GET /api/publicaciones/{id}", "/api/publicaciones/" + publicaciones.elegir(random), null);
+        }
+        double[] punto = Ciudades.punto(Ciudades.elegir(random), random);
+        return get("GET /api/publicaciones/cercanas", String.format(Locale.ROOT,
+                "/api/publicaciones/cercanas?lat=%.5f&lng=%.5f&radioKm=5", punto[0], punto[1]), null);
+    }
+
+    private Operacion consultaAvistamientos(Random random) {
+        String token = sesion(random).token();
+        if (random.nextBoolean()) {
+            return get("GET /api/avistamientos/{id}", "/api/avistamientos/" + avistamientos.elegir(random), token);
+        }
+        double[] punto = Ciudades.punto(Ciudades.elegir(random), random);
+        return get("GET /api/avistamientos/cercanos", String.format(Locale.ROOT,
+                "/api/avistamientos/cercanos?lat=%.5f&lng=%.5f&radioKm=3", punto[0], punto[1]), token);
+    }
+
+    private Operacion login(Random random) {
+        return new Operacion("POST /api/usuarios/login", pedidoLogin(usuarios.elegir(random)));
+    }
+
+    private Operacion subirImagen(Random random) {
+        Sesion sesion = sesion(random);
+        String mascota = "{\"nombre\":\"Carga\",\"tipo\":\"Perro\",\"color\":\"Negro\",\"tamanio\":\"Mediano\","
+                + "\"estadoMascota\":\"ENCONTRADA\",\"usuarioId\":" + sesion.usuarioId() + "}";
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        escribir(cuerpo, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"mascota\"\r\n\r\n" + mascota + "\r\n");
+        escribir(cuerpo, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"imagen\"; filename=\"foto.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n");
+        cuerpo.writeBytes(imagenes.get(random.nextInt(imagenes.size())));
+        escribir(cuerpo, "\r\n--" + BOUNDARY + "--\r\n");
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/mascotas"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + sesion.token())
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(cuerpo.toByteArray()))
+                .build();
+        return new Operacion("POST /api/mascotas (imagen)", request);
+    }
+
+    private Operacion get(String ruta, String camino, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(camino)).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return new Operacion(ruta, builder.build());
+    }
+
+    private HttpRequest pedidoLogin(long usuarioId) {
+        String cuerpo = "{\"email\":\"usuario" + usuarioId + "@carga.com\",\"password\":\"" + password + "\"}";
+        return HttpRequest.newBuilder(base.resolve("/api/usuarios/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private Sesion sesion(Random random) {
+        return sesiones.get(random.nextInt(sesiones.size()));
+    }
+
+    private void prepararSesiones(int cantidad) throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < cantidad; i++) {
+            long usuarioId = usuarios.elegir(random);
+            HttpResponse<String> respuesta = cliente.send(pedidoLogin(usuarioId), HttpResponse.BodyHandlers.ofString());
+            Matcher token = TOKEN.matcher(respuesta.body());
+            if (respuesta.statusCode() != 200 || !token.find()) {
+                throw new IllegalStateException("No se pudo loguear usuario" + usuarioId + "@carga.com (HTTP "
+                        + respuesta.statusCode() + "): " + respuesta.body());
+            }
+            Matcher id = USUARIO_ID.matcher(respuesta.body());
+            sesiones.add(new Sesion(id.find() ? Long.parseLong(id.group(1)) : usuarioId, token.group(1)));
+        }
+    }
+
+    private void prepararImagenes(int cantidad) throws IOException {
+        Random random = new Random(11);
+        for (int i = 0; i < cantidad; i++) {
+            BufferedImage imagen = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = imagen.createGraphics();
+            for (int bloque = 0; bloque < 40; bloque++) {
+                g.setColor(new Color(random.nextInt(0xFFFFFF)));
+                g.fillOval(random.nextInt(640), random.nextInt(480), 40 + random.nextInt(200), 40 + random.nextInt(200));
+            }
+            g.dispose();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            ImageIO.write(imagen, "png", salida);
+            imagenes.add(salida.toByteArray());
+        }
+    }
+
+    private String valor(String clave, String porDefecto) {
+        return args.getOrDefault(clave, porDefecto);
+    }
+
+    private static void escribir(ByteArrayOutputStream salida, String texto) {
+        salida.writeBytes(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void dormirHasta(long instanteNs) {
+        long restante;
+        while ((restante = instanteNs - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(restante / 1_000_000, (int) (restante % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Latencias (ns) y códigos de respuesta por ruta; cada hilo tiene el suyo y se suman al final
+    private static final class Registro {
+        private final Map<String, Muestras> porRuta = new TreeMap<>();
+
+        void anotar(String ruta, long latenciaNs, int estado) {
+            porRuta.computeIfAbsent(ruta, r -> new Muestras()).anotar(latenciaNs, estado);
+        }
+
+        void sumar(Registro otro) {
+            otro.porRuta.forEach((ruta, muestras) -> porRuta.computeIfAbsent(ruta, r -> new Muestras()).sumar(muestras));
+        }
+
+        void imprimir(long duracionNs) {
+            double segundos = duracionNs / 1e9;
+            String formato = "%-40s %9s %9s %9s %9s %9s %9s %9s  %s%n";
+            System.out.printf(formato, "ruta", "requests", "req/s", "errores", "p50 ms", "p99 ms", "p999 ms", "max ms", "respuestas");
+            Muestras total = new Muestras();
+            for (Map.Entry<String, Muestras> entrada : porRuta.entrySet()) {
+                entrada.getValue().imprimir(formato, entrada.getKey(), segundos);
+                total.sumar(entrada.getValue());
+            }
+            total.imprimir(formato, "TOTAL", segundos);
+        }
+    }
+
+    private static final class Muestras {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private int errores;
+        private final Map<Integer, Integer> codigos = new LinkedHashMap<>();
+
+        void anotar(long latenciaNs, int estado) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = latenciaNs;
+            if (estado < 200 || estado >= 400) {
+                errores++;
+            }
+            codigos.merge(estado, 1, Integer::sum);
+        }
+
+        void sumar(Muestras otras) {
+            if (cantidad + otras.cantidad > latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad + otras.cantidad);
+            }
+            System.arraycopy(otras.latencias, 0, latencias, cantidad, otras.cantidad);
+            cantidad += otras.cantidad;
+            errores += otras.errores;
+            otras.codigos.forEach((codigo, veces) -> codigos.merge(codigo, veces, Integer::sum));
+        }
+
+        void imprimir(String formato, String ruta, double segundos) {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            System.out.printf(Locale.ROOT, formato, ruta, cantidad, String.format(Locale.ROOT, "%.1f", cantidad / segundos),
+                    errores, ms(ordenadas, 0.50), ms(ordenadas, 0.99), ms(ordenadas, 0.999),
+                    ms(ordenadas, 1.0), codigos);
+        }
+
+        private static String ms(long[] ordenadas, double percentil) {
+            if (ordenadas.length == 0) {
+                return "-";
+            }
+            int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+            return String.format(Locale.ROOT, "%.2f", ordenadas[Math.max(0, indice)] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package carga;
+
+import APP.Application;
+import APP.geo.GeoHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Carga masiva de datos sintéticos (usuarios, mascotas, publicaciones y avistamientos) para pruebas de carga.
+ * Levanta el contexto de la aplicación sin servidor web, así el esquema lo crea Hibernate igual que en producción,
+ * y después inserta por JDBC en lotes. Con la misma semilla genera siempre los mismos datos.
+ * <p>
+ * Argumentos (además de cualquier propiedad de Spring, p. ej. {@code --spring.datasource.url=...}):
+ * <ul>
+ *   <li>{@code --carga.usuarios} (100000), {@code --carga.mascotas} (150000), {@code --carga.publicaciones} (40000),
+ *       {@code --carga.avistamientos} (100000)</li>
+ *   <li>{@code --carga.semilla} (42), {@code --carga.lote} (1000 filas por batch)</li>
+ *   <li>{@code --carga.password} (carga1234): la contraseña de todos los usuarios generados</li>
+ * </ul>
+ * Los usuarios quedan como {@code usuario<ID>@carga.com}. Si la base ya tiene datos, los ids nuevos siguen a los
+ * existentes y al final se informa el rango, que es lo que necesita {@link DriverCarga}. En MySQL conviene agregar
+ * {@code rewriteBatchedStatements=true} a la URL; para H2 usar un archivo ({@code jdbc:h2:file:...}) y después
+ * levantar la aplicación contra ese mismo archivo.
+ */
+public final class GeneradorDatos {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatos.class);
+
+    private static final String[] NOMBRES_MASCOTA = {"Toby", "Luna", "Rocky", "Mora", "Simón", "Lola", "Max", "Nina",
+            "Coco", "Kira", "Bruno", "Maya", "Felipe", "Olivia", "Tom", "Frida"};
+    private static final String[] NOMBRES = {"Juan", "María", "Lucía", "Martín", "Sofía", "Diego", "Valentina",
+            "Federico", "Camila", "Matías", "Julieta", "Nicolás"};
+    private static final String[] APELLIDOS = {"González", "Rodríguez", "Gómez", "Fernández", "López", "Díaz",
+            "Martínez", "Pérez", "García", "Sánchez", "Romero", "Sosa"};
+    private static final String[] RAZAS_PERRO = {"Mestizo", "Labrador", "Caniche", "Ovejero Alemán", "Golden",
+            "Bulldog", "Beagle", "Pitbull"};
+    private static final String[] RAZAS_GATO = {"Mestizo", "Siamés", "Persa", "Europeo"};
+    private static final String[] COLORES = {"Negro", "Blanco", "Marrón", "Gris", "Atigrado", "Dorado", "Manchado"};
+    private static final String[] TAMANIOS = {"Pequeño", "Mediano", "Grande"};
+    private static final String[] ESTADOS_SIN_DUENIO = {"PERDIDA_AJENA", "ENCONTRADA", "BUSCANDO_DUEÑO"};
+
+    private static final double FRACCION_CON_DUENIO = 0.8;
+    private static final double FRACCION_PUBLICACIONES_ACTIVAS = 0.7;
+    private static final int DIAS_HISTORIA = 365;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final Random random;
+    private final int lote;
+    private final LocalDate hoy = LocalDate.now();
+
+    private GeneradorDatos(JdbcTemplate jdbc, TransactionTemplate transactionTemplate, long semilla, int lote) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.random = new Random(semilla);
+        this.lote = lote;
+    }
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.hibernate.ddl-auto=update", "jwt.secret=generador-de-datos-de-carga")
+                .run(args)) {
+            Environment env = contexto.getEnvironment();
+            GeneradorDatos generador = new GeneradorDatos(contexto.getBean(JdbcTemplate.class),
+                    contexto.getBean(TransactionTemplate.class),
+                    env.getProperty("carga.semilla", Long.class, 42L),
+                    env.getProperty("carga.lote", Integer.class, 1000));
+            String hash = contexto.getBean(PasswordEncoder.class).encode(env.getProperty("carga.password", "carga1234"));
+            generador.generar(env.getProperty("carga.usuarios", Integer.class, 100_000),
+                    env.getProperty("carga.mascotas", Integer.class, 150_000),
+                    env.getProperty("carga.publicaciones", Integer.class, 40_000),
+                    env.getProperty("carga.avistamientos", Integer.class, 100_000),
+                    hash);
+        }
+    }
+
+    private void generar(int cantidadUsuarios, int cantidadMascotas, int cantidadPublicaciones,
+                         int cantidadAvistamientos, String hashPassword) {
+        long inicio = System.currentTimeMillis();
+
+        long primerUsuario = siguienteId("usuario");
+        int[] ciudadDeUsuario = new int[cantidadUsuarios];
+        insertarUsuarios(primerUsuario, ciudadDeUsuario, hashPassword);
+
+        // Publicaciones: mascotas con dueño elegidas al azar, como mucho una por mascota
+        long primeraMascota = siguienteId("mascota");
+        long primeraPublicacion = siguienteId("publicacion");
+        double probabilidadPublicacion = Math.min(1.0,
+                cantidadPublicaciones / Math.max(1.0, cantidadMascotas * FRACCION_CON_DUENIO));
+        Publicaciones publicaciones = new Publicaciones(cantidadPublicaciones);
+        insertarMascotasYPublicaciones(cantidadMascotas, primeraMascota, primerUsuario, ciudadDeUsuario,
+                primeraPublicacion, probabilidadPublicacion, cantidadPublicaciones, publicaciones);
+
+        long primerAvistamiento = siguienteId("avistamiento");
+        insertarAvistamientos(cantidadAvistamientos, primerAvistamiento, siguienteId("ubicacion"),
+                primerUsuario, cantidadUsuarios, primeraMascota, cantidadMascotas, publicaciones);
+
+        for (String tabla : List.of("usuario", "mascota", "publicacion", "ubicacion", "avistamiento")) {
+            reiniciarIdentidad(tabla);
+        }
+
+        log.info("Datos generados en {} s", (System.currentTimeMillis() - inicio) / 1000);
+        log.info("Usuarios {}..{} (usuario<ID>@carga.com), mascotas {}..{}, publicaciones {}..{}, avistamientos {}..{}",
+                primerUsuario, primerUsuario + cantidadUsuarios - 1,
+                primeraMascota, primeraMascota + cantidadMascotas - 1,
+                primeraPublicacion, primeraPublicacion + publicaciones.cantidad - 1,
+                primerAvistamiento, primerAvistamiento + cantidadAvistamientos - 1);
+    }
+
+    private void insertarUsuarios(long primerId, int[] ciudadDeUsuario, String hashPassword) {
+        Lote filas = new Lote("INSERT INTO usuario (id, nombre, apellido, email, password, telefono, provincia_id, "
+                + "departamento_id, localidad_id, estado, puntos) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        for (int i = 0; i < ciudadDeUsuario.length; i++) {
+            long id = primerId + i;
+            int ciudad = Ciudades.elegir(random);
+            ciudadDeUsuario[i] = ciudad;
+            // Pocos usuarios con muchos puntos, como en el ranking real
+            int puntos = (int) Math.min(10_000, -Math.log(1 - random.nextDouble()) * 40);
+            filas.agregar(id, elegir(NOMBRES), elegir(APELLIDOS), "usuario" + id + "@carga.com", hashPassword,
+                    "221" + (4_000_000 + random.nextInt(5_000_000)), Ciudades.provinciaId(ciudad),
+                    Ciudades.departamentoId(ciudad), Ciudades.localidadId(ciudad), true, puntos);
+        }
+        filas.enviar();
+        log.info("{} usuarios insertados", ciudadDeUsuario.length);
+    }
+
+    private void insertarMascotasYPublicaciones(int cantidadMascotas, long primeraMascota, long primerUsuario,
+                                                int[] ciudadDeUsuario, long primeraPublicacion,
+                                                double probabilidadPublicacion, int maximoPublicaciones,
+                                                Publicaciones publicaciones) {
+        Lote mascotas = new Lote("INSERT INTO mascota (id, nombre, tipo, raza, color, tamanio, descripcion, fecha_nac, "
+                + "estado_mascota, usuario_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        Lote filasPublicaciones = new Lote("INSERT INTO publicacion (id, fecha, fecha_cierre, descripcion, "
+                + "estado_publicacion, lat, lng, municipio_id, geohash, mascota_activa_id, mascota_id, usuario_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", mascotas);
+
+        for (int i = 0; i < cantidadMascotas; i++) {
+            long mascotaId = primeraMascota + i;
+            double r = random.nextDouble();
+            String tipo = r < 0.6 ? "Perro" : r < 0.95 ? "Gato" : "Otro";
+            String raza = "Perro".equals(tipo) ? elegir(RAZAS_PERRO) : "Gato".equals(tipo) ? elegir(RAZAS_GATO) : null;
+            String color = elegir(COLORES);
+            String tamanio = elegir(TAMANIOS);
+            Date fechaNac = Date.valueOf(hoy.minusDays(random.nextInt(15 * 365)));
+            String descripcion = tipo + " " + color.toLowerCase() + ", " + tamanio.toLowerCase()
+                    + (random.nextBoolean() ? ", con collar" : "") + (random.nextInt(4) == 0 ? ", muy asustadizo" : "");
+
+            if (random.nextDouble() >= FRACCION_CON_DUENIO) {
+                mascotas.agregar(mascotaId, elegir(NOMBRES_MASCOTA), tipo, raza, color, tamanio, descripcion, fechaNac,
+                        elegir(ESTADOS_SIN_DUENIO), null);
+                continue;
+            }
+
+            int indiceDuenio = random.nextInt(ciudadDeUsuario.length);
+            long duenioId = primerUsuario + indiceDuenio;
+            // Sin publicación, una mascota con dueño está en su casa y no tiene estado
+            if (publicaciones.cantidad >= maximoPublicaciones || random.nextDouble() >= probabilidadPublicacion) {
+                mascotas.agregar(mascotaId, elegir(NOMBRES_MASCOTA), tipo, raza, color, tamanio, descripcion, fechaNac,
+                        null, duenioId);
+                continue;
+            }
+
+            // Una publicación finalizada es una mascota que ya volvió
+            boolean activa = random.nextDouble() < FRACCION_PUBLICACIONES_ACTIVAS;
+            mascotas.agregar(mascotaId, elegir(NOMBRES_MASCOTA), tipo, raza, color, tamanio, descripcion, fechaNac,
+                    activa ? "PERDIDA_PROPIA" : "ENCONTRADA", duenioId);
+            int ciudad = ciudadDeUsuario[indiceDuenio];
+            double[] punto = Ciudades.punto(ciudad, random);
+            LocalDate fecha = hoy.minusDays(random.nextInt(DIAS_HISTORIA));
+            filasPublicaciones.agregar(primeraPublicacion + publicaciones.cantidad, Date.valueOf(fecha),
+                    activa ? null : Date.valueOf(fecha.plusDays(1 + random.nextInt(30))),
+                    "Se perdió en " + Ciudades.nombre(ciudad) + ". " + descripcion,
+                    activa ? "ACTIVA" : "FINALIZADA", punto[0], punto[1], Ciudades.departamentoId(ciudad),
+                    GeoHash.codificar(punto[0], punto[1], GeoHash.PRECISION_MAXIMA),
+                    activa ? mascotaId : null, mascotaId, duenioId);
+            publicaciones.agregar(mascotaId, punto[0], punto[1]);
+        }
+        filasPublicaciones.enviar();
+        log.info("{} mascotas y {} publicaciones insertadas", cantidadMascotas, publicaciones.cantidad);
+    }
+
+    private void insertarAvistamientos(int cantidad, long primerId, long primeraUbicacion, long primerUsuario,
+                                       int cantidadUsuarios, long primeraMascota, int cantidadMascotas,
+                                       Publicaciones publicaciones) {
+        Lote ubicaciones = new Lote("INSERT INTO ubicacion (id, barrio, direccion, lat, lng, geohash) "
+                + "VALUES (?, ?, ?, ?, ?, ?)");
+        Lote avistamientos = new Lote("INSERT INTO avistamiento (id, fecha, comentario, mascota_id, usuario_id, "
+                + "ubicacion_id) VALUES (?, ?, ?, ?, ?, ?)", ubicaciones);
+
+        for (int i = 0; i < cantidad; i++) {
+            double lat;
+            double lng;
+            Long mascotaId = null;
+            String barrio;
+            double r = random.nextDouble();
+            if (r < 0.4 && publicaciones.cantidad > 0) {
+                // Cerca de donde se perdió una mascota publicada, a unos cientos de metros
+                int p = random.nextInt(publicaciones.cantidad);
+                lat = publicaciones.lat[p] + random.nextGaussian() * 0.5 / 111.0;
+                lng = publicaciones.lng[p] + random.nextGaussian() * 0.5 / 111.0;
+                mascotaId = random.nextBoolean() ? publicaciones.mascotaId[p] : null;
+                barrio = "Cerca de la publicación";
+            } else {
+                int ciudad = Ciudades.elegir(random);
+                double[] punto = Ciudades.punto(ciudad, random);
+                lat = punto[0];
+                lng = punto[1];
+                if (r < 0.7 && cantidadMascotas > 0) {
+                    mascotaId = primeraMascota + random.nextInt(cantidadMascotas);
+                }
+                barrio = Ciudades.nombre(ciudad);
+            }
+            long ubicacionId = primeraUbicacion + i;
+            ubicaciones.agregar(ubicacionId, barrio, "Calle " + (1 + random.nextInt(200)) + " " + random.nextInt(3000),
+                    lat, lng, GeoHash.codificar(lat, lng, GeoHash.PRECISION_MAXIMA));
+            avistamientos.agregar(primerId + i, Date.valueOf(hoy.minusDays(random.nextInt(DIAS_HISTORIA))),
+                    "Lo vi " + (random.nextBoolean() ? "cruzando la calle" : "cerca de una plaza"), mascotaId,
+                    primerUsuario + random.nextInt(cantidadUsuarios), ubicacionId);
+        }
+        avistamientos.enviar();
+        log.info("{} avistamientos insertados", cantidad);
+    }
+
+    private long siguienteId(String tabla) {
+        Long maximo = jdbc.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+        return maximo == null ? 1 : maximo + 1;
+    }
+
+    // Los ids se insertan explícitos: hay que correr la identidad para que la aplicación no los repita
+    private void reiniciarIdentidad(String tabla) {
+        long siguiente = siguienteId(tabla);
+        String producto = jdbc.execute((Connection c) -> c.getMetaData().getDatabaseProductName());
+        if ("H2".equalsIgnoreCase(producto)) {
+            jdbc.execute("ALTER TABLE " + tabla + " ALTER COLUMN id RESTART WITH " + siguiente);
+        } else if ("MySQL".equalsIgnoreCase(producto)) {
+            jdbc.execute("ALTER TABLE " + tabla + " AUTO_INCREMENT = " + siguiente);
+        }
+    }
+
+    private String elegir(String[] opciones) {
+        return opciones[random.nextInt(opciones.length)];
+    }
+
+    // Lo que necesitan los avistamientos de cada publicación generada
+    private static final class Publicaciones {
+        final long[] mascotaId;
+        final double[] lat;
+        final double[] lng;
+        int cantidad;
+
+        Publicaciones(int maximo) {
+            mascotaId = new long[maximo];
+            lat = new double[maximo];
+            lng = new double[maximo];
+        }
+
+        void agregar(long mascota, double latitud, double longitud) {
+            mascotaId[cantidad] = mascota;
+            lat[cantidad] = latitud;
+            lng[cantidad] = longitud;
+            cantidad++;
+        }
+    }
+
+    // Acumula filas y las manda en un batch JDBC, una transacción por lote. Si las filas referencian a las de
+    // otro lote (p. ej. publicaciones a mascotas), ese se manda antes para no violar las claves foráneas.
+    private final class Lote {
+        final String sql;
+        final Lote referenciado;
+        final List<Object[]> filas = new ArrayList<>();
+
+        Lote(String sql) {
+            this(sql, null);
+        }
+
+        Lote(String sql, Lote referenciado) {
+            this.sql = sql;
+            this.referenciado = referenciado;
+        }
+
+        void agregar(Object... valores) {
+            filas.add(valores);
+            if (filas.size() >= lote) {
+                enviar();
+            }
+        }
+
+        void enviar() {
+            if (referenciado != null) {
+                referenciado.enviar();
+            }
+            if (filas.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbc.batchUpdate(sql, filas));
+            filas.clear();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import APP.services.FileStorageService;
+import APP.services.ProcesadorImagenesService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * FileStorageService.storeMascotaImage con una imagen ya guardada (deduplicada por contenido)
+ * y con una imagen nueva en cada llamada. Las variantes no se generan: se mide la subida, no el procesamiento.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileStorageBenchmark {
+
+    private Path directorio;
+    private FileStorageService fileStorageService;
+    private byte[] png;
+    private MockMultipartFile repetida;
+    private long contador;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        png = pngDePrueba(800, 600);
+        repetida = new MockMultipartFile("imagen", "foto.png", "image/png", png);
+    }
+
+    @Setup(Level.Iteration)
+    public void prepararDirectorio() throws Exception {
+        directorio = Files.createTempDirectory("benchmark-uploads");
+        ProcesadorImagenesService sinVariantes = new ProcesadorImagenesService(1, 1) {
+            @Override
+            public void procesarEnSegundoPlano(Path original) {
+            }
+        };
+        fileStorageService = new FileStorageService(directorio.toString(), sinVariantes, null);
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpiar() throws Exception {
+        FileSystemUtils.deleteRecursively(directorio);
+    }
+
+    @Benchmark
+    public String imagenRepetida() {
+        return fileStorageService.storeMascotaImage(repetida);
+    }
+
+    @Benchmark
+    public String imagenNueva() {
+        // Un chunk pHYs distinto en cada llamada: otro hash, mismo tamaño (los bytes después de IEND se descartan al guardar)
+        return fileStorageService.storeMascotaImage(new MockMultipartFile("imagen", "foto.png", "image/png", conPhys(contador++)));
+    }
+
+    // Inserta después de IHDR (firma de 8 bytes + chunk de 25) un pHYs con la densidad valor
+    private byte[] conPhys(long valor) {
+        int despuesDeIhdr = 8 + 25;
+        ByteBuffer contenido = ByteBuffer.allocate(png.length + 21);
+        contenido.put(png, 0, despuesDeIhdr);
+        contenido.putInt(9);
+        int inicioTipo = contenido.position();
+        contenido.put(new byte[]{'p', 'H', 'Y', 's'});
+        contenido.putInt((int) valor).putInt((int) (valor >>> 32)).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(contenido.array(), inicioTipo, 13);
+        contenido.putInt((int) crc.getValue());
+        contenido.put(png, despuesDeIhdr, png.length - despuesDeIhdr);
+        return contenido.array();
+    }
+
+    private static byte[] pngDePrueba(int ancho, int alto) throws Exception {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        for (int y = 0; y < alto; y += 20) {
+            g.setColor(new Color((y * 7) % 256, (y * 3) % 256, 128));
+            g.fillRect(0, y, ancho, 20);
+        }
+        g.dispose();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", salida);
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,118 @@
+package benchmarks;
+
+import APP.dto.UsuarioDTO;
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.EstadoPublicacion;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.clases.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de listados de mascotas y publicaciones (lo que devuelven los GET públicos)
+ * y el mapeo de usuarios a UsuarioDTO. El ObjectMapper se arma como el de Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int cantidad;
+
+    private ObjectMapper objectMapper;
+    private List<Mascota> mascotas;
+    private List<Publicacion> publicaciones;
+    private List<Usuario> usuarios;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        mascotas = new ArrayList<>(cantidad);
+        publicaciones = new ArrayList<>(cantidad);
+        usuarios = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Usuario usuario = usuario(i);
+            Mascota mascota = mascota(i, usuario);
+            usuarios.add(usuario);
+            mascotas.add(mascota);
+            publicaciones.add(publicacion(i, mascota, usuario));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarMascotas() throws Exception {
+        return objectMapper.writeValueAsBytes(mascotas);
+    }
+
+    @Benchmark
+    public byte[] serializarPublicaciones() throws Exception {
+        return objectMapper.writeValueAsBytes(publicaciones);
+    }
+
+    @Benchmark
+    public List<UsuarioDTO> mapearUsuarios() {
+        List<UsuarioDTO> dtos = new ArrayList<>(usuarios.size());
+        for (Usuario usuario : usuarios) {
+            dtos.add(UsuarioDTO.fromUsuario(usuario));
+        }
+        return dtos;
+    }
+
+    private static Usuario usuario(int i) {
+        Usuario usuario = new Usuario();
+        usuario.setId((long) i);
+        usuario.setNombre("Nombre" + i);
+        usuario.setApellido("Apellido" + i);
+        usuario.setEmail("usuario" + i + "@test.com");
+        usuario.setTelefono("221555" + i);
+        usuario.setProvinciaId("06");
+        usuario.setDepartamentoId("06441");
+        usuario.setLocalidadId("06441030");
+        usuario.setPuntos(i % 50);
+        return usuario;
+    }
+
+    private static Mascota mascota(int i, Usuario usuario) {
+        Mascota mascota = new Mascota();
+        mascota.setId((long) i);
+        mascota.setNombre("Mascota" + i);
+        mascota.setTipo(i % 2 == 0 ? "Perro" : "Gato");
+        mascota.setRaza("Mestizo");
+        mascota.setColor("Marrón");
+        mascota.setTamanio("Mediano");
+        mascota.setDescripcion("Collar rojo, responde a su nombre. Se perdió cerca de la plaza.");
+        mascota.setImagenUrl("/uploads/mascotas/" + Integer.toHexString(i) + ".jpg");
+        mascota.setFechaNac(LocalDate.of(2018, 1, 1).plusDays(i));
+        mascota.setEstadoMascota(EstadoMascota.PERDIDA_PROPIA);
+        mascota.setUsuario(usuario);
+        return mascota;
+    }
+
+    private static Publicacion publicacion(int i, Mascota mascota, Usuario usuario) {
+        Publicacion publicacion = new Publicacion();
+        publicacion.setId((long) i);
+        publicacion.setFecha(LocalDate.of(2024, 1, 1).plusDays(i % 365));
+        publicacion.setDescripcion("Se busca. Última vez vista en la esquina de 7 y 50.");
+        publicacion.setEstadoPublicacion(EstadoPublicacion.ACTIVA);
+        publicacion.setLat(-34.92 + i * 0.0001);
+        publicacion.setLng(-57.95 - i * 0.0001);
+        publicacion.setMunicipioId("06441");
+        publicacion.setMascota(mascota);
+        publicacion.setUsuario(usuario);
+        return publicacion;
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import APP.models.clases.Usuario;
+import APP.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emisión y verificación de tokens. {@code obtenerUsuarioIdCacheado} es el camino que usa JwtFilter
+ * en cada request autenticado (el token ya verificado queda en la caché de JwtUtil).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        jwtUtil = new JwtUtil("secreto-de-benchmark-de-32-bytes!!", 86_400_000L, 10_000);
+        usuario = new Usuario();
+        usuario.setId(42L);
+        usuario.setEmail("benchmark@test.com");
+        token = jwtUtil.generateToken(usuario);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(usuario);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtUtil.getSubject(token);
+    }
+
+    @Benchmark
+    public Long obtenerUsuarioIdCacheado() {
+        return jwtUtil.obtenerUsuarioId(token);
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import APP.models.clases.Usuario;
+import APP.security.JwtFilter;
+import APP.security.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtFilter.doFilter para una ruta pública, un request autenticado y uno con token inválido (401).
+ * La cadena no hace nada: se mide sólo el filtro.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain CADENA_VACIA = (request, response) -> { };
+
+    private JwtFilter filtro;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        JwtUtil jwtUtil = new JwtUtil("secreto-de-benchmark-de-32-bytes!!", 86_400_000L, 10_000);
+        filtro = new JwtFilter();
+        ReflectionTestUtils.setField(filtro, "jwtUtil", jwtUtil);
+        Usuario usuario = new Usuario();
+        usuario.setId(42L);
+        usuario.setEmail("benchmark@test.com");
+        token = jwtUtil.generateToken(usuario);
+    }
+
+    @Benchmark
+    public int rutaPublica() throws Exception {
+        return filtrar(new MockHttpServletRequest("GET", "/api/mascotas/perdidas"));
+    }
+
+    @Benchmark
+    public int autenticado() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/usuarios/42");
+        request.addHeader("Authorization", "Bearer " + token);
+        return filtrar(request);
+    }
+
+    @Benchmark
+    public int tokenInvalido() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/usuarios/42");
+        request.addHeader("Authorization", "Bearer no-es-un-token");
+        return filtrar(request);
+    }
+
+    private int filtrar(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, CADENA_VACIA);
+        return response.getStatus();
+    }
+}
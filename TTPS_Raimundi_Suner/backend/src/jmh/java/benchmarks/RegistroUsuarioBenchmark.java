@@ -0,0 +1,84 @@
+package benchmarks;
+
+import APP.config.PasswordConfig;
+import APP.models.clases.Usuario;
+import APP.models.dao.UsuarioDAO;
+import APP.services.HashPasswordService;
+import APP.services.RankingService;
+import APP.services.UsuarioService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación y normalización de UsuarioService.registrarUsuario (trims, regex de email, largo de contraseña).
+ * La base y BCrypt se reemplazan por stubs triviales (sin Mockito, que cuesta más que lo medido) para que
+ * no tapen el costo de la validación; {@code emailInvalido} corta en la regex, como un registro rechazado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistroUsuarioBenchmark {
+
+    private UsuarioService usuarioService;
+
+    @Setup
+    public void preparar() {
+        // findByEmail no encuentra a nadie y save asigna siempre el mismo id (el ranking no crece)
+        UsuarioDAO usuarioDAO = (UsuarioDAO) Proxy.newProxyInstance(UsuarioDAO.class.getClassLoader(),
+                new Class<?>[]{UsuarioDAO.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "findByEmail" -> Optional.empty();
+                    case "save" -> {
+                        ((Usuario) args[0]).setId(1L);
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(metodo.getName());
+                });
+        HashPasswordService hashPasswordService =
+                new HashPasswordService(null, new PasswordConfig(4, 0, 4, 4), 1, 1, 1000) {
+                    @Override
+                    public String hashear(String password) {
+                        return "$2a$04$hashdebenchmark";
+                    }
+                };
+
+        usuarioService = new UsuarioService();
+        ReflectionTestUtils.setField(usuarioService, "usuarioDAO", usuarioDAO);
+        ReflectionTestUtils.setField(usuarioService, "hashPasswordService", hashPasswordService);
+        ReflectionTestUtils.setField(usuarioService, "rankingService", new RankingService());
+    }
+
+    @Benchmark
+    public Usuario registroValido() {
+        return usuarioService.registrarUsuario(nuevoUsuario("  usuario.benchmark@test.com "));
+    }
+
+    @Benchmark
+    public String emailInvalido() {
+        try {
+            usuarioService.registrarUsuario(nuevoUsuario("usuario.benchmark@test.org"));
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static Usuario nuevoUsuario(String email) {
+        Usuario usuario = new Usuario();
+        usuario.setNombre(" Nombre ");
+        usuario.setApellido(" Apellido ");
+        usuario.setTelefono(" 2215550000 ");
+        usuario.setProvinciaId("06");
+        usuario.setDepartamentoId("06441");
+        usuario.setLocalidadId("06441030");
+        usuario.setEmail(email);
+        usuario.setPassword("secreto123");
+        return usuario;
+    }
+}
@@ -0,0 +1,179 @@
+package APP.cache;
+
+import APP.cache.CacheRespuestasPublicas.Alcance;
+import APP.cache.CacheRespuestasPublicas.Respuesta;
+import APP.cache.CacheRespuestasPublicas.Tipo;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve desde {@link CacheRespuestasPublicas} los GET públicos de listados de mascotas y publicaciones.
+ * JwtFilter no autentica estas rutas, así que la respuesta es la misma para cualquier visitante; la clave es
+ * la ruta, la query con los parámetros ordenados y el Origin (las cabeceras CORS dependen de él).
+ * En un acierto no se llega al controller: se copian las cabeceras y los bytes guardados.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class CacheRespuestasFilter extends OncePerRequestFilter {
+
+    private static final String RUTA_MASCOTAS = "/api/mascotas";
+    private static final String RUTA_PERDIDAS = "/api/mascotas/perdidas";
+    private static final String RUTA_PUBLICACIONES = "/api/publicaciones";
+    private static final Pattern RUTA_PUBLICACION = Pattern.compile("/api/publicaciones/(\\d{1,18})");
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final String HEADER_CACHE = "X-Cache";
+
+    @Autowired
+    private CacheRespuestasPublicas cache;
+
+    @Value("${app.cacheRespuestas.habilitada:true}")
+    private boolean habilitada;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!habilitada || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        // La exportación NDJSON comparte la ruta del listado pero es streaming
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return (accept != null && accept.contains("ndjson")) || tipo(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clave = clave(request);
+        Respuesta guardada = cache.obtener(clave);
+        if (guardada != null) {
+            escribir(guardada, request, response);
+            return;
+        }
+
+        long generacion = cache.generacion();
+        ContentCachingResponseWrapper envoltura = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, envoltura);
+            Alcance alcance = alcance(request, envoltura);
+            if (alcance != null) {
+                cache.guardar(clave, respuesta(request, envoltura, alcance), generacion);
+            }
+        } finally {
+            envoltura.copyBodyToResponse();
+        }
+    }
+
+    private static Tipo tipo(String ruta) {
+        return switch (ruta) {
+            case RUTA_MASCOTAS -> Tipo.MASCOTAS_PAGINA;
+            case RUTA_PERDIDAS -> Tipo.MASCOTAS_PERDIDAS;
+            case RUTA_PUBLICACIONES -> Tipo.PUBLICACIONES;
+            default -> RUTA_PUBLICACION.matcher(ruta).matches() ? Tipo.PUBLICACION : null;
+        };
+    }
+
+    private static String clave(HttpServletRequest request) {
+        StringBuilder clave = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parametros = new TreeMap<>(request.getParameterMap());
+        char separador = '?';
+        for (Map.Entry<String, String[]> parametro : parametros.entrySet()) {
+            for (String valor : parametro.getValue()) {
+                clave.append(separador).append(parametro.getKey()).append('=').append(valor);
+                separador = '&';
+            }
+        }
+        String origen = request.getHeader(HttpHeaders.ORIGIN);
+        if (origen != null) {
+            clave.append(" ").append(origen);
+        }
+        return clave.toString();
+    }
+
+    // null = no se guarda: errores, respuestas que dependen del usuario o que no son JSON
+    private static Alcance alcance(HttpServletRequest request, HttpServletResponse response) {
+        if (response.getStatus() != HttpServletResponse.SC_OK
+                || request.isAsyncStarted()
+                || request.getAttribute("authenticatedUserId") != null
+                || response.getContentType() == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType()))) {
+            return null;
+        }
+        String ruta = request.getRequestURI();
+        Tipo tipo = tipo(ruta);
+        if (tipo == Tipo.MASCOTAS_PAGINA) {
+            String cursor = request.getParameter("cursor");
+            String siguiente = response.getHeader(HEADER_NEXT_CURSOR);
+            try {
+                return new Alcance(tipo, cursor != null ? Long.parseLong(cursor.trim()) : 0L,
+                        siguiente != null ? Long.parseLong(siguiente) : Long.MAX_VALUE);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (tipo == Tipo.PUBLICACION) {
+            Matcher matcher = RUTA_PUBLICACION.matcher(ruta);
+            matcher.matches();
+            return new Alcance(tipo, Long.parseLong(matcher.group(1)), 0);
+        }
+        return new Alcance(tipo, 0, 0);
+    }
+
+    private static Respuesta respuesta(HttpServletRequest request, ContentCachingResponseWrapper response,
+                                       Alcance alcance) {
+        List<String[]> cabeceras = new ArrayList<>();
+        // Tomcat repite el nombre por cada valor (Vary)
+        for (String nombre : new LinkedHashSet<>(response.getHeaderNames())) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(nombre) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(nombre)) {
+                continue;
+            }
+            for (String valor : response.getHeaders(nombre)) {
+                cabeceras.add(new String[]{nombre, valor});
+            }
+        }
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return new Respuesta(response.getContentAsByteArray(), response.getContentType(), List.copyOf(cabeceras),
+                patron != null ? patron.toString() : null, alcance);
+    }
+
+    private static void escribir(Respuesta guardada, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // Para que MetricasFilter registre el acierto bajo la misma ruta que el request que lo generó
+        if (guardada.patron() != null) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, guardada.patron());
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        for (String[] cabecera : guardada.cabeceras()) {
+            response.addHeader(cabecera[0], cabecera[1]);
+        }
+        response.setHeader(HEADER_CACHE, "HIT");
+        // Las respuestas con ETag (GET /api/publicaciones/{id}) siguen contestando 304 a If-None-Match
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (etag != null && new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        response.setContentType(guardada.contentType());
+        response.setContentLength(guardada.cuerpo().length);
+        response.getOutputStream().write(guardada.cuerpo());
+    }
+}
@@ -0,0 +1,129 @@
+package APP.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Respuestas ya serializadas de los GET públicos de mascotas y publicaciones, por ruta y query.
+ * Caffeine decide qué desalojar con W-TinyLFU (las páginas que se piden seguido sobreviven a un barrido de URLs
+ * que se piden una vez) y el tamaño se limita en bytes de cuerpo.
+ * <p>
+ * Cada respuesta guarda su {@link Alcance}: qué datos contiene. Las escrituras de MascotaService y
+ * PublicacionService invalidan, después del commit, sólo las respuestas cuyo alcance incluye lo que cambió.
+ * Los datos embebidos que cambian por otros caminos (p. ej. los puntos del usuario dueño) se refrescan por
+ * el vencimiento {@code ttlSegundos}.
+ */
+@Component
+public class CacheRespuestasPublicas {
+
+    public enum Tipo {
+        // Página de GET /api/mascotas: ids en (desde, hasta]; la última página llega hasta Long.MAX_VALUE
+        MASCOTAS_PAGINA,
+        MASCOTAS_PERDIDAS,
+        PUBLICACIONES,
+        // GET /api/publicaciones/{id}: el id va en desde
+        PUBLICACION
+    }
+
+    public record Alcance(Tipo tipo, long desde, long hasta) {
+
+        boolean incluyeMascota(long id) {
+            return tipo == Tipo.MASCOTAS_PAGINA && id > desde && id <= hasta;
+        }
+
+        boolean esUltimaPagina() {
+            return tipo == Tipo.MASCOTAS_PAGINA && hasta == Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Cuerpo, Content-Type y cabeceras de una respuesta 200, más el patrón de la ruta para las métricas.
+     */
+    public record Respuesta(byte[] cuerpo, String contentType, List<String[]> cabeceras, String patron,
+                            Alcance alcance) {}
+
+    private final Cache<String, Respuesta> respuestas;
+    // Cambia con cada invalidación: una respuesta calculada antes no se guarda (ver guardar)
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CacheRespuestasPublicas(@Value("${app.cacheRespuestas.maxMegabytes:32}") long maxMegabytes,
+                                   @Value("${app.cacheRespuestas.ttlSegundos:60}") long ttlSegundos) {
+        this.respuestas = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((String clave, Respuesta respuesta) -> clave.length() + respuesta.cuerpo().length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .build();
+    }
+
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public Respuesta obtener(String clave) {
+        return respuestas.getIfPresent(clave);
+    }
+
+    /**
+     * Guarda la respuesta si no hubo invalidaciones desde {@code generacionInicial}, tomada antes de leer la base.
+     * Si una invalidación llega justo entre el chequeo y el put, la respuesta se quita: o la invalidación ya la
+     * ve al recorrer el mapa, o la generación ya cambió cuando se vuelve a mirar.
+     */
+    public void guardar(String clave, Respuesta respuesta, long generacionInicial) {
+        if (generacion.get() != generacionInicial) {
+            return;
+        }
+        respuestas.put(clave, respuesta);
+        if (generacion.get() != generacionInicial) {
+            respuestas.invalidate(clave);
+        }
+    }
+
+    /**
+     * Una mascota nueva sólo aparece en la última página del listado (los ids crecen) y, si está perdida,
+     * en el de perdidas.
+     */
+    public void invalidarMascotaNueva(boolean perdida) {
+        invalidar(alcance -> alcance.esUltimaPagina() || (perdida && alcance.tipo() == Tipo.MASCOTAS_PERDIDAS));
+    }
+
+    /**
+     * Mascota modificada o borrada: la página que la contiene, el listado de perdidas si estaba o queda perdida,
+     * y las publicaciones que la embeben.
+     */
+    public void invalidarMascota(long id, boolean perdida, Collection<Long> publicaciones) {
+        invalidar(alcance -> alcance.incluyeMascota(id)
+                || (perdida && alcance.tipo() == Tipo.MASCOTAS_PERDIDAS)
+                || incluyePublicacion(alcance, publicaciones));
+    }
+
+    /**
+     * Publicaciones creadas, modificadas o borradas: el listado (trae todas) y cada una por id.
+     */
+    public void invalidarPublicaciones(Collection<Long> ids) {
+        invalidar(alcance -> alcance.tipo() == Tipo.PUBLICACIONES || incluyePublicacion(alcance, ids));
+    }
+
+    private static boolean incluyePublicacion(Alcance alcance, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return false;
+        }
+        if (alcance.tipo() == Tipo.PUBLICACIONES) {
+            return true;
+        }
+        return alcance.tipo() == Tipo.PUBLICACION && ids.contains(alcance.desde());
+    }
+
+    // Recorre las claves: las escrituras son pocas comparadas con las lecturas y la caché tiene miles de entradas
+    private void invalidar(Predicate<Alcance> afectada) {
+        generacion.incrementAndGet();
+        respuestas.asMap().values().removeIf(respuesta -> afectada.test(respuesta.alcance()));
+    }
+}
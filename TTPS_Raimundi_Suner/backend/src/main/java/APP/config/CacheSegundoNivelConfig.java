@@ -0,0 +1,81 @@
+package APP.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate para las entidades de referencia (Rol, Badge), que casi no cambian pero se
+ * leen con cada usuario, y para las consultas por nombre que las buscan. Las regiones se crean acá con tamaño
+ * máximo: una región que no esté declarada hace fallar el arranque en lugar de crecer sin límite.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    public static final String REGION_ROL = "rol";
+    public static final String REGION_BADGE = "badge";
+    public static final String REGION_CONSULTAS_REFERENCIA = "consultas-referencia";
+
+    // Regiones propias de Hibernate cuando la caché de consultas está habilitada
+    private static final String REGION_CONSULTAS_DEFAULT = "default-query-results-region";
+    private static final String REGION_TIMESTAMPS = "default-update-timestamps-region";
+
+    private final CacheManager cacheManager;
+    private final boolean habilitada;
+
+    public CacheSegundoNivelConfig(@Value("${app.cache.segundoNivel:true}") boolean habilitada,
+                                   @Value("${app.cache.maxEntidades:1000}") long maxEntidades,
+                                   @Value("${app.cache.consultasMinutos:60}") long consultasMinutos) {
+        this.habilitada = habilitada;
+        // Un CacheManager por contexto: los tests levantan varios en la misma JVM
+        this.cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + System.identityHashCode(this)), getClass().getClassLoader());
+        crearRegion(REGION_ROL, maxEntidades, 0);
+        crearRegion(REGION_BADGE, maxEntidades, 0);
+        crearRegion(REGION_CONSULTAS_REFERENCIA, maxEntidades, consultasMinutos);
+        crearRegion(REGION_CONSULTAS_DEFAULT, maxEntidades, consultasMinutos);
+        // Sin límite ni vencimiento: perder un timestamp podría devolver resultados de consultas ya invalidados
+        crearRegion(REGION_TIMESTAMPS, 0, 0);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelCustomizer() {
+        return propiedades -> {
+            propiedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, habilitada);
+            propiedades.put(AvailableSettings.USE_QUERY_CACHE, habilitada);
+            if (habilitada) {
+                propiedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+                propiedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        cacheManager.close();
+    }
+
+    private void crearRegion(String nombre, long maximo, long minutos) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        if (maximo > 0) {
+            configuracion.setMaximumSize(OptionalLong.of(maximo));
+        }
+        if (minutos > 0) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(minutos)));
+        }
+        cacheManager.createCache(nombre, configuracion);
+    }
+}
@@ -0,0 +1,168 @@
+package APP.config;
+
+import APP.models.clases.VarianteImagen;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Cabeceras de caché para /uploads/** y camino rápido con sendfile para imágenes grandes.
+ * <ul>
+ *   <li>Los archivos direccionados por contenido ({sha256}.ext y sus variantes) nunca cambian:
+ *       se sirven con Cache-Control immutable por un año y el hash como ETag.</li>
+ *   <li>Los archivos con nombre viejo (UUID) se revalidan con ETag/Last-Modified.</li>
+ *   <li>Las variantes se generan en segundo plano después de la subida: mientras no existan, su URL
+ *       redirige (sin caché) al original, que sí está desde el primer momento.</li>
+ *   <li>Si el contenedor soporta sendfile (Tomcat NIO), los GET completos de archivos grandes se delegan
+ *       al conector, que copia del archivo al socket sin pasar por el heap ni ocupar el hilo del request.
+ *       Los HEAD, los Range y los archivos chicos siguen por el ResourceHttpRequestHandler de Spring.</li>
+ * </ul>
+ */
+public class ImagenesCacheInterceptor implements HandlerInterceptor {
+
+    private static final Pattern DIRECCIONADO_POR_CONTENIDO = Pattern.compile("[0-9a-f]{64}(_[a-z]+)?\\.(jpg|png)");
+    private static final Pattern VARIANTE = Pattern.compile("(.+)_(" + Arrays.stream(VarianteImagen.values())
+            .map(VarianteImagen::getSufijo).collect(Collectors.joining("|")) + ")\\.jpg");
+    private static final String[] EXTENSIONES_ORIGINAL = {"jpg", "png"};
+
+    private static final String CACHE_INMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+    private static final String CACHE_REVALIDAR = CacheControl.noCache().cachePublic().getHeaderValue();
+    // La redirección al original dura hasta que se genera la variante: no se guarda
+    private static final String CACHE_NO_GUARDAR = CacheControl.noStore().getHeaderValue();
+
+    // Atributos de request con los que Tomcat implementa sendfile
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    private static final long TAMANIO_MINIMO_SENDFILE = 48 * 1024;
+
+    private final Path uploadsRoot;
+
+    public ImagenesCacheInterceptor(Path uploadsRoot) {
+        this.uploadsRoot = uploadsRoot;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        Path archivo = resolver(request);
+        if (archivo == null) {
+            return true;
+        }
+
+        BasicFileAttributes atributos;
+        try {
+            atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+        } catch (IOException e) {
+            // Variante todavía no generada: se redirige al original mientras tanto
+            Path original = originalDeVariante(archivo);
+            if (original != null) {
+                String uri = request.getRequestURI();
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_NO_GUARDAR);
+                response.sendRedirect(uri.substring(0, uri.lastIndexOf('/') + 1) + original.getFileName());
+                return false;
+            }
+            // No existe: el 404 no debe quedar cacheado
+            return true;
+        }
+        if (!atributos.isRegularFile()) {
+            return true;
+        }
+
+        String nombre = archivo.getFileName().toString();
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                esDireccionadoPorContenido(nombre) ? CACHE_INMUTABLE : CACHE_REVALIDAR);
+
+        if (!"GET".equals(request.getMethod())
+                || request.getHeader(HttpHeaders.RANGE) != null
+                || atributos.size() < TAMANIO_MINIMO_SENDFILE
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            return true;
+        }
+
+        long ultimaModificacion = atributos.lastModifiedTime().toMillis();
+        if (new ServletWebRequest(request, response).checkNotModified(etag(nombre, atributos.size(), ultimaModificacion), ultimaModificacion)) {
+            return false;
+        }
+
+        MediaType tipo = MediaTypeFactory.getMediaType(nombre).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(tipo.toString());
+        response.setContentLengthLong(atributos.size());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        request.setAttribute(SENDFILE_ARCHIVO, archivo.toString());
+        request.setAttribute(SENDFILE_INICIO, 0L);
+        request.setAttribute(SENDFILE_FIN, atributos.size());
+        return false;
+    }
+
+    /**
+     * ETag fuerte de un recurso de /uploads; lo usa también el ResourceHttpRequestHandler.
+     */
+    static String etag(Resource recurso) {
+        try {
+            return etag(recurso.getFilename(), recurso.contentLength(), recurso.lastModified());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String etag(String nombre, long tamanio, long ultimaModificacion) {
+        if (nombre != null && esDireccionadoPorContenido(nombre)) {
+            // El nombre ya es el hash del contenido
+            return "\"" + nombre.substring(0, nombre.lastIndexOf('.')) + "\"";
+        }
+        return "\"" + Long.toHexString(tamanio) + "-" + Long.toHexString(ultimaModificacion) + "\"";
+    }
+
+    /**
+     * Original de {@code variante} ({base}_{sufijo}.jpg -> {base}.jpg o {base}.png), si es una variante y el original existe.
+     */
+    private static Path originalDeVariante(Path variante) {
+        Matcher matcher = VARIANTE.matcher(variante.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        for (String extension : EXTENSIONES_ORIGINAL) {
+            Path original = variante.resolveSibling(matcher.group(1) + "." + extension);
+            if (Files.isRegularFile(original)) {
+                return original;
+            }
+        }
+        return null;
+    }
+
+    private static boolean esDireccionadoPorContenido(String nombre) {
+        return DIRECCIONADO_POR_CONTENIDO.matcher(nombre).matches();
+    }
+
+    private Path resolver(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contexto = request.getContextPath();
+        if (contexto != null && !contexto.isEmpty() && uri.startsWith(contexto)) {
+            uri = uri.substring(contexto.length());
+        }
+        if (!uri.startsWith("/uploads/") || uri.contains("%") || uri.contains("..")) {
+            return null;
+        }
+        Path archivo = uploadsRoot.resolve(uri.substring("/uploads/".length())).normalize();
+        return archivo.startsWith(uploadsRoot) ? archivo : null;
+    }
+}
@@ -1,15 +1,99 @@
 package APP.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+/**
+ * Encoder de contraseñas. El costo de BCrypt se calibra al arrancar midiendo el hash en esta máquina:
+ * se elige el mayor costo cuyo máximo en {@value #MUESTRAS_POR_COSTO} muestras entra en {@code presupuestoMs}, así
+ * el login tarda lo mismo aunque cambie el tipo de instancia. Con {@code app.password.costo > 0} se usa ese valor
+ * sin medir (conviene fijarlo si hay varias instancias, para que todas hasheen con el mismo costo).
+ */
 @Configuration
 public class PasswordConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(PasswordConfig.class);
+
+    private static final int MUESTRAS_POR_COSTO = 5;
+    private static final String PASSWORD_CALIBRACION = "calibracion-bcrypt";
+
+    private final int costo;
+
+    public PasswordConfig(@Value("${app.password.costo:0}") int costoFijo,
+                          @Value("${app.password.presupuestoMs:100}") long presupuestoMs,
+                          @Value("${app.password.costoMinimo:10}") int costoMinimo,
+                          @Value("${app.password.costoMaximo:16}") int costoMaximo) {
+        this.costo = costoFijo > 0 ? costoFijo : calibrar(presupuestoMs, costoMinimo, costoMaximo);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(costo);
+    }
+
+    /**
+     * Costo con el que se generan los hashes nuevos; los guardados con un costo menor se rehashean en el login.
+     */
+    public int getCosto() {
+        return costo;
+    }
+
+    /**
+     * Costo de un hash BCrypt ("$2a$10$..."), o -1 si no tiene ese formato.
+     */
+    public static int costoDe(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int calibrar(long presupuestoMs, int costoMinimo, int costoMaximo) {
+        // Calentamiento: las primeras corridas incluyen JIT y no representan el tiempo real
+        medirMaximo(costoMinimo, 2);
+
+        int elegido = costoMinimo;
+        long maximoElegido = -1;
+        for (int candidato = costoMinimo; candidato <= costoMaximo; candidato++) {
+            long maximo = medirMaximo(candidato, MUESTRAS_POR_COSTO);
+            if (maximo > presupuestoMs) {
+                if (candidato == costoMinimo) {
+                    log.warn("BCrypt con costo {} tarda {} ms, más que el presupuesto de {} ms; se usa igual",
+                            costoMinimo, maximo, presupuestoMs);
+                    maximoElegido = maximo;
+                }
+                break;
+            }
+            elegido = candidato;
+            maximoElegido = maximo;
+            // Cada punto de costo duplica el tiempo: si el siguiente no entra, no hace falta medirlo
+            if (maximo * 2 > presupuestoMs) {
+                break;
+            }
+        }
+        log.info("Costo BCrypt calibrado: {} (máximo de {} muestras {} ms, presupuesto {} ms)",
+                elegido, MUESTRAS_POR_COSTO, maximoElegido, presupuestoMs);
+        return elegido;
+    }
+
+    // Con tan pocas muestras no hay percentil que valga: se toma el máximo, que es la cota más conservadora
+    private static long medirMaximo(int costo, int muestras) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(costo);
+        long maximo = 0;
+        for (int i = 0; i < muestras; i++) {
+            long inicio = System.nanoTime();
+            encoder.encode(PASSWORD_CALIBRACION);
+            maximo = Math.max(maximo, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return maximo;
     }
 }
@@ -3,6 +3,7 @@ package APP.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -28,6 +29,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:4200", "http://localhost:8080")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Next-Cursor", "X-Total-Count")
                 .allowCredentials(true);
 
         registry.addMapping("/uploads/**")
@@ -45,8 +47,18 @@ public class WebConfig implements WebMvcConfigurer {
             location = location + "/";
         }
 
+        // Cache-Control lo pone ImagenesCacheInterceptor según el archivo; acá solo validación condicional
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(location);
+                .addResourceLocations(location)
+                .setUseLastModified(true)
+                .setEtagGenerator(ImagenesCacheInterceptor::etag);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        registry.addInterceptor(new ImagenesCacheInterceptor(uploadPath))
+                .addPathPatterns("/uploads/**");
     }
 
     /**
@@ -29,6 +29,11 @@ import java.util.Map;
 @RequestMapping("/api/avistamientos")
 public class AvistamientoController {
 
+    private static final double RADIO_MAXIMO_KM = 200;
+    private static final int LIMITE_CERCANOS_DEFAULT = 50;
+    private static final int LIMITE_CERCANOS_MAXIMO = 200;
+    private static final String VISTA_RESUMEN = "resumen";
+
     @Autowired
     private AvistamientoService avistamientoService;
 
@@ -159,8 +164,13 @@ public class AvistamientoController {
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping
-    public ResponseEntity<?> listarAvistamientos() {
+    public ResponseEntity<?> listarAvistamientos(
+            @Parameter(description = "'resumen' para obtener sólo los campos que muestra el listado")
+            @RequestParam(required = false) String vista) {
         try {
+            if (VISTA_RESUMEN.equals(vista)) {
+                return ResponseEntity.ok(avistamientoService.obtenerResumenTodos());
+            }
             List<Avistamiento> avistamientos = avistamientoService.obtenerTodos();
             return ResponseEntity.ok(avistamientos);
         } catch (Exception e) {
@@ -170,6 +180,46 @@ public class AvistamientoController {
         }
     }
 
+    @Operation(summary = "Buscar avistamientos cercanos a un punto",
+               description = "Devuelve avistamientos a menos de radioKm kilómetros de (lat, lng), ordenados por distancia")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Coordenadas, radio o límite inválidos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/cercanos")
+    public ResponseEntity<?> listarAvistamientosCercanos(
+            @Parameter(description = "Latitud del centro") @RequestParam Double lat,
+            @Parameter(description = "Longitud del centro") @RequestParam Double lng,
+            @Parameter(description = "Radio de búsqueda en km (máximo " + RADIO_MAXIMO_KM + ")") @RequestParam Double radioKm,
+            @Parameter(description = "Cantidad máxima de resultados, los más cercanos (máximo " + LIMITE_CERCANOS_MAXIMO + ")")
+            @RequestParam(required = false) Integer limite) {
+        try {
+            if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Coordenadas inválidas");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (radioKm <= 0 || radioKm > RADIO_MAXIMO_KM) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "radioKm debe estar entre 0 y " + RADIO_MAXIMO_KM);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (limite != null && (limite <= 0 || limite > LIMITE_CERCANOS_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "limite debe estar entre 1 y " + LIMITE_CERCANOS_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            List<Avistamiento> avistamientos = avistamientoService.obtenerCercanos(lat, lng, radioKm,
+                    limite != null ? limite : LIMITE_CERCANOS_DEFAULT);
+            return ResponseEntity.ok(avistamientos);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al buscar avistamientos cercanos: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @Operation(summary = "Obtener un avistamiento por ID",
                description = "Recupera los detalles completos de un avistamiento específico")
     @ApiResponses(value = {
@@ -192,7 +242,7 @@ public class AvistamientoController {
                 error.put("error", "Avistamiento no encontrado");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
-            return ResponseEntity.ok(avistamiento);
+            return ResponseEntity.ok().eTag(ETags.de(avistamiento)).body(avistamiento);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener avistamiento: " + e.getMessage());
@@ -224,6 +274,56 @@ public class AvistamientoController {
         }
     }
 
+    @Operation(summary = "Publicaciones de mascotas perdidas que coinciden con un avistamiento",
+               description = "Devuelve las publicaciones activas de mascotas perdidas cercanas al avistamiento, de la " +
+                       "más a la menos probable según distancia, fecha y atributos de la mascota. Se calculan en " +
+                       "segundo plano al registrar el avistamiento, por lo que pueden tardar unos segundos en aparecer.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Coincidencias obtenidas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "ID inválido"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/{id}/coincidencias")
+    public ResponseEntity<?> listarCoincidenciasDeAvistamiento(
+            @Parameter(description = "ID del avistamiento") @PathVariable Long id) {
+        try {
+            if (id == null || id <= 0) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "ID de avistamiento inválido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            return ResponseEntity.ok(avistamientoService.obtenerCoincidencias(id));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al obtener coincidencias del avistamiento: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @Operation(summary = "Avistamientos que coinciden con una publicación de mascota perdida",
+               description = "Devuelve al dueño los avistamientos candidatos para su publicación, del más al menos probable")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Coincidencias obtenidas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "ID inválido"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/publicacion/{publicacionId}/coincidencias")
+    public ResponseEntity<?> listarCoincidenciasDePublicacion(
+            @Parameter(description = "ID de la publicación") @PathVariable Long publicacionId) {
+        try {
+            if (publicacionId == null || publicacionId <= 0) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "ID de publicación inválido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            return ResponseEntity.ok(avistamientoService.obtenerCoincidenciasDePublicacion(publicacionId));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al obtener coincidencias de la publicación: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Listar avistamientos de un usuario
      * GET /api/avistamientos/usuario/{usuarioId}
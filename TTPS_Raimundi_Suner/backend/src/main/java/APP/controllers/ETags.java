@@ -0,0 +1,79 @@
+package APP.controllers;
+
+import APP.models.clases.Avistamiento;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.clases.Usuario;
+
+/**
+ * ETags de las entidades a partir de sus columnas @Version. El JSON de una entidad incluye las que tiene
+ * embebidas (la mascota trae su dueño, la publicación su mascota y su usuario), así que el ETag de un GET junta
+ * las versiones de todas: si cambia cualquiera, cambia la representación. La primera es siempre la versión
+ * propia de la entidad, y es la única que mira If-Match: que al dueño le sumen puntos no invalida la edición
+ * de su mascota.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String de(Usuario usuario) {
+        return "\"" + version(usuario) + "\"";
+    }
+
+    static String de(Mascota mascota) {
+        return "\"" + version(mascota) + "." + version(mascota.getUsuario()) + "\"";
+    }
+
+    static String de(Publicacion publicacion) {
+        Mascota mascota = publicacion.getMascota();
+        return "\"" + publicacion.getVersion() + "." + version(mascota) + "." + version(duenio(mascota))
+                + "." + version(publicacion.getUsuario()) + "\"";
+    }
+
+    static String de(Avistamiento avistamiento) {
+        Mascota mascota = avistamiento.getMascota();
+        return "\"" + avistamiento.getVersion() + "." + version(mascota) + "." + version(duenio(mascota))
+                + "." + version(avistamiento.getUsuario()) + "\"";
+    }
+
+    /**
+     * Si el If-Match del request acepta la versión actual de la entidad. Sin header no hay precondición;
+     * "*" acepta cualquiera. De cada ETag se compara sólo la versión propia (el primer segmento): las de las
+     * entidades embebidas cambian la representación pero no lo que edita el PUT.
+     * If-Match usa comparación fuerte: un ETag débil (W/) nunca coincide.
+     */
+    static boolean cumpleIfMatch(String ifMatch, Long versionActual) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return true;
+        }
+        String version = String.valueOf(versionActual);
+        for (String etag : ifMatch.split(",")) {
+            String candidato = etag.trim();
+            if (candidato.equals("*")) {
+                return true;
+            }
+            if (candidato.length() < 2 || !candidato.startsWith("\"") || !candidato.endsWith("\"")) {
+                continue;
+            }
+            String valor = candidato.substring(1, candidato.length() - 1);
+            int punto = valor.indexOf('.');
+            if ((punto < 0 ? valor : valor.substring(0, punto)).equals(version)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Usuario duenio(Mascota mascota) {
+        return mascota != null ? mascota.getUsuario() : null;
+    }
+
+    private static String version(Usuario usuario) {
+        return usuario != null ? String.valueOf(usuario.getVersion()) : "-";
+    }
+
+    private static String version(Mascota mascota) {
+        return mascota != null ? String.valueOf(mascota.getVersion()) : "-";
+    }
+}
@@ -1,29 +1,48 @@
 package APP.controllers;
 
+import APP.dto.MascotaCoincidenteDTO;
 import APP.dto.MascotaDTO;
+import APP.dto.MascotaResumenDTO;
+import APP.dto.MascotaSimilarDTO;
+import APP.dto.ResultadoFiltroMascotasDTO;
 import APP.models.clases.Mascota;
 import APP.models.clases.EstadoMascota;
 import APP.models.clases.Usuario;
+import APP.services.BusquedaService;
+import APP.services.EmparejamientoMascotasService;
 import APP.services.FileStorageService;
+import APP.services.FiltroMascotasService;
+import APP.services.FiltroMascotasService.Faceta;
 import APP.services.MascotaService;
+import APP.services.SimilitudImagenesService;
 import APP.services.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Tag(name = "Mascotas", description = "API para gestión de mascotas perdidas y encontradas")
@@ -32,6 +51,22 @@ import java.util.Map;
 @RequestMapping("/api/mascotas")
 public class MascotaController {
 
+    private static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+    private static final String HEADER_TOTAL_COUNT = "X-Total-Count";
+    private static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    private static final int TAMANIO_PAGINA_DEFAULT = 50;
+    private static final int TAMANIO_PAGINA_MAXIMO = 200;
+    private static final int TAMANIO_LOTE_STREAMING = 500;
+    private static final String VISTA_RESUMEN = "resumen";
+    private static final int LIMITE_BUSQUEDA_DEFAULT = 20;
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 100;
+    private static final int DISTANCIA_SIMILARES_DEFAULT = 10;
+    private static final int DISTANCIA_SIMILARES_MAXIMA = 20;
+    private static final int LIMITE_SIMILARES_DEFAULT = 10;
+    private static final int LIMITE_SIMILARES_MAXIMO = 50;
+    private static final int LIMITE_COINCIDENCIAS_DEFAULT = 10;
+    private static final int LIMITE_COINCIDENCIAS_MAXIMO = 50;
+
     @Autowired
     private MascotaService mascotaService;
 
@@ -41,6 +76,18 @@ public class MascotaController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Autowired
+    private FiltroMascotasService filtroMascotasService;
+
+    @Autowired
+    private SimilitudImagenesService similitudImagenesService;
+
+    @Autowired
+    private EmparejamientoMascotasService emparejamientoService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -57,6 +104,13 @@ public class MascotaController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
 
+        if (dto.getImagenUrl() != null && !dto.getImagenUrl().isBlank()
+                && !fileStorageService.aceptarImagenUrl(dto.getImagenUrl().trim())) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "imagenUrl inválida: debe ser una imagen subida (no una variante) o una URL externa");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+
         if (dto.getUsuarioId() != null && dto.getUsuarioId() <= 0) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "usuarioId debe ser un número positivo");
@@ -152,6 +206,37 @@ public class MascotaController {
         }
     }
 
+    /**
+     * Igual que marcarPropiedadLista pero para resúmenes que vienen de un índice en memoria:
+     * esas instancias se comparten entre requests, así que se marca sobre copias.
+     */
+    private List<MascotaResumenDTO> copiasConPropiedad(List<MascotaResumenDTO> mascotas, HttpServletRequest request) {
+        Long authenticatedUserId = (Long) request.getAttribute("authenticatedUserId");
+        List<MascotaResumenDTO> copias = new ArrayList<>(mascotas.size());
+        for (MascotaResumenDTO mascota : mascotas) {
+            MascotaResumenDTO copia = mascota.copia();
+            copia.setEsMia(authenticatedUserId != null && authenticatedUserId.equals(copia.getUsuarioId()));
+            copias.add(copia);
+        }
+        return copias;
+    }
+
+    private static ResponseEntity<?> precondicionFallida() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "La mascota cambió desde que se leyó (If-Match no coincide con el ETag actual)");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    // Otra escritura se confirmó entre la lectura y el UPDATE: con If-Match es una precondición que dejó de cumplirse
+    private static ResponseEntity<?> conflictoDeVersion(String ifMatch) {
+        if (ifMatch != null) {
+            return precondicionFallida();
+        }
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "La mascota fue modificada por otro pedido; volvé a leerla antes de guardar");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @Operation(summary = "Crear una nueva mascota",
                description = "Registra una nueva mascota en el sistema. Usa usuarioId para asociarla a un usuario.")
     @ApiResponses(value = {
@@ -235,15 +320,19 @@ public class MascotaController {
     }
 
     @Operation(summary = "Actualizar una mascota existente",
-               description = "Actualiza los datos de una mascota específica por su ID. Usa usuarioId para cambiar el propietario.")
+               description = "Actualiza los datos de una mascota específica por su ID. Usa usuarioId para cambiar el propietario. " +
+                       "Con If-Match (el ETag de la última lectura) sólo se guarda si nadie la modificó mientras tanto.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Mascota actualizada exitosamente"),
         @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
+        @ApiResponse(responseCode = "409", description = "Otra escritura modificó la mascota al mismo tiempo"),
+        @ApiResponse(responseCode = "412", description = "If-Match no coincide con el ETag actual"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> editarMascota(
             @Parameter(description = "ID de la mascota a actualizar") @PathVariable Long id,
+            @Parameter(description = "ETag de la mascota leída") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody MascotaDTO dto) {
         try {
             if (id == null || id <= 0) {
@@ -264,6 +353,9 @@ public class MascotaController {
                 error.put("error", "Mascota no encontrada con ID: " + id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
+            if (!ETags.cumpleIfMatch(ifMatch, mascota.getVersion())) {
+                return precondicionFallida();
+            }
 
             if (dto.getNombre() == null || dto.getNombre().trim().isEmpty()) {
                 Map<String, String> error = new HashMap<>();
@@ -307,7 +399,9 @@ public class MascotaController {
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Mascota actualizada exitosamente");
             response.put("mascota", mascotaActualizada);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(ETags.de(mascotaActualizada)).body(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictoDeVersion(ifMatch);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -320,10 +414,11 @@ public class MascotaController {
     }
 
     @Operation(summary = "Actualizar una mascota con imagen",
-            description = "Actualiza los datos de una mascota y permite reemplazar la imagen (jpg/jpeg/png).")
+            description = "Actualiza los datos de una mascota y permite reemplazar la imagen (jpg/jpeg/png). Acepta If-Match como el PUT JSON.")
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> editarMascotaConImagen(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestParam("mascota") String mascotaJson,
             @RequestParam(value = "imagen", required = false) MultipartFile imagen) {
         try {
@@ -351,6 +446,9 @@ public class MascotaController {
                 error.put("error", "Mascota no encontrada con ID: " + id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
+            if (!ETags.cumpleIfMatch(ifMatch, mascota.getVersion())) {
+                return precondicionFallida();
+            }
 
             aplicarDtoEnMascotaExistente(mascota, dto);
 
@@ -363,7 +461,9 @@ public class MascotaController {
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Mascota actualizada exitosamente");
             response.put("mascota", mascotaActualizada);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(ETags.de(mascotaActualizada)).body(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictoDeVersion(ifMatch);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -406,7 +506,8 @@ public class MascotaController {
     @Operation(summary = "Obtener una mascota por ID",
                description = "Recupera los detalles completos de una mascota específica")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Mascota encontrada"),
+        @ApiResponse(responseCode = "200", description = "Mascota encontrada (con ETag)"),
+        @ApiResponse(responseCode = "304", description = "Sin cambios respecto del ETag enviado en If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
@@ -427,7 +528,8 @@ public class MascotaController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
             marcarPropiedad(mascota, request);
-            return ResponseEntity.ok(mascota);
+            // Si coincide con If-None-Match, Spring responde 304 sin serializar la mascota
+            return ResponseEntity.ok().eTag(ETags.de(mascota)).body(mascota);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener mascota: " + e.getMessage());
@@ -461,15 +563,239 @@ public class MascotaController {
         }
     }
 
+    @Operation(summary = "Buscar mascotas por texto",
+               description = "Busca en nombre, tipo, raza, color y descripción (sin distinguir acentos, mayúsculas ni " +
+                       "singular/plural). Los resultados vienen ordenados por relevancia.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados obtenidos exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Consulta o límite inválidos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/buscar")
+    public ResponseEntity<?> buscarMascotas(
+            @Parameter(description = "Texto a buscar, p. ej. 'golden collar rojo'") @RequestParam String q,
+            @Parameter(description = "Cantidad máxima de resultados (máximo " + LIMITE_BUSQUEDA_MAXIMO + ")")
+            @RequestParam(required = false) Integer limite,
+            HttpServletRequest request) {
+        try {
+            if (q == null || q.isBlank()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "El parámetro q es requerido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (limite != null && (limite <= 0 || limite > LIMITE_BUSQUEDA_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "limite debe estar entre 1 y " + LIMITE_BUSQUEDA_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            List<Mascota> mascotas = busquedaService.buscarMascotas(q, limite != null ? limite : LIMITE_BUSQUEDA_DEFAULT);
+            marcarPropiedadLista(mascotas, request);
+            return ResponseEntity.ok(mascotas);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al buscar mascotas: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @Operation(summary = "Buscar mascotas perdidas con fotos parecidas",
+               description = "Compara la foto de la mascota (p. ej. una encontrada) con las fotos de las mascotas " +
+                       "perdidas usando un hash perceptual, así detecta la misma foto aunque esté recortada, " +
+                       "redimensionada o recomprimida. Los resultados vienen de la más parecida a la menos parecida " +
+                       "junto con la distancia (0 = idénticas).")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados obtenidos exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos"),
+        @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/{id}/similares")
+    public ResponseEntity<?> buscarMascotasSimilares(
+            @PathVariable Long id,
+            @Parameter(description = "Distancia máxima entre fotos, de 0 a " + DISTANCIA_SIMILARES_MAXIMA +
+                    " (por defecto " + DISTANCIA_SIMILARES_DEFAULT + ")")
+            @RequestParam(required = false) Integer distancia,
+            @Parameter(description = "Cantidad máxima de resultados (máximo " + LIMITE_SIMILARES_MAXIMO + ")")
+            @RequestParam(required = false) Integer limite,
+            HttpServletRequest request) {
+        try {
+            if (id == null || id <= 0) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "ID de mascota inválido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (distancia != null && (distancia < 0 || distancia > DISTANCIA_SIMILARES_MAXIMA)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "distancia debe estar entre 0 y " + DISTANCIA_SIMILARES_MAXIMA);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (limite != null && (limite <= 0 || limite > LIMITE_SIMILARES_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "limite debe estar entre 1 y " + LIMITE_SIMILARES_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (filtroMascotasService.obtenerResumen(id) == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Mascota no encontrada con ID: " + id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+            List<MascotaSimilarDTO> similares = similitudImagenesService.buscarSimilares(id,
+                    distancia != null ? distancia : DISTANCIA_SIMILARES_DEFAULT,
+                    limite != null ? limite : LIMITE_SIMILARES_DEFAULT);
+            Long authenticatedUserId = (Long) request.getAttribute("authenticatedUserId");
+            for (MascotaSimilarDTO similar : similares) {
+                MascotaResumenDTO mascota = similar.getMascota();
+                mascota.setEsMia(authenticatedUserId != null && authenticatedUserId.equals(mascota.getUsuarioId()));
+            }
+            return ResponseEntity.ok(similares);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al buscar mascotas similares: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @Operation(summary = "Buscar mascotas perdidas que coinciden con una mascota encontrada",
+               description = "Compara tipo, raza, color, tamaño, año de nacimiento y zona de la última publicación " +
+                       "de la mascota con los de las mascotas perdidas, y devuelve las más probables con un puntaje " +
+                       "de 0 a 1. Nunca sugiere mascotas de otro tipo. Se resuelve en memoria.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados obtenidos exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos"),
+        @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/{id}/coincidencias")
+    public ResponseEntity<?> buscarMascotasCoincidentes(
+            @PathVariable Long id,
+            @Parameter(description = "Cantidad máxima de resultados (máximo " + LIMITE_COINCIDENCIAS_MAXIMO + ")")
+            @RequestParam(required = false) Integer limite,
+            HttpServletRequest request) {
+        try {
+            if (id == null || id <= 0) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "ID de mascota inválido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (limite != null && (limite <= 0 || limite > LIMITE_COINCIDENCIAS_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "limite debe estar entre 1 y " + LIMITE_COINCIDENCIAS_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            Mascota mascota = mascotaService.obtenerPorId(id);
+            if (mascota == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Mascota no encontrada con ID: " + id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+            List<MascotaCoincidenteDTO> coincidencias = emparejamientoService.buscarCoincidencias(mascota,
+                    limite != null ? limite : LIMITE_COINCIDENCIAS_DEFAULT);
+            Long authenticatedUserId = (Long) request.getAttribute("authenticatedUserId");
+            for (MascotaCoincidenteDTO coincidencia : coincidencias) {
+                MascotaResumenDTO candidata = coincidencia.getMascota();
+                candidata.setEsMia(authenticatedUserId != null && authenticatedUserId.equals(candidata.getUsuarioId()));
+            }
+            return ResponseEntity.ok(coincidencias);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al buscar mascotas coincidentes: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @Operation(summary = "Filtrar mascotas con facetas",
+               description = "Filtra por cualquier combinación de tipo, tamanio, color, raza y estado (cada parámetro " +
+                       "puede repetirse: dentro de un mismo atributo los valores se combinan con OR). Devuelve una " +
+                       "página de mascotas, de la más nueva a la más vieja, y la cantidad de mascotas por valor de " +
+                       "cada atributo. Se resuelve en memoria, sin consultar la base.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultado obtenido exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros de paginación o estado inválidos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/filtro")
+    public ResponseEntity<?> filtrarMascotas(
+            @RequestParam(required = false) List<String> tipo,
+            @RequestParam(required = false) List<String> tamanio,
+            @RequestParam(required = false) List<String> color,
+            @RequestParam(required = false) List<String> raza,
+            @Parameter(description = "Valores de EstadoMascota, p. ej. PERDIDA_PROPIA")
+            @RequestParam(required = false) List<String> estado,
+            @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Cantidad de mascotas por página (máximo " + TAMANIO_PAGINA_MAXIMO + "; " +
+                    TAMANIO_PAGINA_DEFAULT + " si sólo se envía cursor)")
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request) {
+        try {
+            if (page < 0 || (size != null && (size <= 0 || size > TAMANIO_PAGINA_MAXIMO))) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "page debe ser >= 0 y size debe estar entre 1 y " + TAMANIO_PAGINA_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (estado != null) {
+                for (String estadoStr : estado) {
+                    try {
+                        EstadoMascota.valueOf(estadoStr.trim().toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException ex) {
+                        Map<String, String> error = new HashMap<>();
+                        error.put("error", "Estado inválido: " + estadoStr);
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+                    }
+                }
+            }
+
+            Map<Faceta, List<String>> filtros = new EnumMap<>(Faceta.class);
+            filtros.put(Faceta.TIPO, tipo);
+            filtros.put(Faceta.TAMANIO, tamanio);
+            filtros.put(Faceta.COLOR, color);
+            filtros.put(Faceta.RAZA, raza);
+            filtros.put(Faceta.ESTADO, estado);
+
+            ResultadoFiltroMascotasDTO resultado = filtroMascotasService.filtrar(
+                    filtros, page, size != null ? size : TAMANIO_PAGINA_DEFAULT);
+            return ResponseEntity.ok(new ResultadoFiltroMascotasDTO(resultado.getTotal(), resultado.getPagina(),
+                    resultado.getTamanio(), copiasConPropiedad(resultado.getMascotas(), request), resultado.getFacetas()));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al filtrar mascotas: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @Operation(summary = "Listar todas las mascotas perdidas",
-               description = "Obtiene todas las mascotas que están marcadas con estado PERDIDO")
+               description = "Obtiene todas las mascotas que están marcadas con estado PERDIDO. Con vista=resumen se " +
+                       "responde desde memoria (sin consultar la base), de la más nueva a la más vieja, y admite " +
+                       "page/size; el total se informa en el header X-Total-Count.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de mascotas perdidas obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping("/perdidas")
-    public ResponseEntity<?> listarMascotasPerdidas(HttpServletRequest request) {
+    public ResponseEntity<?> listarMascotasPerdidas(
+            @Parameter(description = "'resumen' para obtener sólo los campos que muestra el listado")
+            @RequestParam(required = false) String vista,
+            @Parameter(description = "Número de página (desde 0), sólo con vista=resumen")
+            @RequestParam(required = false) Integer page,
+            @Parameter(description = "Cantidad por página (máximo " + TAMANIO_PAGINA_MAXIMO + "), sólo con vista=resumen. " +
+                    "Sin page ni size se devuelven todas")
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request) {
         try {
+            if (VISTA_RESUMEN.equals(vista)) {
+                if ((page != null && page < 0) || (size != null && (size <= 0 || size > TAMANIO_PAGINA_MAXIMO))) {
+                    Map<String, String> error = new HashMap<>();
+                    error.put("error", "page debe ser >= 0 y size debe estar entre 1 y " + TAMANIO_PAGINA_MAXIMO);
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+                }
+                boolean paginado = page != null || size != null;
+                int pagina = page != null ? page : 0;
+                int tamanio = paginado ? (size != null ? size : TAMANIO_PAGINA_DEFAULT) : Integer.MAX_VALUE;
+                ResultadoFiltroMascotasDTO perdidas = mascotaService.obtenerResumenMascotasPerdidas(pagina, tamanio);
+                return ResponseEntity.ok()
+                        .header(HEADER_TOTAL_COUNT, String.valueOf(perdidas.getTotal()))
+                        .body(copiasConPropiedad(perdidas.getMascotas(), request));
+            }
             List<Mascota> mascotasPerdidas = mascotaService.obtenerMascotasPerdidas();
             marcarPropiedadLista(mascotasPerdidas, request);
             return ResponseEntity.ok(mascotasPerdidas);
@@ -480,18 +806,45 @@ public class MascotaController {
         }
     }
 
-    @Operation(summary = "Listar todas las mascotas",
-               description = "Obtiene el listado completo de todas las mascotas registradas en el sistema")
+    @Operation(summary = "Listar mascotas (paginado por cursor)",
+               description = "Obtiene una página de mascotas ordenadas por id. El id de la última mascota devuelta " +
+                       "se informa en el header X-Next-Cursor y se envía como 'cursor' para pedir la página siguiente. " +
+                       "Sin cursor ni size se devuelven todas.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Lista de mascotas obtenida exitosamente"),
+        @ApiResponse(responseCode = "200", description = "Página de mascotas obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping
-    public ResponseEntity<?> listarTodasLasMascotas(HttpServletRequest request) {
+    public ResponseEntity<?> listarTodasLasMascotas(
+            @Parameter(description = "Id de la última mascota recibida (exclusivo)") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Cantidad de mascotas por página (máximo " + TAMANIO_PAGINA_MAXIMO + "; " +
+                    TAMANIO_PAGINA_DEFAULT + " si sólo se envía cursor)")
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request) {
         try {
-            List<Mascota> mascotas = mascotaService.obtenerTodas();
+            if (cursor != null && cursor < 0) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "cursor debe ser un número no negativo");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (size != null && (size <= 0 || size > TAMANIO_PAGINA_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "size debe estar entre 1 y " + TAMANIO_PAGINA_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            // Sin cursor ni size se responde como antes, con todas: los listados del frontend no paginan
+            boolean paginado = cursor != null || size != null;
+            int tamanio = paginado ? (size != null ? size : TAMANIO_PAGINA_DEFAULT) : Integer.MAX_VALUE;
+            List<Mascota> mascotas = mascotaService.obtenerPagina(cursor, tamanio);
             marcarPropiedadLista(mascotas, request);
-            return ResponseEntity.ok(mascotas);
+
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (paginado && mascotas.size() == tamanio) {
+                respuesta.header(HEADER_NEXT_CURSOR, String.valueOf(mascotas.get(mascotas.size() - 1).getId()));
+            }
+            return respuesta.body(mascotas);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener mascotas: " + e.getMessage());
@@ -499,6 +852,33 @@ public class MascotaController {
         }
     }
 
+    @Operation(summary = "Exportar todas las mascotas en streaming (NDJSON)",
+               description = "Con 'Accept: application/x-ndjson' devuelve todas las mascotas, una por línea, " +
+                       "leyéndolas de la base en lotes por cursor. La memoria usada no depende del tamaño de la tabla.")
+    @GetMapping(produces = MEDIA_TYPE_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportarMascotasNdjson(HttpServletRequest request) {
+        Long authenticatedUserId = (Long) request.getAttribute("authenticatedUserId");
+        // Jackson cierra el stream al terminar cada writeValue salvo que se desactive AUTO_CLOSE_TARGET
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody cuerpo = salida -> mascotaService.recorrerTodas(TAMANIO_LOTE_STREAMING, lote -> {
+            try {
+                for (Mascota mascota : lote) {
+                    mascota.setEsMia(authenticatedUserId != null && authenticatedUserId.equals(mascota.getUsuarioId()));
+                    writer.writeValue(salida, mascota);
+                    salida.write('\n');
+                }
+                salida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(MEDIA_TYPE_NDJSON))
+                .body(cuerpo);
+    }
+
     /**
      * Cambiar estado de una mascota
      * PATCH /api/mascotas/{id}/estado
@@ -0,0 +1,89 @@
+package APP.controllers;
+
+import APP.metricas.MetricasRegistro;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+@Tag(name = "Métricas", description = "Métricas de la aplicación para Prometheus")
+@RestController
+public class MetricasController {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasController.class);
+
+    private static final MediaType TEXTO_PROMETHEUS = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    @Autowired
+    private MetricasRegistro metricasRegistro;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Vacío = endpoint deshabilitado (404): las métricas exponen rutas, latencias y estadísticas de la base.
+    // Definir METRICAS_TOKEN y configurarlo en el scraper
+    @Value("${app.metricas.token:}")
+    private String token;
+
+    private Statistics estadisticas;
+
+    // Se habilitan por código y no con hibernate.generate_statistics, que además loguea un resumen por sesión
+    @PostConstruct
+    public void habilitarEstadisticas() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+        if (token.isEmpty()) {
+            log.info("/metricas deshabilitado: definir app.metricas.token (METRICAS_TOKEN) para habilitarlo");
+        }
+    }
+
+    @Operation(summary = "Métricas en formato Prometheus",
+               description = "Latencias p50/p90/p99/p999 y consultas SQL por ruta y estado, pool de conexiones y estadísticas de Hibernate. " +
+                       "Requiere 'Authorization: Bearer <app.metricas.token>'; sin token configurado el endpoint no responde.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Métricas en texto plano (formato de exposición 0.0.4)"),
+        @ApiResponse(responseCode = "401", description = "Token de métricas ausente o inválido"),
+        @ApiResponse(responseCode = "404", description = "Métricas deshabilitadas (app.metricas.token sin definir)")
+    })
+    @GetMapping(value = "/metricas", produces = "text/plain")
+    public ResponseEntity<String> obtenerMetricas(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        // Falla cerrado: sin token configurado nadie puede leerlas
+        if (token.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!tokenValido(authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXTO_PROMETHEUS)
+                .body(metricasRegistro.exportar(estadisticas));
+    }
+
+    // Comparación en tiempo constante: no revela cuántos caracteres coinciden
+    private boolean tokenValido(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        return MessageDigest.isEqual(authorization.substring(7).getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+}
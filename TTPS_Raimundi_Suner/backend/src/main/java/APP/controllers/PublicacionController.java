@@ -6,6 +6,7 @@ import APP.models.clases.EstadoPublicacion;
 import APP.models.clases.EstadoMascota;
 import APP.models.clases.Mascota;
 import APP.models.clases.Usuario;
+import APP.services.BusquedaService;
 import APP.services.PublicacionService;
 import APP.services.MascotaService;
 import APP.services.UsuarioService;
@@ -15,8 +16,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -30,9 +33,19 @@ import java.util.Map;
 @RequestMapping("/api/publicaciones")
 public class PublicacionController {
 
+    private static final double RADIO_MAXIMO_KM = 200;
+    private static final int LIMITE_CERCANOS_DEFAULT = 50;
+    private static final int LIMITE_CERCANOS_MAXIMO = 200;
+    private static final int LIMITE_BUSQUEDA_DEFAULT = 20;
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 100;
+    private static final String VISTA_RESUMEN = "resumen";
+
     @Autowired
     private PublicacionService publicacionService;
 
+    @Autowired
+    private BusquedaService busquedaService;
+
     @Autowired
     private MascotaService mascotaService;
 
@@ -100,13 +113,8 @@ public class PublicacionController {
                 }
 
                 // Verificar si la mascota ya tiene una publicación activa
-                List<Publicacion> publicacionesActivas = publicacionService.obtenerTodas().stream()
-                    .filter(p -> p.getMascota() != null &&
-                                 p.getMascota().getId().equals(dto.getMascotaId()) &&
-                                 p.getEstadoPublicacion() == EstadoPublicacion.ACTIVA)
-                    .collect(java.util.stream.Collectors.toList());
-
-                if (!publicacionesActivas.isEmpty()) {
+                // (el UNIQUE sobre mascota_activa_id cubre además las creaciones concurrentes)
+                if (publicacionService.tienePublicacionActiva(dto.getMascotaId())) {
                     Map<String, String> error = new HashMap<>();
                     error.put("error", "Esta mascota ya tiene una publicación activa. No se puede crear otra hasta que se finalice o cancele la existente.");
                     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
@@ -146,12 +154,6 @@ public class PublicacionController {
             if (dto.getMascotaId() != null) {
                 Mascota mascota = mascotaService.obtenerPorId(dto.getMascotaId());
                 publicacion.setMascota(mascota);
-                
-                // Cambiar el estado de la mascota a PERDIDA_PROPIA si tiene dueño
-                if (mascota.getUsuarioId() != null) {
-                    mascota.setEstadoMascota(EstadoMascota.PERDIDA_PROPIA);
-                    mascotaService.actualizarMascota(mascota);
-                }
             }
 
             if (dto.getUsuarioId() != null) {
@@ -165,10 +167,22 @@ public class PublicacionController {
             publicacion.setMunicipioId(dto.getMunicipioId());
 
             Publicacion nuevaPublicacion = publicacionService.crearPublicacion(publicacion);
+
+            // Cambiar el estado de la mascota a PERDIDA_PROPIA si tiene dueño
+            // (después de crear la publicación, para no modificarla si la creación falla)
+            Mascota mascotaPublicada = nuevaPublicacion.getMascota();
+            if (mascotaPublicada != null && mascotaPublicada.getUsuarioId() != null) {
+                mascotaPublicada.setEstadoMascota(EstadoMascota.PERDIDA_PROPIA);
+                mascotaService.actualizarMascota(mascotaPublicada);
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Publicación creada exitosamente");
             response.put("publicacion", nuevaPublicacion);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         } catch (Exception e) {
             e.printStackTrace();
             Map<String, String> error = new HashMap<>();
@@ -178,10 +192,12 @@ public class PublicacionController {
     }
 
     @Operation(summary = "Actualizar una publicación",
-               description = "Actualiza una publicación existente")
+               description = "Actualiza una publicación existente. Con If-Match (el ETag de la última lectura) sólo se guarda " +
+                       "si nadie la modificó mientras tanto; si no coincide responde 412, y 409 si otra escritura ganó sin If-Match.")
     @PutMapping("/{id}")
     public ResponseEntity<?> actualizarPublicacion(
             @Parameter(description = "ID de la publicación") @PathVariable Long id,
+            @Parameter(description = "ETag de la publicación leída") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody PublicacionDTO dto) {
         try {
             if (id == null || id <= 0) {
@@ -202,6 +218,9 @@ public class PublicacionController {
                 error.put("error", "Publicación no encontrada con ID: " + id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
+            if (!ETags.cumpleIfMatch(ifMatch, publicacion.getVersion())) {
+                return precondicionFallida();
+            }
 
             if (dto.getFecha() != null) {
                 try {
@@ -291,7 +310,18 @@ public class PublicacionController {
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Publicación actualizada exitosamente");
             response.put("publicacion", actualizada);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(ETags.de(actualizada)).body(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                return precondicionFallida();
+            }
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "La publicación fue modificada por otro pedido; volvé a leerla antes de guardar");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al actualizar publicación: " + e.getMessage());
@@ -299,7 +329,87 @@ public class PublicacionController {
         }
     }
 
-    @Operation(summary = "Obtener publicación por ID")
+    @Operation(summary = "Buscar publicaciones cercanas a un punto",
+               description = "Devuelve publicaciones a menos de radioKm kilómetros de (lat, lng), ordenadas por distancia")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Coordenadas, radio o límite inválidos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/cercanas")
+    public ResponseEntity<?> listarPublicacionesCercanas(
+            @Parameter(description = "Latitud del centro") @RequestParam Double lat,
+            @Parameter(description = "Longitud del centro") @RequestParam Double lng,
+            @Parameter(description = "Radio de búsqueda en km (máximo " + RADIO_MAXIMO_KM + ")") @RequestParam Double radioKm,
+            @Parameter(description = "Cantidad máxima de resultados, los más cercanos (máximo " + LIMITE_CERCANOS_MAXIMO + ")")
+            @RequestParam(required = false) Integer limite) {
+        try {
+            if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Coordenadas inválidas");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (radioKm <= 0 || radioKm > RADIO_MAXIMO_KM) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "radioKm debe estar entre 0 y " + RADIO_MAXIMO_KM);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (limite != null && (limite <= 0 || limite > LIMITE_CERCANOS_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "limite debe estar entre 1 y " + LIMITE_CERCANOS_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            List<Publicacion> publicaciones = publicacionService.obtenerCercanas(lat, lng, radioKm,
+                    limite != null ? limite : LIMITE_CERCANOS_DEFAULT);
+            return ResponseEntity.ok(publicaciones);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al buscar publicaciones cercanas: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @Operation(summary = "Buscar publicaciones por texto",
+               description = "Busca en la descripción de las publicaciones (sin distinguir acentos, mayúsculas ni " +
+                       "singular/plural). Los resultados vienen ordenados por relevancia.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados obtenidos exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Consulta o límite inválidos"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/buscar")
+    public ResponseEntity<?> buscarPublicaciones(
+            @Parameter(description = "Texto a buscar") @RequestParam String q,
+            @Parameter(description = "Cantidad máxima de resultados (máximo " + LIMITE_BUSQUEDA_MAXIMO + ")")
+            @RequestParam(required = false) Integer limite) {
+        try {
+            if (q == null || q.isBlank()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "El parámetro q es requerido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            if (limite != null && (limite <= 0 || limite > LIMITE_BUSQUEDA_MAXIMO)) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "limite debe estar entre 1 y " + LIMITE_BUSQUEDA_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            List<Publicacion> publicaciones = busquedaService.buscarPublicaciones(q, limite != null ? limite : LIMITE_BUSQUEDA_DEFAULT);
+            return ResponseEntity.ok(publicaciones);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al buscar publicaciones: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    private static ResponseEntity<?> precondicionFallida() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "La publicación cambió desde que se leyó (If-Match no coincide con el ETag actual)");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @Operation(summary = "Obtener publicación por ID",
+               description = "Devuelve el ETag de la publicación; con If-None-Match igual responde 304 sin cuerpo")
     @GetMapping("/{id}")
     public ResponseEntity<?> obtenerPublicacion(@Parameter(description = "ID de la publicación") @PathVariable Long id) {
         try {
@@ -315,7 +425,7 @@ public class PublicacionController {
                 error.put("error", "Publicación no encontrada");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
-            return ResponseEntity.ok(publicacion);
+            return ResponseEntity.ok().eTag(ETags.de(publicacion)).body(publicacion);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener publicación: " + e.getMessage());
@@ -323,10 +433,16 @@ public class PublicacionController {
         }
     }
 
-    @Operation(summary = "Listar todas las publicaciones")
+    @Operation(summary = "Listar todas las publicaciones",
+               description = "Con vista=resumen devuelve una proyección liviana con los datos de la mascota que muestra la tarjeta")
     @GetMapping
-    public ResponseEntity<?> listarPublicaciones() {
+    public ResponseEntity<?> listarPublicaciones(
+            @Parameter(description = "'resumen' para obtener sólo los campos que muestra el listado")
+            @RequestParam(required = false) String vista) {
         try {
+            if (VISTA_RESUMEN.equals(vista)) {
+                return ResponseEntity.ok(publicacionService.obtenerResumenTodas());
+            }
             List<Publicacion> publicaciones = publicacionService.obtenerTodas();
             return ResponseEntity.ok(publicaciones);
         } catch (Exception e) {
@@ -2,6 +2,9 @@ package APP.controllers;
 
 import APP.dto.UsuarioDTO;
 import APP.models.clases.Usuario;
+import APP.security.LimitadorIntentos;
+import APP.services.RankingService;
+import APP.services.ServicioSaturadoException;
 import APP.services.UsuarioService;
 import APP.security.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,10 +13,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,21 +34,65 @@ public class UsuarioController {
 
     private static final Pattern EMAIL_COM_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.com$", Pattern.CASE_INSENSITIVE);
 
+    private static final int TAMANIO_RANKING_DEFAULT = 20;
+    private static final int TAMANIO_RANKING_MAXIMO = 100;
+    private static final String SEGUNDOS_REINTENTO_SATURADO = "1";
+
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private RankingService rankingService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private LimitadorIntentos limitadorIntentos;
+
+    private ResponseEntity<?> demasiadosIntentos() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Demasiados intentos, reintente más tarde");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(limitadorIntentos.getVentanaSegundos()))
+                .body(error);
+    }
+
+    private static ResponseEntity<?> servicioSaturado(ServicioSaturadoException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO_SATURADO)
+                .body(error);
+    }
+
+    private static ResponseEntity<?> precondicionFallida() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "El usuario cambió desde que se leyó (If-Match no coincide con el ETag actual)");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    // Otra escritura (p. ej. una suma de puntos) se confirmó entre la lectura y el UPDATE
+    private static ResponseEntity<?> conflictoDeVersion(String ifMatch) {
+        if (ifMatch != null) {
+            return precondicionFallida();
+        }
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "El usuario fue modificado por otro pedido; volvé a leerlo antes de guardar");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @Operation(summary = "Registrar un nuevo usuario",
                description = "Crea una cuenta de usuario nueva en el sistema")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Usuario registrado exitosamente"),
         @ApiResponse(responseCode = "400", description = "Datos del usuario inválidos"),
-        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+        @ApiResponse(responseCode = "429", description = "Demasiados intentos desde la misma IP"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor"),
+        @ApiResponse(responseCode = "503", description = "Servidor ocupado, reintentar más tarde")
     })
     @PostMapping(value = "/registro", consumes = "application/json", produces = "application/json")
-    public ResponseEntity<?> registrarUsuario(@RequestBody UsuarioDTO usuarioDto) {
+    public ResponseEntity<?> registrarUsuario(@RequestBody UsuarioDTO usuarioDto, HttpServletRequest request) {
         try {
             if (usuarioDto == null) {
                 Map<String, String> error = new HashMap<>();
@@ -66,7 +116,13 @@ public class UsuarioController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
+            if (!limitadorIntentos.intentar(null, request.getRemoteAddr())) {
+                return demasiadosIntentos();
+            }
+
             Usuario usuarioEntity = usuarioDto.toUsuario();
+            // El id lo asigna la base: con uno del cliente save() intentaría persistir una entidad desconectada
+            usuarioEntity.setId(null);
             Usuario nuevoUsuario = usuarioService.registrarUsuario(usuarioEntity);
 
             String token = jwtUtil.generateToken(nuevoUsuario);
@@ -80,6 +136,8 @@ public class UsuarioController {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (ServicioSaturadoException e) {
+            return servicioSaturado(e);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al registrar usuario: " + e.getMessage());
@@ -93,10 +151,12 @@ public class UsuarioController {
         @ApiResponse(responseCode = "200", description = "Login exitoso"),
         @ApiResponse(responseCode = "400", description = "Credenciales faltantes"),
         @ApiResponse(responseCode = "401", description = "Credenciales inválidas"),
-        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+        @ApiResponse(responseCode = "429", description = "Demasiados intentos para la cuenta o la IP"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor"),
+        @ApiResponse(responseCode = "503", description = "Servidor ocupado, reintentar más tarde")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UsuarioDTO credentials) {
+    public ResponseEntity<?> login(@RequestBody UsuarioDTO credentials, HttpServletRequest request) {
         try {
             if (credentials == null) {
                 Map<String, String> error = new HashMap<>();
@@ -123,7 +183,16 @@ public class UsuarioController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
+            // Antes de verificar la contraseña: los intentos rechazados no gastan BCrypt
+            String cuenta = email != null ? "login:" + email.toLowerCase() : null;
+            if (!limitadorIntentos.intentar(cuenta, request.getRemoteAddr())) {
+                return demasiadosIntentos();
+            }
+
             Usuario usuario = usuarioService.autenticar(email, password);
+            if (cuenta != null) {
+                limitadorIntentos.reiniciar(cuenta);
+            }
 
             String token = jwtUtil.generateToken(usuario);
 
@@ -136,6 +205,8 @@ public class UsuarioController {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        } catch (ServicioSaturadoException e) {
+            return servicioSaturado(e);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error en login: " + e.getMessage());
@@ -144,15 +215,19 @@ public class UsuarioController {
     }
 
     @Operation(summary = "Actualizar perfil de usuario",
-               description = "Actualiza los datos del perfil de un usuario existente")
+               description = "Actualiza los datos del perfil de un usuario existente. Con If-Match (el ETag de la " +
+                       "última lectura) sólo se guarda si nadie lo modificó mientras tanto.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Perfil actualizado exitosamente"),
         @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Otra escritura (p. ej. una suma de puntos) modificó al usuario al mismo tiempo"),
+        @ApiResponse(responseCode = "412", description = "If-Match no coincide con el ETag actual"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @PutMapping("/{id}")
     public ResponseEntity<?> actualizarPerfil(
             @Parameter(description = "ID del usuario") @PathVariable Long id,
+            @Parameter(description = "ETag del usuario leído") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UsuarioDTO usuarioDto) {
         try {
             if (id == null || id <= 0) {
@@ -185,16 +260,33 @@ public class UsuarioController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
+            if (ifMatch != null) {
+                // Con open-in-view el service recibe esta misma instancia: el UPDATE verifica la versión leída acá
+                Usuario actual = usuarioService.obtenerPorId(id);
+                if (actual == null) {
+                    Map<String, String> error = new HashMap<>();
+                    error.put("error", "Usuario no encontrado");
+                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+                }
+                if (!ETags.cumpleIfMatch(ifMatch, actual.getVersion())) {
+                    return precondicionFallida();
+                }
+            }
+
             Usuario usuarioEntity = usuarioDto.toUsuario();
             Usuario usuarioActualizado = usuarioService.actualizarPerfil(usuarioEntity);
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Perfil actualizado exitosamente");
             response.put("usuario", UsuarioDTO.fromUsuario(usuarioActualizado));
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(ETags.de(usuarioActualizado)).body(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictoDeVersion(ifMatch);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        } catch (ServicioSaturadoException e) {
+            return servicioSaturado(e);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al actualizar perfil: " + e.getMessage());
@@ -221,7 +313,7 @@ public class UsuarioController {
                 error.put("error", "Usuario no encontrado");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
-            return ResponseEntity.ok(UsuarioDTO.fromUsuario(usuario));
+            return ResponseEntity.ok().eTag(ETags.de(usuario)).body(UsuarioDTO.fromUsuario(usuario));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener usuario: " + e.getMessage());
@@ -247,15 +339,23 @@ public class UsuarioController {
     }
 
     /**
-     * Obtener ranking de usuarios por puntos
-     * GET /api/usuarios/ranking
+     * Obtener ranking de usuarios por puntos (paginado)
+     * GET /api/usuarios/ranking?page=0&size=20
      */
     @GetMapping("/ranking")
-    public ResponseEntity<?> obtenerRanking() {
+    public ResponseEntity<?> obtenerRanking(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + TAMANIO_RANKING_DEFAULT) int size) {
         try {
-            List<Usuario> ranking = usuarioService.obtenerPorPuntos();
-            List<UsuarioDTO> dtos = ranking.stream().map(UsuarioDTO::fromUsuario).collect(Collectors.toList());
-            return ResponseEntity.ok(dtos);
+            if (page < 0 || size <= 0 || size > TAMANIO_RANKING_MAXIMO) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "page debe ser >= 0 y size debe estar entre 1 y " + TAMANIO_RANKING_MAXIMO);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+            List<UsuarioDTO> dtos = rankingService.obtenerPagina(page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(rankingService.total()))
+                    .body(dtos);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al obtener ranking: " + e.getMessage());
@@ -263,6 +363,40 @@ public class UsuarioController {
         }
     }
 
+    /**
+     * Obtener la posición de un usuario en el ranking
+     * GET /api/usuarios/{id}/ranking
+     */
+    @GetMapping("/{id}/ranking")
+    public ResponseEntity<?> obtenerPosicionEnRanking(@PathVariable Long id) {
+        try {
+            if (id == null || id <= 0) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "ID de usuario inválido");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+            }
+
+            // Posición, puntos y total se leen juntos: el usuario puede salir del ranking entre dos consultas
+            RankingService.Posicion posicion = rankingService.obtenerPosicion(id);
+            if (posicion == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Usuario no encontrado");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("usuarioId", id);
+            response.put("posicion", posicion.posicion());
+            response.put("puntos", posicion.puntos());
+            response.put("total", posicion.total());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al obtener posición en el ranking: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Agregar puntos a un usuario
      * PATCH /api/usuarios/{id}/puntos
@@ -291,15 +425,12 @@ public class UsuarioController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
             }
 
-            Usuario usuario = usuarioService.obtenerPorId(id);
-            if (usuario == null) {
+            if (!usuarioService.agregarPuntos(id, puntos)) {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "Usuario no encontrado");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
 
-            usuarioService.agregarPuntos(id, puntos);
-
             // Obtener el usuario actualizado
             Usuario usuarioActualizado = usuarioService.obtenerPorId(id);
 
@@ -321,12 +452,16 @@ public class UsuarioController {
         @ApiResponse(responseCode = "400", description = "Datos inválidos"),
         @ApiResponse(responseCode = "401", description = "Contraseña actual incorrecta"),
         @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
-        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+        @ApiResponse(responseCode = "409", description = "Otra escritura modificó al usuario al mismo tiempo"),
+        @ApiResponse(responseCode = "429", description = "Demasiados intentos para la cuenta o la IP"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor"),
+        @ApiResponse(responseCode = "503", description = "Servidor ocupado, reintentar más tarde")
     })
     @PutMapping("/{id}/cambiar-password")
     public ResponseEntity<?> cambiarPassword(
             @Parameter(description = "ID del usuario") @PathVariable Long id,
-            @RequestBody Map<String, String> passwords) {
+            @RequestBody Map<String, String> passwords,
+            HttpServletRequest request) {
         try {
             if (id == null || id <= 0) {
                 Map<String, String> error = new HashMap<>();
@@ -369,6 +504,10 @@ public class UsuarioController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
             }
 
+            if (!limitadorIntentos.intentar("password:" + id, request.getRemoteAddr())) {
+                return demasiadosIntentos();
+            }
+
             // Verificar que la contraseña actual sea correcta usando PasswordEncoder
             usuarioService.verificarPassword(usuario, currentPassword);
 
@@ -379,6 +518,8 @@ public class UsuarioController {
             Map<String, String> response = new HashMap<>();
             response.put("mensaje", "Contraseña actualizada exitosamente");
             return ResponseEntity.ok(response);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return conflictoDeVersion(null);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -390,6 +531,8 @@ public class UsuarioController {
             }
 
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (ServicioSaturadoException e) {
+            return servicioSaturado(e);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al cambiar contraseña: " + e.getMessage());
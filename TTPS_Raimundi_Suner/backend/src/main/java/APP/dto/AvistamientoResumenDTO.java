@@ -0,0 +1,50 @@
+package APP.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección liviana de Avistamiento para listados, sin cargar Mascota, Usuario ni Ubicacion.
+ */
+public class AvistamientoResumenDTO {
+    private final Long id;
+    private final LocalDate fecha;
+    private final String comentario;
+    private final Long mascotaId;
+    private final String mascotaNombre;
+    private final Long usuarioId;
+    private final Double lat;
+    private final Double lng;
+    private final String barrio;
+
+    public AvistamientoResumenDTO(Long id, LocalDate fecha, String comentario, Long mascotaId, String mascotaNombre,
+                                  Long usuarioId, Double lat, Double lng, String barrio) {
+        this.id = id;
+        this.fecha = fecha;
+        this.comentario = comentario;
+        this.mascotaId = mascotaId;
+        this.mascotaNombre = mascotaNombre;
+        this.usuarioId = usuarioId;
+        this.lat = lat;
+        this.lng = lng;
+        this.barrio = barrio;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public LocalDate getFecha() { return fecha; }
+
+    public String getComentario() { return comentario; }
+
+    public Long getMascotaId() { return mascotaId; }
+
+    public String getMascotaNombre() { return mascotaNombre; }
+
+    public Long getUsuarioId() { return usuarioId; }
+
+    public Double getLat() { return lat; }
+
+    public Double getLng() { return lng; }
+
+    public String getBarrio() { return barrio; }
+}
@@ -0,0 +1,65 @@
+package APP.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Coincidencia entre un avistamiento y la publicación de una mascota perdida, con los datos
+ * que necesita el listado de candidatos (sin cargar las entidades).
+ */
+public class CoincidenciaAvistamientoDTO {
+    private final Long avistamientoId;
+    private final LocalDate fechaAvistamiento;
+    private final String comentario;
+    private final Double lat;
+    private final Double lng;
+    private final String barrio;
+    private final Long publicacionId;
+    private final LocalDate fechaPublicacion;
+    private final Long mascotaPerdidaId;
+    private final String mascotaPerdidaNombre;
+    private final double puntaje;
+    private final double distanciaKm;
+
+    public CoincidenciaAvistamientoDTO(Long avistamientoId, LocalDate fechaAvistamiento, String comentario,
+                                       Double lat, Double lng, String barrio, Long publicacionId,
+                                       LocalDate fechaPublicacion, Long mascotaPerdidaId, String mascotaPerdidaNombre,
+                                       double puntaje, double distanciaKm) {
+        this.avistamientoId = avistamientoId;
+        this.fechaAvistamiento = fechaAvistamiento;
+        this.comentario = comentario;
+        this.lat = lat;
+        this.lng = lng;
+        this.barrio = barrio;
+        this.publicacionId = publicacionId;
+        this.fechaPublicacion = fechaPublicacion;
+        this.mascotaPerdidaId = mascotaPerdidaId;
+        this.mascotaPerdidaNombre = mascotaPerdidaNombre;
+        this.puntaje = puntaje;
+        this.distanciaKm = distanciaKm;
+    }
+
+    // Getters
+    public Long getAvistamientoId() { return avistamientoId; }
+
+    public LocalDate getFechaAvistamiento() { return fechaAvistamiento; }
+
+    public String getComentario() { return comentario; }
+
+    public Double getLat() { return lat; }
+
+    public Double getLng() { return lng; }
+
+    public String getBarrio() { return barrio; }
+
+    public Long getPublicacionId() { return publicacionId; }
+
+    public LocalDate getFechaPublicacion() { return fechaPublicacion; }
+
+    public Long getMascotaPerdidaId() { return mascotaPerdidaId; }
+
+    public String getMascotaPerdidaNombre() { return mascotaPerdidaNombre; }
+
+    public double getPuntaje() { return puntaje; }
+
+    public double getDistanciaKm() { return distanciaKm; }
+}
@@ -0,0 +1,19 @@
+package APP.dto;
+
+/**
+ * Mascota perdida candidata a ser la mascota encontrada consultada. puntaje va de 0 a 1 según cuántos
+ * atributos (tipo, raza, color, tamaño, edad, zona) coinciden, ponderados por su importancia.
+ */
+public class MascotaCoincidenteDTO {
+    private final MascotaResumenDTO mascota;
+    private final double puntaje;
+
+    public MascotaCoincidenteDTO(MascotaResumenDTO mascota, double puntaje) {
+        this.mascota = mascota;
+        this.puntaje = puntaje;
+    }
+
+    public MascotaResumenDTO getMascota() { return mascota; }
+
+    public double getPuntaje() { return puntaje; }
+}
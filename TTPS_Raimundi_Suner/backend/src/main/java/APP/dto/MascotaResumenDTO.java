@@ -0,0 +1,73 @@
+package APP.dto;
+
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.Mascota;
+import APP.models.clases.VarianteImagen;
+
+import java.util.Map;
+
+/**
+ * Proyección liviana de Mascota para listados: se arma directamente desde la consulta
+ * (sin cargar la entidad ni su Usuario).
+ */
+public class MascotaResumenDTO {
+    private final Long id;
+    private final String nombre;
+    private final String tipo;
+    private final String raza;
+    private final String color;
+    private final String tamanio;
+    private final String imagenUrl;
+    private final EstadoMascota estadoMascota;
+    private final Long usuarioId;
+    private Boolean esMia;
+
+    public MascotaResumenDTO(Long id, String nombre, String tipo, String raza, String color, String tamanio,
+                             String imagenUrl, EstadoMascota estadoMascota, Long usuarioId) {
+        this.id = id;
+        this.nombre = nombre;
+        this.tipo = tipo;
+        this.raza = raza;
+        this.color = color;
+        this.tamanio = tamanio;
+        this.imagenUrl = imagenUrl;
+        this.estadoMascota = estadoMascota;
+        this.usuarioId = usuarioId;
+    }
+
+    public static MascotaResumenDTO fromMascota(Mascota m) {
+        if (m == null) return null;
+        return new MascotaResumenDTO(m.getId(), m.getNombre(), m.getTipo(), m.getRaza(), m.getColor(),
+                m.getTamanio(), m.getImagenUrl(), m.getEstadoMascota(), m.getUsuarioId());
+    }
+
+    // Copia sin esMia, para marcar la propiedad sin modificar instancias compartidas (read models en memoria)
+    public MascotaResumenDTO copia() {
+        return new MascotaResumenDTO(id, nombre, tipo, raza, color, tamanio, imagenUrl, estadoMascota, usuarioId);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public String getNombre() { return nombre; }
+
+    public String getTipo() { return tipo; }
+
+    public String getRaza() { return raza; }
+
+    public String getColor() { return color; }
+
+    public String getTamanio() { return tamanio; }
+
+    public String getImagenUrl() { return imagenUrl; }
+
+    public Map<String, String> getImagenVariantes() { return VarianteImagen.urlsPara(imagenUrl); }
+
+    public EstadoMascota getEstadoMascota() { return estadoMascota; }
+
+    public Long getUsuarioId() { return usuarioId; }
+
+    public Boolean getEsMia() { return esMia; }
+
+    public void setEsMia(Boolean esMia) { this.esMia = esMia; }
+}
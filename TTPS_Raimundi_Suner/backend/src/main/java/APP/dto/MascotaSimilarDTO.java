@@ -0,0 +1,19 @@
+package APP.dto;
+
+/**
+ * Mascota con foto parecida a la consultada. distancia es la distancia de Hamming entre los hashes
+ * perceptuales (0 = misma imagen; hasta ~10 suele ser la misma foto recortada o recomprimida).
+ */
+public class MascotaSimilarDTO {
+    private final MascotaResumenDTO mascota;
+    private final int distancia;
+
+    public MascotaSimilarDTO(MascotaResumenDTO mascota, int distancia) {
+        this.mascota = mascota;
+        this.distancia = distancia;
+    }
+
+    public MascotaResumenDTO getMascota() { return mascota; }
+
+    public int getDistancia() { return distancia; }
+}
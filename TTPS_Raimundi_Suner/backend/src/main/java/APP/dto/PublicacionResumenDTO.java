@@ -0,0 +1,76 @@
+package APP.dto;
+
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.EstadoPublicacion;
+
+import java.time.LocalDate;
+
+/**
+ * Proyección liviana de Publicacion para listados: incluye los datos de la mascota que muestra
+ * la tarjeta, sin cargar las entidades Mascota ni Usuario.
+ */
+public class PublicacionResumenDTO {
+    private final Long id;
+    private final LocalDate fecha;
+    private final LocalDate fechaCierre;
+    private final String descripcion;
+    private final EstadoPublicacion estadoPublicacion;
+    private final Double lat;
+    private final Double lng;
+    private final String municipioId;
+    private final Long mascotaId;
+    private final String mascotaNombre;
+    private final String mascotaTipo;
+    private final EstadoMascota mascotaEstado;
+    private final String mascotaImagenUrl;
+    private final Long usuarioId;
+
+    public PublicacionResumenDTO(Long id, LocalDate fecha, LocalDate fechaCierre, String descripcion,
+                                 EstadoPublicacion estadoPublicacion, Double lat, Double lng, String municipioId,
+                                 Long mascotaId, String mascotaNombre, String mascotaTipo, EstadoMascota mascotaEstado,
+                                 String mascotaImagenUrl, Long usuarioId) {
+        this.id = id;
+        this.fecha = fecha;
+        this.fechaCierre = fechaCierre;
+        this.descripcion = descripcion;
+        this.estadoPublicacion = estadoPublicacion;
+        this.lat = lat;
+        this.lng = lng;
+        this.municipioId = municipioId;
+        this.mascotaId = mascotaId;
+        this.mascotaNombre = mascotaNombre;
+        this.mascotaTipo = mascotaTipo;
+        this.mascotaEstado = mascotaEstado;
+        this.mascotaImagenUrl = mascotaImagenUrl;
+        this.usuarioId = usuarioId;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public LocalDate getFecha() { return fecha; }
+
+    public LocalDate getFechaCierre() { return fechaCierre; }
+
+    public String getDescripcion() { return descripcion; }
+
+    public EstadoPublicacion getEstadoPublicacion() { return estadoPublicacion; }
+
+    public Double getLat() { return lat; }
+
+    public Double getLng() { return lng; }
+
+    public String getMunicipioId() { return municipioId; }
+
+    public Long getMascotaId() { return mascotaId; }
+
+    public String getMascotaNombre() { return mascotaNombre; }
+
+    public String getMascotaTipo() { return mascotaTipo; }
+
+    public EstadoMascota getMascotaEstado() { return mascotaEstado; }
+
+    public String getMascotaImagenUrl() { return mascotaImagenUrl; }
+
+    public Long getUsuarioId() { return usuarioId; }
+}
@@ -0,0 +1,46 @@
+package APP.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Página de mascotas que cumplen un filtro combinado, con el conteo por valor de cada faceta.
+ * El conteo de una faceta aplica los filtros de las demás facetas pero no el suyo, así el cliente
+ * puede mostrar cuántos resultados tendría al elegir otro valor.
+ */
+public class ResultadoFiltroMascotasDTO {
+    private long total;
+    private int pagina;
+    private int tamanio;
+    private List<MascotaResumenDTO> mascotas;
+    private Map<String, Map<String, Integer>> facetas;
+
+    public ResultadoFiltroMascotasDTO(long total, int pagina, int tamanio, List<MascotaResumenDTO> mascotas,
+                                      Map<String, Map<String, Integer>> facetas) {
+        this.total = total;
+        this.pagina = pagina;
+        this.tamanio = tamanio;
+        this.mascotas = mascotas;
+        this.facetas = facetas;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getPagina() {
+        return pagina;
+    }
+
+    public int getTamanio() {
+        return tamanio;
+    }
+
+    public List<MascotaResumenDTO> getMascotas() {
+        return mascotas;
+    }
+
+    public Map<String, Map<String, Integer>> getFacetas() {
+        return facetas;
+    }
+}
@@ -0,0 +1,116 @@
+package APP.geo;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Codificación geohash y utilidades de distancia.
+ * Las coordenadas se guardan con su geohash en una columna indexada, de forma que las
+ * búsquedas por radio se resuelven con consultas por prefijo (LIKE 'abc%') sobre el índice.
+ */
+public final class GeoHash {
+
+    public static final int PRECISION_MAXIMA = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double RADIO_TIERRA_KM = 6371.0;
+    private static final double KM_POR_GRADO = Math.PI * RADIO_TIERRA_KM / 180.0;
+
+    private GeoHash() {}
+
+    public static String codificar(double lat, double lng, int precision) {
+        double[] rangoLat = {-90.0, 90.0};
+        double[] rangoLng = {-180.0, 180.0};
+        StringBuilder hash = new StringBuilder(precision);
+        boolean esLng = true;
+        int bit = 0;
+        int caracter = 0;
+
+        while (hash.length() < precision) {
+            double[] rango = esLng ? rangoLng : rangoLat;
+            double valor = esLng ? lng : lat;
+            double medio = (rango[0] + rango[1]) / 2;
+            if (valor >= medio) {
+                caracter = (caracter << 1) | 1;
+                rango[0] = medio;
+            } else {
+                caracter = caracter << 1;
+                rango[1] = medio;
+            }
+            esLng = !esLng;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(caracter));
+                bit = 0;
+                caracter = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Devuelve la celda que contiene al punto y sus 8 vecinas, con la mayor precisión cuya
+     * celda mide al menos {@code radioKm} de alto y de ancho. Así el círculo de búsqueda
+     * queda siempre cubierto por esas 9 celdas.
+     */
+    public static Set<String> celdasCubriendo(double lat, double lng, double radioKm) {
+        return celdaYVecinas(lat, lng, precisionParaRadio(lat, radioKm));
+    }
+
+    /**
+     * Celda de la precisión indicada que contiene al punto y sus 8 vecinas.
+     */
+    public static Set<String> celdaYVecinas(double lat, double lng, int precision) {
+        double alto = altoCeldaGrados(precision);
+        double ancho = anchoCeldaGrados(precision);
+
+        Set<String> celdas = new LinkedHashSet<>();
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                double latVecina = Math.max(-90.0, Math.min(90.0, lat + dy * alto));
+                double lngVecina = normalizarLng(lng + dx * ancho);
+                celdas.add(codificar(latVecina, lngVecina, precision));
+            }
+        }
+        return celdas;
+    }
+
+    /**
+     * Distancia en km entre dos puntos (fórmula de haversine).
+     */
+    public static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    static int precisionParaRadio(double lat, double radioKm) {
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        for (int precision = PRECISION_MAXIMA; precision > 1; precision--) {
+            double altoKm = altoCeldaGrados(precision) * KM_POR_GRADO;
+            double anchoKm = anchoCeldaGrados(precision) * KM_POR_GRADO * cosLat;
+            if (altoKm >= radioKm && anchoKm >= radioKm) {
+                return precision;
+            }
+        }
+        return 1;
+    }
+
+    private static double altoCeldaGrados(int precision) {
+        int bitsLat = (5 * precision) / 2;
+        return 180.0 / (1L << bitsLat);
+    }
+
+    private static double anchoCeldaGrados(int precision) {
+        int bitsLng = (5 * precision + 1) / 2;
+        return 360.0 / (1L << bitsLng);
+    }
+
+    private static double normalizarLng(double lng) {
+        if (lng >= 180.0) return lng - 360.0;
+        if (lng < -180.0) return lng + 360.0;
+        return lng;
+    }
+}
@@ -0,0 +1,74 @@
+package APP.metricas;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Cuenta, por hilo, las sentencias SQL que pasan por el DataSource (las de Hibernate y las de JDBC directo),
+ * las filas leídas o modificadas y el tiempo en la base. Los totales sólo crecen: quien quiere medir un tramo
+ * (MetricasFilter para un request, los tests para una llamada) toma {@link #totales()} antes y después y resta,
+ * así las mediciones anidadas no se pisan. El trabajo de los pools en segundo plano queda en sus propios hilos.
+ */
+public class ContadorConsultas implements QueryExecutionListener, MethodExecutionListener {
+
+    public record Totales(long consultas, long filas, long milisegundos) {
+
+        public Totales menos(Totales anterior) {
+            return new Totales(consultas - anterior.consultas, filas - anterior.filas,
+                    milisegundos - anterior.milisegundos);
+        }
+    }
+
+    private static final class Acumulado {
+        long consultas;
+        long filas;
+        long milisegundos;
+    }
+
+    private static final ThreadLocal<Acumulado> ACUMULADO = ThreadLocal.withInitial(Acumulado::new);
+
+    public static Totales totales() {
+        Acumulado a = ACUMULADO.get();
+        return new Totales(a.consultas, a.filas, a.milisegundos);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // Un batch cuenta como una sentencia: es un solo viaje a la base
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Acumulado a = ACUMULADO.get();
+        a.consultas++;
+        a.milisegundos += execInfo.getElapsedTime();
+        Object resultado = execInfo.getResult();
+        if (resultado instanceof Integer modificadas && modificadas > 0) {
+            a.filas += modificadas;
+        } else if (resultado instanceof int[] modificadasPorSentencia) {
+            for (int modificadas : modificadasPorSentencia) {
+                a.filas += Math.max(0, modificadas);
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext contexto) {
+    }
+
+    // Filas leídas: cada ResultSet.next() que devuelve true
+    @Override
+    public void afterMethod(MethodExecutionContext contexto) {
+        if (contexto.getTarget() instanceof ResultSet
+                && "next".equals(contexto.getMethod().getName())
+                && Boolean.TRUE.equals(contexto.getResult())) {
+            ACUMULADO.get().filas++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package APP.metricas;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribución de valores (latencias en µs, consultas por request, ...) sobre un HdrHistogram.
+ * Registrar no bloquea (Recorder); al leer se vuelcan los valores nuevos en la ventana actual.
+ * Los percentiles cubren la ventana actual más la anterior: entre una y dos ventanas de historia, contadas
+ * desde las lecturas. Cantidad y suma son acumuladas desde el arranque, como espera Prometheus.
+ */
+final class Distribucion {
+
+    private final long maximo;
+    private final long ventanaMs;
+    private final Recorder recorder;
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+
+    // Sólo se tocan con el monitor de la instancia
+    private Histogram intervalo;
+    private Histogram ventanaActual;
+    private Histogram ventanaAnterior;
+    private long inicioVentanaMs;
+
+    Distribucion(long maximo, long ventanaMs) {
+        this.maximo = maximo;
+        this.ventanaMs = ventanaMs;
+        this.recorder = new Recorder(1, maximo, 2);
+        this.ventanaActual = new Histogram(1, maximo, 2);
+        this.ventanaAnterior = new Histogram(1, maximo, 2);
+        this.inicioVentanaMs = System.currentTimeMillis();
+    }
+
+    void registrar(long valor) {
+        long acotado = Math.max(0, Math.min(valor, maximo));
+        recorder.recordValue(acotado);
+        cantidad.increment();
+        suma.add(valor);
+    }
+
+    long cantidad() {
+        return cantidad.sum();
+    }
+
+    long suma() {
+        return suma.sum();
+    }
+
+    /**
+     * Valores de los percentiles pedidos (p. ej. 50, 99, 99.9), en el mismo orden.
+     */
+    synchronized long[] percentiles(double... percentiles) {
+        intervalo = recorder.getIntervalHistogram(intervalo);
+        long ahora = System.currentTimeMillis();
+        if (ahora - inicioVentanaMs >= ventanaMs) {
+            Histogram vieja = ventanaAnterior;
+            ventanaAnterior = ventanaActual;
+            vieja.reset();
+            ventanaActual = vieja;
+            inicioVentanaMs = ahora;
+        }
+        ventanaActual.add(intervalo);
+
+        Histogram union = ventanaAnterior.copy();
+        union.add(ventanaActual);
+        long[] valores = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            valores[i] = union.getTotalCount() == 0 ? 0 : union.getValueAtPercentile(percentiles[i]);
+        }
+        return valores;
+    }
+}
@@ -0,0 +1,51 @@
+package APP.metricas;
+
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Conecta las fuentes de métricas: el tracker del pool Hikari y el proxy del DataSource que cuenta
+ * las sentencias SQL de cada request.
+ */
+@Configuration
+public class MetricasConfig {
+
+    // static: los BeanPostProcessor se crean antes que el resto; el registro se pide recién al ver el DataSource
+    @Bean
+    public static BeanPostProcessor metricasDataSourcePostProcessor(ObjectProvider<MetricasRegistro> metricasRegistro,
+                                                                    @Value("${app.sql.contarFilas:true}") boolean contarFilas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMetricsTrackerFactory(metricasRegistro.getObject());
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ContadorConsultas contador = new ContadorConsultas();
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(contador);
+                // Contar filas leídas obliga a envolver cada ResultSet: se puede apagar si pesa
+                if (contarFilas) {
+                    builder.proxyResultSet().methodListener(contador);
+                }
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package APP.metricas;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mide cada request de punta a punta (incluye JwtFilter) y lo registra por método, ruta y estado.
+ * La ruta es el patrón del controller ("/api/mascotas/{id}"), no la URL, para que la cantidad de series
+ * no dependa de los ids; los requests que no llegan a un controller (p. ej. 401 del JwtFilter) van como "sin_ruta".
+ * Si un request ejecuta más sentencias SQL que {@code app.sql.presupuestoPorRequest} se loguea una advertencia:
+ * suele ser un N+1 nuevo.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasFilter implements Filter {
+
+    @Autowired
+    private MetricasRegistro metricasRegistro;
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasFilter.class);
+
+    // 0 = sin advertencias
+    @Value("${app.sql.presupuestoPorRequest:20}")
+    private long presupuestoConsultas;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
+        long inicio = System.nanoTime();
+        ContadorConsultas.Totales antes = ContadorConsultas.totales();
+        boolean error = true;
+        try {
+            chain.doFilter(request, response);
+            error = false;
+        } finally {
+            ContadorConsultas.Totales sql = ContadorConsultas.totales().menos(antes);
+            if (!error && req.isAsyncStarted()) {
+                // Respuestas en streaming: se registran cuando termina de escribirse la respuesta
+                req.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(req, res.getStatus(), inicio, sql);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                registrar(req, error ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : res.getStatus(), inicio, sql);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest req, int estado, long inicio, ContadorConsultas.Totales sql) {
+        Object patron = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String ruta = patron != null ? patron.toString() : "sin_ruta";
+        metricasRegistro.registrarRequest(req.getMethod(), ruta, estado, System.nanoTime() - inicio, sql.consultas());
+        if (presupuestoConsultas > 0 && sql.consultas() > presupuestoConsultas) {
+            log.warn("{} {} ejecutó {} sentencias SQL (presupuesto {}): {} filas, {} ms en la base",
+                    req.getMethod(), ruta, sql.consultas(), presupuestoConsultas, sql.filas(), sql.milisegundos());
+        }
+    }
+}
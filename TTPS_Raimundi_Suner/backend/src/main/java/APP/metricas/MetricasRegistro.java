@@ -0,0 +1,216 @@
+package APP.metricas;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de la aplicación en memoria y su exportación en el formato de texto de Prometheus:
+ * latencia y consultas SQL por request (por método, ruta y estado), espera y uso de conexiones del pool Hikari,
+ * y las estadísticas de Hibernate. Las series HTTP se limitan a {@code maxSeries}; las que no entran se suman
+ * en la ruta "otras" para que una ráfaga de URLs raras no haga crecer la memoria.
+ */
+@Component
+public class MetricasRegistro implements MetricsTrackerFactory {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] CUANTILES = {"0.5", "0.9", "0.99", "0.999"};
+    // Máximos de los histogramas: una hora en µs y cien mil consultas
+    private static final long MAXIMO_LATENCIA_US = TimeUnit.HOURS.toMicros(1);
+    private static final long MAXIMO_CONSULTAS = 100_000;
+
+    private record Serie(String metodo, String ruta, int estado) {}
+
+    private static final class MetricasSerie {
+        final Distribucion latenciaUs;
+        final Distribucion consultas;
+
+        MetricasSerie(long ventanaMs) {
+            latenciaUs = new Distribucion(MAXIMO_LATENCIA_US, ventanaMs);
+            consultas = new Distribucion(MAXIMO_CONSULTAS, ventanaMs);
+        }
+    }
+
+    private final ConcurrentHashMap<Serie, MetricasSerie> series = new ConcurrentHashMap<>();
+    private final long ventanaMs;
+    private final int maxSeries;
+
+    private final Distribucion esperaConexionUs;
+    private final Distribucion usoConexionUs;
+    private final LongAdder timeoutsConexion = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    public MetricasRegistro(@Value("${app.metricas.ventanaSegundos:60}") long ventanaSegundos,
+                            @Value("${app.metricas.maxSeries:500}") int maxSeries) {
+        this.ventanaMs = ventanaSegundos * 1000;
+        this.maxSeries = maxSeries;
+        this.esperaConexionUs = new Distribucion(MAXIMO_LATENCIA_US, ventanaMs);
+        this.usoConexionUs = new Distribucion(MAXIMO_LATENCIA_US, ventanaMs);
+    }
+
+    void registrarRequest(String metodo, String ruta, int estado, long duracionNs, long consultas) {
+        Serie serie = new Serie(metodo, ruta, estado);
+        MetricasSerie metricas = series.get(serie);
+        if (metricas == null) {
+            if (series.size() >= maxSeries) {
+                serie = new Serie(metodo, "otras", estado);
+            }
+            metricas = series.computeIfAbsent(serie, s -> new MetricasSerie(ventanaMs));
+        }
+        metricas.latenciaUs.registrar(TimeUnit.NANOSECONDS.toMicros(duracionNs));
+        metricas.consultas.registrar(consultas);
+    }
+
+    // Hikari crea un tracker por pool al arrancarlo; el pool de la aplicación es uno solo
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                esperaConexionUs.registrar(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usoConexionUs.registrar(TimeUnit.MILLISECONDS.toMicros(elapsedBorrowedMillis));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeoutsConexion.increment();
+            }
+        };
+    }
+
+    /**
+     * Todas las métricas en formato de texto de Prometheus (version 0.0.4).
+     */
+    public String exportar(Statistics hibernate) {
+        StringBuilder salida = new StringBuilder(16 * 1024);
+        exportarHttp(salida);
+        exportarPool(salida);
+        if (hibernate != null && hibernate.isStatisticsEnabled()) {
+            exportarHibernate(salida, hibernate);
+        }
+        return salida.toString();
+    }
+
+    private void exportarHttp(StringBuilder salida) {
+        // Orden estable entre lecturas para que los diffs sean legibles
+        Map<String, Map.Entry<Serie, MetricasSerie>> ordenadas = new TreeMap<>();
+        for (Map.Entry<Serie, MetricasSerie> entrada : series.entrySet()) {
+            Serie s = entrada.getKey();
+            ordenadas.put(s.ruta() + " " + s.metodo() + " " + s.estado(), entrada);
+        }
+
+        tipo(salida, "app_http_latencia_segundos", "Latencia de los requests por método, ruta y estado", "summary");
+        for (Map.Entry<Serie, MetricasSerie> entrada : ordenadas.values()) {
+            resumen(salida, "app_http_latencia_segundos", etiquetas(entrada.getKey()), entrada.getValue().latenciaUs, 1e-6);
+        }
+        tipo(salida, "app_http_consultas_por_request", "Sentencias SQL ejecutadas por request", "summary");
+        for (Map.Entry<Serie, MetricasSerie> entrada : ordenadas.values()) {
+            resumen(salida, "app_http_consultas_por_request", etiquetas(entrada.getKey()), entrada.getValue().consultas, 1);
+        }
+    }
+
+    private void exportarPool(StringBuilder salida) {
+        tipo(salida, "app_pool_espera_conexion_segundos", "Espera para obtener una conexión del pool", "summary");
+        resumen(salida, "app_pool_espera_conexion_segundos", "", esperaConexionUs, 1e-6);
+        tipo(salida, "app_pool_uso_conexion_segundos", "Tiempo que se retiene cada conexión", "summary");
+        resumen(salida, "app_pool_uso_conexion_segundos", "", usoConexionUs, 1e-6);
+        contador(salida, "app_pool_timeouts_total", "Pedidos de conexión que vencieron esperando", timeoutsConexion.sum());
+
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            tipo(salida, "app_pool_conexiones", "Conexiones del pool por estado", "gauge");
+            valor(salida, "app_pool_conexiones", "{estado=\"activas\"}", stats.getActiveConnections());
+            valor(salida, "app_pool_conexiones", "{estado=\"libres\"}", stats.getIdleConnections());
+            valor(salida, "app_pool_conexiones", "{estado=\"total\"}", stats.getTotalConnections());
+            valor(salida, "app_pool_conexiones", "{estado=\"maximo\"}", stats.getMaxConnections());
+            medidor(salida, "app_pool_hilos_esperando", "Hilos esperando una conexión", stats.getPendingThreads());
+        }
+    }
+
+    private void exportarHibernate(StringBuilder salida, Statistics s) {
+        contador(salida, "app_hibernate_sentencias_preparadas_total", "Sentencias JDBC preparadas", s.getPrepareStatementCount());
+        contador(salida, "app_hibernate_consultas_total", "Consultas HQL/SQL ejecutadas", s.getQueryExecutionCount());
+        medidor(salida, "app_hibernate_consulta_mas_lenta_segundos", "Consulta más lenta desde el arranque",
+                s.getQueryExecutionMaxTime() / 1000.0);
+        contador(salida, "app_hibernate_entidades_cargadas_total", "Entidades cargadas desde la base", s.getEntityLoadCount());
+        contador(salida, "app_hibernate_entidades_buscadas_total", "Entidades buscadas por id (fetch)", s.getEntityFetchCount());
+        contador(salida, "app_hibernate_colecciones_cargadas_total", "Colecciones cargadas", s.getCollectionLoadCount());
+        contador(salida, "app_hibernate_entidades_insertadas_total", "Entidades insertadas", s.getEntityInsertCount());
+        contador(salida, "app_hibernate_entidades_actualizadas_total", "Entidades actualizadas", s.getEntityUpdateCount());
+        contador(salida, "app_hibernate_entidades_borradas_total", "Entidades borradas", s.getEntityDeleteCount());
+        contador(salida, "app_hibernate_sesiones_total", "Sesiones abiertas", s.getSessionOpenCount());
+        contador(salida, "app_hibernate_transacciones_total", "Transacciones terminadas", s.getTransactionCount());
+
+        long aciertos = s.getSecondLevelCacheHitCount();
+        long fallos = s.getSecondLevelCacheMissCount();
+        tipo(salida, "app_hibernate_cache_segundo_nivel_total", "Accesos a la caché de segundo nivel por resultado", "counter");
+        valor(salida, "app_hibernate_cache_segundo_nivel_total", "{resultado=\"acierto\"}", aciertos);
+        valor(salida, "app_hibernate_cache_segundo_nivel_total", "{resultado=\"fallo\"}", fallos);
+        valor(salida, "app_hibernate_cache_segundo_nivel_total", "{resultado=\"guardado\"}", s.getSecondLevelCachePutCount());
+        medidor(salida, "app_hibernate_cache_segundo_nivel_ratio_aciertos", "Aciertos sobre accesos desde el arranque",
+                aciertos + fallos == 0 ? 0 : (double) aciertos / (aciertos + fallos));
+        tipo(salida, "app_hibernate_cache_consultas_total", "Accesos a la caché de consultas por resultado", "counter");
+        valor(salida, "app_hibernate_cache_consultas_total", "{resultado=\"acierto\"}", s.getQueryCacheHitCount());
+        valor(salida, "app_hibernate_cache_consultas_total", "{resultado=\"fallo\"}", s.getQueryCacheMissCount());
+    }
+
+    private static String etiquetas(Serie serie) {
+        return "metodo=\"" + escapar(serie.metodo()) + "\",ruta=\"" + escapar(serie.ruta())
+                + "\",estado=\"" + serie.estado() + "\"";
+    }
+
+    private static void resumen(StringBuilder salida, String nombre, String etiquetas, Distribucion distribucion,
+                                double escala) {
+        long[] valores = distribucion.percentiles(PERCENTILES);
+        String separador = etiquetas.isEmpty() ? "" : ",";
+        for (int i = 0; i < valores.length; i++) {
+            valor(salida, nombre, "{" + etiquetas + separador + "quantile=\"" + CUANTILES[i] + "\"}", valores[i] * escala);
+        }
+        String llaves = etiquetas.isEmpty() ? "" : "{" + etiquetas + "}";
+        valor(salida, nombre + "_sum", llaves, distribucion.suma() * escala);
+        valor(salida, nombre + "_count", llaves, distribucion.cantidad());
+    }
+
+    private static void contador(StringBuilder salida, String nombre, String ayuda, long valor) {
+        tipo(salida, nombre, ayuda, "counter");
+        valor(salida, nombre, "", valor);
+    }
+
+    private static void medidor(StringBuilder salida, String nombre, String ayuda, double valor) {
+        tipo(salida, nombre, ayuda, "gauge");
+        valor(salida, nombre, "", valor);
+    }
+
+    private static void tipo(StringBuilder salida, String nombre, String ayuda, String tipo) {
+        salida.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        salida.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    private static void valor(StringBuilder salida, String nombre, String etiquetas, double valor) {
+        salida.append(nombre).append(etiquetas).append(' ');
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            salida.append((long) valor);
+        } else {
+            salida.append(valor);
+        }
+        salida.append('\n');
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
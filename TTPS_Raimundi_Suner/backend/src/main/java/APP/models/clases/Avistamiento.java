@@ -8,10 +8,24 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+// Lo que traen los listados en el mismo SELECT: mascota con su dueño, usuario (ambos con rol) y ubicación
+@NamedEntityGraph(name = Avistamiento.GRAFO_LISTADO,
+        attributeNodes = {
+                @NamedAttributeNode(value = "mascota", subgraph = "mascota"),
+                @NamedAttributeNode(value = "usuario", subgraph = "usuario"),
+                @NamedAttributeNode("ubicacion")},
+        subgraphs = {
+                @NamedSubgraph(name = "mascota", attributeNodes = @NamedAttributeNode(value = "usuario", subgraph = "usuario")),
+                @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("rol"))})
 public class Avistamiento {
+    public static final String GRAFO_LISTADO = "Avistamiento.listado";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    Long version;
     LocalDate fecha;
     @Column(length = 1000)
     String comentario;
@@ -32,6 +46,10 @@ public class Avistamiento {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -1,8 +1,13 @@
 package APP.models.clases;
 
+import APP.config.CacheSegundoNivelConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheSegundoNivelConfig.REGION_BADGE)
 public class Badge {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
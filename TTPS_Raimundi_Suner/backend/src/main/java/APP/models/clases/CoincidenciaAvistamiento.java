@@ -0,0 +1,75 @@
+package APP.models.clases;
+
+import jakarta.persistence.*;
+
+/**
+ * Publicación de mascota perdida candidata a corresponder con un avistamiento, con su puntaje.
+ * Se calcula en segundo plano al registrar el avistamiento. Guarda los ids (sin FK) para que borrar
+ * un avistamiento o una publicación no dependa de estas filas; se limpian desde los servicios.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_coincidencia_avistamiento", columnList = "avistamiento_id"),
+        @Index(name = "idx_coincidencia_publicacion", columnList = "publicacion_id")
+})
+public class CoincidenciaAvistamiento {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+    @Column(name = "avistamiento_id", nullable = false)
+    Long avistamientoId;
+    @Column(name = "publicacion_id", nullable = false)
+    Long publicacionId;
+    double puntaje;
+    double distanciaKm;
+
+    public CoincidenciaAvistamiento() {
+    }
+
+    public CoincidenciaAvistamiento(Long avistamientoId, Long publicacionId, double puntaje, double distanciaKm) {
+        this.avistamientoId = avistamientoId;
+        this.publicacionId = publicacionId;
+        this.puntaje = puntaje;
+        this.distanciaKm = distanciaKm;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAvistamientoId() {
+        return avistamientoId;
+    }
+
+    public void setAvistamientoId(Long avistamientoId) {
+        this.avistamientoId = avistamientoId;
+    }
+
+    public Long getPublicacionId() {
+        return publicacionId;
+    }
+
+    public void setPublicacionId(Long publicacionId) {
+        this.publicacionId = publicacionId;
+    }
+
+    public double getPuntaje() {
+        return puntaje;
+    }
+
+    public void setPuntaje(double puntaje) {
+        this.puntaje = puntaje;
+    }
+
+    public double getDistanciaKm() {
+        return distanciaKm;
+    }
+
+    public void setDistanciaKm(double distanciaKm) {
+        this.distanciaKm = distanciaKm;
+    }
+}
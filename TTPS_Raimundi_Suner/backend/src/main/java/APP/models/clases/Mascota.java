@@ -5,12 +5,23 @@ import jakarta.persistence.*;
 import java.awt.image.BufferedImage;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Entity
+// Lo que traen los listados en el mismo SELECT: el dueño con su rol
+@NamedEntityGraph(name = Mascota.GRAFO_LISTADO,
+        attributeNodes = @NamedAttributeNode(value = "usuario", subgraph = "usuario"),
+        subgraphs = @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("rol")))
 public class Mascota {
+    public static final String GRAFO_LISTADO = "Mascota.listado";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
+    // Bloqueo optimista: un UPDATE con versión vieja falla en lugar de pisar otra escritura. Es la base del ETag
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    Long version;
     String nombre;
     String tamanio;
     String raza;
@@ -21,6 +32,9 @@ public class Mascota {
 
     @Column(length = 500)
     String imagenUrl;
+    // Hash perceptual (dHash) de la imagen, para buscar fotos parecidas
+    @JsonIgnore
+    Long imagenHash;
     LocalDate fechaNac;
     @Transient
     @JsonIgnore
@@ -43,10 +57,32 @@ public class Mascota {
     @Transient
     private Boolean esMia;
 
+    // imagenUrl tal como está en la base, para poder liberar la imagen anterior cuando se reemplaza
+    @Transient
+    @JsonIgnore
+    private String imagenUrlPersistida;
+
+    // estadoMascota tal como está en la base, para saber si la mascota estaba en el listado de perdidas
+    @Transient
+    @JsonIgnore
+    private EstadoMascota estadoMascotaPersistido;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void recordarValoresPersistidos() {
+        imagenUrlPersistida = imagenUrl;
+        estadoMascotaPersistido = estadoMascota;
+    }
+
     public Long getId() {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -107,6 +143,29 @@ public class Mascota {
         this.imagenUrl = imagenUrl;
     }
 
+    public Long getImagenHash() {
+        return imagenHash;
+    }
+
+    public void setImagenHash(Long imagenHash) {
+        this.imagenHash = imagenHash;
+    }
+
+    @JsonIgnore
+    public String getImagenUrlPersistida() {
+        return imagenUrlPersistida;
+    }
+
+    @JsonIgnore
+    public EstadoMascota getEstadoMascotaPersistido() {
+        return estadoMascotaPersistido;
+    }
+
+    // Versiones redimensionadas de la imagen (thumb, card, full), generadas al subirla
+    public Map<String, String> getImagenVariantes() {
+        return VarianteImagen.urlsPara(imagenUrl);
+    }
+
     public LocalDate getFechaNac() {
         return fechaNac;
     }
@@ -1,13 +1,33 @@
 package APP.models.clases;
 
+import APP.geo.GeoHash;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@Table(
+        indexes = @Index(name = "idx_publicacion_geohash", columnList = "geohash"),
+        uniqueConstraints = @UniqueConstraint(name = Publicacion.UK_MASCOTA_ACTIVA, columnNames = "mascota_activa_id")
+)
+// Lo que traen los listados en el mismo SELECT: mascota con su dueño y usuario, ambos con rol
+@NamedEntityGraph(name = Publicacion.GRAFO_LISTADO,
+        attributeNodes = {
+                @NamedAttributeNode(value = "mascota", subgraph = "mascota"),
+                @NamedAttributeNode(value = "usuario", subgraph = "usuario")},
+        subgraphs = {
+                @NamedSubgraph(name = "mascota", attributeNodes = @NamedAttributeNode(value = "usuario", subgraph = "usuario")),
+                @NamedSubgraph(name = "usuario", attributeNodes = @NamedAttributeNode("rol"))})
 public class Publicacion {
+    public static final String UK_MASCOTA_ACTIVA = "uk_publicacion_mascota_activa";
+    public static final String GRAFO_LISTADO = "Publicacion.listado";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    Long version;
     LocalDate fecha;
     LocalDate fechaCierre;
     @Column(length = 2000)
@@ -17,6 +37,14 @@ public class Publicacion {
     Double lat;
     Double lng;
     String municipioId;
+    @Column(length = GeoHash.PRECISION_MAXIMA)
+    @JsonIgnore
+    String geohash;
+    // Copia de mascota_id sólo mientras la publicación está ACTIVA (null en otro caso).
+    // El UNIQUE sobre esta columna asegura en la base una única publicación activa por mascota.
+    @Column(name = "mascota_activa_id")
+    @JsonIgnore
+    Long mascotaActivaId;
     @ManyToOne
     @JoinColumn(name = "mascota_id")
     Mascota mascota;
@@ -24,10 +52,29 @@ public class Publicacion {
     @JoinColumn(name = "usuario_id")
     Usuario usuario;
 
+    @PrePersist
+    @PreUpdate
+    void calcularCamposDerivados() {
+        calcularGeohash();
+        calcularMascotaActiva();
+    }
+
+    public void calcularGeohash() {
+        geohash = (lat != null && lng != null) ? GeoHash.codificar(lat, lng, GeoHash.PRECISION_MAXIMA) : null;
+    }
+
+    public void calcularMascotaActiva() {
+        mascotaActivaId = (estadoPublicacion == EstadoPublicacion.ACTIVA && mascota != null) ? mascota.getId() : null;
+    }
+
     public Long getId() {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -104,6 +151,15 @@ public class Publicacion {
         this.municipioId = municipioId;
     }
 
+    public String getGeohash() {
+        return geohash;
+    }
+
+    @JsonIgnore
+    public Long getMascotaActivaId() {
+        return mascotaActivaId;
+    }
+
     // Getters para serialización JSON
     public Long getUsuarioId() {
         return usuario != null ? usuario.getId() : null;
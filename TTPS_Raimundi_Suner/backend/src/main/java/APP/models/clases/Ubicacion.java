@@ -1,8 +1,11 @@
 package APP.models.clases;
 
+import APP.geo.GeoHash;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_ubicacion_geohash", columnList = "geohash"))
 public class Ubicacion {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -11,6 +14,15 @@ public class Ubicacion {
     String direccion;
     double lat;
     double lng;
+    @Column(length = GeoHash.PRECISION_MAXIMA)
+    @JsonIgnore
+    String geohash;
+
+    @PrePersist
+    @PreUpdate
+    public void calcularGeohash() {
+        geohash = GeoHash.codificar(lat, lng, GeoHash.PRECISION_MAXIMA);
+    }
 
     public Long getId() {
         return id;
@@ -51,5 +63,8 @@ public class Ubicacion {
     public void setLng(double lng) {
         this.lng = lng;
     }
-}
 
+    public String getGeohash() {
+        return geohash;
+    }
+}
@@ -9,6 +9,10 @@ public class Usuario {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
+    // La incrementan también los UPDATE directos de UsuarioDAO que cambian datos visibles (puntos)
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    Long version;
     String nombre;
     String apellido;
     @Column(unique = true)
@@ -24,6 +28,8 @@ public class Usuario {
     @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT TRUE")
     private Boolean estado = true;
 
+    // Sólo la cambia el UPDATE atómico de UsuarioDAO.sumarPuntos: guardar la entidad no pisa un incremento concurrente
+    @Column(updatable = false)
     int puntos;
     @OneToMany(mappedBy = "usuario")
     @JsonIgnore
@@ -47,6 +53,10 @@ public class Usuario {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
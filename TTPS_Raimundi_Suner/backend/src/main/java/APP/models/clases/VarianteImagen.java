@@ -0,0 +1,79 @@
+package APP.models.clases;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Versiones redimensionadas que se generan para cada imagen subida.
+ * El archivo de cada variante se nombra a partir del original: {base}_{sufijo}.jpg
+ */
+public enum VarianteImagen {
+    THUMB("thumb", 160, 0.75f),
+    CARD("card", 480, 0.80f),
+    FULL("full", 1280, 0.85f);
+
+    private final String sufijo;
+    private final int ladoMaximo;
+    private final float calidad;
+
+    VarianteImagen(String sufijo, int ladoMaximo, float calidad) {
+        this.sufijo = sufijo;
+        this.ladoMaximo = ladoMaximo;
+        this.calidad = calidad;
+    }
+
+    public String getSufijo() {
+        return sufijo;
+    }
+
+    public int getLadoMaximo() {
+        return ladoMaximo;
+    }
+
+    public float getCalidad() {
+        return calidad;
+    }
+
+    /**
+     * URL pública de esta variante para la imagen original {@code imagenUrl}
+     * (p. ej. /uploads/mascotas/abc.png -> /uploads/mascotas/abc_thumb.jpg).
+     */
+    public String urlPara(String imagenUrl) {
+        if (imagenUrl == null || imagenUrl.isEmpty()) {
+            return null;
+        }
+        int barra = imagenUrl.lastIndexOf('/');
+        int punto = imagenUrl.lastIndexOf('.');
+        String base = punto > barra ? imagenUrl.substring(0, punto) : imagenUrl;
+        return base + "_" + sufijo + ".jpg";
+    }
+
+    /**
+     * Si {@code imagenUrl} es el nombre de una variante ({base}_{sufijo}.jpg) y no de una imagen original.
+     */
+    public static boolean esVariante(String imagenUrl) {
+        if (imagenUrl == null) {
+            return false;
+        }
+        for (VarianteImagen variante : values()) {
+            if (imagenUrl.endsWith("_" + variante.sufijo + ".jpg")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * URLs de todas las variantes de {@code imagenUrl} indexadas por sufijo, o null si no hay imagen.
+     */
+    public static Map<String, String> urlsPara(String imagenUrl) {
+        if (imagenUrl == null || imagenUrl.isEmpty()) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (VarianteImagen variante : values()) {
+            urls.put(variante.sufijo, variante.urlPara(imagenUrl));
+        }
+        return urls;
+    }
+}
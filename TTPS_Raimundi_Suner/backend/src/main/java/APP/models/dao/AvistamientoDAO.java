@@ -1,7 +1,11 @@
 package APP.models.dao;
 
+import APP.dto.AvistamientoResumenDTO;
 import APP.models.clases.Avistamiento;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,15 +14,33 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface AvistamientoDAO extends JpaRepository<Avistamiento, Long> {
+public interface AvistamientoDAO extends JpaRepository<Avistamiento, Long>, JpaSpecificationExecutor<Avistamiento> {
+    // Los listados cargan el grafo GRAFO_LISTADO de la entidad en el mismo SELECT (sin una consulta extra por fila)
+    @EntityGraph(Avistamiento.GRAFO_LISTADO)
     List<Avistamiento> findByFecha(LocalDate fecha);
 
+    @EntityGraph(Avistamiento.GRAFO_LISTADO)
     @Query("SELECT a FROM Avistamiento a WHERE a.fecha BETWEEN :fechaInicio AND :fechaFin")
     List<Avistamiento> findByFechaRange(@Param("fechaInicio") LocalDate fechaInicio, @Param("fechaFin") LocalDate fechaFin);
 
+    @EntityGraph(Avistamiento.GRAFO_LISTADO)
     @Query("SELECT a FROM Avistamiento a WHERE a.mascota.id = :mascotaId")
     List<Avistamiento> findByMascota(@Param("mascotaId") Long mascotaId);
 
+    @EntityGraph(Avistamiento.GRAFO_LISTADO)
     @Query("SELECT a FROM Avistamiento a WHERE a.usuario.id = :usuarioId")
     List<Avistamiento> findByUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Override
+    @EntityGraph(Avistamiento.GRAFO_LISTADO)
+    List<Avistamiento> findAll();
+
+    @Override
+    @EntityGraph(Avistamiento.GRAFO_LISTADO)
+    List<Avistamiento> findAll(Specification<Avistamiento> spec);
+
+    @Query("SELECT new APP.dto.AvistamientoResumenDTO(a.id, a.fecha, a.comentario, m.id, m.nombre, u.id, " +
+           "ub.lat, ub.lng, ub.barrio) " +
+           "FROM Avistamiento a LEFT JOIN a.mascota m LEFT JOIN a.usuario u LEFT JOIN a.ubicacion ub ORDER BY a.id")
+    List<AvistamientoResumenDTO> findAllResumen();
 }
@@ -1,12 +1,21 @@
 package APP.models.dao;
 
 import APP.models.clases.Badge;
+import APP.config.CacheSegundoNivelConfig;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface BadgeDAO extends JpaRepository<Badge, Long> {
+    // Se resuelve desde la caché de consultas; se invalida sola cuando cambia la tabla
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheSegundoNivelConfig.REGION_CONSULTAS_REFERENCIA)
+    })
     Optional<Badge> findByNombre(String nombre);
 }
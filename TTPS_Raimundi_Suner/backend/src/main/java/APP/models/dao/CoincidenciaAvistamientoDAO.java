@@ -0,0 +1,42 @@
+package APP.models.dao;
+
+import APP.dto.CoincidenciaAvistamientoDTO;
+import APP.models.clases.CoincidenciaAvistamiento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CoincidenciaAvistamientoDAO extends JpaRepository<CoincidenciaAvistamiento, Long> {
+
+    @Modifying
+    @Query("DELETE FROM CoincidenciaAvistamiento c WHERE c.avistamientoId = :avistamientoId")
+    int deleteByAvistamientoId(@Param("avistamientoId") Long avistamientoId);
+
+    @Modifying
+    @Query("DELETE FROM CoincidenciaAvistamiento c WHERE c.publicacionId IN :publicacionIds")
+    int deleteByPublicacionIdIn(@Param("publicacionIds") Collection<Long> publicacionIds);
+
+    @Query("SELECT DISTINCT c.avistamientoId FROM CoincidenciaAvistamiento c WHERE c.publicacionId = :publicacionId")
+    List<Long> findAvistamientoIdsByPublicacion(@Param("publicacionId") Long publicacionId);
+
+    // Los joins descartan coincidencias cuyo avistamiento o publicación ya no existen
+    @Query("SELECT new APP.dto.CoincidenciaAvistamientoDTO(a.id, a.fecha, a.comentario, ub.lat, ub.lng, ub.barrio, " +
+           "p.id, p.fecha, m.id, m.nombre, c.puntaje, c.distanciaKm) " +
+           "FROM CoincidenciaAvistamiento c JOIN Avistamiento a ON a.id = c.avistamientoId JOIN a.ubicacion ub " +
+           "JOIN Publicacion p ON p.id = c.publicacionId LEFT JOIN p.mascota m " +
+           "WHERE c.avistamientoId = :avistamientoId ORDER BY c.puntaje DESC, p.id")
+    List<CoincidenciaAvistamientoDTO> findResumenByAvistamiento(@Param("avistamientoId") Long avistamientoId);
+
+    @Query("SELECT new APP.dto.CoincidenciaAvistamientoDTO(a.id, a.fecha, a.comentario, ub.lat, ub.lng, ub.barrio, " +
+           "p.id, p.fecha, m.id, m.nombre, c.puntaje, c.distanciaKm) " +
+           "FROM CoincidenciaAvistamiento c JOIN Avistamiento a ON a.id = c.avistamientoId JOIN a.ubicacion ub " +
+           "JOIN Publicacion p ON p.id = c.publicacionId LEFT JOIN p.mascota m " +
+           "WHERE c.publicacionId = :publicacionId ORDER BY c.puntaje DESC, a.id")
+    List<CoincidenciaAvistamientoDTO> findResumenByPublicacion(@Param("publicacionId") Long publicacionId);
+}
@@ -1,23 +1,70 @@
 package APP.models.dao;
 
+import APP.models.clases.EstadoMascota;
 import APP.models.clases.Mascota;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface MascotaDAO extends JpaRepository<Mascota, Long> {
+public interface MascotaDAO extends JpaRepository<Mascota, Long>, JpaSpecificationExecutor<Mascota> {
     List<Mascota> findByNombre(String nombre);
     List<Mascota> findByTipo(String tipo);
     List<Mascota> findByRaza(String raza);
     List<Mascota> findByColor(String color);
 
     @Query("SELECT m FROM Mascota m WHERE m.estadoMascota = :estado")
-    List<Mascota> findByEstado(@Param("estado") String estado);
+    List<Mascota> findByEstado(@Param("estado") EstadoMascota estado);
 
+    // Los listados cargan el grafo GRAFO_LISTADO de la entidad en el mismo SELECT (sin una consulta extra por fila)
+    @EntityGraph(Mascota.GRAFO_LISTADO)
+    @Query("SELECT m FROM Mascota m WHERE m.estadoMascota IN :estados")
+    List<Mascota> findByEstadoIn(@Param("estados") Collection<EstadoMascota> estados);
+
+    @EntityGraph(Mascota.GRAFO_LISTADO)
     @Query("SELECT m FROM Mascota m WHERE m.usuario.id = :usuarioId")
     List<Mascota> findByUsuario(@Param("usuarioId") Long usuarioId);
+
+    // Paginación por cursor (keyset sobre id): usa el índice de la PK y no depende de OFFSET
+    @EntityGraph(Mascota.GRAFO_LISTADO)
+    @Query("SELECT m FROM Mascota m WHERE m.id > :cursor ORDER BY m.id ASC")
+    List<Mascota> findPaginaDesde(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Override
+    @EntityGraph(Mascota.GRAFO_LISTADO)
+    List<Mascota> findAll();
+
+    // Referencias a una imagen: como el almacenamiento deduplica por contenido, varias mascotas pueden compartirla
+    long countByImagenUrl(String imagenUrl);
+
+    @Query("SELECT m.imagenUrl FROM Mascota m WHERE m.id = :id")
+    String findImagenUrlById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT m.imagenUrl FROM Mascota m WHERE m.imagenUrl IS NOT NULL")
+    List<String> findImagenUrlsEnUso();
+
+    // [id, imagenHash] de las mascotas con hash perceptual, para cargar el índice de similitud
+    @Query("SELECT m.id, m.imagenHash FROM Mascota m WHERE m.imagenHash IS NOT NULL")
+    List<Object[]> findHashesDeImagen();
+
+    // [id, imagenUrl] de las mascotas con imagen y sin hash perceptual, de a lotes por id
+    @Query("SELECT m.id, m.imagenUrl FROM Mascota m WHERE m.imagenUrl IS NOT NULL AND m.imagenHash IS NULL " +
+           "AND m.id > :desdeId ORDER BY m.id")
+    List<Object[]> findImagenesSinHash(@Param("desdeId") Long desdeId, Pageable pageable);
+
+    // Guarda un hash calculado fuera de la transacción sólo si la mascota sigue con la misma imagen.
+    // No incrementa la versión: el hash es un dato derivado y no debe invalidar el ETag de los clientes
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Mascota m SET m.imagenHash = :hash WHERE m.id = :id AND m.imagenUrl = :imagenUrl")
+    int guardarImagenHash(@Param("id") Long id, @Param("imagenUrl") String imagenUrl, @Param("hash") Long hash);
 }
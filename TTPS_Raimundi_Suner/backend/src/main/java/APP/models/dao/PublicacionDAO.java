@@ -1,7 +1,12 @@
 package APP.models.dao;
 
+import APP.dto.PublicacionResumenDTO;
 import APP.models.clases.Publicacion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,10 +15,13 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface PublicacionDAO extends JpaRepository<Publicacion, Long> {
+public interface PublicacionDAO extends JpaRepository<Publicacion, Long>, JpaSpecificationExecutor<Publicacion> {
+    // Los listados cargan el grafo GRAFO_LISTADO de la entidad en el mismo SELECT (sin una consulta extra por fila)
+    @EntityGraph(Publicacion.GRAFO_LISTADO)
     @Query("SELECT p FROM Publicacion p WHERE p.usuario.id = :usuarioId")
     List<Publicacion> findByUsuario(@Param("usuarioId") Long usuarioId);
 
+    @EntityGraph(Publicacion.GRAFO_LISTADO)
     @Query("SELECT p FROM Publicacion p WHERE p.mascota.id = :mascotaId")
     List<Publicacion> findByMascota(@Param("mascotaId") Long mascotaId);
 
@@ -23,6 +31,52 @@ public interface PublicacionDAO extends JpaRepository<Publicacion, Long> {
     @Query("SELECT p FROM Publicacion p WHERE p.fecha BETWEEN :fechaInicio AND :fechaFin")
     List<Publicacion> findByFechaRange(@Param("fechaInicio") LocalDate fechaInicio, @Param("fechaFin") LocalDate fechaFin);
 
+    @EntityGraph(Publicacion.GRAFO_LISTADO)
     @Query("SELECT p FROM Publicacion p WHERE p.estadoPublicacion = 'ACTIVA'")
     List<Publicacion> findPublicacionesActivas();
+
+    // Resuelto con el índice único sobre mascota_activa_id
+    @Query("SELECT COUNT(p) > 0 FROM Publicacion p WHERE p.mascotaActivaId = :mascotaId")
+    boolean existsActivaByMascota(@Param("mascotaId") Long mascotaId);
+
+    @Query("SELECT p.id FROM Publicacion p WHERE p.mascota.id = :mascotaId")
+    List<Long> findIdsByMascota(@Param("mascotaId") Long mascotaId);
+
+    @Query("SELECT p FROM Publicacion p WHERE p.estadoPublicacion = APP.models.clases.EstadoPublicacion.ACTIVA " +
+           "AND p.mascota IS NOT NULL AND p.mascotaActivaId IS NULL ORDER BY p.fecha DESC, p.id DESC")
+    List<Publicacion> findActivasSinMascotaActiva();
+
+    // [mascotaId, lat, lng] de las publicaciones con coordenadas de las mascotas con id en (desdeId, hastaId],
+    // de la más vieja a la más nueva
+    @Query("SELECT p.mascota.id, p.lat, p.lng FROM Publicacion p " +
+           "WHERE p.mascota.id > :desdeId AND p.mascota.id <= :hastaId AND p.lat IS NOT NULL AND p.lng IS NOT NULL " +
+           "ORDER BY p.fecha, p.id")
+    List<Object[]> findUbicacionesDeMascotasEntre(@Param("desdeId") Long desdeId, @Param("hastaId") Long hastaId);
+
+    @Query("SELECT p.mascota.id, p.lat, p.lng FROM Publicacion p " +
+           "WHERE p.mascota.id = :mascotaId AND p.lat IS NOT NULL AND p.lng IS NOT NULL ORDER BY p.fecha DESC, p.id DESC")
+    List<Object[]> findUbicacionesDeMascota(@Param("mascotaId") Long mascotaId, Pageable pageable);
+
+    // Publicaciones con coordenadas y sin geohash, de a lotes por id
+    @EntityGraph(Publicacion.GRAFO_LISTADO)
+    @Query("SELECT p FROM Publicacion p WHERE p.geohash IS NULL AND p.lat IS NOT NULL AND p.lng IS NOT NULL " +
+           "AND p.id > :cursor ORDER BY p.id ASC")
+    List<Publicacion> findSinGeohash(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Override
+    @EntityGraph(Publicacion.GRAFO_LISTADO)
+    List<Publicacion> findAll();
+
+    @Override
+    @EntityGraph(Publicacion.GRAFO_LISTADO)
+    List<Publicacion> findAll(Specification<Publicacion> spec);
+
+    // [id, descripcion] de a lotes con cursor sobre id: lo único que necesita el índice de búsqueda
+    @Query("SELECT p.id, p.descripcion FROM Publicacion p WHERE p.id > :cursor ORDER BY p.id ASC")
+    List<Object[]> findDescripcionesDesde(@Param("cursor") Long cursor, Pageable pageable);
+
+    @Query("SELECT new APP.dto.PublicacionResumenDTO(p.id, p.fecha, p.fechaCierre, p.descripcion, p.estadoPublicacion, " +
+           "p.lat, p.lng, p.municipioId, m.id, m.nombre, m.tipo, m.estadoMascota, m.imagenUrl, u.id) " +
+           "FROM Publicacion p LEFT JOIN p.mascota m LEFT JOIN p.usuario u ORDER BY p.id")
+    List<PublicacionResumenDTO> findAllResumen();
 }
@@ -1,7 +1,10 @@
 package APP.models.dao;
 
 import APP.models.clases.Ubicacion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +12,8 @@ import java.util.List;
 @Repository
 public interface UbicacionDAO extends JpaRepository<Ubicacion, Long> {
     List<Ubicacion> findByBarrio(String barrio);
+
+    // Ubicaciones sin geohash, de a lotes por id
+    @Query("SELECT u FROM Ubicacion u WHERE u.geohash IS NULL AND u.id > :cursor ORDER BY u.id ASC")
+    List<Ubicacion> findSinGeohash(@Param("cursor") Long cursor, Pageable pageable);
 }
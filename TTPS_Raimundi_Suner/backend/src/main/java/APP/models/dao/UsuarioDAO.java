@@ -1,9 +1,13 @@
 package APP.models.dao;
 
 import APP.models.clases.Usuario;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +21,19 @@ public interface UsuarioDAO extends JpaRepository<Usuario, Long> {
     List<Usuario> findByDepartamentoId(String departamentoId);
     List<Usuario> findByLocalidadId(String localidadId);
 
-    @Query("SELECT u FROM Usuario u ORDER BY u.puntos DESC")
-    List<Usuario> findAllOrderByPuntosDesc();
+    @Query("SELECT u FROM Usuario u WHERE u.id > :cursor ORDER BY u.id ASC")
+    List<Usuario> findPaginaDesde(@Param("cursor") Long cursor, Pageable pageable);
+
+    // Incremento atómico en la base: sin leer el usuario y sin perder sumas concurrentes.
+    // No vacía el contexto de persistencia: un Usuario ya cargado en la transacción queda con los puntos viejos
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Usuario u SET u.puntos = u.puntos + :delta, u.version = u.version + 1 WHERE u.id = :usuarioId")
+    int sumarPuntos(@Param("usuarioId") Long usuarioId, @Param("delta") int delta);
+
+    // Reemplaza el hash sólo si sigue siendo el leído: no pisa un cambio de contraseña concurrente
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Usuario u SET u.password = :nuevo WHERE u.id = :usuarioId AND u.password = :anterior")
+    int reemplazarPassword(@Param("usuarioId") Long usuarioId, @Param("anterior") String anterior, @Param("nuevo") String nuevo);
 }
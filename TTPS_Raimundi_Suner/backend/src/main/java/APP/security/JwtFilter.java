@@ -1,5 +1,6 @@
 package APP.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -44,6 +45,12 @@ public class JwtFilter implements Filter {
         String path = req.getRequestURI();
         String method = req.getMethod();
 
+        // Uploaded images are public: skip every other check
+        if (path.startsWith("/uploads/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
         // Always allow OPTIONS requests (CORS preflight)
         if ("OPTIONS".equalsIgnoreCase(method)) {
             res.setStatus(HttpServletResponse.SC_OK);
@@ -67,18 +74,20 @@ public class JwtFilter implements Filter {
         }
 
         String token = authHeader.substring(7);
+        Long usuarioId;
         try {
-            if (!jwtUtil.validateToken(token)) {
-                setCorsHeaders(req, res);
-                res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                res.setContentType("application/json");
-                res.getWriter().write("{\"error\":\"Token inválido\"}");
-                return;
-            }
+            // Verified tokens are cached by JwtUtil: repeat requests skip the HMAC check
+            usuarioId = jwtUtil.obtenerUsuarioId(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            setCorsHeaders(req, res);
+            res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            res.setContentType("application/json");
+            res.getWriter().write("{\"error\":\"Token inválido\"}");
+            return;
+        }
 
-            // Token valid: set attribute with subject (user id)
-            String subject = jwtUtil.getSubject(token);
-            req.setAttribute("authenticatedUserId", Long.parseLong(subject));
+        try {
+            req.setAttribute("authenticatedUserId", usuarioId);
 
             chain.doFilter(request, response);
         } catch (Exception e) {
@@ -103,17 +112,15 @@ public class JwtFilter implements Filter {
     private boolean isPublicPath(String path, String method) {
         if (path == null) return false;
 
-        // Allow public access to uploaded images
-        if (path.startsWith("/uploads/")) {
-            return true;
-        }
-
         // Allow prefix checks for swagger and api-docs
         if (path.startsWith("/swagger-ui") || path.startsWith("/v3/api-docs")) return true;
 
         // Allow login and registro
         if (path.equals("/api/usuarios/login") || path.equals("/api/usuarios/registro")) return true;
 
+        // Metrics scraper: MetricasController checks its own token (app.metricas.token) and answers 404 when none is set
+        if (path.equals("/metricas") && "GET".equalsIgnoreCase(method)) return true;
+
         // Allow GET only for publicaciones and mascotas (read-only public access)
         if ("GET".equalsIgnoreCase(method)) {
             if (path.startsWith("/api/publicaciones") || path.startsWith("/api/mascotas")) {
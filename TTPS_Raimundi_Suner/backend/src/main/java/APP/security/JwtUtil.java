@@ -1,6 +1,9 @@
 package APP.security;
 
 import APP.models.clases.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,15 +12,24 @@ import org.springframework.stereotype.Component;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
+    // Token ya verificado: id de usuario y momento (epoch ms) en que vence
+    private record TokenVerificado(long usuarioId, long expiraMs) {}
+
     private final Key key;
     private final long expirationMs;
+    // JwtParser es inmutable y thread-safe: se construye una sola vez
+    private final JwtParser parser;
+    // Acotada por tamaño (W-TinyLFU) y cada entrada vence junto con su token
+    private final Cache<String, TokenVerificado> verificados;
 
     public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expirationMs:86400000}") long expirationMs) {
+                   @Value("${jwt.expirationMs:86400000}") long expirationMs,
+                   @Value("${jwt.cache.maxEntradas:10000}") int maxTokensCacheados) {
         String s = secret == null ? "" : secret;
 
         // Build key bytes robustly: ensure at least 32 bytes (256 bits) for HS256
@@ -34,6 +46,27 @@ public class JwtUtil {
 
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verificados = Caffeine.newBuilder()
+                .maximumSize(maxTokensCacheados)
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    @Override
+                    public long expireAfterCreate(String token, TokenVerificado verificado, long ahoraNanos) {
+                        long restanteMs = verificado.expiraMs() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(restanteMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, TokenVerificado verificado, long ahoraNanos, long restanteNanos) {
+                        return expireAfterCreate(token, verificado, ahoraNanos);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, TokenVerificado verificado, long ahoraNanos, long restanteNanos) {
+                        return restanteNanos;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(Usuario usuario) {
@@ -51,7 +84,35 @@ public class JwtUtil {
     }
 
     public Jws<Claims> parseToken(String token) throws JwtException {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return parser.parseClaimsJws(token);
+    }
+
+    /**
+     * Id del usuario del token. La firma se verifica solo la primera vez: después el token
+     * queda en una caché acotada hasta su vencimiento y la validación es una búsqueda en la caché.
+     *
+     * @throws JwtException si el token es inválido o venció
+     */
+    public Long obtenerUsuarioId(String token) throws JwtException {
+        // Un token vencido ya no está en la caché: parseToken lanza ExpiredJwtException
+        TokenVerificado verificado = verificados.getIfPresent(token);
+        if (verificado != null) {
+            return verificado.usuarioId();
+        }
+
+        Claims claims = parseToken(token).getBody();
+        long usuarioId;
+        try {
+            usuarioId = Long.parseLong(claims.getSubject());
+        } catch (NumberFormatException e) {
+            throw new MalformedJwtException("Subject inválido en el token");
+        }
+
+        // Los tokens emitidos por generateToken siempre tienen exp; sin exp no se cachean
+        if (claims.getExpiration() != null) {
+            verificados.put(token, new TokenVerificado(usuarioId, claims.getExpiration().getTime()));
+        }
+        return usuarioId;
     }
 
     public boolean validateToken(String token) {
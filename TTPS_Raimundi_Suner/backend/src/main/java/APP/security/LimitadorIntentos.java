@@ -0,0 +1,133 @@
+package APP.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limita los intentos de login, registro y cambio de contraseña por cuenta y por IP con una ventana
+ * deslizante: se estima la cantidad de intentos en los últimos {@code ventanaSegundos} sumando los de la
+ * ventana fija actual y la parte proporcional de la anterior. Se consulta antes de hashear nada, así el
+ * tráfico de fuerza bruta no llega a gastar CPU en BCrypt.
+ * Las ventanas viven en una caché Caffeine acotada a {@code maxEntradas}: al llenarse desaloja las claves
+ * con menos intentos (W-TinyLFU), así una ráfaga de cuentas o IPs nuevas no borra el bloqueo de la que se
+ * está atacando. Una clave sin intentos en dos ventanas seguidas ya no pesa y vence sola.
+ */
+@Component
+public class LimitadorIntentos {
+
+    private static final class Ventana {
+        long numero;
+        int actual;
+        int anterior;
+    }
+
+    private final Cache<String, Ventana> ventanas;
+    private final long ventanaMs;
+    private final int maximoPorCuenta;
+    private final int maximoPorIp;
+    private final LongSupplier reloj;
+
+    @Autowired
+    public LimitadorIntentos(@Value("${app.intentos.ventanaSegundos:300}") long ventanaSegundos,
+                             @Value("${app.intentos.maximoPorCuenta:10}") int maximoPorCuenta,
+                             @Value("${app.intentos.maximoPorIp:50}") int maximoPorIp,
+                             @Value("${app.intentos.maxEntradas:100000}") int maxEntradas) {
+        this(ventanaSegundos, maximoPorCuenta, maximoPorIp, maxEntradas, System::currentTimeMillis);
+    }
+
+    /**
+     * Con un reloj propio en milisegundos (los tests avanzan el tiempo sin esperar).
+     */
+    public LimitadorIntentos(long ventanaSegundos, int maximoPorCuenta, int maximoPorIp, int maxEntradas,
+                             LongSupplier reloj) {
+        this.ventanaMs = ventanaSegundos * 1000;
+        this.maximoPorCuenta = maximoPorCuenta;
+        this.maximoPorIp = maximoPorIp;
+        this.reloj = reloj;
+        this.ventanas = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofMillis(2 * ventanaMs))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(reloj.getAsLong()))
+                // El mantenimiento (desalojos) corre en el hilo que registra el intento: es acotado
+                // y no depende de que el pool común tenga hilos libres
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Registra un intento para la cuenta (p. ej. "login:" + email; null si no aplica) y la IP.
+     * Devuelve false, sin registrarlo, si alguna de las dos ya alcanzó su máximo en la ventana.
+     * La verificación y el registro son atómicos por clave: requests en paralelo no pasan todos antes de contarse.
+     */
+    public boolean intentar(String cuenta, String ip) {
+        long ahora = reloj.getAsLong();
+        if (cuenta != null && !reservar("c:" + cuenta, maximoPorCuenta, ahora)) {
+            return false;
+        }
+        if (ip != null && !reservar("ip:" + ip, maximoPorIp, ahora)) {
+            // El intento no se registra: se devuelve el lugar ya tomado en la cuenta
+            if (cuenta != null) {
+                devolver("c:" + cuenta, ahora);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Olvida los intentos de la cuenta (p. ej. después de un login exitoso).
+     */
+    public void reiniciar(String cuenta) {
+        ventanas.invalidate("c:" + cuenta);
+    }
+
+    public long getVentanaSegundos() {
+        return ventanaMs / 1000;
+    }
+
+    // compute bloquea la clave: nadie más lee ni modifica la ventana entre la estimación y el incremento
+    private boolean reservar(String clave, int maximo, long ahora) {
+        boolean[] permitido = {false};
+        ventanas.asMap().compute(clave, (k, ventana) -> {
+            if (ventana == null) {
+                ventana = new Ventana();
+                ventana.numero = ahora / ventanaMs;
+            }
+            avanzar(ventana, ahora);
+            double pesoAnterior = 1.0 - (double) (ahora % ventanaMs) / ventanaMs;
+            if (ventana.actual + ventana.anterior * pesoAnterior < maximo) {
+                ventana.actual++;
+                permitido[0] = true;
+            }
+            return ventana;
+        });
+        return permitido[0];
+    }
+
+    private void devolver(String clave, long ahora) {
+        ventanas.asMap().computeIfPresent(clave, (k, ventana) -> {
+            avanzar(ventana, ahora);
+            if (ventana.actual > 0) {
+                ventana.actual--;
+            }
+            return ventana;
+        });
+    }
+
+    // Se llama dentro de compute, con la clave bloqueada
+    private void avanzar(Ventana ventana, long ahora) {
+        long numero = ahora / ventanaMs;
+        if (numero != ventana.numero) {
+            ventana.anterior = numero == ventana.numero + 1 ? ventana.actual : 0;
+            ventana.actual = 0;
+            ventana.numero = numero;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package APP.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte texto libre en términos de búsqueda: minúsculas, sin acentos ni diéresis (árbol -> arbol,
+ * ñ -> n), sin palabras vacías y con un stemming liviano para español que unifica singular/plural
+ * y masculino/femenino (perros, perra -> perr; marrones -> marron; luz, luces -> luc).
+ * Se aplica igual al indexar y al buscar, así ambas formas coinciden.
+ */
+final class AnalizadorTexto {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "e", "el", "en", "es", "la", "las", "lo", "los", "me", "mi",
+            "muy", "o", "para", "por", "que", "se", "sin", "su", "sus", "u", "un", "una", "uno", "unos",
+            "unas", "y", "ya"
+    );
+
+    private AnalizadorTexto() {}
+
+    static List<String> analizar(String texto) {
+        List<String> terminos = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return terminos;
+        }
+        String normalizado = MARCAS_DIACRITICAS
+                .matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String palabra : SEPARADORES.split(normalizado)) {
+            if (!palabra.isEmpty() && !PALABRAS_VACIAS.contains(palabra)) {
+                terminos.add(raiz(palabra));
+            }
+        }
+        return terminos;
+    }
+
+    /**
+     * Stemming liviano (sufijos de género y número), en la línea del SpanishLightStemmer de Lucene.
+     * Singular y plural tienen que dar la misma raíz: dulce/dulces -> dulc, ingles/ingleses -> ingl,
+     * luz/luces -> luc, mes/meses -> mes.
+     */
+    static String raiz(String palabra) {
+        // La z final pasa a c en el plural (luz/luces, nariz/narices): se unifican en c
+        if (palabra.length() >= 3 && palabra.endsWith("z")) {
+            palabra = palabra.substring(0, palabra.length() - 1) + "c";
+        }
+        int largo = palabra.length();
+        if (largo < 4) {
+            return palabra;
+        }
+        if (largo > 6 && palabra.endsWith("eses")) {
+            // ingleses -> ingl, igual que ingles (que pierde "es" como cualquier plural)
+            return palabra.substring(0, largo - 4);
+        }
+        if (palabra.endsWith("es") || palabra.endsWith("os") || palabra.endsWith("as")) {
+            // perros -> perr, dulces -> dulc, marrones -> marron, meses -> mes
+            return palabra.substring(0, largo - 2);
+        }
+        char ultima = palabra.charAt(largo - 1);
+        if (ultima == 'o' || ultima == 'a' || ultima == 'e') {
+            return palabra.substring(0, largo - 1);
+        }
+        return palabra;
+    }
+}
@@ -0,0 +1,158 @@
+package APP.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BK-tree sobre hashes de 64 bits con distancia de Hamming. Cada nodo es un hash distinto con los ids
+ * que lo comparten; la búsqueda por radio descarta, por desigualdad triangular, los subárboles cuya
+ * distancia al nodo queda fuera de [d - radio, d + radio]. No es thread-safe: {@link SimilitudImagenesService}
+ * lo protege con un lock.
+ * Quitar deja el nodo vacío en su lugar (sacarlo obligaría a reinsertar su subárbol); cuando los vacíos superan
+ * {@link #PROPORCION_MAXIMA_VACIOS} de los nodos, el árbol se reconstruye sólo con los que tienen ids.
+ */
+class ArbolBK {
+
+    /**
+     * Id encontrado y su distancia de Hamming al hash buscado.
+     */
+    record Vecino(long id, int distancia) {}
+
+    private static final class Nodo {
+        final long hash;
+        final Set<Long> ids = new HashSet<>(2);
+        final Map<Integer, Nodo> hijos = new HashMap<>(4);
+
+        Nodo(long hash) {
+            this.hash = hash;
+        }
+    }
+
+    static final double PROPORCION_MAXIMA_VACIOS = 0.5;
+    // Con pocos nodos no vale la pena reconstruir
+    private static final int MINIMO_NODOS_PARA_RECONSTRUIR = 64;
+
+    private Nodo raiz;
+    private int nodos;
+    private int vacios;
+
+    void agregar(long hash, long id) {
+        if (raiz == null) {
+            raiz = new Nodo(hash);
+            raiz.ids.add(id);
+            nodos = 1;
+            return;
+        }
+        Nodo actual = raiz;
+        while (true) {
+            int distancia = distancia(actual.hash, hash);
+            if (distancia == 0) {
+                if (actual.ids.isEmpty()) {
+                    vacios--;
+                }
+                actual.ids.add(id);
+                return;
+            }
+            Nodo hijo = actual.hijos.get(distancia);
+            if (hijo == null) {
+                hijo = new Nodo(hash);
+                hijo.ids.add(id);
+                actual.hijos.put(distancia, hijo);
+                nodos++;
+                return;
+            }
+            actual = hijo;
+        }
+    }
+
+    /**
+     * Quita el id del nodo de su hash. Si el nodo se vacía queda en el árbol hasta la próxima reconstrucción.
+     */
+    void quitar(long hash, long id) {
+        Nodo actual = raiz;
+        while (actual != null) {
+            int distancia = distancia(actual.hash, hash);
+            if (distancia == 0) {
+                if (actual.ids.remove(id) && actual.ids.isEmpty()) {
+                    vacios++;
+                    if (nodos >= MINIMO_NODOS_PARA_RECONSTRUIR && vacios > nodos * PROPORCION_MAXIMA_VACIOS) {
+                        reconstruir();
+                    }
+                }
+                return;
+            }
+            actual = actual.hijos.get(distancia);
+        }
+    }
+
+    void limpiar() {
+        raiz = null;
+        nodos = 0;
+        vacios = 0;
+    }
+
+    /**
+     * Cantidad de nodos, incluidos los vacíos.
+     */
+    int nodos() {
+        return nodos;
+    }
+
+    int nodosVacios() {
+        return vacios;
+    }
+
+    // Reinserta los nodos con ids en un árbol nuevo (recorrido en anchura: los hashes cercanos a la raíz siguen arriba)
+    private void reconstruir() {
+        List<Nodo> conIds = new ArrayList<>(nodos - vacios);
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.add(raiz);
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.poll();
+            if (!nodo.ids.isEmpty()) {
+                conIds.add(nodo);
+            }
+            pendientes.addAll(nodo.hijos.values());
+        }
+        limpiar();
+        for (Nodo nodo : conIds) {
+            for (Long id : nodo.ids) {
+                agregar(nodo.hash, id);
+            }
+        }
+    }
+
+    List<Vecino> buscar(long hash, int radio) {
+        List<Vecino> vecinos = new ArrayList<>();
+        if (raiz == null) {
+            return vecinos;
+        }
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.push(raiz);
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.pop();
+            int distancia = distancia(nodo.hash, hash);
+            if (distancia <= radio) {
+                for (Long id : nodo.ids) {
+                    vecinos.add(new Vecino(id, distancia));
+                }
+            }
+            for (Map.Entry<Integer, Nodo> hijo : nodo.hijos.entrySet()) {
+                if (Math.abs(hijo.getKey() - distancia) <= radio) {
+                    pendientes.push(hijo.getValue());
+                }
+            }
+        }
+        return vecinos;
+    }
+
+    static int distancia(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
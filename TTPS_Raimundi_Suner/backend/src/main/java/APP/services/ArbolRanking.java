@@ -0,0 +1,178 @@
+package APP.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Árbol de estadísticas de orden (treap con tamaño de subárbol) ordenado por puntos descendente
+ * y, a igual puntaje, por id ascendente. Inserción, borrado, posición y selección por índice
+ * son O(log n). No es thread-safe: {@link RankingService} lo protege con un lock.
+ */
+class ArbolRanking {
+
+    private static final class Nodo {
+        final long id;
+        final int puntos;
+        final int prioridad;
+        int tamanio = 1;
+        Nodo izq;
+        Nodo der;
+
+        Nodo(long id, int puntos, int prioridad) {
+            this.id = id;
+            this.puntos = puntos;
+            this.prioridad = prioridad;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Nodo raiz;
+
+    int tamanio() {
+        return tamanio(raiz);
+    }
+
+    void insertar(long id, int puntos) {
+        raiz = insertar(raiz, new Nodo(id, puntos, random.nextInt()));
+    }
+
+    void eliminar(long id, int puntos) {
+        raiz = eliminar(raiz, id, puntos);
+    }
+
+    /**
+     * Cantidad de entradas que quedan por delante de (id, puntos), es decir, la posición base 0.
+     */
+    int posicion(long id, int puntos) {
+        int posicion = 0;
+        Nodo actual = raiz;
+        while (actual != null) {
+            int cmp = comparar(id, puntos, actual);
+            if (cmp == 0) {
+                return posicion + tamanio(actual.izq);
+            }
+            if (cmp < 0) {
+                actual = actual.izq;
+            } else {
+                posicion += tamanio(actual.izq) + 1;
+                actual = actual.der;
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Ids de las entradas en las posiciones [desde, desde + cantidad), en orden de ranking.
+     */
+    List<Long> rango(int desde, int cantidad) {
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(cantidad, tamanio() - desde)));
+        recolectar(raiz, desde, cantidad, ids);
+        return ids;
+    }
+
+    void limpiar() {
+        raiz = null;
+    }
+
+    private void recolectar(Nodo nodo, int desde, int cantidad, List<Long> ids) {
+        if (nodo == null || ids.size() >= cantidad) {
+            return;
+        }
+        int tamanioIzq = tamanio(nodo.izq);
+        if (desde < tamanioIzq) {
+            recolectar(nodo.izq, desde, cantidad, ids);
+        }
+        if (ids.size() < cantidad && desde <= tamanioIzq) {
+            ids.add(nodo.id);
+        }
+        if (ids.size() < cantidad) {
+            recolectar(nodo.der, Math.max(0, desde - tamanioIzq - 1), cantidad, ids);
+        }
+    }
+
+    private Nodo insertar(Nodo nodo, Nodo nuevo) {
+        if (nodo == null) {
+            return nuevo;
+        }
+        if (nuevo.prioridad > nodo.prioridad) {
+            Nodo[] partes = dividir(nodo, nuevo.id, nuevo.puntos);
+            nuevo.izq = partes[0];
+            nuevo.der = partes[1];
+            actualizar(nuevo);
+            return nuevo;
+        }
+        if (comparar(nuevo.id, nuevo.puntos, nodo) < 0) {
+            nodo.izq = insertar(nodo.izq, nuevo);
+        } else {
+            nodo.der = insertar(nodo.der, nuevo);
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    private Nodo eliminar(Nodo nodo, long id, int puntos) {
+        if (nodo == null) {
+            return null;
+        }
+        int cmp = comparar(id, puntos, nodo);
+        if (cmp == 0) {
+            return unir(nodo.izq, nodo.der);
+        }
+        if (cmp < 0) {
+            nodo.izq = eliminar(nodo.izq, id, puntos);
+        } else {
+            nodo.der = eliminar(nodo.der, id, puntos);
+        }
+        actualizar(nodo);
+        return nodo;
+    }
+
+    /**
+     * Divide el subárbol en entradas anteriores a (id, puntos) y entradas posteriores.
+     */
+    private Nodo[] dividir(Nodo nodo, long id, int puntos) {
+        if (nodo == null) {
+            return new Nodo[]{null, null};
+        }
+        if (comparar(id, puntos, nodo) > 0) {
+            Nodo[] partes = dividir(nodo.der, id, puntos);
+            nodo.der = partes[0];
+            actualizar(nodo);
+            return new Nodo[]{nodo, partes[1]};
+        }
+        Nodo[] partes = dividir(nodo.izq, id, puntos);
+        nodo.izq = partes[1];
+        actualizar(nodo);
+        return new Nodo[]{partes[0], nodo};
+    }
+
+    private Nodo unir(Nodo izq, Nodo der) {
+        if (izq == null) return der;
+        if (der == null) return izq;
+        if (izq.prioridad > der.prioridad) {
+            izq.der = unir(izq.der, der);
+            actualizar(izq);
+            return izq;
+        }
+        der.izq = unir(izq, der.izq);
+        actualizar(der);
+        return der;
+    }
+
+    // Más puntos va primero; a igual puntaje, menor id primero
+    private static int comparar(long id, int puntos, Nodo nodo) {
+        if (puntos != nodo.puntos) {
+            return puntos > nodo.puntos ? -1 : 1;
+        }
+        return Long.compare(id, nodo.id);
+    }
+
+    private static void actualizar(Nodo nodo) {
+        nodo.tamanio = 1 + tamanio(nodo.izq) + tamanio(nodo.der);
+    }
+
+    private static int tamanio(Nodo nodo) {
+        return nodo == null ? 0 : nodo.tamanio;
+    }
+}
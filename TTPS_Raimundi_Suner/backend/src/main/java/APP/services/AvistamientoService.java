@@ -1,19 +1,35 @@
 package APP.services;
 
+import APP.dto.AvistamientoResumenDTO;
+import APP.dto.CoincidenciaAvistamientoDTO;
+import APP.geo.GeoHash;
 import APP.models.clases.Avistamiento;
+import APP.models.clases.Ubicacion;
 import APP.models.dao.AvistamientoDAO;
 import APP.models.dao.MascotaDAO;
+import APP.models.dao.UbicacionDAO;
 import APP.models.dao.UsuarioDAO;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class AvistamientoService {
 
+    private static final int LOTE_GEOHASH = 500;
+
     @Autowired
     private AvistamientoDAO avistamientoDAO;
 
@@ -23,6 +39,36 @@ public class AvistamientoService {
     @Autowired
     private UsuarioDAO usuarioDAO;
 
+    @Autowired
+    private UbicacionDAO ubicacionDAO;
+
+    @Autowired
+    private CoincidenciasAvistamientoService coincidenciasService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Completa el geohash de las ubicaciones guardadas antes de que existiera la columna.
+     * Se recorren de a lotes por id, cada uno en su transacción.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarGeohashFaltantes() {
+        long desdeId = 0;
+        List<Ubicacion> lote;
+        do {
+            long cursor = desdeId;
+            lote = transactionTemplate.execute(status -> {
+                List<Ubicacion> pagina = ubicacionDAO.findSinGeohash(cursor, PageRequest.of(0, LOTE_GEOHASH));
+                pagina.forEach(Ubicacion::calcularGeohash);
+                return pagina;
+            });
+            if (!lote.isEmpty()) {
+                desdeId = lote.get(lote.size() - 1).getId();
+            }
+        } while (lote.size() == LOTE_GEOHASH);
+    }
+
     @Transactional
     public Avistamiento crearAvistamiento(Avistamiento avistamiento) {
         // Validaciones
@@ -36,7 +82,9 @@ public class AvistamientoService {
             avistamiento.setFecha(LocalDate.now());
         }
 
-        return avistamientoDAO.save(avistamiento);
+        Avistamiento nuevo = avistamientoDAO.save(avistamiento);
+        coincidenciasService.calcularEnSegundoPlano(nuevo.getId());
+        return nuevo;
     }
 
     @Transactional
@@ -44,14 +92,31 @@ public class AvistamientoService {
         if (!avistamientoDAO.existsById(avistamiento.getId())) {
             throw new IllegalArgumentException("Avistamiento no encontrado");
         }
-        return avistamientoDAO.save(avistamiento);
+        Avistamiento actualizado = avistamientoDAO.save(avistamiento);
+        coincidenciasService.calcularEnSegundoPlano(actualizado.getId());
+        return actualizado;
     }
 
     @Transactional
     public void eliminarAvistamiento(Long id) {
+        coincidenciasService.quitarAvistamiento(id);
         avistamientoDAO.deleteById(id);
     }
 
+    /**
+     * Publicaciones de mascotas perdidas que podrían corresponder al avistamiento, de la más a la menos probable.
+     */
+    public List<CoincidenciaAvistamientoDTO> obtenerCoincidencias(Long avistamientoId) {
+        return coincidenciasService.obtenerPorAvistamiento(avistamientoId);
+    }
+
+    /**
+     * Avistamientos que podrían corresponder a la mascota de la publicación, del más al menos probable.
+     */
+    public List<CoincidenciaAvistamientoDTO> obtenerCoincidenciasDePublicacion(Long publicacionId) {
+        return coincidenciasService.obtenerPorPublicacion(publicacionId);
+    }
+
 
     public Avistamiento obtenerPorId(Long id) {
         return avistamientoDAO.findById(id).orElse(null);
@@ -61,6 +126,10 @@ public class AvistamientoService {
         return avistamientoDAO.findAll();
     }
 
+    public List<AvistamientoResumenDTO> obtenerResumenTodos() {
+        return avistamientoDAO.findAllResumen();
+    }
+
     public List<Avistamiento> obtenerPorFecha(LocalDate fecha) {
         return avistamientoDAO.findByFecha(fecha);
     }
@@ -76,4 +145,30 @@ public class AvistamientoService {
     public List<Avistamiento> obtenerPorUsuario(Long usuarioId) {
         return avistamientoDAO.findByUsuario(usuarioId);
     }
+
+    /**
+     * Los {@code limite} avistamientos más cercanos a menos de {@code radioKm} del punto, ordenados por distancia.
+     * La consulta sólo recorre las celdas geohash que cubren el círculo (índice sobre ubicacion.geohash);
+     * el filtro exacto por distancia se aplica sobre ese subconjunto.
+     */
+    public List<Avistamiento> obtenerCercanos(double lat, double lng, double radioKm, int limite) {
+        Set<String> celdas = GeoHash.celdasCubriendo(lat, lng, radioKm);
+        Specification<Avistamiento> enCeldas = (root, query, cb) -> {
+            Join<Avistamiento, Ubicacion> ubicacion = root.join("ubicacion");
+            return cb.or(celdas.stream()
+                    .map(celda -> cb.like(ubicacion.get("geohash"), celda + "%"))
+                    .toArray(Predicate[]::new));
+        };
+
+        return avistamientoDAO.findAll(enCeldas).stream()
+                .filter(a -> distanciaKm(a, lat, lng) <= radioKm)
+                .sorted(Comparator.comparingDouble(a -> distanciaKm(a, lat, lng)))
+                .limit(limite)
+                .toList();
+    }
+
+    private static double distanciaKm(Avistamiento avistamiento, double lat, double lng) {
+        Ubicacion ubicacion = avistamiento.getUbicacion();
+        return GeoHash.distanciaKm(lat, lng, ubicacion.getLat(), ubicacion.getLng());
+    }
 }
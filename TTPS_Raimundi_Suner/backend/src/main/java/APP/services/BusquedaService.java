@@ -0,0 +1,161 @@
+package APP.services;
+
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.dao.MascotaDAO;
+import APP.models.dao.PublicacionDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Búsqueda de texto libre sobre mascotas (nombre, tipo, raza, color, descripción) y publicaciones
+ * (descripción) con un índice invertido en memoria.
+ * Se carga una vez al iniciar y {@link MascotaService} / {@link PublicacionService} lo actualizan
+ * en cada escritura confirmada; la búsqueda no consulta la base salvo para traer los resultados por id.
+ */
+@Service
+public class BusquedaService {
+
+    private static final int TAMANIO_LOTE_CARGA = 500;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private PublicacionDAO publicacionDAO;
+
+    private final IndiceInvertido mascotas = new IndiceInvertido();
+    private final IndiceInvertido publicaciones = new IndiceInvertido();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            mascotas.limpiar();
+            publicaciones.limpiar();
+
+            // Por lotes con cursor sobre id, para no tener todas las mascotas ni publicaciones en memoria a la vez
+            long cursor = 0L;
+            List<Mascota> lote;
+            do {
+                lote = mascotaDAO.findPaginaDesde(cursor, PageRequest.of(0, TAMANIO_LOTE_CARGA));
+                for (Mascota mascota : lote) {
+                    mascotas.indexar(mascota.getId(), camposDe(mascota));
+                    cursor = mascota.getId();
+                }
+            } while (lote.size() == TAMANIO_LOTE_CARGA);
+
+            cursor = 0L;
+            List<Object[]> descripciones;
+            do {
+                descripciones = publicacionDAO.findDescripcionesDesde(cursor, PageRequest.of(0, TAMANIO_LOTE_CARGA));
+                for (Object[] fila : descripciones) {
+                    cursor = (Long) fila[0];
+                    publicaciones.indexar(cursor, camposDePublicacion((String) fila[1]));
+                }
+            } while (descripciones.size() == TAMANIO_LOTE_CARGA);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mascotas que coinciden con la consulta, de la más relevante a la menos relevante.
+     */
+    public List<Mascota> buscarMascotas(String consulta, int limite) {
+        List<Long> ids = buscar(mascotas, consulta, limite);
+        return cargarEnOrden(ids, mascotaDAO.findAllById(ids), Mascota::getId);
+    }
+
+    /**
+     * Publicaciones cuya descripción coincide con la consulta, de la más relevante a la menos relevante.
+     */
+    public List<Publicacion> buscarPublicaciones(String consulta, int limite) {
+        List<Long> ids = buscar(publicaciones, consulta, limite);
+        return cargarEnOrden(ids, publicacionDAO.findAllById(ids), Publicacion::getId);
+    }
+
+    /**
+     * Reindexa la mascota cuando la transacción actual confirme.
+     */
+    public void indexarMascota(Mascota mascota) {
+        long id = mascota.getId();
+        List<IndiceInvertido.Campo> campos = camposDe(mascota);
+        TransaccionUtil.despuesDelCommit(() -> escribir(() -> mascotas.indexar(id, campos)));
+    }
+
+    public void quitarMascota(Long id) {
+        TransaccionUtil.despuesDelCommit(() -> escribir(() -> mascotas.quitar(id)));
+    }
+
+    /**
+     * Reindexa la publicación cuando la transacción actual confirme.
+     */
+    public void indexarPublicacion(Publicacion publicacion) {
+        long id = publicacion.getId();
+        List<IndiceInvertido.Campo> campos = camposDePublicacion(publicacion.getDescripcion());
+        TransaccionUtil.despuesDelCommit(() -> escribir(() -> publicaciones.indexar(id, campos)));
+    }
+
+    public void quitarPublicacion(Long id) {
+        TransaccionUtil.despuesDelCommit(() -> escribir(() -> publicaciones.quitar(id)));
+    }
+
+    private List<Long> buscar(IndiceInvertido indice, String consulta, int limite) {
+        lock.readLock().lock();
+        try {
+            return indice.buscar(consulta, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void escribir(Runnable cambio) {
+        lock.writeLock().lock();
+        try {
+            cambio.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // findAllById no respeta el orden de los ids: se reordena según la relevancia
+    private static <T> List<T> cargarEnOrden(List<Long> ids, List<T> entidades, Function<T, Long> id) {
+        Map<Long, T> porId = new HashMap<>();
+        for (T entidad : entidades) {
+            porId.put(id.apply(entidad), entidad);
+        }
+        List<T> resultado = new ArrayList<>(ids.size());
+        for (Long i : ids) {
+            T entidad = porId.get(i);
+            if (entidad != null) {
+                resultado.add(entidad);
+            }
+        }
+        return resultado;
+    }
+
+    private static List<IndiceInvertido.Campo> camposDe(Mascota mascota) {
+        return List.of(
+                new IndiceInvertido.Campo(mascota.getNombre(), 3f),
+                new IndiceInvertido.Campo(mascota.getTipo(), 2f),
+                new IndiceInvertido.Campo(mascota.getRaza(), 2f),
+                new IndiceInvertido.Campo(mascota.getColor(), 2f),
+                new IndiceInvertido.Campo(mascota.getDescripcion(), 1f)
+        );
+    }
+
+    private static List<IndiceInvertido.Campo> camposDePublicacion(String descripcion) {
+        return List.of(new IndiceInvertido.Campo(descripcion, 1f));
+    }
+}
@@ -0,0 +1,292 @@
+package APP.services;
+
+import APP.dto.CoincidenciaAvistamientoDTO;
+import APP.geo.GeoHash;
+import APP.models.clases.Avistamiento;
+import APP.models.clases.CoincidenciaAvistamiento;
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.EstadoPublicacion;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.clases.Ubicacion;
+import APP.models.dao.AvistamientoDAO;
+import APP.models.dao.CoincidenciaAvistamientoDAO;
+import APP.models.dao.PublicacionDAO;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Relaciona cada avistamiento nuevo con las publicaciones de mascotas perdidas cercanas.
+ * Los candidatos son las publicaciones ACTIVAS de mascotas PERDIDA_PROPIA a menos de {@code radioKm}
+ * del avistamiento (consulta por celdas geohash) y con fecha dentro de {@code ventanaDias}; se puntúan
+ * por distancia, cercanía en el tiempo y atributos de la mascota, y se guardan los mejores.
+ * Al crear o modificar una publicación se recalculan los avistamientos cercanos (y los que ya la tenían como coincidencia).
+ * El cálculo corre después del commit en un pool acotado, fuera del request; si la cola está llena la tarea se
+ * descarta (queda en el log) en lugar de correr en el hilo del request.
+ */
+@Service
+public class CoincidenciasAvistamientoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CoincidenciasAvistamientoService.class);
+
+    private static final double PESO_DISTANCIA = 0.4;
+    private static final double PESO_FECHA = 0.2;
+    private static final double PESO_ATRIBUTOS = 0.4;
+    // Si no hay atributos para comparar, no suman ni restan
+    private static final double ATRIBUTOS_SIN_DATOS = 0.5;
+
+    @Autowired
+    private AvistamientoDAO avistamientoDAO;
+
+    @Autowired
+    private PublicacionDAO publicacionDAO;
+
+    @Autowired
+    private CoincidenciaAvistamientoDAO coincidenciaDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final double radioKm;
+    private final int ventanaDias;
+    private final int maximoPorAvistamiento;
+    private final ThreadPoolExecutor executor;
+
+    public CoincidenciasAvistamientoService(@Value("${app.coincidencias.radioKm:5}") double radioKm,
+                                            @Value("${app.coincidencias.ventanaDias:60}") int ventanaDias,
+                                            @Value("${app.coincidencias.maximo:10}") int maximoPorAvistamiento,
+                                            @Value("${app.coincidencias.hilos:1}") int hilos,
+                                            @Value("${app.coincidencias.cola:500}") int capacidadCola) {
+        this.radioKm = radioKm;
+        this.ventanaDias = ventanaDias;
+        this.maximoPorAvistamiento = maximoPorAvistamiento;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "coincidencias-avistamiento-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Encola el cálculo de coincidencias del avistamiento para cuando la transacción actual confirme.
+     */
+    public void calcularEnSegundoPlano(Long avistamientoId) {
+        encolarDespuesDelCommit(() -> calcular(avistamientoId), "del avistamiento " + avistamientoId);
+    }
+
+    /**
+     * Encola, para cuando la transacción actual confirme, el recálculo de los avistamientos afectados por
+     * la publicación creada o modificada.
+     */
+    public void recalcularPorPublicacionEnSegundoPlano(Long publicacionId) {
+        encolarDespuesDelCommit(() -> recalcularPorPublicacion(publicacionId), "de la publicación " + publicacionId);
+    }
+
+    /**
+     * Recalcula los avistamientos que ya tenían a la publicación como coincidencia (puede haber dejado de serlo)
+     * y los que están cerca de ella, si es una publicación activa de una mascota perdida.
+     */
+    public void recalcularPorPublicacion(Long publicacionId) {
+        Set<Long> avistamientoIds = new TreeSet<>(coincidenciaDAO.findAvistamientoIdsByPublicacion(publicacionId));
+        Publicacion publicacion = publicacionDAO.findById(publicacionId).orElse(null);
+        if (publicacion != null && esBuscada(publicacion)) {
+            for (Avistamiento avistamiento : avistamientoDAO.findAll(cercanosA(publicacion))) {
+                Ubicacion ubicacion = avistamiento.getUbicacion();
+                if (GeoHash.distanciaKm(ubicacion.getLat(), ubicacion.getLng(), publicacion.getLat(), publicacion.getLng()) <= radioKm) {
+                    avistamientoIds.add(avistamiento.getId());
+                }
+            }
+        }
+        for (Long avistamientoId : avistamientoIds) {
+            calcular(avistamientoId);
+        }
+    }
+
+    // Con la cola llena se descarta: correrla en el hilo que confirmó la transacción frenaría el request
+    private void encolarDespuesDelCommit(Runnable tarea, String descripcion) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        tarea.run();
+                    } catch (Exception e) {
+                        log.warn("No se pudieron calcular las coincidencias {}: {}", descripcion, e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Pool de coincidencias saturado, no se calculan las coincidencias {}", descripcion);
+            }
+        });
+    }
+
+    /**
+     * Recalcula y reemplaza las coincidencias guardadas del avistamiento.
+     */
+    public void calcular(Long avistamientoId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            coincidenciaDAO.deleteByAvistamientoId(avistamientoId);
+            Avistamiento avistamiento = avistamientoDAO.findById(avistamientoId).orElse(null);
+            if (avistamiento == null || avistamiento.getUbicacion() == null || avistamiento.getFecha() == null) {
+                return;
+            }
+            coincidenciaDAO.saveAll(mejoresCandidatos(avistamiento));
+        });
+    }
+
+    public List<CoincidenciaAvistamientoDTO> obtenerPorAvistamiento(Long avistamientoId) {
+        return coincidenciaDAO.findResumenByAvistamiento(avistamientoId);
+    }
+
+    public List<CoincidenciaAvistamientoDTO> obtenerPorPublicacion(Long publicacionId) {
+        return coincidenciaDAO.findResumenByPublicacion(publicacionId);
+    }
+
+    /**
+     * Borra las coincidencias del avistamiento; se llama en la transacción que lo elimina.
+     */
+    public void quitarAvistamiento(Long avistamientoId) {
+        coincidenciaDAO.deleteByAvistamientoId(avistamientoId);
+    }
+
+    /**
+     * Borra las coincidencias de las publicaciones; se llama en la transacción que las elimina.
+     */
+    public void quitarPublicaciones(Collection<Long> publicacionIds) {
+        if (!publicacionIds.isEmpty()) {
+            coincidenciaDAO.deleteByPublicacionIdIn(publicacionIds);
+        }
+    }
+
+    private List<CoincidenciaAvistamiento> mejoresCandidatos(Avistamiento avistamiento) {
+        Ubicacion ubicacion = avistamiento.getUbicacion();
+        LocalDate fecha = avistamiento.getFecha();
+
+        List<CoincidenciaAvistamiento> candidatos = new ArrayList<>();
+        for (Publicacion publicacion : publicacionDAO.findAll(perdidasCercanas(ubicacion, fecha))) {
+            Double puntaje = puntuar(avistamiento, publicacion);
+            if (puntaje != null) {
+                double distanciaKm = GeoHash.distanciaKm(ubicacion.getLat(), ubicacion.getLng(),
+                        publicacion.getLat(), publicacion.getLng());
+                candidatos.add(new CoincidenciaAvistamiento(avistamiento.getId(), publicacion.getId(), puntaje, distanciaKm));
+            }
+        }
+
+        candidatos.sort(Comparator.comparingDouble(CoincidenciaAvistamiento::getPuntaje).reversed()
+                .thenComparing(CoincidenciaAvistamiento::getPublicacionId));
+        return candidatos.size() > maximoPorAvistamiento ? candidatos.subList(0, maximoPorAvistamiento) : candidatos;
+    }
+
+    /**
+     * Puntaje entre 0 y 1 de la publicación como coincidencia del avistamiento, o null si no es candidata
+     * (es la misma mascota, está a más de {@code radioKm}, fuera de la ventana de fechas o es de otro tipo).
+     */
+    public Double puntuar(Avistamiento avistamiento, Publicacion publicacion) {
+        Ubicacion ubicacion = avistamiento.getUbicacion();
+        Mascota vista = avistamiento.getMascota();
+        Mascota perdida = publicacion.getMascota();
+        // Un avistamiento de la propia mascota perdida ya está vinculado a ella
+        if (vista != null && vista.getId() != null && vista.getId().equals(perdida.getId())) {
+            return null;
+        }
+        double distanciaKm = GeoHash.distanciaKm(ubicacion.getLat(), ubicacion.getLng(),
+                publicacion.getLat(), publicacion.getLng());
+        long dias = Math.abs(ChronoUnit.DAYS.between(publicacion.getFecha(), avistamiento.getFecha()));
+        if (distanciaKm > radioKm || dias > ventanaDias || tiposDistintos(vista, perdida)) {
+            return null;
+        }
+        return PESO_DISTANCIA * (1 - distanciaKm / radioKm)
+                + PESO_FECHA * (1 - (double) dias / (ventanaDias + 1))
+                + PESO_ATRIBUTOS * similitudAtributos(vista, perdida);
+    }
+
+    private static boolean esBuscada(Publicacion publicacion) {
+        return publicacion.getEstadoPublicacion() == EstadoPublicacion.ACTIVA
+                && publicacion.getMascota() != null
+                && publicacion.getMascota().getEstadoMascota() == EstadoMascota.PERDIDA_PROPIA
+                && publicacion.getLat() != null && publicacion.getLng() != null && publicacion.getFecha() != null;
+    }
+
+    // Avistamientos en las celdas geohash que cubren el radio alrededor de la publicación y dentro de la ventana de fechas
+    private Specification<Avistamiento> cercanosA(Publicacion publicacion) {
+        Set<String> celdas = GeoHash.celdasCubriendo(publicacion.getLat(), publicacion.getLng(), radioKm);
+        LocalDate fecha = publicacion.getFecha();
+        return (root, query, cb) -> cb.and(
+                cb.or(celdas.stream()
+                        .map(celda -> cb.like(root.get("ubicacion").get("geohash"), celda + "%"))
+                        .toArray(Predicate[]::new)),
+                cb.between(root.get("fecha"), fecha.minusDays(ventanaDias), fecha.plusDays(ventanaDias)));
+    }
+
+    // Publicaciones activas de mascotas perdidas en las celdas geohash que cubren el radio y dentro de la ventana de fechas
+    private Specification<Publicacion> perdidasCercanas(Ubicacion ubicacion, LocalDate fecha) {
+        Set<String> celdas = GeoHash.celdasCubriendo(ubicacion.getLat(), ubicacion.getLng(), radioKm);
+        return (root, query, cb) -> cb.and(
+                cb.or(celdas.stream()
+                        .map(celda -> cb.like(root.get("geohash"), celda + "%"))
+                        .toArray(Predicate[]::new)),
+                cb.equal(root.get("estadoPublicacion"), EstadoPublicacion.ACTIVA),
+                cb.equal(root.get("mascota").get("estadoMascota"), EstadoMascota.PERDIDA_PROPIA),
+                cb.between(root.get("fecha"), fecha.minusDays(ventanaDias), fecha.plusDays(ventanaDias)));
+    }
+
+    private static boolean tiposDistintos(Mascota vista, Mascota perdida) {
+        return vista != null && vista.getTipo() != null && perdida.getTipo() != null
+                && !vista.getTipo().trim().equalsIgnoreCase(perdida.getTipo().trim());
+    }
+
+    // Fracción de atributos coincidentes entre los que tienen dato en ambas mascotas
+    private static double similitudAtributos(Mascota vista, Mascota perdida) {
+        if (vista == null) {
+            return ATRIBUTOS_SIN_DATOS;
+        }
+        int comparados = 0;
+        int iguales = 0;
+        String[][] pares = {
+                {vista.getTipo(), perdida.getTipo()},
+                {vista.getRaza(), perdida.getRaza()},
+                {vista.getColor(), perdida.getColor()},
+                {vista.getTamanio(), perdida.getTamanio()}
+        };
+        for (String[] par : pares) {
+            if (par[0] == null || par[0].isBlank() || par[1] == null || par[1].isBlank()) {
+                continue;
+            }
+            comparados++;
+            if (par[0].trim().equalsIgnoreCase(par[1].trim())) {
+                iguales++;
+            }
+        }
+        return comparados == 0 ? ATRIBUTOS_SIN_DATOS : (double) iguales / comparados;
+    }
+}
@@ -0,0 +1,316 @@
+package APP.services;
+
+import APP.dto.MascotaCoincidenteDTO;
+import APP.dto.MascotaResumenDTO;
+import APP.geo.GeoHash;
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.dao.MascotaDAO;
+import APP.models.dao.PublicacionDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sugiere, para una mascota encontrada, las mascotas perdidas (PERDIDA_PROPIA) que más se le parecen.
+ * Las perdidas se indexan en memoria por atributo: tipo, raza, color, tamaño, año de nacimiento y zona
+ * (celda geohash de su última publicación con coordenadas). Cada término apunta a un BitSet de ids, así
+ * una consulta sólo recorre las mascotas que comparten algún atributo con la buscada y no la tabla entera.
+ * Se carga al iniciar; {@link MascotaService} y {@link PublicacionService} lo actualizan en cada escritura confirmada.
+ */
+@Service
+public class EmparejamientoMascotasService {
+
+    private static final int TAMANIO_LOTE_CARGA = 500;
+    // Celdas de ~20 x 30 km en latitudes como la de Buenos Aires; se consideran también las 8 vecinas
+    private static final int PRECISION_ZONA = 4;
+
+    private static final double PESO_TIPO = 2;
+    private static final double PESO_RAZA = 3;
+    private static final double PESO_COLOR = 2;
+    private static final double PESO_TAMANIO = 1;
+    private static final double PESO_ANIO = 1;
+    private static final double PESO_ZONA = 2;
+
+    /**
+     * Atributos normalizados (minúsculas, sin espacios alrededor; null si no hay dato).
+     */
+    private record Perfil(String tipo, String raza, String color, String tamanio, Integer anio) {
+        static Perfil de(Mascota mascota) {
+            return new Perfil(normalizar(mascota.getTipo()), normalizar(mascota.getRaza()),
+                    normalizar(mascota.getColor()), normalizar(mascota.getTamanio()),
+                    mascota.getFechaNac() != null ? mascota.getFechaNac().getYear() : null);
+        }
+    }
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private PublicacionDAO publicacionDAO;
+
+    @Autowired
+    private FiltroMascotasService filtroMascotasService;
+
+    private final Map<String, BitSet> postings = new HashMap<>();
+    // Sólo mascotas perdidas, con los términos bajo los que están indexadas
+    private final Map<Long, Perfil> perfiles = new HashMap<>();
+    private final Map<Long, String[]> terminosPorMascota = new HashMap<>();
+    // [lat, lng] de la última publicación con coordenadas de cada mascota (perdida o no)
+    private final Map<Long, double[]> ubicaciones = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            perfiles.clear();
+            terminosPorMascota.clear();
+            ubicaciones.clear();
+
+            long cursor = 0L;
+            List<Mascota> lote;
+            do {
+                lote = mascotaDAO.findPaginaDesde(cursor, PageRequest.of(0, TAMANIO_LOTE_CARGA));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                // Vienen de la más vieja a la más nueva: queda la última ubicación de cada mascota del lote
+                for (Object[] fila : publicacionDAO.findUbicacionesDeMascotasEntre(cursor, lote.get(lote.size() - 1).getId())) {
+                    ubicaciones.put((Long) fila[0], new double[]{(Double) fila[1], (Double) fila[2]});
+                }
+                for (Mascota mascota : lote) {
+                    if (mascota.getEstadoMascota() == EstadoMascota.PERDIDA_PROPIA) {
+                        perfiles.put(mascota.getId(), Perfil.de(mascota));
+                        reindexar(mascota.getId());
+                    }
+                    cursor = mascota.getId();
+                }
+            } while (lote.size() == TAMANIO_LOTE_CARGA);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja los atributos y el estado de la mascota cuando la transacción actual confirme.
+     */
+    public void actualizar(Mascota mascota) {
+        long id = mascota.getId();
+        Perfil perfil = mascota.getEstadoMascota() == EstadoMascota.PERDIDA_PROPIA ? Perfil.de(mascota) : null;
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (perfil != null) {
+                    perfiles.put(id, perfil);
+                    reindexar(id);
+                } else {
+                    sacar(id);
+                    perfiles.remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitar(Long id) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                sacar(id);
+                perfiles.remove(id);
+                ubicaciones.remove(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Vuelve a tomar la zona de la mascota de la publicación recién guardada cuando la transacción actual confirme.
+     * La zona es siempre la de su publicación más reciente (por fecha) con coordenadas, igual que al cargar:
+     * una publicación guardada con fecha anterior a otra no la reemplaza.
+     */
+    public void actualizarUbicacion(Publicacion publicacion) {
+        if (publicacion.getMascota() != null) {
+            recalcularUbicacion(publicacion.getMascota().getId());
+        }
+    }
+
+    /**
+     * Vuelve a tomar la ubicación de la última publicación que le queda a la mascota (p. ej. al borrar una).
+     */
+    public void recalcularUbicacion(Long mascotaId) {
+        List<Object[]> filas = publicacionDAO.findUbicacionesDeMascota(mascotaId, PageRequest.of(0, 1));
+        aplicarUbicacion(mascotaId, filas.isEmpty() ? null : new double[]{(Double) filas.get(0)[1], (Double) filas.get(0)[2]});
+    }
+
+    /**
+     * Hasta {@code limite} mascotas perdidas parecidas a {@code encontrada}, de la más a la menos parecida.
+     * Nunca se sugiere una mascota de otro tipo (perro/gato) si ambas lo tienen cargado.
+     */
+    public List<MascotaCoincidenteDTO> buscarCoincidencias(Mascota encontrada, int limite) {
+        Perfil perfil = Perfil.de(encontrada);
+        Map<Long, Double> puntajes = new HashMap<>();
+        double maximo = 0;
+        lock.readLock().lock();
+        try {
+            if (perfil.raza() != null) {
+                maximo += PESO_RAZA;
+                sumar(puntajes, "raza:" + perfil.raza(), PESO_RAZA);
+            }
+            if (perfil.color() != null) {
+                maximo += PESO_COLOR;
+                sumar(puntajes, "color:" + perfil.color(), PESO_COLOR);
+            }
+            if (perfil.tamanio() != null) {
+                maximo += PESO_TAMANIO;
+                sumar(puntajes, "tamanio:" + perfil.tamanio(), PESO_TAMANIO);
+            }
+            if (perfil.anio() != null) {
+                // La edad de una mascota encontrada es estimada: el año vecino suma la mitad
+                maximo += PESO_ANIO;
+                sumar(puntajes, "anio:" + perfil.anio(), PESO_ANIO);
+                sumar(puntajes, "anio:" + (perfil.anio() - 1), PESO_ANIO / 2);
+                sumar(puntajes, "anio:" + (perfil.anio() + 1), PESO_ANIO / 2);
+            }
+            double[] ubicacion = ubicaciones.get(encontrada.getId());
+            if (ubicacion != null) {
+                maximo += PESO_ZONA;
+                String propia = GeoHash.codificar(ubicacion[0], ubicacion[1], PRECISION_ZONA);
+                for (String celda : GeoHash.celdaYVecinas(ubicacion[0], ubicacion[1], PRECISION_ZONA)) {
+                    sumar(puntajes, "zona:" + celda, celda.equals(propia) ? PESO_ZONA : PESO_ZONA / 2);
+                }
+            }
+            if (perfil.tipo() != null) {
+                maximo += PESO_TIPO;
+                if (puntajes.isEmpty()) {
+                    // Sólo se conoce el tipo: las perdidas más recientes de ese tipo
+                    BitSet mismoTipo = postings.getOrDefault("tipo:" + perfil.tipo(), new BitSet());
+                    for (int id = mismoTipo.length() - 1; id >= 0 && puntajes.size() <= limite; id = mismoTipo.previousSetBit(id - 1)) {
+                        puntajes.put((long) id, 0.0);
+                    }
+                }
+            }
+            if (maximo == 0) {
+                return new ArrayList<>();
+            }
+
+            PriorityQueue<Map.Entry<Long, Double>> mejores = new PriorityQueue<>(
+                    Map.Entry.<Long, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+            for (Map.Entry<Long, Double> candidato : puntajes.entrySet()) {
+                Perfil otro = perfiles.get(candidato.getKey());
+                if (candidato.getKey().equals(encontrada.getId()) || otro == null) {
+                    continue;
+                }
+                if (perfil.tipo() != null && otro.tipo() != null) {
+                    if (!perfil.tipo().equals(otro.tipo())) {
+                        continue;
+                    }
+                    candidato.setValue(candidato.getValue() + PESO_TIPO);
+                }
+                mejores.add(candidato);
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+
+            List<MascotaCoincidenteDTO> resultado = new ArrayList<>(mejores.size());
+            while (!mejores.isEmpty()) {
+                Map.Entry<Long, Double> candidato = mejores.poll();
+                MascotaResumenDTO resumen = filtroMascotasService.obtenerResumen(candidato.getKey());
+                if (resumen != null) {
+                    resultado.add(0, new MascotaCoincidenteDTO(resumen.copia(), candidato.getValue() / maximo));
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void aplicarUbicacion(long mascotaId, double[] ubicacion) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (ubicacion != null) {
+                    ubicaciones.put(mascotaId, ubicacion);
+                } else {
+                    ubicaciones.remove(mascotaId);
+                }
+                if (perfiles.containsKey(mascotaId)) {
+                    reindexar(mascotaId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Debe llamarse con el lock tomado
+    private void sumar(Map<Long, Double> puntajes, String termino, double peso) {
+        BitSet ids = postings.get(termino);
+        if (ids == null) {
+            return;
+        }
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            puntajes.merge((long) id, peso, Double::sum);
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void reindexar(long id) {
+        sacar(id);
+        Perfil perfil = perfiles.get(id);
+        double[] ubicacion = ubicaciones.get(id);
+        List<String> terminos = new ArrayList<>(6);
+        if (perfil.tipo() != null) terminos.add("tipo:" + perfil.tipo());
+        if (perfil.raza() != null) terminos.add("raza:" + perfil.raza());
+        if (perfil.color() != null) terminos.add("color:" + perfil.color());
+        if (perfil.tamanio() != null) terminos.add("tamanio:" + perfil.tamanio());
+        if (perfil.anio() != null) terminos.add("anio:" + perfil.anio());
+        if (ubicacion != null) terminos.add("zona:" + GeoHash.codificar(ubicacion[0], ubicacion[1], PRECISION_ZONA));
+
+        int bit = Math.toIntExact(id);
+        for (String termino : terminos) {
+            postings.computeIfAbsent(termino, t -> new BitSet()).set(bit);
+        }
+        terminosPorMascota.put(id, terminos.toArray(new String[0]));
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void sacar(long id) {
+        String[] terminos = terminosPorMascota.remove(id);
+        if (terminos == null) {
+            return;
+        }
+        int bit = Math.toIntExact(id);
+        for (String termino : terminos) {
+            BitSet ids = postings.get(termino);
+            if (ids != null) {
+                ids.clear(bit);
+                if (ids.isEmpty()) {
+                    postings.remove(termino);
+                }
+            }
+        }
+    }
+
+    private static String normalizar(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim().toLowerCase(Locale.ROOT);
+    }
+}
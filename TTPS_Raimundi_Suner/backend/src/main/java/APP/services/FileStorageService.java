@@ -1,29 +1,74 @@
 package APP.services;
 
+import APP.models.clases.VarianteImagen;
+import APP.models.dao.MascotaDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Locale;
 import java.util.Set;
-import java.util.UUID;
+import java.util.function.Consumer;
 
+/**
+ * Almacén de imágenes direccionado por contenido: cada archivo se nombra con el SHA-256 de sus bytes
+ * (ya sin metadatos, ver {@link MetadatosImagen}), así la misma foto subida varias veces se guarda una sola vez.
+ * Las referencias son los {@code Mascota.imagenUrl}; cuando una imagen deja de estar referenciada
+ * ({@link #liberarMascotaImage}) se borra junto con sus variantes. La subida que reutiliza un archivo existente
+ * y el chequeo de referencias + borrado toman el mismo candado por hash, así un borrado no puede
+ * llevarse una imagen que otra subida acaba de reutilizar.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
     private static final Set<String> ALLOWED_CONTENT_TYPES = Set.of("image/jpeg", "image/png");
     private static final Set<String> ALLOWED_EXTENSIONS = Set.of("jpg", "jpeg", "png");
+    private static final String URL_MASCOTAS = "/uploads/mascotas/";
+
+    // Una imagen recién subida todavía no está referenciada (la mascota se guarda después):
+    // durante este lapso no se borra aunque el conteo de referencias dé cero
+    private static final Duration GRACIA_BORRADO = Duration.ofMinutes(10);
+    private static final int CANDADOS = 64;
 
     private final Path uploadsRoot;
+    private final ProcesadorImagenesService procesadorImagenes;
+    private final MascotaDAO mascotaDAO;
+    // Candados por hash de contenido, repartidos en un arreglo fijo (ver candadoDe)
+    private final Object[] candados = new Object[CANDADOS];
 
-    public FileStorageService(@Value("${app.upload.dir:uploads}") String uploadDir) {
+    public FileStorageService(@Value("${app.upload.dir:uploads}") String uploadDir,
+                              ProcesadorImagenesService procesadorImagenes,
+                              MascotaDAO mascotaDAO) {
         this.uploadsRoot = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.procesadorImagenes = procesadorImagenes;
+        this.mascotaDAO = mascotaDAO;
+        for (int i = 0; i < candados.length; i++) {
+            candados[i] = new Object();
+        }
     }
 
     public String storeMascotaImage(MultipartFile file) {
@@ -47,29 +92,240 @@ public class FileStorageService {
             ext = "jpg";
         }
 
-        Path mascotasDir = uploadsRoot.resolve("mascotas").normalize();
+        Path mascotasDir = mascotasDir();
         try {
             Files.createDirectories(mascotasDir);
         } catch (IOException e) {
             throw new RuntimeException("No se pudo crear el directorio de uploads", e);
         }
 
-        String filename = UUID.randomUUID() + "." + ext;
-        Path target = mascotasDir.resolve(filename).normalize();
+        // Se guarda sin metadatos (EXIF con GPS, XMP, comentarios): el original se sirve tal cual a cualquiera.
+        // El hash se calcula sobre lo que se escribe en el temporal, sin leer el archivo dos veces
+        Path temporal = null;
+        try {
+            temporal = Files.createTempFile(mascotasDir, ".subida-", ".tmp");
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = file.getInputStream();
+                 OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)), sha256)) {
+                MetadatosImagen.quitar(in, out, ext);
+            }
+
+            String filename = HexFormat.of().formatHex(sha256.digest()) + "." + ext;
+            Path target = mascotasDir.resolve(filename).normalize();
 
-        // Seguridad: evitar path traversal
-        if (!target.startsWith(mascotasDir)) {
-            throw new IllegalArgumentException("Nombre de archivo inválido");
-        }
+            // Seguridad: evitar path traversal
+            if (!target.startsWith(mascotasDir)) {
+                throw new IllegalArgumentException("Nombre de archivo inválido");
+            }
 
-        try (InputStream in = file.getInputStream()) {
-            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            boolean nueva = false;
+            synchronized (candadoDe(filename)) {
+                if (Files.exists(target)) {
+                    // Ya estaba guardada: se renueva la fecha para que no la alcance un borrado posterior
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                } else {
+                    try {
+                        Files.move(temporal, target, StandardCopyOption.ATOMIC_MOVE);
+                        nueva = true;
+                    } catch (FileAlreadyExistsException e) {
+                        // Otra subida concurrente guardó el mismo contenido
+                    }
+                }
+            }
+            if (nueva) {
+                // Las variantes (thumb/card/full) se generan fuera del request; mientras tanto se sirve el original
+                procesadorImagenes.procesarEnSegundoPlano(target);
+            }
+
+            // Ruta pública servida por Spring (/uploads/**)
+            return URL_MASCOTAS + filename;
         } catch (IOException e) {
             throw new RuntimeException("No se pudo guardar la imagen", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar el temporal {}", temporal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hash perceptual de una imagen de /uploads/mascotas, o null si no es una imagen del almacén o no se puede leer.
+     */
+    public Long calcularHashPerceptual(String imagenUrl) {
+        Path archivo = resolverMascotaImage(imagenUrl);
+        if (archivo == null || !Files.isRegularFile(archivo)) {
+            return null;
+        }
+        try {
+            return procesadorImagenes.calcularHashPerceptual(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo calcular el hash perceptual de {}: {}", archivo, e.getMessage());
+            return null;
         }
+    }
+
+    /**
+     * Calcula fuera del hilo actual el hash perceptual de una imagen de /uploads/mascotas y se lo pasa a
+     * {@code alTerminar} (null si no se puede leer). No hace nada si no es una imagen del almacén o el pool está lleno.
+     */
+    public void calcularHashPerceptualEnSegundoPlano(String imagenUrl, Consumer<Long> alTerminar) {
+        Path archivo = resolverMascotaImage(imagenUrl);
+        if (archivo != null) {
+            procesadorImagenes.calcularHashEnSegundoPlano(archivo, alTerminar);
+        }
+    }
+
+    /**
+     * Valida un imagenUrl que manda el cliente en lugar de subir la imagen. Las URLs externas se aceptan;
+     * una del almacén tiene que ser una imagen original que exista (no una variante) y se le renueva la fecha,
+     * como a una subida repetida, para que no la borre un {@link #liberarMascotaImage} antes de guardar la mascota.
+     */
+    public boolean aceptarImagenUrl(String imagenUrl) {
+        if (imagenUrl == null || !imagenUrl.startsWith(URL_MASCOTAS)) {
+            return true;
+        }
+        Path archivo = resolverMascotaImage(imagenUrl);
+        if (archivo == null) {
+            return false;
+        }
+        synchronized (candadoDe(archivo.getFileName().toString())) {
+            try {
+                if (!Files.isRegularFile(archivo)) {
+                    return false;
+                }
+                Files.setLastModifiedTime(archivo, FileTime.from(Instant.now()));
+                return true;
+            } catch (IOException e) {
+                log.warn("No se pudo renovar la fecha de {}: {}", archivo, e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Borra la imagen y sus variantes si ninguna mascota la referencia.
+     * Se llama después de confirmar el cambio que dejó de usarla.
+     */
+    public void liberarMascotaImage(String imagenUrl) {
+        Path archivo = resolverMascotaImage(imagenUrl);
+        if (archivo == null) {
+            return;
+        }
+        synchronized (candadoDe(archivo.getFileName().toString())) {
+            if (mascotaDAO.countByImagenUrl(imagenUrl) == 0) {
+                borrarSiVencioGracia(archivo);
+            }
+        }
+    }
+
+    /**
+     * Al iniciar, borra las imágenes que quedaron sin referencias (p. ej. subidas cuya mascota
+     * no llegó a guardarse, o reemplazadas dentro del período de gracia) y vuelve a encolar las variantes
+     * que falten de las que sí se usan (p. ej. descartadas con el pool de imágenes saturado).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recolectarHuerfanas() {
+        Path mascotasDir = mascotasDir();
+        if (!Files.isDirectory(mascotasDir)) {
+            return;
+        }
+
+        Set<String> enUso = new HashSet<>(mascotaDAO.findImagenUrlsEnUso());
+        Set<String> variantes = new HashSet<>();
+        for (String url : enUso) {
+            for (VarianteImagen variante : VarianteImagen.values()) {
+                variantes.add(variante.urlPara(url));
+            }
+        }
+
+        int borradas = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(mascotasDir, "*.{jpg,png}")) {
+            for (Path archivo : archivos) {
+                String url = URL_MASCOTAS + archivo.getFileName();
+                if (!enUso.contains(url) && !variantes.contains(url) && borrarHuerfana(archivo)) {
+                    borradas++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo recorrer {}: {}", mascotasDir, e.getMessage());
+        }
+        if (borradas > 0) {
+            log.info("Se borraron {} imágenes sin referencias", borradas);
+        }
+
+        regenerarVariantesFaltantes(enUso);
+    }
+
+    private void regenerarVariantesFaltantes(Set<String> enUso) {
+        int encoladas = 0;
+        for (String url : enUso) {
+            Path archivo = resolverMascotaImage(url);
+            if (archivo != null && Files.exists(archivo) && procesadorImagenes.faltanVariantes(archivo)) {
+                procesadorImagenes.procesarEnSegundoPlano(archivo);
+                encoladas++;
+            }
+        }
+        if (encoladas > 0) {
+            log.info("Se encolaron {} imágenes con variantes faltantes", encoladas);
+        }
+    }
+
+    private boolean borrarHuerfana(Path archivo) {
+        synchronized (candadoDe(archivo.getFileName().toString())) {
+            return borrarSiVencioGracia(archivo);
+        }
+    }
+
+    // Debe llamarse con el candado del archivo tomado
+    private boolean borrarSiVencioGracia(Path archivo) {
+        try {
+            if (!Files.exists(archivo)) {
+                return false;
+            }
+            Instant modificado = Files.getLastModifiedTime(archivo).toInstant();
+            if (modificado.isAfter(Instant.now().minus(GRACIA_BORRADO))) {
+                return false;
+            }
+            Files.deleteIfExists(archivo);
+            procesadorImagenes.eliminarVariantes(archivo);
+            return true;
+        } catch (IOException e) {
+            log.warn("No se pudo borrar la imagen {}: {}", archivo, e.getMessage());
+            return false;
+        }
+    }
+
+    // Solo se aceptan imágenes originales dentro de uploads/mascotas (imagenUrl puede venir del cliente):
+    // una variante no es una referencia propia y liberarla borraría el archivo de otra mascota
+    private Path resolverMascotaImage(String imagenUrl) {
+        if (imagenUrl == null || !imagenUrl.startsWith(URL_MASCOTAS) || VarianteImagen.esVariante(imagenUrl)) {
+            return null;
+        }
+        Path mascotasDir = mascotasDir();
+        Path archivo = mascotasDir.resolve(imagenUrl.substring(URL_MASCOTAS.length())).normalize();
+        return mascotasDir.equals(archivo.getParent()) ? archivo : null;
+    }
+
+    // Por hash de contenido: el original ({hash}.png) y sus variantes ({hash}_thumb.jpg) comparten candado
+    private Object candadoDe(String nombreArchivo) {
+        int fin = nombreArchivo.length();
+        for (int i = 0; i < nombreArchivo.length(); i++) {
+            if (nombreArchivo.charAt(i) == '.' || nombreArchivo.charAt(i) == '_') {
+                fin = i;
+                break;
+            }
+        }
+        return candados[Math.floorMod(nombreArchivo.substring(0, fin).hashCode(), candados.length)];
+    }
 
-        // Ruta pública servida por Spring (/uploads/**)
-        return "/uploads/mascotas/" + filename;
+    private Path mascotasDir() {
+        return uploadsRoot.resolve("mascotas").normalize();
     }
 
     private static String getExtension(String filename) {
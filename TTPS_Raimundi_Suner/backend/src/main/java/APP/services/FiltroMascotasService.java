@@ -0,0 +1,286 @@
+package APP.services;
+
+import APP.dto.MascotaResumenDTO;
+import APP.dto.ResultadoFiltroMascotasDTO;
+import APP.models.clases.Mascota;
+import APP.models.dao.MascotaDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Filtro combinado y facetas de mascotas resueltos en memoria.
+ * Por cada faceta y valor se mantiene un BitSet con los ids de las mascotas que lo tienen; un filtro
+ * es un AND entre facetas de los OR de los valores pedidos en cada una, y los conteos son cardinalidades
+ * de esas intersecciones. Se carga al iniciar y {@link MascotaService} lo actualiza en cada escritura
+ * confirmada, así las consultas no tocan la base.
+ */
+@Service
+public class FiltroMascotasService {
+
+    public enum Faceta {
+        TIPO("tipo", Mascota::getTipo),
+        TAMANIO("tamanio", Mascota::getTamanio),
+        COLOR("color", Mascota::getColor),
+        RAZA("raza", Mascota::getRaza),
+        ESTADO("estado", m -> m.getEstadoMascota() != null ? m.getEstadoMascota().name() : null);
+
+        private final String nombre;
+        private final Function<Mascota, String> valor;
+
+        Faceta(String nombre, Function<Mascota, String> valor) {
+            this.nombre = nombre;
+            this.valor = valor;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        // Los valores se comparan sin distinguir mayúsculas ni espacios alrededor
+        String valorDe(Mascota mascota) {
+            return normalizar(this, valor.apply(mascota));
+        }
+    }
+
+    private static final int TAMANIO_LOTE_CARGA = 500;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    private final Map<Long, MascotaResumenDTO> mascotas = new HashMap<>();
+    // Valores de cada mascota por faceta, para sacarla de los índices al actualizarla
+    private final Map<Long, String[]> valoresPorMascota = new HashMap<>();
+    private final EnumMap<Faceta, Map<String, BitSet>> indices = new EnumMap<>(Faceta.class);
+    private final BitSet todas = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            mascotas.clear();
+            valoresPorMascota.clear();
+            indices.clear();
+            todas.clear();
+            for (Faceta faceta : Faceta.values()) {
+                indices.put(faceta, new HashMap<>());
+            }
+
+            long cursor = 0L;
+            List<Mascota> lote;
+            do {
+                lote = mascotaDAO.findPaginaDesde(cursor, PageRequest.of(0, TAMANIO_LOTE_CARGA));
+                for (Mascota mascota : lote) {
+                    aplicar(mascota.getId(), MascotaResumenDTO.fromMascota(mascota), valoresDe(mascota));
+                    cursor = mascota.getId();
+                }
+            } while (lote.size() == TAMANIO_LOTE_CARGA);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja la mascota en los índices cuando la transacción actual confirme.
+     */
+    public void actualizar(Mascota mascota) {
+        long id = mascota.getId();
+        MascotaResumenDTO resumen = MascotaResumenDTO.fromMascota(mascota);
+        String[] valores = valoresDe(mascota);
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                aplicar(id, resumen, valores);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitar(Long id) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                sacar(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Mascotas (de la más nueva a la más vieja) que cumplen todos los filtros, paginadas, con el conteo
+     * de cada valor de cada faceta. Un filtro vacío o ausente no restringe esa faceta.
+     */
+    public ResultadoFiltroMascotasDTO filtrar(Map<Faceta, ? extends Collection<String>> filtros, int pagina, int tamanio) {
+        lock.readLock().lock();
+        try {
+            EnumMap<Faceta, BitSet> porFaceta = filtrosPorFaceta(filtros);
+            BitSet resultado = interseccion(porFaceta, null);
+            List<MascotaResumenDTO> resultados = paginaDe(resultado, pagina, tamanio);
+
+            Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+            for (Faceta faceta : Faceta.values()) {
+                BitSet base = interseccion(porFaceta, faceta);
+                Map<String, Integer> conteos = new TreeMap<>();
+                for (Map.Entry<String, BitSet> valor : indices.get(faceta).entrySet()) {
+                    BitSet conValor = (BitSet) valor.getValue().clone();
+                    conValor.and(base);
+                    int cantidad = conValor.cardinality();
+                    if (cantidad > 0) {
+                        conteos.put(valor.getKey(), cantidad);
+                    }
+                }
+                facetas.put(faceta.getNombre(), conteos);
+            }
+
+            return new ResultadoFiltroMascotasDTO(resultado.cardinality(), pagina, tamanio, resultados, facetas);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Como {@link #filtrar} pero sin calcular los conteos por faceta (facetas queda en null).
+     */
+    public ResultadoFiltroMascotasDTO listar(Map<Faceta, ? extends Collection<String>> filtros, int pagina, int tamanio) {
+        lock.readLock().lock();
+        try {
+            BitSet resultado = interseccion(filtrosPorFaceta(filtros), null);
+            return new ResultadoFiltroMascotasDTO(resultado.cardinality(), pagina, tamanio,
+                    paginaDe(resultado, pagina, tamanio), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Resumen en memoria de la mascota, o null si no existe. Es una instancia compartida: no modificarla.
+     */
+    public MascotaResumenDTO obtenerResumen(Long id) {
+        lock.readLock().lock();
+        try {
+            return mascotas.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el lock tomado
+    private EnumMap<Faceta, BitSet> filtrosPorFaceta(Map<Faceta, ? extends Collection<String>> filtros) {
+        EnumMap<Faceta, BitSet> porFaceta = new EnumMap<>(Faceta.class);
+        for (Map.Entry<Faceta, ? extends Collection<String>> filtro : filtros.entrySet()) {
+            if (filtro.getValue() != null && !filtro.getValue().isEmpty()) {
+                porFaceta.put(filtro.getKey(), unionDe(filtro.getKey(), filtro.getValue()));
+            }
+        }
+        return porFaceta;
+    }
+
+    // Debe llamarse con el lock tomado
+    private BitSet unionDe(Faceta faceta, Collection<String> valores) {
+        BitSet union = new BitSet();
+        Map<String, BitSet> indice = indices.get(faceta);
+        for (String valor : valores) {
+            BitSet bits = indice.get(normalizar(faceta, valor));
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    // AND de todos los filtros salvo el de la faceta excluida (null = ninguna)
+    private BitSet interseccion(Map<Faceta, BitSet> porFaceta, Faceta excluida) {
+        BitSet resultado = (BitSet) todas.clone();
+        for (Map.Entry<Faceta, BitSet> filtro : porFaceta.entrySet()) {
+            if (filtro.getKey() != excluida) {
+                resultado.and(filtro.getValue());
+            }
+        }
+        return resultado;
+    }
+
+    private List<MascotaResumenDTO> paginaDe(BitSet resultado, int pagina, int tamanio) {
+        List<MascotaResumenDTO> lista = new ArrayList<>(Math.min(tamanio, resultado.cardinality()));
+        long saltear = (long) pagina * tamanio;
+        for (int id = resultado.length() - 1; id >= 0 && lista.size() < tamanio; id = resultado.previousSetBit(id - 1)) {
+            if (saltear > 0) {
+                saltear--;
+            } else {
+                lista.add(mascotas.get((long) id));
+            }
+        }
+        return lista;
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void aplicar(long id, MascotaResumenDTO resumen, String[] valores) {
+        sacar(id);
+        int bit = Math.toIntExact(id);
+        mascotas.put(id, resumen);
+        valoresPorMascota.put(id, valores);
+        todas.set(bit);
+        for (Faceta faceta : Faceta.values()) {
+            String valor = valores[faceta.ordinal()];
+            if (valor != null) {
+                indices.get(faceta).computeIfAbsent(valor, v -> new BitSet()).set(bit);
+            }
+        }
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void sacar(long id) {
+        String[] valores = valoresPorMascota.remove(id);
+        mascotas.remove(id);
+        if (valores == null) {
+            return;
+        }
+        int bit = Math.toIntExact(id);
+        todas.clear(bit);
+        for (Faceta faceta : Faceta.values()) {
+            String valor = valores[faceta.ordinal()];
+            if (valor == null) {
+                continue;
+            }
+            Map<String, BitSet> indice = indices.get(faceta);
+            BitSet bits = indice.get(valor);
+            if (bits != null) {
+                bits.clear(bit);
+                if (bits.isEmpty()) {
+                    indice.remove(valor);
+                }
+            }
+        }
+    }
+
+    private static String[] valoresDe(Mascota mascota) {
+        String[] valores = new String[Faceta.values().length];
+        for (Faceta faceta : Faceta.values()) {
+            valores[faceta.ordinal()] = faceta.valorDe(mascota);
+        }
+        return valores;
+    }
+
+    private static String normalizar(Faceta faceta, String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        return faceta == Faceta.ESTADO ? valor.trim().toUpperCase(Locale.ROOT) : valor.trim().toLowerCase(Locale.ROOT);
+    }
+}
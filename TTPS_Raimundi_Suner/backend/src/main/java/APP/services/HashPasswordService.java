@@ -0,0 +1,126 @@
+package APP.services;
+
+import APP.config.PasswordConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashea y verifica contraseñas (BCrypt) en un pool propio, del tamaño de la cantidad de CPUs y con cola acotada.
+ * BCrypt es caro a propósito: corriéndolo en los hilos de Tomcat, una ráfaga de logins ocupa todos los hilos
+ * y frena al resto de los requests. Acá, si la cola está llena (o la espera supera el máximo) se rechaza enseguida
+ * con {@link ServicioSaturadoException} en lugar de acumular trabajo.
+ * Los rehash por suba de costo usan el mismo pool pero son descartables: si no hay lugar, se reintentan
+ * en el próximo login.
+ */
+@Service
+public class HashPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(HashPasswordService.class);
+
+    private static final String MENSAJE_SATURADO = "Servidor ocupado, reintente en unos segundos";
+
+    private final PasswordEncoder passwordEncoder;
+    private final int costo;
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaMs;
+
+    public HashPasswordService(PasswordEncoder passwordEncoder,
+                               PasswordConfig passwordConfig,
+                               @Value("${app.password.hilos:0}") int hilos,
+                               @Value("${app.password.cola:64}") int capacidadCola,
+                               @Value("${app.password.esperaMaximaMs:3000}") long esperaMaximaMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.costo = passwordConfig.getCosto();
+        this.esperaMaximaMs = esperaMaximaMs;
+        // 0 = un hilo por CPU
+        int tamanio = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanio, tamanio, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "hash-password-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    public String hashear(String password) {
+        return ejecutar(() -> passwordEncoder.encode(password));
+    }
+
+    public boolean coincide(String password, String hash) {
+        return ejecutar(() -> passwordEncoder.matches(password, hash));
+    }
+
+    /**
+     * True si el hash no es BCrypt o fue generado con un costo menor al actual.
+     * Un hash con costo mayor se deja: bajarlo debilitaría la contraseña, y la calibración puede dar un punto
+     * menos en otra instancia o en un arranque con la máquina cargada (para evitarlo, fijar app.password.costo).
+     */
+    public boolean requiereRehash(String hash) {
+        return PasswordConfig.costoDe(hash) < costo;
+    }
+
+    /**
+     * Hashea en el pool sin esperar el resultado y se lo pasa a {@code alTerminar} desde el hilo del pool.
+     * Si el pool está saturado no se hace nada.
+     */
+    public void hashearEnSegundoPlano(String password, Consumer<String> alTerminar) {
+        try {
+            executor.execute(() -> {
+                try {
+                    alTerminar.accept(passwordEncoder.encode(password));
+                } catch (Exception e) {
+                    log.warn("No se pudo rehashear la contraseña: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Pool de contraseñas saturado, se posterga el rehash");
+        }
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new ServicioSaturadoException(MENSAJE_SATURADO);
+        }
+        try {
+            return resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw new ServicioSaturadoException(MENSAJE_SATURADO);
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServicioSaturadoException(MENSAJE_SATURADO);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
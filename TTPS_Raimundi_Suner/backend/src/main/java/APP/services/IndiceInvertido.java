@@ -0,0 +1,113 @@
+package APP.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice invertido término -> (documento -> peso). Cada documento guarda sus términos para poder
+ * reindexarlo o quitarlo sin recorrer todo el índice. No es thread-safe: {@link BusquedaService}
+ * lo protege con un lock.
+ */
+class IndiceInvertido {
+
+    /**
+     * Un campo del documento con su peso (p. ej. el nombre pesa más que la descripción).
+     */
+    record Campo(String texto, float peso) {}
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, String[]> terminosPorDocumento = new HashMap<>();
+
+    int tamanio() {
+        return terminosPorDocumento.size();
+    }
+
+    void indexar(long id, Collection<Campo> campos) {
+        quitar(id);
+        Map<String, Float> pesos = new HashMap<>();
+        for (Campo campo : campos) {
+            for (String termino : AnalizadorTexto.analizar(campo.texto())) {
+                pesos.merge(termino, campo.peso(), Float::sum);
+            }
+        }
+        if (pesos.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Float> entrada : pesos.entrySet()) {
+            postings.computeIfAbsent(entrada.getKey(), t -> new HashMap<>()).put(id, entrada.getValue());
+        }
+        terminosPorDocumento.put(id, pesos.keySet().toArray(new String[0]));
+    }
+
+    void quitar(long id) {
+        String[] terminos = terminosPorDocumento.remove(id);
+        if (terminos == null) {
+            return;
+        }
+        for (String termino : terminos) {
+            Map<Long, Float> documentos = postings.get(termino);
+            if (documentos != null) {
+                documentos.remove(id);
+                if (documentos.isEmpty()) {
+                    postings.remove(termino);
+                }
+            }
+        }
+    }
+
+    void limpiar() {
+        postings.clear();
+        terminosPorDocumento.clear();
+    }
+
+    /**
+     * Ids de los documentos que contienen algún término de la consulta, hasta {@code limite}.
+     * Primero los que contienen más términos de la consulta; a igualdad, mayor puntaje
+     * (peso del término en el documento por su idf, sumado sobre los términos).
+     */
+    List<Long> buscar(String consulta, int limite) {
+        Map<Long, float[]> candidatos = new HashMap<>();
+        int total = tamanio();
+        // Términos repetidos en la consulta cuentan una sola vez
+        for (String termino : new LinkedHashSet<>(AnalizadorTexto.analizar(consulta))) {
+            Map<Long, Float> documentos = postings.get(termino);
+            if (documentos == null) {
+                continue;
+            }
+            float idf = (float) Math.log(1.0 + (double) total / documentos.size());
+            for (Map.Entry<Long, Float> entrada : documentos.entrySet()) {
+                float[] acumulado = candidatos.computeIfAbsent(entrada.getKey(), id -> new float[2]);
+                acumulado[0]++;
+                acumulado[1] += entrada.getValue() * idf;
+            }
+        }
+
+        // Montículo de los mejores hasta ahora con el peor arriba: O(n log limite) en lugar de ordenar todos
+        Comparator<Map.Entry<Long, float[]>> mejorPrimero = (a, b) -> {
+            int cmp = Float.compare(b.getValue()[0], a.getValue()[0]);
+            if (cmp == 0) cmp = Float.compare(b.getValue()[1], a.getValue()[1]);
+            return cmp != 0 ? cmp : Long.compare(a.getKey(), b.getKey());
+        };
+        PriorityQueue<Map.Entry<Long, float[]>> mejores = new PriorityQueue<>(mejorPrimero.reversed());
+        for (Map.Entry<Long, float[]> candidato : candidatos.entrySet()) {
+            if (mejores.size() < limite) {
+                mejores.add(candidato);
+            } else if (limite > 0 && mejorPrimero.compare(candidato, mejores.peek()) < 0) {
+                mejores.poll();
+                mejores.add(candidato);
+            }
+        }
+
+        Long[] ids = new Long[mejores.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = mejores.poll().getKey();
+        }
+        return Arrays.asList(ids);
+    }
+}
@@ -1,20 +1,83 @@
 package APP.services;
 
+import APP.cache.CacheRespuestasPublicas;
+import APP.dto.ResultadoFiltroMascotasDTO;
 import APP.models.clases.Mascota;
 import APP.models.clases.EstadoMascota;
 import APP.models.dao.MascotaDAO;
+import APP.models.dao.PublicacionDAO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class MascotaService {
 
+    private static final int LOTE_HASHES = 100;
+
+    private static final Set<EstadoMascota> ESTADOS_PERDIDA = EnumSet.of(EstadoMascota.PERDIDA_PROPIA, EstadoMascota.PERDIDA_AJENA);
+
     @Autowired
     private MascotaDAO mascotaDAO;
 
+    @Autowired
+    private PublicacionDAO publicacionDAO;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Autowired
+    private FiltroMascotasService filtroMascotasService;
+
+    @Autowired
+    private SimilitudImagenesService similitudImagenesService;
+
+    @Autowired
+    private CoincidenciasAvistamientoService coincidenciasService;
+
+    @Autowired
+    private EmparejamientoMascotasService emparejamientoService;
+
+    @Autowired
+    private CacheRespuestasPublicas cacheRespuestas;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Calcula el hash perceptual de las imágenes que no lo tienen: las subidas antes de que existiera la columna
+     * y aquellas cuyo cálculo en segundo plano se descartó o se perdió. Se recorren de a lotes y cada hash se guarda
+     * por separado: decodificar imágenes no retiene una transacción ni las entidades en memoria.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarHashesDeImagenFaltantes() {
+        long desdeId = 0;
+        List<Object[]> lote;
+        do {
+            lote = mascotaDAO.findImagenesSinHash(desdeId, PageRequest.of(0, LOTE_HASHES));
+            for (Object[] fila : lote) {
+                Long id = (Long) fila[0];
+                String imagenUrl = (String) fila[1];
+                desdeId = id;
+                guardarImagenHash(id, imagenUrl, fileStorageService.calcularHashPerceptual(imagenUrl));
+            }
+        } while (lote.size() == LOTE_HASHES);
+    }
+
     @Transactional
     public Mascota crearMascota(Mascota mascota) {
         // Validaciones básicas
@@ -22,7 +85,15 @@ public class MascotaService {
                 mascota.getNombre() == null || mascota.getNombre().isEmpty()) {
             throw new IllegalArgumentException("El nombre de la mascota es requerido");
         }
-        return mascotaDAO.save(mascota);
+        mascota.setImagenHash(null);
+        Mascota nueva = mascotaDAO.save(mascota);
+        busquedaService.indexarMascota(nueva);
+        filtroMascotasService.actualizar(nueva);
+        emparejamientoService.actualizar(nueva);
+        calcularImagenHashDespuesDelCommit(nueva);
+        boolean perdida = ESTADOS_PERDIDA.contains(nueva.getEstadoMascota());
+        TransaccionUtil.despuesDelCommit(() -> cacheRespuestas.invalidarMascotaNueva(perdida));
+        return nueva;
     }
 
     @Transactional
@@ -30,12 +101,73 @@ public class MascotaService {
         if (!mascotaDAO.existsById(mascota.getId())) {
             throw new IllegalArgumentException("Mascota no encontrada");
         }
-        return mascotaDAO.save(mascota);
+        String imagenAnterior = mascota.getImagenUrlPersistida();
+        EstadoMascota estadoAnterior = mascota.getEstadoMascotaPersistido();
+        if (imagenAnterior == null || !imagenAnterior.equals(mascota.getImagenUrl())) {
+            mascota.setImagenHash(null);
+        }
+        Mascota actualizada = mascotaDAO.save(mascota);
+        busquedaService.indexarMascota(actualizada);
+        filtroMascotasService.actualizar(actualizada);
+        emparejamientoService.actualizar(actualizada);
+        similitudImagenesService.actualizar(actualizada.getId(), actualizada.getImagenHash());
+        calcularImagenHashDespuesDelCommit(actualizada);
+        if (imagenAnterior != null && !imagenAnterior.equals(actualizada.getImagenUrl())) {
+            liberarImagen(imagenAnterior);
+        }
+        recalcularCoincidenciasSiCambioEstado(actualizada.getId(), estadoAnterior, actualizada.getEstadoMascota());
+        invalidarRespuestas(actualizada.getId(), estadoAnterior, actualizada.getEstadoMascota());
+        return actualizada;
     }
 
     @Transactional
     public void eliminarMascota(Long id) {
+        String imagen = mascotaDAO.findImagenUrlById(id);
+        // Las publicaciones de la mascota se borran en cascada
+        List<Long> publicaciones = publicacionDAO.findIdsByMascota(id);
+        coincidenciasService.quitarPublicaciones(publicaciones);
         mascotaDAO.deleteById(id);
+        busquedaService.quitarMascota(id);
+        filtroMascotasService.quitar(id);
+        emparejamientoService.quitar(id);
+        similitudImagenesService.quitar(id);
+        publicaciones.forEach(busquedaService::quitarPublicacion);
+        if (imagen != null) {
+            liberarImagen(imagen);
+        }
+        // No se lee el estado: borrar es raro y se asume que podía estar en el listado de perdidas
+        TransaccionUtil.despuesDelCommit(() -> cacheRespuestas.invalidarMascota(id, true, publicaciones));
+    }
+
+    // El hash perceptual decodifica la imagen: se calcula en el pool de imágenes después del commit, fuera del request.
+    // Mientras tanto la mascota no aparece en las búsquedas por similitud
+    private void calcularImagenHashDespuesDelCommit(Mascota mascota) {
+        Long id = mascota.getId();
+        String imagenUrl = mascota.getImagenUrl();
+        if (imagenUrl == null || mascota.getImagenHash() != null) {
+            return;
+        }
+        TransaccionUtil.despuesDelCommit(() -> fileStorageService.calcularHashPerceptualEnSegundoPlano(imagenUrl,
+                hash -> guardarImagenHash(id, imagenUrl, hash)));
+    }
+
+    // Si la imagen cambió mientras se calculaba, el hash ya no corresponde y no se guarda
+    private void guardarImagenHash(Long id, String imagenUrl, Long hash) {
+        if (hash != null && mascotaDAO.guardarImagenHash(id, imagenUrl, hash) > 0) {
+            similitudImagenesService.actualizar(id, hash);
+        }
+    }
+
+    // Las respuestas cacheadas que muestran la mascota: su página, perdidas si estaba o queda perdida, sus publicaciones
+    private void invalidarRespuestas(Long mascotaId, EstadoMascota anterior, EstadoMascota nuevo) {
+        boolean perdida = ESTADOS_PERDIDA.contains(anterior) || ESTADOS_PERDIDA.contains(nuevo);
+        List<Long> publicaciones = publicacionDAO.findIdsByMascota(mascotaId);
+        TransaccionUtil.despuesDelCommit(() -> cacheRespuestas.invalidarMascota(mascotaId, perdida, publicaciones));
+    }
+
+    // Se revisa después del commit: si ninguna otra mascota usa la imagen, se borra del disco
+    private void liberarImagen(String imagenUrl) {
+        TransaccionUtil.despuesDelCommit(() -> fileStorageService.liberarMascotaImage(imagenUrl));
     }
 
     public Mascota obtenerPorId(Long id) {
@@ -46,6 +178,33 @@ public class MascotaService {
         return mascotaDAO.findAll();
     }
 
+    /**
+     * Devuelve hasta {@code tamanio} mascotas con id mayor al cursor, ordenadas por id.
+     * El id de la última mascota devuelta es el cursor de la página siguiente.
+     */
+    public List<Mascota> obtenerPagina(Long cursor, int tamanio) {
+        long desde = cursor == null ? 0L : cursor;
+        return mascotaDAO.findPaginaDesde(desde, PageRequest.of(0, tamanio));
+    }
+
+    /**
+     * Recorre todas las mascotas en lotes de {@code tamanioLote} usando el cursor por id,
+     * de forma que nunca haya más de un lote en memoria. Después de cada lote se vacía el contexto de
+     * persistencia: con open-in-view el del request duraría hasta el final y retendría todas las filas leídas.
+     */
+    public void recorrerTodas(int tamanioLote, Consumer<List<Mascota>> consumidor) {
+        Long cursor = 0L;
+        List<Mascota> lote;
+        do {
+            lote = obtenerPagina(cursor, tamanioLote);
+            if (!lote.isEmpty()) {
+                consumidor.accept(lote);
+                cursor = lote.get(lote.size() - 1).getId();
+                entityManager.clear();
+            }
+        } while (lote.size() == tamanioLote);
+    }
+
     public List<Mascota> obtenerPorNombre(String nombre) {
         return mascotaDAO.findByNombre(nombre);
     }
@@ -62,7 +221,10 @@ public class MascotaService {
         return mascotaDAO.findByColor(color);
     }
 
-    public List<Mascota> obtenerPorEstado(String estado) {
+    /**
+     * El estado llega ya convertido: validar el texto (y responder 400) le toca al controller.
+     */
+    public List<Mascota> obtenerPorEstado(EstadoMascota estado) {
         return mascotaDAO.findByEstado(estado);
     }
 
@@ -71,21 +233,38 @@ public class MascotaService {
     }
 
     public List<Mascota> obtenerMascotasPerdidas() {
-        // Retorna mascotas con estado PERDIDA_PROPIA o PERDIDA_AJENA
-        List<Mascota> perdidas = mascotaDAO.findByEstado(EstadoMascota.PERDIDA_PROPIA.name());
-        List<Mascota> perdidasAjenas = mascotaDAO.findByEstado(EstadoMascota.PERDIDA_AJENA.name());
-        if (perdidas != null && perdidasAjenas != null) {
-            perdidas.addAll(perdidasAjenas);
-        }
-        return perdidas;
+        // Retorna mascotas con estado PERDIDA_PROPIA o PERDIDA_AJENA (una sola consulta)
+        return mascotaDAO.findByEstadoIn(ESTADOS_PERDIDA);
+    }
+
+    /**
+     * Página de mascotas perdidas (propias o ajenas), de la más nueva a la más vieja.
+     * Se resuelve con el índice en memoria de {@link FiltroMascotasService}, sin consultar la base.
+     */
+    public ResultadoFiltroMascotasDTO obtenerResumenMascotasPerdidas(int pagina, int tamanio) {
+        List<String> estados = ESTADOS_PERDIDA.stream().map(Enum::name).toList();
+        return filtroMascotasService.listar(Map.of(FiltroMascotasService.Faceta.ESTADO, estados), pagina, tamanio);
     }
 
     @Transactional
     public void cambiarEstado(Long mascotaId, EstadoMascota nuevoEstado) {
         Mascota mascota = mascotaDAO.findById(mascotaId).orElse(null);
         if (mascota != null) {
+            EstadoMascota estadoAnterior = mascota.getEstadoMascota();
             mascota.setEstadoMascota(nuevoEstado);
             mascotaDAO.save(mascota);
+            filtroMascotasService.actualizar(mascota);
+            emparejamientoService.actualizar(mascota);
+            recalcularCoincidenciasSiCambioEstado(mascotaId, estadoAnterior, nuevoEstado);
+            invalidarRespuestas(mascotaId, estadoAnterior, nuevoEstado);
+        }
+    }
+
+    // Sólo las publicaciones de mascotas perdidas son candidatas: si el estado cambia, las coincidencias guardadas
+    // de sus publicaciones se recalculan (se quitan si dejó de estar perdida, se buscan si volvió a estarlo)
+    private void recalcularCoincidenciasSiCambioEstado(Long mascotaId, EstadoMascota anterior, EstadoMascota nuevo) {
+        if (anterior != nuevo) {
+            publicacionDAO.findIdsByMascota(mascotaId).forEach(coincidenciasService::recalcularPorPublicacionEnSegundoPlano);
         }
     }
 }
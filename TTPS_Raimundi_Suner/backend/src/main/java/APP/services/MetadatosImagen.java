@@ -0,0 +1,283 @@
+package APP.services;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Copia un JPEG o PNG quitándole los metadatos (EXIF con la ubicación GPS, XMP, comentarios, textos)
+ * sin recodificar la imagen: los datos comprimidos se copian tal cual, así el original no pierde calidad.
+ * <ul>
+ *   <li>JPEG: se conservan JFIF (APP0), el perfil de color (APP2 ICC_PROFILE) y APP14 Adobe, que afectan
+ *       cómo se ve la imagen. El EXIF se reemplaza por uno mínimo que solo guarda la orientación
+ *       (si no es la normal), para que la foto no aparezca girada. Todo lo que sigue al fin de la imagen
+ *       (p. ej. las imágenes secundarias MPF, con su propio EXIF) se descarta.</li>
+ *   <li>PNG: se conservan los chunks de la imagen y de color; los de texto, eXIf, tIME y los privados se
+ *       descartan, igual que lo que sigue a IEND.</li>
+ * </ul>
+ */
+final class MetadatosImagen {
+
+    private static final int SOI = 0xD8;
+    private static final int EOI = 0xD9;
+    private static final int SOS = 0xDA;
+    private static final int APP0 = 0xE0;
+    private static final int APP1 = 0xE1;
+    private static final int APP2 = 0xE2;
+    private static final int APP14 = 0xEE;
+    private static final int APP15 = 0xEF;
+    private static final int COM = 0xFE;
+
+    private static final byte[] EXIF = "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] ICC_PROFILE = "ICC_PROFILE\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int TAG_ORIENTACION = 0x0112;
+
+    private static final byte[] FIRMA_PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final Set<String> CHUNKS_PNG_CONSERVADOS = Set.of(
+            "IHDR", "PLTE", "IDAT", "IEND", "tRNS", "cHRM", "gAMA", "iCCP", "sBIT", "sRGB", "bKGD", "pHYs",
+            // PNG animado
+            "acTL", "fcTL", "fdAT");
+
+    private MetadatosImagen() {
+    }
+
+    /**
+     * Copia la imagen de {@code in} a {@code out} sin metadatos.
+     * {@code extension} es "jpg" o "png"; si el contenido no es una imagen de ese formato lanza IllegalArgumentException.
+     */
+    static void quitar(InputStream in, OutputStream out, String extension) throws IOException {
+        DataInputStream datos = new DataInputStream(new BufferedInputStream(in));
+        try {
+            if (extension.equals("png")) {
+                copiarPng(datos, out);
+            } else {
+                copiarJpeg(datos, out);
+            }
+        } catch (EOFException e) {
+            throw invalida();
+        }
+    }
+
+    private static void copiarJpeg(DataInputStream in, OutputStream out) throws IOException {
+        if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != SOI) {
+            throw invalida();
+        }
+        out.write(0xFF);
+        out.write(SOI);
+
+        boolean exifEscrito = false;
+        int marcador = siguienteMarcador(in);
+        while (marcador != EOI) {
+            if (marcador >= 0xD0 && marcador <= 0xD7 || marcador == 0x01) {
+                // Marcadores sin segmento (RSTn, TEM)
+                out.write(0xFF);
+                out.write(marcador);
+                marcador = siguienteMarcador(in);
+                continue;
+            }
+
+            int largo = in.readUnsignedShort();
+            if (largo < 2) {
+                throw invalida();
+            }
+            byte[] segmento = new byte[largo - 2];
+            in.readFully(segmento);
+
+            if (marcador == APP1) {
+                int orientacion = exifEscrito ? 0 : orientacion(segmento);
+                if (orientacion > 1) {
+                    escribirSegmento(out, APP1, exifSoloOrientacion(orientacion));
+                    exifEscrito = true;
+                }
+            } else if (marcador == APP0 || marcador == APP14
+                    || marcador == APP2 && empiezaCon(segmento, ICC_PROFILE)) {
+                escribirSegmento(out, marcador, segmento);
+            } else if ((marcador < APP0 || marcador > APP15) && marcador != COM) {
+                escribirSegmento(out, marcador, segmento);
+            }
+
+            if (marcador == SOS) {
+                marcador = copiarDatosComprimidos(in, out);
+                if (marcador < 0) {
+                    // Archivo cortado después de los datos: se guarda lo que hay, como lo mostraría un navegador
+                    return;
+                }
+            } else {
+                marcador = siguienteMarcador(in);
+            }
+        }
+        out.write(0xFF);
+        out.write(EOI);
+    }
+
+    private static int siguienteMarcador(DataInputStream in) throws IOException {
+        if (in.readUnsignedByte() != 0xFF) {
+            throw invalida();
+        }
+        int marcador = in.readUnsignedByte();
+        // Bytes de relleno antes del marcador
+        while (marcador == 0xFF) {
+            marcador = in.readUnsignedByte();
+        }
+        if (marcador == 0x00) {
+            throw invalida();
+        }
+        return marcador;
+    }
+
+    /**
+     * Copia los datos comprimidos de un scan hasta el siguiente marcador (que devuelve), o -1 si el archivo termina antes.
+     * Dentro de los datos, 0xFF va seguido de 0x00 (byte escapado) o de un RSTn.
+     */
+    private static int copiarDatosComprimidos(DataInputStream in, OutputStream out) throws IOException {
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                return -1;
+            }
+            if (b != 0xFF) {
+                out.write(b);
+                continue;
+            }
+            int siguiente = in.read();
+            while (siguiente == 0xFF) {
+                siguiente = in.read();
+            }
+            if (siguiente < 0) {
+                return -1;
+            }
+            if (siguiente == 0x00 || siguiente >= 0xD0 && siguiente <= 0xD7) {
+                out.write(0xFF);
+                out.write(siguiente);
+                continue;
+            }
+            return siguiente;
+        }
+    }
+
+    private static void escribirSegmento(OutputStream out, int marcador, byte[] segmento) throws IOException {
+        out.write(0xFF);
+        out.write(marcador);
+        int largo = segmento.length + 2;
+        out.write(largo >>> 8);
+        out.write(largo & 0xFF);
+        out.write(segmento);
+    }
+
+    /**
+     * Orientación (1 a 8) del IFD0 de un segmento EXIF, o 0 si no es EXIF o no la tiene.
+     */
+    static int orientacion(byte[] segmento) {
+        if (!empiezaCon(segmento, EXIF) || segmento.length < EXIF.length + 8) {
+            return 0;
+        }
+        int tiff = EXIF.length;
+        boolean littleEndian;
+        if (segmento[tiff] == 'I' && segmento[tiff + 1] == 'I') {
+            littleEndian = true;
+        } else if (segmento[tiff] == 'M' && segmento[tiff + 1] == 'M') {
+            littleEndian = false;
+        } else {
+            return 0;
+        }
+        if (leer16(segmento, tiff + 2, littleEndian) != 42) {
+            return 0;
+        }
+        long desplazamiento = leer32(segmento, tiff + 4, littleEndian);
+        if (desplazamiento > segmento.length - tiff - 2) {
+            return 0;
+        }
+        int ifd = tiff + (int) desplazamiento;
+        int entradas = leer16(segmento, ifd, littleEndian);
+        for (int i = 0; i < entradas; i++) {
+            int entrada = ifd + 2 + 12 * i;
+            if (entrada + 12 > segmento.length) {
+                break;
+            }
+            if (leer16(segmento, entrada, littleEndian) == TAG_ORIENTACION && leer16(segmento, entrada + 2, littleEndian) == 3) {
+                int valor = leer16(segmento, entrada + 8, littleEndian);
+                return valor >= 1 && valor <= 8 ? valor : 0;
+            }
+        }
+        return 0;
+    }
+
+    // EXIF big-endian con un único tag: Orientation (SHORT, 1 valor) en el IFD0
+    private static byte[] exifSoloOrientacion(int orientacion) {
+        byte[] tiff = {
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientacion, 0, 0,
+                0, 0, 0, 0
+        };
+        byte[] segmento = Arrays.copyOf(EXIF, EXIF.length + tiff.length);
+        System.arraycopy(tiff, 0, segmento, EXIF.length, tiff.length);
+        return segmento;
+    }
+
+    private static void copiarPng(DataInputStream in, OutputStream out) throws IOException {
+        byte[] firma = new byte[FIRMA_PNG.length];
+        in.readFully(firma);
+        if (!Arrays.equals(firma, FIRMA_PNG)) {
+            throw invalida();
+        }
+        out.write(FIRMA_PNG);
+
+        byte[] buffer = new byte[8192];
+        byte[] cabecera = new byte[8];
+        while (true) {
+            in.readFully(cabecera);
+            long largo = leer32(cabecera, 0, false);
+            String tipo = new String(cabecera, 4, 4, StandardCharsets.ISO_8859_1);
+            if (largo > Integer.MAX_VALUE) {
+                throw invalida();
+            }
+            boolean conservar = CHUNKS_PNG_CONSERVADOS.contains(tipo);
+            if (conservar) {
+                out.write(cabecera);
+            }
+            // Datos y CRC
+            long restante = largo + 4;
+            while (restante > 0) {
+                int leidos = (int) Math.min(buffer.length, restante);
+                in.readFully(buffer, 0, leidos);
+                if (conservar) {
+                    out.write(buffer, 0, leidos);
+                }
+                restante -= leidos;
+            }
+            if (tipo.equals("IEND")) {
+                return;
+            }
+        }
+    }
+
+    private static boolean empiezaCon(byte[] datos, byte[] prefijo) {
+        return datos.length >= prefijo.length && Arrays.equals(datos, 0, prefijo.length, prefijo, 0, prefijo.length);
+    }
+
+    private static int leer16(byte[] datos, int posicion, boolean littleEndian) {
+        if (posicion + 2 > datos.length) {
+            return -1;
+        }
+        int a = datos[posicion] & 0xFF;
+        int b = datos[posicion + 1] & 0xFF;
+        return littleEndian ? b << 8 | a : a << 8 | b;
+    }
+
+    private static long leer32(byte[] datos, int posicion, boolean littleEndian) {
+        long primero = leer16(datos, posicion, littleEndian) & 0xFFFFL;
+        long segundo = leer16(datos, posicion + 2, littleEndian) & 0xFFFFL;
+        return littleEndian ? segundo << 16 | primero : primero << 16 | segundo;
+    }
+
+    private static IllegalArgumentException invalida() {
+        return new IllegalArgumentException("El archivo no es una imagen JPG/PNG válida");
+    }
+}
@@ -0,0 +1,283 @@
+package APP.services;
+
+import APP.models.clases.VarianteImagen;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Genera en segundo plano las variantes redimensionadas ({@link VarianteImagen}) de cada imagen subida.
+ * Las variantes se recodifican como JPEG sin metadatos (EXIF, GPS, etc.).
+ * También calcula, en el mismo pool, el hash perceptual de la imagen de cada mascota guardada.
+ * El trabajo corre en un pool acotado: si la cola se llena, la tarea se descarta (con un aviso en el log) y el
+ * request que subió la imagen no espera. Lo descartado se completa al iniciar: {@link FileStorageService} vuelve a
+ * encolar las variantes que falten y {@link MascotaService} los hashes. Mientras tanto, la URL de una variante
+ * que no existe redirige al original.
+ */
+@Service
+public class ProcesadorImagenesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcesadorImagenesService.class);
+
+    // Evita decodificar imágenes gigantes (bombas de descompresión) aunque el archivo pese menos de 5MB
+    private static final int LADO_MAXIMO_ORIGINAL = 8000;
+    // El submuestreo al leer toma un píxel de cada tantos (sin promediar): se lee a un tamaño bastante mayor
+    // que el del hash y la reducción con promedio se hace después
+    private static final int LADO_MINIMO_PARA_HASH = 256;
+
+    private final ThreadPoolExecutor executor;
+
+    public ProcesadorImagenesService(@Value("${app.imagenes.hilos:2}") int hilos,
+                                     @Value("${app.imagenes.cola:100}") int capacidadCola) {
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "procesador-imagenes-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (tarea, ejecutor) -> log.warn("Pool de imágenes saturado, se descarta {}",
+                        tarea instanceof TareaDescartable descartable ? descartable.descripcion() : "una tarea"));
+    }
+
+    private record TareaDescartable(String descripcion, Runnable tarea) implements Runnable {
+        @Override
+        public void run() {
+            tarea.run();
+        }
+    }
+
+    /**
+     * Encola la generación de variantes para la imagen guardada en {@code original}.
+     * Si la cola está llena no se hace nada: las que falten se generan al iniciar.
+     */
+    public void procesarEnSegundoPlano(Path original) {
+        executor.execute(new TareaDescartable("la generación de las variantes de " + original.getFileName(), () -> {
+            try {
+                generarVariantes(original);
+            } catch (Exception e) {
+                log.warn("No se pudieron generar las variantes de {}: {}", original, e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Indica si a la imagen {@code original} le falta alguna de sus variantes.
+     */
+    public boolean faltanVariantes(Path original) {
+        String nombre = original.getFileName().toString();
+        for (VarianteImagen variante : VarianteImagen.values()) {
+            if (!Files.exists(original.resolveSibling(variante.urlPara(nombre)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcula en el pool el hash perceptual de la imagen y se lo pasa a {@code alTerminar} (null si no se puede leer).
+     * Si la cola está llena no se hace nada.
+     */
+    public void calcularHashEnSegundoPlano(Path original, Consumer<Long> alTerminar) {
+        executor.execute(new TareaDescartable("el cálculo del hash perceptual de " + original.getFileName(), () -> {
+            try {
+                alTerminar.accept(calcularHashPerceptual(original));
+            } catch (Exception e) {
+                log.warn("No se pudo calcular el hash perceptual de {}: {}", original, e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Hash perceptual (dHash) de 64 bits de la imagen, o null si no se puede leer.
+     * Imágenes iguales a la vista (recomprimidas, redimensionadas, sin EXIF) dan hashes a poca
+     * distancia de Hamming, aunque sus bytes sean distintos.
+     */
+    public Long calcularHashPerceptual(Path original) throws IOException {
+        // Alcanza con una versión chica: se submuestrea al leer para no decodificar a tamaño completo
+        BufferedImage imagen = leer(original, LADO_MINIMO_PARA_HASH);
+        return imagen == null ? null : dHash(imagen);
+    }
+
+    /**
+     * dHash: se reduce la imagen a 9x8 en escala de grises y cada bit indica si una celda es más clara
+     * que su vecina de la derecha. Cada celda es el promedio de todos sus píxeles (no una muestra): así el ruido
+     * de una recompresión JPEG se compensa y no da vuelta bits en zonas de brillo parejo.
+     */
+    static long dHash(BufferedImage imagen) {
+        BufferedImage chica = escalar(imagen, 72);
+        int ancho = chica.getWidth();
+        int alto = chica.getHeight();
+        double[][] suma = new double[8][9];
+        int[][] cantidad = new int[8][9];
+        for (int y = 0; y < alto; y++) {
+            int fila = y * 8 / alto;
+            for (int x = 0; x < ancho; x++) {
+                int columna = x * 9 / ancho;
+                int rgb = chica.getRGB(x, y);
+                suma[fila][columna] += 0.299 * (rgb >> 16 & 0xFF) + 0.587 * (rgb >> 8 & 0xFF) + 0.114 * (rgb & 0xFF);
+                cantidad[fila][columna]++;
+            }
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                // Una imagen de menos de 9x8 deja celdas vacías: cuentan como negras
+                double izquierda = cantidad[y][x] == 0 ? 0 : suma[y][x] / cantidad[y][x];
+                double derecha = cantidad[y][x + 1] == 0 ? 0 : suma[y][x + 1] / cantidad[y][x + 1];
+                hash = (hash << 1) | (izquierda > derecha ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    void generarVariantes(Path original) throws IOException {
+        BufferedImage imagen = leer(original, 0);
+        if (imagen == null) {
+            return;
+        }
+
+        String nombre = original.getFileName().toString();
+        for (VarianteImagen variante : VarianteImagen.values()) {
+            BufferedImage escalada = escalar(imagen, variante.getLadoMaximo());
+            Path destino = original.resolveSibling(variante.urlPara(nombre));
+            escribirJpeg(escalada, destino, variante.getCalidad());
+        }
+    }
+
+    /**
+     * Borra las variantes generadas para la imagen {@code original}, si existen.
+     */
+    public void eliminarVariantes(Path original) {
+        String nombre = original.getFileName().toString();
+        for (VarianteImagen variante : VarianteImagen.values()) {
+            try {
+                Files.deleteIfExists(original.resolveSibling(variante.urlPara(nombre)));
+            } catch (IOException e) {
+                log.warn("No se pudo borrar la variante {} de {}: {}", variante, original, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Decodifica la imagen. Si {@code ladoMinimo} es mayor a 0 se submuestrea al leer, manteniendo
+     * al menos ese tamaño en el lado menor (mucho más barato que decodificar y después reducir).
+     */
+    private static BufferedImage leer(Path archivo, int ladoMinimo) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(archivo.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int ancho = reader.getWidth(0);
+                int alto = reader.getHeight(0);
+                if (ancho > LADO_MAXIMO_ORIGINAL || alto > LADO_MAXIMO_ORIGINAL) {
+                    log.warn("Imagen {} demasiado grande para procesar", archivo);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int paso = ladoMinimo > 0 ? Math.max(1, Math.min(ancho, alto) / ladoMinimo) : 1;
+                if (paso > 1) {
+                    param.setSourceSubsampling(paso, paso, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduce la imagen para que su lado mayor no supere {@code ladoMaximo} (nunca la agranda).
+     * Reduce a la mitad en varios pasos para que el bilineal no pierda calidad en reducciones grandes.
+     * El resultado es RGB sobre fondo blanco, apto para JPEG.
+     */
+    static BufferedImage escalar(BufferedImage origen, int ladoMaximo) {
+        int ancho = origen.getWidth();
+        int alto = origen.getHeight();
+        double escala = Math.min(1.0, (double) ladoMaximo / Math.max(ancho, alto));
+        int anchoFinal = Math.max(1, (int) Math.round(ancho * escala));
+        int altoFinal = Math.max(1, (int) Math.round(alto * escala));
+
+        BufferedImage actual = origen;
+        do {
+            ancho = Math.max(anchoFinal, ancho / 2);
+            alto = Math.max(altoFinal, alto / 2);
+            BufferedImage paso = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = paso.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, ancho, alto);
+                g.drawImage(actual, 0, 0, ancho, alto, null);
+            } finally {
+                g.dispose();
+            }
+            actual = paso;
+        } while (ancho != anchoFinal || alto != altoFinal);
+        return actual;
+    }
+
+    /**
+     * Escribe la imagen como JPEG sin metadatos. Se escribe a un temporal y se mueve,
+     * para que nunca se sirva un archivo a medio escribir.
+     */
+    private static void escribirJpeg(BufferedImage imagen, Path destino, float calidad) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        Path temporal = Files.createTempFile(destino.getParent(), ".variante-", ".tmp");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temporal.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(calidad);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(imagen, null, null), param);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temporal);
+        }
+    }
+}
@@ -1,23 +1,127 @@
 package APP.services;
 
+import APP.cache.CacheRespuestasPublicas;
+import APP.dto.PublicacionResumenDTO;
+import APP.geo.GeoHash;
+import APP.models.clases.EstadoPublicacion;
 import APP.models.clases.Publicacion;
 import APP.models.dao.PublicacionDAO;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Service
 
 public class PublicacionService {
 
+    private static final Logger log = LoggerFactory.getLogger(PublicacionService.class);
+    private static final int LOTE_GEOHASH = 500;
+    private static final String ERROR_PUBLICACION_ACTIVA =
+            "Esta mascota ya tiene una publicación activa. No se puede crear otra hasta que se finalice o cancele la existente.";
+
     @Autowired
     private PublicacionDAO publicacionDAO;
 
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @Autowired
+    private CoincidenciasAvistamientoService coincidenciasService;
+
+    @Autowired
+    private EmparejamientoMascotasService emparejamientoService;
+
+    @Autowired
+    private CacheRespuestasPublicas cacheRespuestas;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Completa el geohash de las publicaciones con coordenadas guardadas antes de que existiera la columna.
+     * Se recorren de a lotes por id, cada uno en su transacción: no se retiene la tabla entera en memoria
+     * ni una transacción larga al iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarGeohashFaltantes() {
+        long desdeId = 0;
+        List<Publicacion> lote;
+        do {
+            long cursor = desdeId;
+            lote = transactionTemplate.execute(status -> {
+                List<Publicacion> pagina = publicacionDAO.findSinGeohash(cursor, PageRequest.of(0, LOTE_GEOHASH));
+                pagina.forEach(Publicacion::calcularGeohash);
+                return pagina;
+            });
+            if (!lote.isEmpty()) {
+                desdeId = lote.get(lote.size() - 1).getId();
+            }
+        } while (lote.size() == LOTE_GEOHASH);
+    }
+
+    /**
+     * Marca las publicaciones activas guardadas antes de que existiera la columna mascota_activa_id.
+     * Si una mascota quedó con varias activas (la regla sólo se validaba en el controller), se marca la más
+     * reciente y las demás se cancelan: si no, el UNIQUE impediría arrancar o guardarlas más adelante.
+     * Corre antes que los demás listeners de inicio, que pueden actualizar publicaciones (y recalcular la columna).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional
+    public void completarMascotaActivaFaltante() {
+        Set<Long> mascotasMarcadas = new HashSet<>();
+        List<Long> canceladas = new ArrayList<>();
+        // De la más reciente a la más vieja
+        for (Publicacion publicacion : publicacionDAO.findActivasSinMascotaActiva()) {
+            Long mascotaId = publicacion.getMascota().getId();
+            if (mascotasMarcadas.add(mascotaId) && !publicacionDAO.existsActivaByMascota(mascotaId)) {
+                publicacion.calcularMascotaActiva();
+            } else {
+                publicacion.setEstadoPublicacion(EstadoPublicacion.CANCELADA);
+                if (publicacion.getFechaCierre() == null) {
+                    publicacion.setFechaCierre(LocalDate.now());
+                }
+                canceladas.add(publicacion.getId());
+            }
+        }
+        if (!canceladas.isEmpty()) {
+            log.warn("Se cancelaron {} publicaciones activas duplicadas (la mascota tenía otra más reciente): {}",
+                    canceladas.size(), canceladas);
+        }
+    }
+
     @Transactional
     public Publicacion crearPublicacion(Publicacion publicacion) {
-        return publicacionDAO.save(publicacion);
+        try {
+            Publicacion nueva = publicacionDAO.saveAndFlush(publicacion);
+            busquedaService.indexarPublicacion(nueva);
+            emparejamientoService.actualizarUbicacion(nueva);
+            coincidenciasService.recalcularPorPublicacionEnSegundoPlano(nueva.getId());
+            invalidarRespuestas(nueva.getId());
+            return nueva;
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición concurrente activó una publicación para la misma mascota
+            throw traducirViolacion(e);
+        }
     }
 
     @Transactional
@@ -25,12 +129,50 @@ public class PublicacionService {
         if (!publicacionDAO.existsById(publicacion.getId())) {
             throw new IllegalArgumentException("Publicación no encontrada");
         }
-        return publicacionDAO.save(publicacion);
+        try {
+            Publicacion actualizada = publicacionDAO.saveAndFlush(publicacion);
+            busquedaService.indexarPublicacion(actualizada);
+            emparejamientoService.actualizarUbicacion(actualizada);
+            coincidenciasService.recalcularPorPublicacionEnSegundoPlano(actualizada.getId());
+            invalidarRespuestas(actualizada.getId());
+            return actualizada;
+        } catch (DataIntegrityViolationException e) {
+            throw traducirViolacion(e);
+        }
+    }
+
+    /**
+     * Sólo la violación del UNIQUE de publicación activa es un error del cliente; cualquier otra
+     * (FK, columna demasiado larga, etc.) se propaga como está.
+     */
+    private static RuntimeException traducirViolacion(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion && violacion.getConstraintName() != null
+                    && violacion.getConstraintName().toLowerCase(Locale.ROOT).contains(Publicacion.UK_MASCOTA_ACTIVA)) {
+                return new IllegalArgumentException(ERROR_PUBLICACION_ACTIVA);
+            }
+        }
+        return e;
+    }
+
+    public boolean tienePublicacionActiva(Long mascotaId) {
+        return publicacionDAO.existsActivaByMascota(mascotaId);
     }
 
     @Transactional
     public void eliminarPublicacion(Long id) {
+        Publicacion publicacion = publicacionDAO.findById(id).orElse(null);
+        coincidenciasService.quitarPublicaciones(List.of(id));
         publicacionDAO.deleteById(id);
+        busquedaService.quitarPublicacion(id);
+        if (publicacion != null && publicacion.getMascota() != null) {
+            emparejamientoService.recalcularUbicacion(publicacion.getMascota().getId());
+        }
+        invalidarRespuestas(id);
+    }
+
+    private void invalidarRespuestas(Long publicacionId) {
+        TransaccionUtil.despuesDelCommit(() -> cacheRespuestas.invalidarPublicaciones(List.of(publicacionId)));
     }
 
     public Publicacion obtenerPorId(Long id) {
@@ -40,5 +182,25 @@ public class PublicacionService {
     public List<Publicacion> obtenerTodas() {
         return publicacionDAO.findAll();
     }
-}
 
+    public List<PublicacionResumenDTO> obtenerResumenTodas() {
+        return publicacionDAO.findAllResumen();
+    }
+
+    /**
+     * Las {@code limite} publicaciones más cercanas a menos de {@code radioKm} del punto, ordenadas por distancia.
+     * Sólo se consultan las celdas geohash que cubren el círculo (índice sobre publicacion.geohash).
+     */
+    public List<Publicacion> obtenerCercanas(double lat, double lng, double radioKm, int limite) {
+        Set<String> celdas = GeoHash.celdasCubriendo(lat, lng, radioKm);
+        Specification<Publicacion> enCeldas = (root, query, cb) -> cb.or(celdas.stream()
+                .map(celda -> cb.like(root.get("geohash"), celda + "%"))
+                .toArray(Predicate[]::new));
+
+        return publicacionDAO.findAll(enCeldas).stream()
+                .filter(p -> GeoHash.distanciaKm(lat, lng, p.getLat(), p.getLng()) <= radioKm)
+                .sorted(Comparator.comparingDouble(p -> GeoHash.distanciaKm(lat, lng, p.getLat(), p.getLng())))
+                .limit(limite)
+                .toList();
+    }
+}
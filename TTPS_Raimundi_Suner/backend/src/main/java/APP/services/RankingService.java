@@ -0,0 +1,183 @@
+package APP.services;
+
+import APP.dto.UsuarioDTO;
+import APP.models.clases.Usuario;
+import APP.models.dao.UsuarioDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking de usuarios por puntos mantenido en memoria.
+ * Se carga una vez al iniciar y {@link UsuarioService} lo actualiza en cada escritura confirmada,
+ * de modo que las lecturas del ranking (top N, página, posición de un usuario) no consultan la base.
+ */
+@Service
+public class RankingService {
+
+    private static final int TAMANIO_LOTE_CARGA = 500;
+
+    /**
+     * Posición (base 1) y puntos de un usuario, y el total de usuarios del ranking, leídos juntos.
+     */
+    public record Posicion(int posicion, int puntos, int total) {}
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    private final ArbolRanking arbol = new ArbolRanking();
+    private final Map<Long, UsuarioDTO> usuarios = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            arbol.limpiar();
+            usuarios.clear();
+            long cursor = 0L;
+            List<Usuario> lote;
+            do {
+                lote = usuarioDAO.findPaginaDesde(cursor, PageRequest.of(0, TAMANIO_LOTE_CARGA));
+                for (Usuario usuario : lote) {
+                    aplicar(UsuarioDTO.fromUsuario(usuario));
+                    cursor = usuario.getId();
+                }
+            } while (lote.size() == TAMANIO_LOTE_CARGA);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja el estado del usuario en el ranking cuando la transacción actual confirme.
+     */
+    public void actualizar(Usuario usuario) {
+        UsuarioDTO dto = UsuarioDTO.fromUsuario(usuario);
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                aplicar(dto);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Suma {@code delta} a los puntos del usuario en el ranking cuando la transacción actual confirme.
+     */
+    public void sumarPuntos(Long usuarioId, int delta) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                UsuarioDTO anterior = usuarios.get(usuarioId);
+                if (anterior != null) {
+                    // Los DTO se comparten con los lectores: se reemplaza por una copia en lugar de modificarlo
+                    UsuarioDTO actualizado = copiar(anterior);
+                    actualizado.setPuntos(anterior.getPuntos() + delta);
+                    aplicar(actualizado);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitar(Long usuarioId) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                UsuarioDTO anterior = usuarios.remove(usuarioId);
+                if (anterior != null) {
+                    arbol.eliminar(anterior.getId(), anterior.getPuntos());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Usuarios en las posiciones [pagina * tamanio, (pagina + 1) * tamanio) del ranking.
+     */
+    public List<UsuarioDTO> obtenerPagina(int pagina, int tamanio) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = arbol.rango(pagina * tamanio, tamanio);
+            List<UsuarioDTO> resultado = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                resultado.add(usuarios.get(id));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posición del usuario en el ranking, o null si no existe.
+     */
+    public Posicion obtenerPosicion(Long usuarioId) {
+        lock.readLock().lock();
+        try {
+            UsuarioDTO usuario = usuarios.get(usuarioId);
+            if (usuario == null) {
+                return null;
+            }
+            return new Posicion(arbol.posicion(usuario.getId(), usuario.getPuntos()) + 1, usuario.getPuntos(), arbol.tamanio());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public UsuarioDTO obtenerUsuario(Long usuarioId) {
+        lock.readLock().lock();
+        try {
+            return usuarios.get(usuarioId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int total() {
+        lock.readLock().lock();
+        try {
+            return arbol.tamanio();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static UsuarioDTO copiar(UsuarioDTO origen) {
+        UsuarioDTO copia = new UsuarioDTO();
+        copia.setId(origen.getId());
+        copia.setNombre(origen.getNombre());
+        copia.setApellido(origen.getApellido());
+        copia.setEmail(origen.getEmail());
+        copia.setTelefono(origen.getTelefono());
+        copia.setProvinciaId(origen.getProvinciaId());
+        copia.setDepartamentoId(origen.getDepartamentoId());
+        copia.setLocalidadId(origen.getLocalidadId());
+        copia.setEstado(origen.getEstado());
+        copia.setPuntos(origen.getPuntos());
+        copia.setRolId(origen.getRolId());
+        return copia;
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void aplicar(UsuarioDTO dto) {
+        UsuarioDTO anterior = usuarios.put(dto.getId(), dto);
+        if (anterior != null) {
+            arbol.eliminar(anterior.getId(), anterior.getPuntos());
+        }
+        arbol.insertar(dto.getId(), dto.getPuntos());
+    }
+}
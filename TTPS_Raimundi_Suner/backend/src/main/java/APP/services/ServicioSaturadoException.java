@@ -0,0 +1,12 @@
+package APP.services;
+
+/**
+ * El servidor no tiene capacidad para atender la operación en este momento (p. ej. la cola de hashing
+ * de contraseñas está llena). Los controllers la traducen a 503 con Retry-After.
+ */
+public class ServicioSaturadoException extends RuntimeException {
+
+    public ServicioSaturadoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,125 @@
+package APP.services;
+
+import APP.dto.MascotaResumenDTO;
+import APP.dto.MascotaSimilarDTO;
+import APP.models.clases.EstadoMascota;
+import APP.models.dao.MascotaDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Búsqueda de mascotas con fotos parecidas. Cada imagen tiene un hash perceptual (dHash de 64 bits,
+ * calculado al subirla y guardado en Mascota.imagenHash); los hashes se mantienen en memoria en un
+ * {@link ArbolBK}, así la consulta compara enteros y nunca decodifica imágenes.
+ * Se carga al iniciar y {@link MascotaService} lo actualiza en cada escritura confirmada.
+ */
+@Service
+public class SimilitudImagenesService {
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private FiltroMascotasService filtroMascotasService;
+
+    private final ArbolBK arbol = new ArbolBK();
+    private final Map<Long, Long> hashPorMascota = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void cargar() {
+        List<Object[]> hashes = mascotaDAO.findHashesDeImagen();
+        lock.writeLock().lock();
+        try {
+            arbol.limpiar();
+            hashPorMascota.clear();
+            for (Object[] fila : hashes) {
+                aplicar((Long) fila[0], (Long) fila[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja el hash de la imagen de la mascota (null si no tiene) cuando la transacción actual confirme.
+     */
+    public void actualizar(Long mascotaId, Long imagenHash) {
+        TransaccionUtil.despuesDelCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                aplicar(mascotaId, imagenHash);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void quitar(Long mascotaId) {
+        actualizar(mascotaId, null);
+    }
+
+    /**
+     * Mascotas perdidas (PERDIDA_PROPIA) cuya foto está a distancia de Hamming {@code distanciaMaxima} o menos
+     * de la foto de {@code mascotaId}, de la más parecida a la menos parecida. Vacío si la mascota no tiene foto.
+     */
+    public List<MascotaSimilarDTO> buscarSimilares(Long mascotaId, int distanciaMaxima, int limite) {
+        List<ArbolBK.Vecino> vecinos;
+        lock.readLock().lock();
+        try {
+            Long hash = hashPorMascota.get(mascotaId);
+            if (hash == null) {
+                return new ArrayList<>();
+            }
+            vecinos = arbol.buscar(hash, distanciaMaxima);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Las distancias van de 0 a distanciaMaxima: se agrupan por distancia en lugar de ordenar todos los
+        // resultados, y sólo se ordenan (por id) los grupos que se llegan a recorrer hasta juntar el límite
+        List<List<Long>> idsPorDistancia = new ArrayList<>(distanciaMaxima + 1);
+        for (int d = 0; d <= distanciaMaxima; d++) {
+            idsPorDistancia.add(new ArrayList<>());
+        }
+        for (ArbolBK.Vecino vecino : vecinos) {
+            if (vecino.id() != mascotaId) {
+                idsPorDistancia.get(vecino.distancia()).add(vecino.id());
+            }
+        }
+
+        List<MascotaSimilarDTO> similares = new ArrayList<>();
+        for (int distancia = 0; distancia <= distanciaMaxima && similares.size() < limite; distancia++) {
+            List<Long> ids = idsPorDistancia.get(distancia);
+            ids.sort(null);
+            for (Long id : ids) {
+                MascotaResumenDTO resumen = filtroMascotasService.obtenerResumen(id);
+                if (resumen != null && resumen.getEstadoMascota() == EstadoMascota.PERDIDA_PROPIA) {
+                    similares.add(new MascotaSimilarDTO(resumen.copia(), distancia));
+                    if (similares.size() >= limite) {
+                        break;
+                    }
+                }
+            }
+        }
+        return similares;
+    }
+
+    // Debe llamarse con el write lock tomado
+    private void aplicar(Long mascotaId, Long imagenHash) {
+        Long anterior = imagenHash != null ? hashPorMascota.put(mascotaId, imagenHash) : hashPorMascota.remove(mascotaId);
+        if (anterior != null) {
+            arbol.quitar(anterior, mascotaId);
+        }
+        if (imagenHash != null) {
+            arbol.agregar(imagenHash, mascotaId);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package APP.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para actualizar estructuras en memoria sólo cuando la escritura en la base quedó confirmada.
+ */
+public final class TransaccionUtil {
+
+    private TransaccionUtil() {}
+
+    /**
+     * Ejecuta la acción después del commit de la transacción actual, o inmediatamente si no hay transacción.
+     * Si la transacción hace rollback la acción no se ejecuta.
+     */
+    public static void despuesDelCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -4,7 +4,6 @@ import APP.models.clases.Usuario;
 import APP.models.dao.UsuarioDAO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,7 +17,10 @@ public class UsuarioService {
     private UsuarioDAO usuarioDAO;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private HashPasswordService hashPasswordService;
+
+    @Autowired
+    private RankingService rankingService;
 
     private static final Pattern EMAIL_COM_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.com$", Pattern.CASE_INSENSITIVE);
 
@@ -83,7 +85,7 @@ public class UsuarioService {
         }
 
         // Guardar contraseña hasheada
-        usuario.setPassword(passwordEncoder.encode(password));
+        usuario.setPassword(hashPasswordService.hashear(password));
 
         // Inicializar valores por defecto
         if (usuario.getPuntos() == 0 || usuario.getPuntos() < 0) {
@@ -94,7 +96,9 @@ public class UsuarioService {
         }
 
         try {
-            return usuarioDAO.save(usuario);
+            Usuario guardado = usuarioDAO.save(usuario);
+            rankingService.actualizar(guardado);
+            return guardado;
         } catch (DataIntegrityViolationException e) {
             // Respaldo por si el UNIQUE constraint se dispara por condición de carrera
             throw new IllegalArgumentException("El email ya está registrado");
@@ -160,13 +164,15 @@ public class UsuarioService {
             if (usuario.getPassword().length() <= 6) {
                 throw new IllegalArgumentException("La contraseña debe tener más de 6 caracteres");
             }
-            usuarioExistente.setPassword(passwordEncoder.encode(usuario.getPassword()));
+            usuarioExistente.setPassword(hashPasswordService.hashear(usuario.getPassword()));
         }
 
-        // NO actualizar: estado, puntos, rolId (se mantienen del usuario existente)
+        // NO actualizar: estado, puntos, rolId (se mantienen del usuario existente; puntos ni siquiera se escribe)
 
         try {
-            return usuarioDAO.save(usuarioExistente);
+            Usuario guardado = usuarioDAO.save(usuarioExistente);
+            rankingService.actualizar(guardado);
+            return guardado;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("El email ya está registrado por otro usuario");
         }
@@ -192,20 +198,26 @@ public class UsuarioService {
         boolean passwordOk;
 
         if (isBcrypt) {
-            passwordOk = passwordEncoder.matches(password, storedPassword);
+            passwordOk = hashPasswordService.coincide(password, storedPassword);
         } else {
             // Compatibilidad con usuarios creados antes del hashing: si la contraseña coincide en texto plano,
-            // la migramos a BCrypt en el momento del login.
+            // se migra a BCrypt abajo.
             passwordOk = storedPassword.equals(password);
-            if (passwordOk) {
-                usuario.setPassword(passwordEncoder.encode(password));
-                usuarioDAO.save(usuario);
-            }
         }
 
         if (!passwordOk) {
             throw new IllegalArgumentException("Credenciales inválidas");
         }
+        if (!isBcrypt) {
+            // Dentro del request: la contraseña en texto plano no puede quedar guardada porque el pool esté lleno
+            // (si lo está, el login responde 503 y la migración se hace en el reintento)
+            usuarioDAO.reemplazarPassword(usuario.getId(), storedPassword, hashPasswordService.hashear(password));
+        } else if (hashPasswordService.requiereRehash(storedPassword)) {
+            // Fuera del request: el login no paga un segundo hash
+            Long usuarioId = usuario.getId();
+            hashPasswordService.hashearEnSegundoPlano(password,
+                    nuevo -> usuarioDAO.reemplazarPassword(usuarioId, storedPassword, nuevo));
+        }
         if (Boolean.FALSE.equals(usuario.getEstado())) {
             throw new IllegalArgumentException("Usuario inactivo");
         }
@@ -236,16 +248,13 @@ public class UsuarioService {
         return usuarioDAO.findByLocalidadId(localidadId);
     }
 
-    public List<Usuario> obtenerPorPuntos() {
-        return usuarioDAO.findAllOrderByPuntosDesc();
-    }
-
-    public void agregarPuntos(Long usuarioId, int puntos) {
-        Usuario usuario = usuarioDAO.findById(usuarioId).orElse(null);
-        if (usuario != null) {
-            usuario.setPuntos(usuario.getPuntos() + puntos);
-            usuarioDAO.save(usuario);
+    @Transactional
+    public boolean agregarPuntos(Long usuarioId, int puntos) {
+        boolean actualizado = usuarioDAO.sumarPuntos(usuarioId, puntos) > 0;
+        if (actualizado) {
+            rankingService.sumarPuntos(usuarioId, puntos);
         }
+        return actualizado;
     }
 
     public void verificarPassword(Usuario usuario, String passwordActual) {
@@ -261,7 +270,7 @@ public class UsuarioService {
 
         if (isBcrypt) {
             // Contraseña hasheada con BCrypt
-            passwordOk = passwordEncoder.matches(passwordActual, storedPassword);
+            passwordOk = hashPasswordService.coincide(passwordActual, storedPassword);
         } else {
             // Contraseña en texto plano (usuarios antiguos)
             passwordOk = storedPassword.equals(passwordActual);
@@ -274,5 +283,6 @@ public class UsuarioService {
 
     public void eliminarUsuario(Long id) {
         usuarioDAO.deleteById(id);
+        rankingService.quitar(id);
     }
 }
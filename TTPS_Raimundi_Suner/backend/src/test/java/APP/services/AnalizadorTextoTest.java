@@ -0,0 +1,38 @@
+package APP.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class AnalizadorTextoTest {
+
+    @Test
+    void testSingularYPluralDanLaMismaRaiz() {
+        String[][] pares = {
+                {"perro", "perros"}, {"perra", "perras"}, {"perro", "perra"}, {"marron", "marrones"},
+                {"dulce", "dulces"}, {"ingles", "ingleses"}, {"frances", "franceses"}, {"luz", "luces"},
+                {"nariz", "narices"}, {"mes", "meses"}, {"gris", "grises"}, {"grande", "grandes"}
+        };
+        for (String[] par : pares) {
+            assertEquals(AnalizadorTexto.raiz(par[0]), AnalizadorTexto.raiz(par[1]), par[0] + " / " + par[1]);
+        }
+    }
+
+    @Test
+    void testPalabrasDistintasNoSeMezclan() {
+        assertNotEquals(AnalizadorTexto.raiz("gato"), AnalizadorTexto.raiz("gris"));
+        assertNotEquals(AnalizadorTexto.raiz("marron"), AnalizadorTexto.raiz("mar"));
+        assertNotEquals(AnalizadorTexto.raiz("luz"), AnalizadorTexto.raiz("lunes"));
+    }
+
+    @Test
+    void testNormalizaAcentosMayusculasYPalabrasVacias() {
+        assertEquals(List.of("perr", "ingl", "dulc", "narguil"), AnalizadorTexto.analizar("Perros de los Ingleses: ¡muy DULCES! Narguile"));
+        assertEquals(AnalizadorTexto.analizar("inglés"), AnalizadorTexto.analizar("INGLESES"));
+        assertEquals(List.of(), AnalizadorTexto.analizar("  de la   y "));
+        assertEquals(List.of(), AnalizadorTexto.analizar(null));
+    }
+}
@@ -0,0 +1,106 @@
+package APP.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArbolBKTest {
+
+    @Test
+    void testBuscarDevuelveLoMismoQueRecorrerTodo() {
+        Random random = new Random(7);
+        ArbolBK arbol = new ArbolBK();
+        Map<Long, Long> hashes = new HashMap<>();
+        long base = random.nextLong();
+        for (long id = 1; id <= 2000; id++) {
+            // La mitad cerca de una misma foto, para que haya resultados a poca distancia
+            long hash = id % 2 == 0 ? base ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64)) : random.nextLong();
+            hashes.put(id, hash);
+            arbol.agregar(hash, id);
+        }
+
+        for (int radio : new int[]{0, 3, 10, 20}) {
+            long buscado = base ^ 1L;
+            List<ArbolBK.Vecino> esperados = new ArrayList<>();
+            hashes.forEach((id, hash) -> {
+                int distancia = ArbolBK.distancia(hash, buscado);
+                if (distancia <= radio) {
+                    esperados.add(new ArbolBK.Vecino(id, distancia));
+                }
+            });
+            assertEquals(ordenados(esperados), ordenados(arbol.buscar(buscado, radio)), "radio " + radio);
+        }
+    }
+
+    @Test
+    void testHashRepetidoYQuitar() {
+        ArbolBK arbol = new ArbolBK();
+        arbol.agregar(0b1010L, 1);
+        arbol.agregar(0b1010L, 2);
+        arbol.agregar(0b1011L, 3);
+
+        assertEquals(List.of(new ArbolBK.Vecino(1, 0), new ArbolBK.Vecino(2, 0)), ordenados(arbol.buscar(0b1010L, 0)));
+
+        arbol.quitar(0b1010L, 1);
+        assertEquals(List.of(new ArbolBK.Vecino(2, 0), new ArbolBK.Vecino(3, 1)), ordenados(arbol.buscar(0b1010L, 1)));
+
+        // Quitar un id que no está no cambia nada
+        arbol.quitar(0b1010L, 99);
+        arbol.quitar(0b1111L, 2);
+        assertEquals(2, arbol.buscar(0b1010L, 1).size());
+    }
+
+    @Test
+    void testLosNodosVaciosSeReconstruyen() {
+        ArbolBK arbol = new ArbolBK();
+        Random random = new Random(11);
+        long[] hashes = new long[1000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            arbol.agregar(hashes[i], i);
+        }
+        assertEquals(1000, arbol.nodos());
+
+        // Se quitan casi todos: los vacíos nunca superan la proporción máxima
+        for (int i = 0; i < 900; i++) {
+            arbol.quitar(hashes[i], i);
+            assertTrue(arbol.nodosVacios() <= arbol.nodos() * ArbolBK.PROPORCION_MAXIMA_VACIOS + 1);
+        }
+        assertTrue(arbol.nodos() < 300, "Quedaron " + arbol.nodos() + " nodos para 100 hashes");
+
+        // Después de reconstruir siguen apareciendo todos los que quedan, y ninguno de los quitados
+        for (int i = 0; i < hashes.length; i++) {
+            List<ArbolBK.Vecino> encontrados = arbol.buscar(hashes[i], 0);
+            assertEquals(i >= 900 ? List.of(new ArbolBK.Vecino(i, 0)) : List.of(), encontrados, "id " + i);
+        }
+    }
+
+    @Test
+    void testAgregarEnUnNodoVacioLoReutiliza() {
+        ArbolBK arbol = new ArbolBK();
+        arbol.agregar(0L, 1);
+        arbol.agregar(0xFFL, 2);
+        arbol.quitar(0xFFL, 2);
+        assertEquals(2, arbol.nodos());
+        assertEquals(1, arbol.nodosVacios());
+
+        arbol.agregar(0xFFL, 3);
+        assertEquals(2, arbol.nodos());
+        assertEquals(0, arbol.nodosVacios());
+        assertEquals(List.of(new ArbolBK.Vecino(3, 0)), arbol.buscar(0xFFL, 0));
+    }
+
+    private static List<ArbolBK.Vecino> ordenados(List<ArbolBK.Vecino> vecinos) {
+        List<ArbolBK.Vecino> copia = new ArrayList<>(vecinos);
+        copia.sort(Comparator.comparingInt(ArbolBK.Vecino::distancia).thenComparingLong(ArbolBK.Vecino::id));
+        return copia;
+    }
+}
@@ -0,0 +1,75 @@
+package APP.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArbolRankingTest {
+
+    @Test
+    void testOrdenaPorPuntosYDesempataPorId() {
+        ArbolRanking arbol = new ArbolRanking();
+        arbol.insertar(3, 50);
+        arbol.insertar(1, 10);
+        arbol.insertar(2, 50);
+        arbol.insertar(4, 70);
+
+        assertEquals(List.of(4L, 2L, 3L, 1L), arbol.rango(0, 10));
+        assertEquals(List.of(2L, 3L), arbol.rango(1, 2));
+        assertEquals(0, arbol.posicion(4, 70));
+        assertEquals(1, arbol.posicion(2, 50));
+        assertEquals(2, arbol.posicion(3, 50));
+        assertEquals(3, arbol.posicion(1, 10));
+        assertTrue(arbol.rango(4, 10).isEmpty());
+    }
+
+    @Test
+    void testCoincideConOrdenarTodoDespuesDeCambiosAlAzar() {
+        Random random = new Random(11);
+        ArbolRanking arbol = new ArbolRanking();
+        Map<Long, Integer> puntos = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long id = 1 + random.nextInt(500);
+            Integer anterior = puntos.remove(id);
+            if (anterior != null) {
+                arbol.eliminar(id, anterior);
+            }
+            // Un tercio de las veces el usuario sale del ranking; pocos valores para que haya empates
+            if (random.nextInt(3) != 0) {
+                int nuevos = random.nextInt(50);
+                puntos.put(id, nuevos);
+                arbol.insertar(id, nuevos);
+            }
+        }
+
+        List<Long> esperado = new ArrayList<>(puntos.keySet());
+        esperado.sort(Comparator.comparing((Long id) -> -puntos.get(id)).thenComparing(id -> id));
+        assertEquals(esperado.size(), arbol.tamanio());
+        assertEquals(esperado, arbol.rango(0, esperado.size()));
+        assertEquals(esperado.subList(20, 45), arbol.rango(20, 25));
+        for (int i = 0; i < esperado.size(); i++) {
+            long id = esperado.get(i);
+            assertEquals(i, arbol.posicion(id, puntos.get(id)));
+        }
+    }
+
+    @Test
+    void testEliminarLoQueNoEstaNoCambiaNada() {
+        ArbolRanking arbol = new ArbolRanking();
+        arbol.insertar(1, 10);
+        arbol.eliminar(1, 20);
+        arbol.eliminar(2, 10);
+
+        assertEquals(1, arbol.tamanio());
+        arbol.limpiar();
+        assertEquals(0, arbol.tamanio());
+    }
+}
@@ -0,0 +1,66 @@
+package APP.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceInvertidoTest {
+
+    private static List<IndiceInvertido.Campo> campos(String nombre, String descripcion) {
+        return List.of(new IndiceInvertido.Campo(nombre, 3f), new IndiceInvertido.Campo(descripcion, 1f));
+    }
+
+    @Test
+    void testPrimeroLosQueTienenMasTerminosDespuesElPuntaje() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar(1, campos("Toby", "perro marron con collar rojo"));
+        indice.indexar(2, campos("Luna", "perra marrón, muy dulce"));
+        indice.indexar(3, campos("Marron", "gato"));
+        indice.indexar(4, campos("Michi", "gato negro"));
+
+        // 2 tiene los dos términos; 3 pesa más que 1 porque "marron" está en el nombre
+        assertEquals(List.of(2L, 3L, 1L), indice.buscar("marrones dulces", 10));
+        assertEquals(List.of(2L, 3L), indice.buscar("marrones dulces", 2));
+        assertEquals(List.of(), indice.buscar("marrones dulces", 0));
+        assertEquals(List.of(), indice.buscar("loro", 10));
+    }
+
+    @Test
+    void testReindexarYQuitar() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar(1, campos("Toby", "perro marron"));
+        indice.indexar(1, campos("Toby", "perro negro"));
+        assertEquals(List.of(), indice.buscar("marron", 10));
+        assertEquals(List.of(1L), indice.buscar("negros", 10));
+
+        indice.quitar(1);
+        assertEquals(0, indice.tamanio());
+        assertEquals(List.of(), indice.buscar("perro", 10));
+    }
+
+    @Test
+    void testLimiteDevuelveLosMismosQueOrdenarTodos() {
+        Random random = new Random(5);
+        String[] palabras = {"perro", "gato", "marron", "negro", "blanco", "collar", "plaza", "chico", "grande", "dulce"};
+        IndiceInvertido indice = new IndiceInvertido();
+        for (long id = 1; id <= 300; id++) {
+            StringBuilder descripcion = new StringBuilder();
+            for (int i = 0; i < 1 + random.nextInt(5); i++) {
+                descripcion.append(palabras[random.nextInt(palabras.length)]).append(' ');
+            }
+            indice.indexar(id, campos(palabras[random.nextInt(palabras.length)], descripcion.toString()));
+        }
+
+        String consulta = "perros marrones con collar";
+        List<Long> todos = indice.buscar(consulta, Integer.MAX_VALUE);
+        assertTrue(todos.size() > 50);
+        for (int limite : new int[]{1, 7, 50}) {
+            assertEquals(new ArrayList<>(todos.subList(0, limite)), indice.buscar(consulta, limite), "limite " + limite);
+        }
+    }
+}
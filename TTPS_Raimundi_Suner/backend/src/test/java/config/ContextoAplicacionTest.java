@@ -0,0 +1,31 @@
+package config;
+
+import APP.Application;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Contexto completo de la aplicación sobre H2 en memoria, para los tests que necesitan lo que TestConfig no arma
+ * (MockMvc, el proxy que cuenta consultas, la caché de segundo nivel). Todas las clases que lo usan comparten
+ * el mismo contexto y la misma base.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(classes = Application.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:aplicacion;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "jwt.secret=contexto-aplicacion-test",
+        "app.upload.dir=target/test-uploads"
+})
+@AutoConfigureMockMvc
+public @interface ContextoAplicacionTest {
+}
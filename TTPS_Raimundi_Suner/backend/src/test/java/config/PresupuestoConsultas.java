@@ -0,0 +1,34 @@
+package config;
+
+import APP.metricas.ContadorConsultas;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mide las sentencias SQL que ejecuta una acción en el hilo del test (MockMvc atiende el request en el mismo hilo),
+ * para fijar en los tests cuántas consultas puede hacer un endpoint y detectar un N+1 antes de que llegue a producción.
+ * Requiere el contexto completo de la aplicación: el conteo lo hace el proxy del DataSource de MetricasConfig.
+ */
+public final class PresupuestoConsultas {
+
+    @FunctionalInterface
+    public interface Accion {
+        void ejecutar() throws Exception;
+    }
+
+    private PresupuestoConsultas() {
+    }
+
+    public static ContadorConsultas.Totales medir(Accion accion) throws Exception {
+        ContadorConsultas.Totales antes = ContadorConsultas.totales();
+        accion.ejecutar();
+        return ContadorConsultas.totales().menos(antes);
+    }
+
+    public static ContadorConsultas.Totales assertMaximoConsultas(long maximo, Accion accion) throws Exception {
+        ContadorConsultas.Totales totales = medir(accion);
+        assertTrue(totales.consultas() <= maximo, "Se ejecutaron " + totales.consultas()
+                + " sentencias SQL (máximo " + maximo + "), " + totales.filas() + " filas");
+        return totales;
+    }
+}
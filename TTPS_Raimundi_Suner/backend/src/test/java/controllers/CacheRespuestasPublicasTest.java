@@ -0,0 +1,96 @@
+package controllers;
+
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.Mascota;
+import APP.services.MascotaService;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static config.PresupuestoConsultas.assertMaximoConsultas;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+class CacheRespuestasPublicasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    private Mascota crearMascota(String nombre) {
+        Mascota mascota = new Mascota();
+        mascota.setNombre(nombre);
+        mascota.setTipo("Gato");
+        mascota.setEstadoMascota(EstadoMascota.ENCONTRADA);
+        return mascotaService.crearMascota(mascota);
+    }
+
+    @Test
+    void testSegundoGetSaleDeCacheSinConsultas() throws Exception {
+        Mascota primera = crearMascota("Cache1");
+        crearMascota("Cache2");
+        String cursor = String.valueOf(primera.getId() - 1);
+
+        mockMvc.perform(get("/api/mascotas").param("cursor", cursor).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Cache"));
+
+        // Mismos parámetros en otro orden: misma clave
+        assertMaximoConsultas(0, () -> mockMvc.perform(get("/api/mascotas?size=2&cursor=" + cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nombre").value("Cache1")));
+    }
+
+    @Test
+    void testModificarMascotaInvalidaSuPagina() throws Exception {
+        Mascota mascota = crearMascota("Invalidar1");
+        String cursor = String.valueOf(mascota.getId() - 1);
+
+        mockMvc.perform(get("/api/mascotas").param("cursor", cursor).param("size", "1"))
+                .andExpect(jsonPath("$[0].estadoMascota").value("ENCONTRADA"));
+
+        mascotaService.cambiarEstado(mascota.getId(), EstadoMascota.ADOPTADA);
+
+        mockMvc.perform(get("/api/mascotas").param("cursor", cursor).param("size", "1"))
+                .andExpect(header().doesNotExist("X-Cache"))
+                .andExpect(jsonPath("$[0].estadoMascota").value("ADOPTADA"));
+    }
+
+    @Test
+    void testMascotaNuevaNoInvalidaPaginasCompletas() throws Exception {
+        Mascota primera = crearMascota("Completa1");
+        String cursor = String.valueOf(primera.getId() - 1);
+        mockMvc.perform(get("/api/mascotas").param("cursor", cursor).param("size", "1"));
+
+        crearMascota("Completa2");
+
+        mockMvc.perform(get("/api/mascotas").param("cursor", cursor).param("size", "1"))
+                .andExpect(header().string("X-Cache", "HIT"));
+    }
+
+    @Test
+    void testMascotaNuevaPerdidaInvalidaPerdidas() throws Exception {
+        mockMvc.perform(get("/api/mascotas/perdidas").param("vista", "resumen").param("size", "200"));
+        mockMvc.perform(get("/api/mascotas/perdidas").param("vista", "resumen").param("size", "200"))
+                .andExpect(header().string("X-Cache", "HIT"));
+
+        Mascota perdida = new Mascota();
+        perdida.setNombre("Perdida");
+        perdida.setEstadoMascota(EstadoMascota.PERDIDA_PROPIA);
+        mascotaService.crearMascota(perdida);
+
+        mockMvc.perform(get("/api/mascotas/perdidas").param("vista", "resumen").param("size", "200"))
+                .andExpect(header().doesNotExist("X-Cache"))
+                .andExpect(jsonPath("$[0].nombre").value("Perdida"));
+    }
+}
@@ -0,0 +1,74 @@
+package controllers;
+
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+class ImagenesUploadsTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final Path mascotas = Paths.get("target/test-uploads/mascotas");
+    private final Path original = mascotas.resolve(HASH + ".png");
+    private final Path thumb = mascotas.resolve(HASH + "_thumb.jpg");
+
+    @BeforeEach
+    void crearOriginal() throws Exception {
+        Files.createDirectories(mascotas);
+        Files.write(original, new byte[]{1, 2, 3});
+    }
+
+    @AfterEach
+    void borrar() throws Exception {
+        Files.deleteIfExists(original);
+        Files.deleteIfExists(thumb);
+    }
+
+    @Test
+    void testVarianteNoGeneradaRedirigeAlOriginalSinCache() throws Exception {
+        mockMvc.perform(get("/uploads/mascotas/" + HASH + "_thumb.jpg"))
+                .andExpect(status().isFound())
+                .andExpect(redirectedUrl("/uploads/mascotas/" + HASH + ".png"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+
+        // El original se sirve como siempre
+        mockMvc.perform(get("/uploads/mascotas/" + HASH + ".png"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+    }
+
+    @Test
+    void testVarianteGeneradaSeSirveDirecto() throws Exception {
+        Files.write(thumb, new byte[]{4, 5});
+
+        mockMvc.perform(get("/uploads/mascotas/" + HASH + "_thumb.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+    }
+
+    @Test
+    void testSinOriginalLaVarianteDa404() throws Exception {
+        Files.delete(original);
+
+        mockMvc.perform(get("/uploads/mascotas/" + HASH + "_thumb.jpg"))
+                .andExpect(status().isNotFound());
+    }
+}
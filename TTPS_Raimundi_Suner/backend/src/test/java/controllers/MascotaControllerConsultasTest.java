@@ -0,0 +1,132 @@
+package controllers;
+
+import APP.metricas.ContadorConsultas;
+import APP.models.clases.Mascota;
+import APP.models.clases.Rol;
+import APP.models.clases.Usuario;
+import APP.models.dao.MascotaDAO;
+import APP.models.dao.RolDAO;
+import APP.models.dao.UsuarioDAO;
+import APP.services.MascotaService;
+import config.ContextoAplicacionTest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static config.PresupuestoConsultas.assertMaximoConsultas;
+import static config.PresupuestoConsultas.medir;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+class MascotaControllerConsultasTest {
+
+    private static final int MASCOTAS = 100;
+    private static final int DUENIOS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RolDAO rolDAO;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // El contexto (y la base) se comparte entre los tests de la clase: se carga una sola vez
+    @BeforeEach
+    void cargarMascotas() {
+        if (mascotaDAO.count() >= MASCOTAS) {
+            return;
+        }
+        // En una sola transacción: Usuario.rol tiene cascade ALL y un Rol desconectado no se puede volver a persistir
+        transactionTemplate.executeWithoutResult(estado -> crearMascotas());
+    }
+
+    private void crearMascotas() {
+        Rol rol = new Rol();
+        rol.setNombre("DUENIO_CONSULTAS");
+        rol = rolDAO.save(rol);
+        Usuario[] duenios = new Usuario[DUENIOS];
+        for (int i = 0; i < DUENIOS; i++) {
+            Usuario usuario = new Usuario();
+            usuario.setNombre("Duenio" + i);
+            usuario.setEmail("duenio" + i + "@consultas.com");
+            usuario.setRol(rol);
+            duenios[i] = usuarioDAO.save(usuario);
+        }
+        for (int i = 0; i < MASCOTAS; i++) {
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Mascota" + i);
+            mascota.setTipo("Perro");
+            mascota.setUsuario(duenios[i % DUENIOS]);
+            mascotaDAO.save(mascota);
+        }
+    }
+
+    @Test
+    void testListar100MascotasSinNMasUno() throws Exception {
+        // Una consulta para la página con dueños y roles; cualquier N+1 suma al menos 25 (uno por dueño)
+        assertMaximoConsultas(2, () -> mockMvc.perform(get("/api/mascotas").param("size", String.valueOf(MASCOTAS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(MASCOTAS))));
+    }
+
+    @Test
+    void testListarSinParametrosDevuelveTodas() throws Exception {
+        // Compatibilidad con los listados que no paginan: sin cursor ni size no se corta en TAMANIO_PAGINA_DEFAULT
+        mockMvc.perform(get("/api/mascotas"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(MASCOTAS))));
+    }
+
+    @Test
+    void testRecorrerTodasNoRetieneLotesAnteriores() {
+        // Como con open-in-view: un único contexto de persistencia abierto durante todo el recorrido
+        transactionTemplate.executeWithoutResult(estado -> {
+            List<Mascota> anterior = new ArrayList<>();
+            int[] leidas = {0};
+            mascotaService.recorrerTodas(10, lote -> {
+                anterior.forEach(mascota -> assertFalse(entityManager.contains(mascota)));
+                anterior.clear();
+                anterior.addAll(lote);
+                leidas[0] += lote.size();
+            });
+            assertTrue(leidas[0] >= MASCOTAS);
+        });
+    }
+
+    @Test
+    void testCuentaFilasLeidas() throws Exception {
+        ContadorConsultas.Totales totales = medir(() -> mockMvc.perform(get("/api/mascotas").param("size", "10"))
+                .andExpect(status().isOk()));
+        assertEquals(10, totales.filas());
+    }
+}
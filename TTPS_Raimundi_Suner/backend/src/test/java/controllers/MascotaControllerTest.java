@@ -0,0 +1,50 @@
+package controllers;
+
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+class MascotaControllerTest {
+
+    private static final String HASH = "ef".repeat(32);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testImagenUrlQueNoEsUnaImagenSubidaDa400() throws Exception {
+        for (String imagenUrl : new String[]{
+                "/uploads/mascotas/" + HASH + "_thumb.jpg",
+                "/uploads/mascotas/" + HASH + ".png",
+                "/uploads/mascotas/../otra.png"}) {
+            mockMvc.perform(post("/api/mascotas").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"nombre\":\"Con imagen ajena\",\"imagenUrl\":\"" + imagenUrl + "\"}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value(startsWith("imagenUrl inválida")));
+        }
+
+        // Las URLs externas se siguen aceptando
+        mockMvc.perform(post("/api/mascotas").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Con imagen externa\",\"imagenUrl\":\"https://example.com/foto.jpg\"}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testFiltroConEstadoInvalidoDa400() throws Exception {
+        mockMvc.perform(get("/api/mascotas/filtro").param("estado", "PERDIDA_PROPIA", "PERDIDO"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Estado inválido: PERDIDO"));
+
+        mockMvc.perform(get("/api/mascotas/filtro").param("estado", "perdida_propia"))
+                .andExpect(status().isOk());
+    }
+}
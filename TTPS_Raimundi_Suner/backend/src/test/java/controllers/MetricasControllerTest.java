@@ -0,0 +1,57 @@
+package controllers;
+
+import APP.controllers.MetricasController;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+@TestPropertySource(properties = "app.metricas.token=" + MetricasControllerTest.TOKEN)
+class MetricasControllerTest {
+
+    static final String TOKEN = "token-del-scraper";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MetricasController metricasController;
+
+    @Test
+    void testSinTokenDevuelve401() throws Exception {
+        mockMvc.perform(get("/metricas"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/metricas").header(HttpHeaders.AUTHORIZATION, "Bearer otro-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testConTokenDevuelveLasMetricas() throws Exception {
+        mockMvc.perform(get("/metricas").header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("app_http_latencia_segundos")));
+    }
+
+    @Test
+    void testSinTokenConfiguradoElEndpointNoResponde() throws Exception {
+        // Configuración por defecto (app.metricas.token vacío): ni siquiera un Authorization vacío entra
+        ReflectionTestUtils.setField(metricasController, "token", "");
+        try {
+            mockMvc.perform(get("/metricas"))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(get("/metricas").header(HttpHeaders.AUTHORIZATION, "Bearer "))
+                    .andExpect(status().isNotFound());
+        } finally {
+            ReflectionTestUtils.setField(metricasController, "token", TOKEN);
+        }
+    }
+}
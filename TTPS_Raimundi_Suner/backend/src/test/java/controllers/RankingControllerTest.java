@@ -0,0 +1,66 @@
+package controllers;
+
+import APP.models.clases.Usuario;
+import APP.models.dao.UsuarioDAO;
+import APP.security.JwtUtil;
+import APP.services.RankingService;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+class RankingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String autorizacion;
+
+    @BeforeEach
+    void autenticar() {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setEmail("ranking@test.com");
+        autorizacion = "Bearer " + jwtUtil.generateToken(usuario);
+    }
+
+    @Test
+    void testPosicionDeUsuarioExistente() throws Exception {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Rankeado");
+        usuario.setEmail("rankeado@test.com");
+        usuario = usuarioDAO.save(usuario);
+        rankingService.actualizar(usuario);
+
+        mockMvc.perform(get("/api/usuarios/{id}/ranking", usuario.getId()).header(HttpHeaders.AUTHORIZATION, autorizacion))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuarioId").value(usuario.getId()))
+                .andExpect(jsonPath("$.puntos").value(0))
+                .andExpect(jsonPath("$.posicion").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.total").value(greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    void testUsuarioInexistenteDa404() throws Exception {
+        mockMvc.perform(get("/api/usuarios/{id}/ranking", 999_999).header(HttpHeaders.AUTHORIZATION, autorizacion))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Usuario no encontrado"));
+    }
+}
@@ -0,0 +1,212 @@
+package controllers;
+
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.Mascota;
+import APP.models.clases.Usuario;
+import APP.models.dao.UsuarioDAO;
+import APP.security.JwtUtil;
+import APP.services.MascotaService;
+import APP.services.RankingService;
+import APP.services.UsuarioService;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ContextoAplicacionTest
+class VersionadoETagTest {
+
+    private static final String CUERPO_PUT = "{\"nombre\":\"%s\",\"tipo\":\"Perro\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    // Espía para meter una escritura concurrente en medio de un PUT
+    @MockitoSpyBean
+    private RankingService rankingService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String autorizacion;
+    private Mascota mascota;
+
+    @BeforeEach
+    void crearMascota() {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+        usuario.setEmail("version@test.com");
+        autorizacion = "Bearer " + jwtUtil.generateToken(usuario);
+
+        Mascota nueva = new Mascota();
+        nueva.setNombre("Versionada");
+        nueva.setTipo("Perro");
+        nueva.setEstadoMascota(EstadoMascota.ENCONTRADA);
+        mascota = mascotaService.crearMascota(nueva);
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/api/mascotas/{id}", mascota.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void testIfNoneMatchDevuelve304SinCuerpo() throws Exception {
+        String etag = etag();
+
+        mockMvc.perform(get("/api/mascotas/{id}", mascota.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testPutConIfMatchActualizaYCambiaElETag() throws Exception {
+        String etag = etag();
+
+        String nuevo = mockMvc.perform(put("/api/mascotas/{id}", mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, autorizacion)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUERPO_PUT.formatted("Renombrada")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mascota.nombre").value("Renombrada"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, nuevo);
+        mockMvc.perform(get("/api/mascotas/{id}", mascota.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, nuevo));
+    }
+
+    @Test
+    void testPutConIfMatchViejoDevuelve412() throws Exception {
+        String etagViejo = etag();
+        mascotaService.cambiarEstado(mascota.getId(), EstadoMascota.ADOPTADA);
+
+        mockMvc.perform(put("/api/mascotas/{id}", mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, autorizacion)
+                        .header(HttpHeaders.IF_MATCH, etagViejo)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUERPO_PUT.formatted("Pisada")))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/mascotas/{id}", mascota.getId()))
+                .andExpect(jsonPath("$.nombre").value("Versionada"));
+    }
+
+    @Test
+    void testPuntosDelDuenioCambianElETagPeroNoInvalidanElIfMatch() throws Exception {
+        Usuario duenio = new Usuario();
+        duenio.setNombre("Duenio");
+        duenio.setEmail("duenio" + System.nanoTime() + "@version.com");
+        duenio = usuarioDAO.save(duenio);
+        Mascota conDuenio = mascotaService.obtenerPorId(mascota.getId());
+        conDuenio.setUsuario(duenio);
+        mascotaService.actualizarMascota(conDuenio);
+
+        String etag = etag();
+        usuarioService.agregarPuntos(duenio.getId(), 10);
+        // El GET refleja los puntos nuevos del dueño embebido
+        assertNotEquals(etag, etag());
+
+        // Pero lo que edita el PUT (la mascota) no cambió: el If-Match leído antes sigue valiendo
+        mockMvc.perform(put("/api/mascotas/{id}", mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, autorizacion)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUERPO_PUT.formatted("ConDuenio")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mascota.nombre").value("ConDuenio"));
+    }
+
+    @Test
+    void testPerfilConIfMatchViejoDevuelve412() throws Exception {
+        Usuario usuario = crearUsuario();
+        String etag = mockMvc.perform(get("/api/usuarios/{id}", usuario.getId())
+                        .header(HttpHeaders.AUTHORIZATION, autorizacion))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        usuarioService.agregarPuntos(usuario.getId(), 10);
+
+        mockMvc.perform(put("/api/usuarios/{id}", usuario.getId())
+                        .header(HttpHeaders.AUTHORIZATION, autorizacion)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Pisado\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testPerfilConSumaDePuntosConcurrenteDevuelve409() throws Exception {
+        Usuario usuario = crearUsuario();
+        // Los puntos se suman desde otra transacción justo antes de que el PUT confirme la suya
+        AtomicBoolean interferir = new AtomicBoolean(true);
+        doAnswer(invocacion -> {
+            Usuario guardado = invocacion.getArgument(0);
+            if (guardado.getId().equals(usuario.getId()) && interferir.getAndSet(false)) {
+                CompletableFuture.runAsync(() -> usuarioService.agregarPuntos(usuario.getId(), 5))
+                        .get(5, TimeUnit.SECONDS);
+            }
+            return invocacion.callRealMethod();
+        }).when(rankingService).actualizar(any());
+
+        mockMvc.perform(put("/api/usuarios/{id}", usuario.getId())
+                        .header(HttpHeaders.AUTHORIZATION, autorizacion)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Pisado\"}"))
+                .andExpect(status().isConflict());
+
+        Usuario guardado = usuarioService.obtenerPorId(usuario.getId());
+        assertEquals("Perfil", guardado.getNombre());
+        assertEquals(5, guardado.getPuntos());
+    }
+
+    private Usuario crearUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Perfil");
+        usuario.setEmail("perfil" + System.nanoTime() + "@version.com");
+        return usuarioDAO.save(usuario);
+    }
+
+    @Test
+    void testEscrituraConcurrenteNoPisaLaOtra() {
+        Mascota primera = mascotaService.obtenerPorId(mascota.getId());
+        Mascota segunda = mascotaService.obtenerPorId(mascota.getId());
+
+        primera.setNombre("Primera");
+        mascotaService.actualizarMascota(primera);
+
+        segunda.setNombre("Segunda");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> mascotaService.actualizarMascota(segunda));
+    }
+}
@@ -0,0 +1,89 @@
+package models.hibernateTest;
+
+import APP.models.clases.Badge;
+import APP.models.clases.Rol;
+import APP.models.clases.Usuario;
+import APP.models.dao.BadgeDAO;
+import APP.models.dao.RolDAO;
+import APP.models.dao.UsuarioDAO;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static config.PresupuestoConsultas.assertMaximoConsultas;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sin @Transactional: la caché de consultas sólo guarda resultados de tablas sin cambios pendientes
+@ContextoAplicacionTest
+class CacheSegundoNivelHibernateJPATest {
+
+    private static final String ROL = "ROL_CACHE";
+    private static final String BADGE = "BADGE_CACHE";
+    private static final String EMAIL = "cache@test.com";
+
+    @Autowired
+    private RolDAO rolDAO;
+
+    @Autowired
+    private BadgeDAO badgeDAO;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void cargarDatos() {
+        if (usuarioDAO.findByEmail(EMAIL).isPresent()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(estado -> {
+            Rol rol = new Rol();
+            rol.setNombre(ROL);
+            Usuario usuario = new Usuario();
+            usuario.setNombre("Cache");
+            usuario.setEmail(EMAIL);
+            usuario.setRol(rolDAO.save(rol));
+            usuarioDAO.save(usuario);
+
+            Badge badge = new Badge();
+            badge.setNombre(BADGE);
+            badgeDAO.save(badge);
+        });
+    }
+
+    @Test
+    void testFindByNombreDesdeCache() throws Exception {
+        Long rolId = rolDAO.findByNombre(ROL).orElseThrow().getId();
+        Long badgeId = badgeDAO.findByNombre(BADGE).orElseThrow().getId();
+
+        assertMaximoConsultas(0, () -> {
+            assertEquals(rolId, rolDAO.findByNombre(ROL).orElseThrow().getId());
+            assertEquals(badgeId, badgeDAO.findByNombre(BADGE).orElseThrow().getId());
+        });
+    }
+
+    @Test
+    void testUsuarioConRolDesdeCache() throws Exception {
+        usuarioDAO.findByEmail(EMAIL);
+
+        // Sólo la consulta del usuario: el rol (EAGER) sale de la caché de entidades
+        assertMaximoConsultas(1, () ->
+                assertEquals(ROL, usuarioDAO.findByEmail(EMAIL).orElseThrow().getRol().getNombre()));
+    }
+
+    @Test
+    void testRolNuevoInvalidaConsultaCacheada() throws Exception {
+        assertTrue(rolDAO.findByNombre("ROL_CACHE_NUEVO").isEmpty());
+
+        Rol nuevo = new Rol();
+        nuevo.setNombre("ROL_CACHE_NUEVO");
+        rolDAO.save(nuevo);
+
+        assertTrue(rolDAO.findByNombre("ROL_CACHE_NUEVO").isPresent());
+    }
+}
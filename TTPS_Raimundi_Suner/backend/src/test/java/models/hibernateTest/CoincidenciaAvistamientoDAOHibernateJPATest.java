@@ -0,0 +1,97 @@
+package models.hibernateTest;
+
+import APP.models.clases.CoincidenciaAvistamiento;
+import org.junit.jupiter.api.*;
+import APP.models.dao.CoincidenciaAvistamientoDAO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import APP.dto.CoincidenciaAvistamientoDTO;
+import APP.models.clases.Avistamiento;
+import APP.models.clases.EstadoPublicacion;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.clases.Ubicacion;
+import APP.models.dao.AvistamientoDAO;
+import APP.models.dao.MascotaDAO;
+import APP.models.dao.PublicacionDAO;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.transaction.annotation.Transactional;
+import config.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = TestConfig.class)
+@Transactional
+class CoincidenciaAvistamientoDAOHibernateJPATest {
+
+    @Autowired
+    private CoincidenciaAvistamientoDAO dao;
+
+    @Autowired
+    private AvistamientoDAO avistamientoDAO;
+
+    @Autowired
+    private PublicacionDAO publicacionDAO;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Test
+    void testResumenOrdenadoPorPuntaje() {
+        Avistamiento avistamiento = nuevoAvistamiento();
+        Publicacion cercana = nuevaPublicacion("Cercana");
+        Publicacion lejana = nuevaPublicacion("Lejana");
+        dao.save(new CoincidenciaAvistamiento(avistamiento.getId(), lejana.getId(), 0.3, 4.0));
+        dao.save(new CoincidenciaAvistamiento(avistamiento.getId(), cercana.getId(), 0.9, 0.5));
+
+        List<CoincidenciaAvistamientoDTO> porAvistamiento = dao.findResumenByAvistamiento(avistamiento.getId());
+        assertEquals(2, porAvistamiento.size());
+        assertEquals("Cercana", porAvistamiento.get(0).getMascotaPerdidaNombre());
+        assertEquals(0.9, porAvistamiento.get(0).getPuntaje());
+        assertEquals(-34.92, porAvistamiento.get(0).getLat());
+
+        List<CoincidenciaAvistamientoDTO> porPublicacion = dao.findResumenByPublicacion(lejana.getId());
+        assertEquals(1, porPublicacion.size());
+        assertEquals(avistamiento.getId(), porPublicacion.get(0).getAvistamientoId());
+    }
+
+    @Test
+    void testBajaPorAvistamientoYPublicacion() {
+        Avistamiento avistamiento = nuevoAvistamiento();
+        Publicacion publicacion = nuevaPublicacion("Perdida");
+        Publicacion otra = nuevaPublicacion("Otra");
+        dao.save(new CoincidenciaAvistamiento(avistamiento.getId(), publicacion.getId(), 0.5, 1.0));
+        dao.save(new CoincidenciaAvistamiento(avistamiento.getId(), otra.getId(), 0.4, 2.0));
+
+        assertEquals(1, dao.deleteByPublicacionIdIn(List.of(publicacion.getId())));
+        assertEquals(1, dao.deleteByAvistamientoId(avistamiento.getId()));
+        assertEquals(0, dao.count());
+    }
+
+    private Avistamiento nuevoAvistamiento() {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setLat(-34.92);
+        ubicacion.setLng(-57.95);
+        Avistamiento avistamiento = new Avistamiento();
+        avistamiento.setFecha(LocalDate.now());
+        avistamiento.setUbicacion(ubicacion);
+        return avistamientoDAO.save(avistamiento);
+    }
+
+    private Publicacion nuevaPublicacion(String nombreMascota) {
+        Mascota mascota = new Mascota();
+        mascota.setNombre(nombreMascota);
+        mascotaDAO.save(mascota);
+        Publicacion publicacion = new Publicacion();
+        publicacion.setFecha(LocalDate.now());
+        publicacion.setEstadoPublicacion(EstadoPublicacion.ACTIVA);
+        publicacion.setMascota(mascota);
+        return publicacionDAO.save(publicacion);
+    }
+}
@@ -5,6 +5,11 @@ import org.junit.jupiter.api.*;
 import APP.models.dao.MascotaDAO;
 import static org.junit.jupiter.api.Assertions.*;
 
+import APP.models.clases.EstadoMascota;
+import java.util.EnumSet;
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -63,4 +68,106 @@ class MascotaDAOHibernateJPATest {
         Mascota deleted = dao.findById(id).orElse(null);
         assertNull(deleted);
     }
+
+    @Test
+    void testPaginaDesdeCursor() {
+        for (int i = 0; i < 5; i++) {
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Pagina" + i);
+            dao.save(mascota);
+        }
+
+        List<Mascota> primera = dao.findPaginaDesde(0L, PageRequest.of(0, 3));
+        assertEquals(3, primera.size());
+
+        Long cursor = primera.get(primera.size() - 1).getId();
+        List<Mascota> segunda = dao.findPaginaDesde(cursor, PageRequest.of(0, 3));
+        assertFalse(segunda.isEmpty());
+        assertTrue(segunda.stream().allMatch(m -> m.getId() > cursor));
+    }
+
+    @Test
+    void testPerdidasYResumen() {
+        Mascota perdida = new Mascota();
+        perdida.setNombre("Perdida");
+        perdida.setEstadoMascota(EstadoMascota.PERDIDA_PROPIA);
+        dao.save(perdida);
+
+        Mascota ajena = new Mascota();
+        ajena.setNombre("Ajena");
+        ajena.setEstadoMascota(EstadoMascota.PERDIDA_AJENA);
+        dao.save(ajena);
+
+        Mascota adoptada = new Mascota();
+        adoptada.setNombre("Adoptada");
+        adoptada.setEstadoMascota(EstadoMascota.ADOPTADA);
+        dao.save(adoptada);
+
+        EnumSet<EstadoMascota> estados = EnumSet.of(EstadoMascota.PERDIDA_PROPIA, EstadoMascota.PERDIDA_AJENA);
+        assertEquals(2, dao.findByEstadoIn(estados).size());
+        assertEquals(1, dao.findByEstado(EstadoMascota.ADOPTADA).size());
+    }
+
+    @Test
+    void testReferenciasAImagenCompartida() {
+        String url = "/uploads/mascotas/compartida.jpg";
+        Mascota primera = new Mascota();
+        primera.setNombre("Primera");
+        primera.setImagenUrl(url);
+        dao.save(primera);
+
+        Mascota segunda = new Mascota();
+        segunda.setNombre("Segunda");
+        segunda.setImagenUrl(url);
+        dao.save(segunda);
+
+        assertEquals(2, dao.countByImagenUrl(url));
+        assertEquals(url, dao.findImagenUrlById(primera.getId()));
+        assertTrue(dao.findImagenUrlsEnUso().contains(url));
+        assertEquals(url, primera.getImagenUrlPersistida());
+
+        dao.deleteById(primera.getId());
+        assertEquals(1, dao.countByImagenUrl(url));
+    }
+
+    @Test
+    void testHashesDeImagen() {
+        Mascota conHash = new Mascota();
+        conHash.setNombre("ConHash");
+        conHash.setImagenUrl("/uploads/mascotas/con-hash.jpg");
+        conHash.setImagenHash(0x0F0F0F0F0F0F0F0FL);
+        dao.save(conHash);
+
+        Mascota sinHash = new Mascota();
+        sinHash.setNombre("SinHash");
+        sinHash.setImagenUrl("/uploads/mascotas/sin-hash.jpg");
+        dao.save(sinHash);
+
+        List<Object[]> hashes = dao.findHashesDeImagen();
+        assertEquals(1, hashes.size());
+        assertEquals(conHash.getId(), hashes.get(0)[0]);
+        assertEquals(0x0F0F0F0F0F0F0F0FL, hashes.get(0)[1]);
+
+        List<Object[]> pendientes = dao.findImagenesSinHash(0L, PageRequest.of(0, 10));
+        assertEquals(1, pendientes.size());
+        assertEquals(sinHash.getId(), pendientes.get(0)[0]);
+        assertEquals("/uploads/mascotas/sin-hash.jpg", pendientes.get(0)[1]);
+        assertTrue(dao.findImagenesSinHash(sinHash.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testGuardarImagenHashSoloSiLaImagenNoCambio() {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Recalculada");
+        mascota.setImagenUrl("/uploads/mascotas/nueva.jpg");
+        dao.save(mascota);
+        Long version = mascota.getVersion();
+
+        assertEquals(0, dao.guardarImagenHash(mascota.getId(), "/uploads/mascotas/vieja.jpg", 42L));
+        assertEquals(1, dao.guardarImagenHash(mascota.getId(), "/uploads/mascotas/nueva.jpg", 42L));
+
+        Mascota guardada = dao.findById(mascota.getId()).orElseThrow();
+        assertEquals(42L, guardada.getImagenHash());
+        assertEquals(version, guardada.getVersion());
+    }
 }
@@ -6,6 +6,16 @@ import APP.models.dao.PublicacionDAO;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import APP.dto.PublicacionResumenDTO;
+import APP.geo.GeoHash;
+import APP.models.clases.EstadoPublicacion;
+import APP.models.clases.Mascota;
+import APP.models.dao.MascotaDAO;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +31,9 @@ class PublicacionDAOHibernateJPATest {
     @Autowired
     private PublicacionDAO dao;
 
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
     @Test
     void testAlta() {
         Publicacion p = new Publicacion();
@@ -59,4 +72,144 @@ class PublicacionDAOHibernateJPATest {
         Publicacion deleted = dao.findById(id).orElse(null);
         assertNull(deleted);
     }
+
+    @Test
+    void testGeohashSeCalculaAlGuardar() {
+        Publicacion laPlata = new Publicacion();
+        laPlata.setDescripcion("La Plata");
+        laPlata.setLat(-34.9214);
+        laPlata.setLng(-57.9545);
+        dao.save(laPlata);
+
+        assertEquals(GeoHash.codificar(-34.9214, -57.9545, GeoHash.PRECISION_MAXIMA), laPlata.getGeohash());
+
+        Publicacion sinCoordenadas = new Publicacion();
+        sinCoordenadas.setDescripcion("Sin coordenadas");
+        dao.save(sinCoordenadas);
+
+        assertNull(sinCoordenadas.getGeohash());
+    }
+
+    @Test
+    void testUnicaPublicacionActivaPorMascota() {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Toby");
+        mascotaDAO.save(mascota);
+
+        Publicacion finalizada = new Publicacion();
+        finalizada.setMascota(mascota);
+        finalizada.setEstadoPublicacion(EstadoPublicacion.FINALIZADA);
+        dao.save(finalizada);
+        assertFalse(dao.existsActivaByMascota(mascota.getId()));
+
+        Publicacion activa = new Publicacion();
+        activa.setMascota(mascota);
+        activa.setEstadoPublicacion(EstadoPublicacion.ACTIVA);
+        dao.save(activa);
+        assertTrue(dao.existsActivaByMascota(mascota.getId()));
+
+        Publicacion duplicada = new Publicacion();
+        duplicada.setMascota(mascota);
+        duplicada.setEstadoPublicacion(EstadoPublicacion.ACTIVA);
+        assertThrows(DataIntegrityViolationException.class, () -> dao.saveAndFlush(duplicada));
+    }
+
+    @Test
+    void testResumenIncluyeDatosDeLaMascota() {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Luna");
+        mascota.setTipo("Gato");
+        mascotaDAO.save(mascota);
+
+        Publicacion p = new Publicacion();
+        p.setDescripcion("Se busca");
+        p.setMascota(mascota);
+        dao.save(p);
+
+        Publicacion sinMascota = new Publicacion();
+        sinMascota.setDescripcion("Sin mascota");
+        dao.save(sinMascota);
+
+        List<PublicacionResumenDTO> resumen = dao.findAllResumen();
+        assertEquals(2, resumen.size());
+        assertEquals("Luna", resumen.get(0).getMascotaNombre());
+        assertEquals("Gato", resumen.get(0).getMascotaTipo());
+        assertNull(resumen.get(1).getMascotaId());
+    }
+
+    @Test
+    void testIdsPorMascota() {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Nala");
+        mascotaDAO.save(mascota);
+
+        Publicacion primera = new Publicacion();
+        primera.setMascota(mascota);
+        primera.setEstadoPublicacion(EstadoPublicacion.FINALIZADA);
+        dao.save(primera);
+
+        Publicacion segunda = new Publicacion();
+        segunda.setMascota(mascota);
+        segunda.setEstadoPublicacion(EstadoPublicacion.ACTIVA);
+        dao.save(segunda);
+
+        dao.save(new Publicacion());
+
+        List<Long> ids = dao.findIdsByMascota(mascota.getId());
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(primera.getId(), segunda.getId())));
+    }
+
+    @Test
+    void testDescripcionesPorCursor() {
+        Publicacion primera = new Publicacion();
+        primera.setDescripcion("Primera");
+        dao.save(primera);
+        Publicacion segunda = new Publicacion();
+        segunda.setDescripcion("Segunda");
+        dao.save(segunda);
+        Publicacion tercera = new Publicacion();
+        tercera.setDescripcion("Tercera");
+        dao.save(tercera);
+
+        List<Object[]> lote = dao.findDescripcionesDesde(primera.getId(), PageRequest.of(0, 1));
+        assertEquals(1, lote.size());
+        assertEquals(segunda.getId(), lote.get(0)[0]);
+        assertEquals("Segunda", lote.get(0)[1]);
+
+        lote = dao.findDescripcionesDesde(segunda.getId(), PageRequest.of(0, 10));
+        assertEquals(1, lote.size());
+        assertEquals(tercera.getId(), lote.get(0)[0]);
+    }
+
+    @Test
+    void testUbicacionesDeMascotas() {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Con ubicaciones");
+        mascotaDAO.save(mascota);
+
+        Publicacion vieja = new Publicacion();
+        vieja.setMascota(mascota);
+        vieja.setFecha(LocalDate.of(2024, 1, 1));
+        vieja.setLat(-34.6);
+        vieja.setLng(-58.4);
+        dao.save(vieja);
+
+        Publicacion nueva = new Publicacion();
+        nueva.setMascota(mascota);
+        nueva.setFecha(LocalDate.of(2024, 2, 1));
+        nueva.setLat(-34.9);
+        nueva.setLng(-57.9);
+        dao.save(nueva);
+
+        List<Object[]> lote = dao.findUbicacionesDeMascotasEntre(mascota.getId() - 1, mascota.getId());
+        assertEquals(2, lote.size());
+        assertEquals(-34.9, lote.get(1)[1]);
+        assertTrue(dao.findUbicacionesDeMascotasEntre(mascota.getId(), mascota.getId() + 100).isEmpty());
+
+        List<Object[]> ultima = dao.findUbicacionesDeMascota(mascota.getId(), PageRequest.of(0, 1));
+        assertEquals(1, ultima.size());
+        assertEquals(mascota.getId(), ultima.get(0)[0]);
+        assertEquals(-57.9, ultima.get(0)[2]);
+    }
 }
@@ -12,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.transaction.annotation.Transactional;
 import config.TestConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = TestConfig.class)
@@ -21,6 +23,9 @@ class UsuarioDAOHibernateJPATest {
     @Autowired
     private UsuarioDAO dao;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Test
     void testAlta() {
         Usuario u = new Usuario();
@@ -62,4 +67,61 @@ class UsuarioDAOHibernateJPATest {
         Usuario deleted = dao.findById(id).orElse(null);
         assertNull(deleted);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSumarPuntos() {
+        Usuario u = new Usuario();
+        u.setNombre("Puntos");
+        u.setPuntos(10);
+        dao.save(u);
+
+        assertEquals(1, dao.sumarPuntos(u.getId(), 5));
+        assertEquals(1, dao.sumarPuntos(u.getId(), 3));
+        assertEquals(0, dao.sumarPuntos(-1L, 3));
+        // El UPDATE no toca la entidad cargada: se relee de la base
+        entityManager.refresh(u);
+
+        Usuario found = dao.findById(u.getId()).orElse(null);
+        assertNotNull(found);
+        assertEquals(18, found.getPuntos());
+    }
+
+    @Test
+    void testGuardarNoPisaPuntos() {
+        Usuario u = new Usuario();
+        u.setNombre("Perfil");
+        u.setPuntos(10);
+        dao.save(u);
+        dao.sumarPuntos(u.getId(), 5);
+        entityManager.refresh(u);
+
+        // Un perfil guardado con los puntos leídos antes (o cambiados a mano) no deshace el incremento
+        Usuario perfil = dao.findById(u.getId()).orElseThrow();
+        perfil.setNombre("PerfilEditado");
+        perfil.setPuntos(0);
+        dao.saveAndFlush(perfil);
+        entityManager.clear();
+
+        Usuario found = dao.findById(u.getId()).orElse(null);
+        assertNotNull(found);
+        assertEquals("PerfilEditado", found.getNombre());
+        assertEquals(15, found.getPuntos());
+    }
+
+    @Test
+    void testReemplazarPassword() {
+        Usuario u = new Usuario();
+        u.setNombre("Rehash");
+        u.setPuntos(0);
+        u.setPassword("$2a$10$anterior");
+        dao.save(u);
+
+        // Si el hash ya cambió (p. ej. un cambio de contraseña concurrente) no se pisa
+        assertEquals(0, dao.reemplazarPassword(u.getId(), "$2a$10$otro", "$2a$12$nuevo"));
+        assertEquals(1, dao.reemplazarPassword(u.getId(), "$2a$10$anterior", "$2a$12$nuevo"));
+
+        Usuario found = dao.findById(u.getId()).orElse(null);
+        assertNotNull(found);
+        assertEquals("$2a$12$nuevo", found.getPassword());
+    }
+}
@@ -0,0 +1,55 @@
+package security;
+
+import APP.models.clases.Usuario;
+import APP.security.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTest {
+
+    private static final String SECRETO = "secreto-de-test-de-al-menos-32-bytes!!";
+
+    private static Usuario usuario(long id) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setEmail("usuario" + id + "@test.com");
+        return usuario;
+    }
+
+    @Test
+    void testTokenCacheadoSigueSiendoValido() {
+        JwtUtil jwtUtil = new JwtUtil(SECRETO, 60_000, 2);
+        String token = jwtUtil.generateToken(usuario(7));
+
+        assertEquals(7L, jwtUtil.obtenerUsuarioId(token));
+        assertEquals(7L, jwtUtil.obtenerUsuarioId(token));
+
+        // Con la caché llena los tokens nuevos se siguen validando
+        for (long id = 10; id < 20; id++) {
+            assertEquals(id, jwtUtil.obtenerUsuarioId(jwtUtil.generateToken(usuario(id))));
+        }
+        assertEquals(7L, jwtUtil.obtenerUsuarioId(token));
+    }
+
+    @Test
+    void testTokenCacheadoVenceConElToken() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil(SECRETO, 1000, 100);
+        String token = jwtUtil.generateToken(usuario(3));
+        assertEquals(3L, jwtUtil.obtenerUsuarioId(token));
+
+        Thread.sleep(1100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.obtenerUsuarioId(token));
+    }
+
+    @Test
+    void testTokenDeOtraClaveSeRechaza() {
+        String ajeno = new JwtUtil("otro-secreto-de-al-menos-32-bytes!!!!", 60_000, 100).generateToken(usuario(1));
+
+        assertThrows(JwtException.class, () -> new JwtUtil(SECRETO, 60_000, 100).obtenerUsuarioId(ajeno));
+    }
+}
@@ -0,0 +1,133 @@
+package security;
+
+import APP.security.LimitadorIntentos;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorIntentosTest {
+
+    private static final long VENTANA_MS = 60_000;
+
+    // Empieza al inicio de una ventana fija para que el peso de la anterior sea predecible
+    private final AtomicLong reloj = new AtomicLong(100 * VENTANA_MS);
+
+    private LimitadorIntentos limitador(int maximoPorCuenta, int maximoPorIp, int maxEntradas) {
+        return new LimitadorIntentos(VENTANA_MS / 1000, maximoPorCuenta, maximoPorIp, maxEntradas, reloj::get);
+    }
+
+    @Test
+    void testRechazaAlAlcanzarElMaximo() {
+        LimitadorIntentos limitador = limitador(3, 100, 1000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limitador.intentar("login:a@b.com", "10.0.0.1"));
+        }
+        assertFalse(limitador.intentar("login:a@b.com", "10.0.0.1"));
+        // Otra cuenta desde la misma IP no está afectada
+        assertTrue(limitador.intentar("login:c@d.com", "10.0.0.1"));
+    }
+
+    @Test
+    void testVentanaDeslizante() {
+        LimitadorIntentos limitador = limitador(3, 100, 1000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limitador.intentar("login:a@b.com", null));
+        }
+
+        // A mitad de la ventana siguiente la anterior pesa la mitad: 1.5 intentos, queda lugar para dos
+        reloj.addAndGet(VENTANA_MS + VENTANA_MS / 2);
+        assertTrue(limitador.intentar("login:a@b.com", null));
+        assertTrue(limitador.intentar("login:a@b.com", null));
+        assertFalse(limitador.intentar("login:a@b.com", null));
+
+        // Dos ventanas después ya no queda nada
+        reloj.addAndGet(2 * VENTANA_MS);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limitador.intentar("login:a@b.com", null));
+        }
+    }
+
+    @Test
+    void testReiniciarOlvidaLaCuenta() {
+        LimitadorIntentos limitador = limitador(2, 100, 1000);
+        limitador.intentar("login:a@b.com", null);
+        limitador.intentar("login:a@b.com", null);
+        assertFalse(limitador.intentar("login:a@b.com", null));
+
+        limitador.reiniciar("login:a@b.com");
+        assertTrue(limitador.intentar("login:a@b.com", null));
+    }
+
+    @Test
+    void testRechazoPorIpNoConsumeIntentosDeLaCuenta() {
+        LimitadorIntentos limitador = limitador(2, 1, 1000);
+        assertTrue(limitador.intentar("login:a@b.com", "10.0.0.1"));
+        assertFalse(limitador.intentar("login:a@b.com", "10.0.0.1"));
+        assertFalse(limitador.intentar("login:a@b.com", "10.0.0.1"));
+
+        // Los dos rechazos fueron de la IP: a la cuenta le queda un intento desde otra
+        assertTrue(limitador.intentar("login:a@b.com", "10.0.0.2"));
+        assertFalse(limitador.intentar("login:a@b.com", "10.0.0.3"));
+    }
+
+    @Test
+    void testIntentosEnParaleloNoSuperanElMaximo() throws Exception {
+        int maximo = 10;
+        int hilos = 16;
+        int intentosPorHilo = 50;
+        LimitadorIntentos limitador = limitador(maximo, 100_000, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger permitidos = new AtomicInteger();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                executor.execute(() -> {
+                    try {
+                        largada.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < intentosPorHilo; i++) {
+                        if (limitador.intentar("login:a@b.com", "10.0.0.1")) {
+                            permitidos.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            largada.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(maximo, permitidos.get());
+    }
+
+    @Test
+    void testClavesNuevasNoDesalojanLaCuentaAtacada() {
+        LimitadorIntentos limitador = limitador(5, 1_000_000, 100);
+        for (int i = 0; i < 20; i++) {
+            limitador.intentar("login:victima@b.com", null);
+        }
+        assertFalse(limitador.intentar("login:victima@b.com", null));
+
+        // El atacante llena el límite de entradas con cuentas inventadas mientras sigue probando contraseñas
+        for (int i = 0; i < 10_000; i++) {
+            limitador.intentar("login:relleno" + i + "@b.com", "10.0.0." + (i % 250));
+            if (i % 50 == 0) {
+                assertFalse(limitador.intentar("login:victima@b.com", null), "Desbloqueada tras " + i + " cuentas");
+            }
+        }
+
+        assertFalse(limitador.intentar("login:victima@b.com", null));
+    }
+}
@@ -0,0 +1,110 @@
+package services;
+
+import APP.models.clases.Avistamiento;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.clases.Ubicacion;
+import APP.services.CoincidenciasAvistamientoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoincidenciasAvistamientoServiceTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 6, 1);
+    // Plaza Moreno, La Plata
+    private static final double LAT = -34.9214;
+    private static final double LNG = -57.9545;
+
+    // Radio de 5 km y ventana de 60 días
+    private final CoincidenciasAvistamientoService service = new CoincidenciasAvistamientoService(5, 60, 10, 1, 10);
+
+    @AfterEach
+    void detener() throws InterruptedException {
+        service.detener();
+    }
+
+    @Test
+    void testMismoLugarYDiaConAtributosIgualesEsCoincidenciaPerfecta() {
+        Double puntaje = service.puntuar(avistamiento(mascota(1L, "Perro", "Caniche", "Blanco"), LAT, LNG, HOY),
+                publicacion(mascota(2L, "perro ", "caniche", "blanco"), LAT, LNG, HOY));
+        assertEquals(1.0, puntaje, 1e-9);
+    }
+
+    @Test
+    void testPuntajeBajaConLaDistanciaElTiempoYLosAtributos() {
+        Mascota perdida = mascota(2L, "Perro", "Caniche", "Blanco");
+        Avistamiento avistamiento = avistamiento(mascota(1L, "Perro", "Caniche", "Blanco"), LAT, LNG, HOY);
+
+        double cerca = service.puntuar(avistamiento, publicacion(perdida, LAT, LNG, HOY));
+        // ~2,2 km al norte
+        double lejos = service.puntuar(avistamiento, publicacion(perdida, LAT + 0.02, LNG, HOY));
+        double despues = service.puntuar(avistamiento, publicacion(perdida, LAT, LNG, HOY.minusDays(30)));
+        double otroColor = service.puntuar(avistamiento(mascota(1L, "Perro", "Caniche", "Negro"), LAT, LNG, HOY),
+                publicacion(perdida, LAT, LNG, HOY));
+
+        assertTrue(lejos < cerca);
+        assertEquals(1.0 - 0.4 * 2.22 / 5, lejos, 0.01);
+        assertEquals(1.0 - 0.2 * 30 / 61.0, despues, 1e-9);
+        // Dos de tres atributos iguales
+        assertEquals(1.0 - 0.4 / 3, otroColor, 1e-9);
+    }
+
+    @Test
+    void testSinMascotaVistaLosAtributosNoSumanNiRestan() {
+        Double puntaje = service.puntuar(avistamiento(null, LAT, LNG, HOY),
+                publicacion(mascota(2L, "Perro", "Caniche", "Blanco"), LAT, LNG, HOY));
+        assertEquals(0.4 + 0.2 + 0.4 * 0.5, puntaje, 1e-9);
+    }
+
+    @Test
+    void testDescartaLasQueNoSonCandidatas() {
+        Mascota perdida = mascota(2L, "Perro", null, null);
+
+        assertNull(service.puntuar(avistamiento(mascota(1L, "Gato", null, null), LAT, LNG, HOY),
+                publicacion(perdida, LAT, LNG, HOY)), "Otro tipo");
+        assertNull(service.puntuar(avistamiento(perdida, LAT, LNG, HOY),
+                publicacion(perdida, LAT, LNG, HOY)), "La misma mascota");
+        assertNull(service.puntuar(avistamiento(null, LAT + 0.1, LNG, HOY),
+                publicacion(perdida, LAT, LNG, HOY)), "A más de 5 km");
+        assertNull(service.puntuar(avistamiento(null, LAT, LNG, HOY.plusDays(61)),
+                publicacion(perdida, LAT, LNG, HOY)), "Fuera de la ventana");
+        assertNotNull(service.puntuar(avistamiento(null, LAT + 0.04, LNG, HOY.plusDays(60)),
+                publicacion(perdida, LAT, LNG, HOY)), "En el borde");
+    }
+
+    private static Mascota mascota(Long id, String tipo, String raza, String color) {
+        Mascota mascota = new Mascota();
+        mascota.setId(id);
+        mascota.setTipo(tipo);
+        mascota.setRaza(raza);
+        mascota.setColor(color);
+        return mascota;
+    }
+
+    private static Avistamiento avistamiento(Mascota mascota, double lat, double lng, LocalDate fecha) {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setLat(lat);
+        ubicacion.setLng(lng);
+        Avistamiento avistamiento = new Avistamiento();
+        avistamiento.setMascota(mascota);
+        avistamiento.setUbicacion(ubicacion);
+        avistamiento.setFecha(fecha);
+        return avistamiento;
+    }
+
+    private static Publicacion publicacion(Mascota mascota, double lat, double lng, LocalDate fecha) {
+        Publicacion publicacion = new Publicacion();
+        publicacion.setMascota(mascota);
+        publicacion.setLat(lat);
+        publicacion.setLng(lng);
+        publicacion.setFecha(fecha);
+        return publicacion;
+    }
+}
@@ -0,0 +1,104 @@
+package services;
+
+import APP.dto.MascotaCoincidenteDTO;
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.EstadoPublicacion;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.services.EmparejamientoMascotasService;
+import APP.services.MascotaService;
+import APP.services.PublicacionService;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ContextoAplicacionTest
+class EmparejamientoMascotasServiceTest {
+
+    // Plaza Moreno, La Plata y Córdoba: celdas de zona que no son vecinas
+    private static final double LAT_LA_PLATA = -34.9214;
+    private static final double LNG_LA_PLATA = -57.9545;
+    private static final double LAT_CORDOBA = -31.4201;
+    private static final double LNG_CORDOBA = -64.1888;
+
+    @Autowired
+    private EmparejamientoMascotasService service;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private PublicacionService publicacionService;
+
+    // Raza única por test: el resto de los tests comparte la base y no debe colarse en las coincidencias
+    private final String raza = "raza-" + UUID.randomUUID();
+
+    @Test
+    void testPuntajePonderaLosAtributosYDescartaOtroTipo() {
+        Mascota igual = mascota(EstadoMascota.PERDIDA_PROPIA, "Perro", "Atigrado", "Grande");
+        Mascota otroColor = mascota(EstadoMascota.PERDIDA_PROPIA, "Perro", "Negro", "Grande");
+        mascota(EstadoMascota.PERDIDA_PROPIA, "Gato", "Atigrado", "Grande");
+        Mascota encontrada = mascota(EstadoMascota.ENCONTRADA, " perro", "ATIGRADO", "Grande");
+
+        List<MascotaCoincidenteDTO> coincidencias = service.buscarCoincidencias(encontrada, 10);
+
+        assertEquals(2, coincidencias.size());
+        assertEquals(igual.getId(), coincidencias.get(0).getMascota().getId());
+        assertEquals(1.0, coincidencias.get(0).getPuntaje(), 1e-9);
+        // Tipo, raza y tamaño de tipo + raza + color + tamaño
+        assertEquals(otroColor.getId(), coincidencias.get(1).getMascota().getId());
+        assertEquals((2 + 3 + 1) / 8.0, coincidencias.get(1).getPuntaje(), 1e-9);
+
+        assertEquals(1, service.buscarCoincidencias(encontrada, 1).size());
+    }
+
+    @Test
+    void testLaZonaEsLaDeLaPublicacionMasRecienteAlGuardarYAlCargar() {
+        Mascota perdida = mascota(EstadoMascota.PERDIDA_PROPIA, "Perro", null, null);
+        publicar(perdida, LocalDate.now(), LAT_LA_PLATA, LNG_LA_PLATA);
+        // Se guarda después pero es de antes: no cambia la zona
+        publicar(perdida, LocalDate.now().minusDays(10), LAT_CORDOBA, LNG_CORDOBA);
+        Mascota encontrada = mascota(EstadoMascota.ENCONTRADA, "Perro", null, null);
+        publicar(encontrada, LocalDate.now(), LAT_LA_PLATA, LNG_LA_PLATA);
+
+        // Tipo, raza y misma zona: todo lo que se sabe de la encontrada coincide
+        assertEquals(1.0, puntajeDe(perdida, encontrada), 1e-9);
+
+        service.cargar();
+        assertEquals(1.0, puntajeDe(perdida, encontrada), 1e-9);
+    }
+
+    private double puntajeDe(Mascota perdida, Mascota encontrada) {
+        // Otras perdidas de la zona (de otros tests) pueden aparecer después, con menos puntaje
+        MascotaCoincidenteDTO mejor = service.buscarCoincidencias(encontrada, 10).get(0);
+        assertEquals(perdida.getId(), mejor.getMascota().getId());
+        return mejor.getPuntaje();
+    }
+
+    private Mascota mascota(EstadoMascota estado, String tipo, String color, String tamanio) {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Emparejable");
+        mascota.setEstadoMascota(estado);
+        mascota.setTipo(tipo);
+        mascota.setRaza(raza);
+        mascota.setColor(color);
+        mascota.setTamanio(tamanio);
+        return mascotaService.crearMascota(mascota);
+    }
+
+    private void publicar(Mascota mascota, LocalDate fecha, double lat, double lng) {
+        Publicacion publicacion = new Publicacion();
+        publicacion.setMascota(mascota);
+        publicacion.setEstadoPublicacion(EstadoPublicacion.FINALIZADA);
+        publicacion.setFecha(fecha);
+        publicacion.setLat(lat);
+        publicacion.setLng(lng);
+        publicacionService.crearPublicacion(publicacion);
+    }
+}
@@ -0,0 +1,214 @@
+package services;
+
+import APP.services.FileStorageService;
+import APP.services.ProcesadorImagenesService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileStorageServiceTest {
+
+    private static final String UBICACION = "GPS -34.9214,-57.9545";
+
+    @TempDir
+    Path directorio;
+
+    private final List<Path> procesadas = new ArrayList<>();
+
+    private FileStorageService service() {
+        ProcesadorImagenesService sinVariantes = new ProcesadorImagenesService(1, 1) {
+            @Override
+            public void procesarEnSegundoPlano(Path original) {
+                procesadas.add(original);
+            }
+        };
+        return new FileStorageService(directorio.toString(), sinVariantes, null);
+    }
+
+    @Test
+    void testJpegSeGuardaSinExifNiComentariosPeroConOrientacion() throws Exception {
+        byte[] original = conSegmentos(jpeg(), exif(6), comentario("Casa de Juan"));
+        byte[] guardado = guardar(service(), "foto.jpg", "image/jpeg", original);
+
+        assertFalse(contiene(guardado, UBICACION), "La ubicación GPS no debería quedar en el original guardado");
+        assertFalse(contiene(guardado, "Casa de Juan"));
+        assertTrue(contiene(guardado, "Exif"), "La orientación se conserva en un EXIF mínimo");
+        assertTrue(guardado.length < original.length);
+
+        BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(guardado));
+        assertNotNull(imagen);
+        assertEquals(120, imagen.getWidth());
+        assertEquals(80, imagen.getHeight());
+        assertEquals(1, procesadas.size());
+    }
+
+    @Test
+    void testJpegConOrientacionNormalQuedaSinExif() throws Exception {
+        byte[] guardado = guardar(service(), "foto.jpeg", "image/jpeg", conSegmentos(jpeg(), exif(1)));
+        assertFalse(contiene(guardado, "Exif"));
+    }
+
+    @Test
+    void testMismaFotoConOtrosMetadatosSeGuardaUnaVez() throws Exception {
+        FileStorageService service = service();
+        byte[] jpeg = jpeg();
+        String sinMetadatos = service.storeMascotaImage(new MockMultipartFile("imagen", "a.jpg", "image/jpeg", jpeg));
+        byte[] conMetadatos = conSegmentos(jpeg, comentario("otra cámara"));
+        byte[] conBytesAlFinal = ByteBuffer.allocate(jpeg.length + 4).put(jpeg).putInt(42).array();
+
+        assertEquals(sinMetadatos, service.storeMascotaImage(new MockMultipartFile("imagen", "b.jpg", "image/jpeg", conMetadatos)));
+        assertEquals(sinMetadatos, service.storeMascotaImage(new MockMultipartFile("imagen", "c.jpg", "image/jpeg", conBytesAlFinal)));
+        assertEquals(1, procesadas.size());
+    }
+
+    @Test
+    void testPngSeGuardaSinChunksDeTexto() throws Exception {
+        byte[] png = png();
+        byte[] conTexto = conChunkDespuesDeIhdr(png, "tEXt", ("Comment\0" + UBICACION).getBytes(StandardCharsets.ISO_8859_1));
+        byte[] guardado = guardar(service(), "foto.png", "image/png", conTexto);
+
+        assertFalse(contiene(guardado, UBICACION));
+        assertArrayEquals(png, guardado, "Sin los chunks de texto queda el PNG original, byte por byte");
+    }
+
+    @Test
+    void testContenidoQueNoCoincideConLaExtensionSeRechaza() throws Exception {
+        FileStorageService service = service();
+        byte[] png = png();
+        assertThrows(IllegalArgumentException.class,
+                () -> service.storeMascotaImage(new MockMultipartFile("imagen", "foto.jpg", "image/jpeg", png)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.storeMascotaImage(new MockMultipartFile("imagen", "foto.png", "image/png",
+                        "no es una imagen".getBytes(StandardCharsets.UTF_8))));
+        try (var archivos = Files.list(directorio.resolve("mascotas"))) {
+            assertEquals(0, archivos.count(), "No quedan temporales ni archivos rechazados");
+        }
+    }
+
+    @Test
+    void testLasVariantesNoSonReferenciasValidas() throws Exception {
+        FileStorageService service = service();
+        String url = service.storeMascotaImage(new MockMultipartFile("imagen", "a.png", "image/png", png()));
+        String thumb = url.replace(".png", "_thumb.jpg");
+        Path archivoThumb = directorio.resolve("mascotas").resolve(thumb.substring("/uploads/mascotas/".length()));
+        Files.write(archivoThumb, new byte[]{1, 2});
+        Files.setLastModifiedTime(archivoThumb, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+
+        assertTrue(service.aceptarImagenUrl(url));
+        assertTrue(service.aceptarImagenUrl("https://example.com/foto.jpg"));
+        assertFalse(service.aceptarImagenUrl(thumb));
+        assertFalse(service.aceptarImagenUrl("/uploads/mascotas/" + "cd".repeat(32) + ".png"));
+
+        // Sin DAO: si llegara a contar referencias fallaría. Una variante ni se cuenta ni se borra
+        service.liberarMascotaImage(thumb);
+        assertTrue(Files.exists(archivoThumb));
+    }
+
+    private byte[] guardar(FileStorageService service, String nombre, String tipo, byte[] contenido) throws Exception {
+        String url = service.storeMascotaImage(new MockMultipartFile("imagen", nombre, tipo, contenido));
+        assertTrue(url.startsWith("/uploads/mascotas/"));
+        return Files.readAllBytes(directorio.resolve("mascotas").resolve(url.substring("/uploads/mascotas/".length())));
+    }
+
+    private static BufferedImage imagen() {
+        BufferedImage imagen = new BufferedImage(120, 80, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 120, 80);
+        g.setColor(Color.DARK_GRAY);
+        g.fillOval(30, 10, 60, 60);
+        g.dispose();
+        return imagen;
+    }
+
+    private static byte[] jpeg() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen(), "jpg", salida);
+        return salida.toByteArray();
+    }
+
+    private static byte[] png() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen(), "png", salida);
+        return salida.toByteArray();
+    }
+
+    // Inserta los segmentos (marcador incluido) después de SOI
+    private static byte[] conSegmentos(byte[] jpeg, byte[]... segmentos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        salida.write(jpeg, 0, 2);
+        for (byte[] segmento : segmentos) {
+            salida.writeBytes(segmento);
+        }
+        salida.write(jpeg, 2, jpeg.length - 2);
+        return salida.toByteArray();
+    }
+
+    // APP1 EXIF (big-endian) con la orientación y un puntero al IFD GPS, seguido de la "ubicación"
+    private static byte[] exif(int orientacion) {
+        byte[] ubicacion = UBICACION.getBytes(StandardCharsets.ISO_8859_1);
+        ByteBuffer tiff = ByteBuffer.allocate(8 + 2 + 2 * 12 + 4 + ubicacion.length);
+        tiff.put(new byte[]{'M', 'M'}).putShort((short) 42).putInt(8);
+        tiff.putShort((short) 2);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientacion).putShort((short) 0);
+        tiff.putShort((short) 0x8825).putShort((short) 4).putInt(1).putInt(38);
+        tiff.putInt(0);
+        tiff.put(ubicacion);
+        return segmento(0xE1, "Exif\0\0".getBytes(StandardCharsets.ISO_8859_1), tiff.array());
+    }
+
+    private static byte[] comentario(String texto) {
+        return segmento(0xFE, texto.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] segmento(int marcador, byte[]... partes) {
+        ByteArrayOutputStream datos = new ByteArrayOutputStream();
+        for (byte[] parte : partes) {
+            datos.writeBytes(parte);
+        }
+        ByteBuffer segmento = ByteBuffer.allocate(4 + datos.size());
+        segmento.put((byte) 0xFF).put((byte) marcador).putShort((short) (datos.size() + 2)).put(datos.toByteArray());
+        return segmento.array();
+    }
+
+    private static byte[] conChunkDespuesDeIhdr(byte[] png, String tipo, byte[] datos) {
+        int despuesDeIhdr = 8 + 25;
+        ByteBuffer salida = ByteBuffer.allocate(png.length + 12 + datos.length);
+        salida.put(png, 0, despuesDeIhdr);
+        salida.putInt(datos.length);
+        byte[] tipoYDatos = ByteBuffer.allocate(4 + datos.length).put(tipo.getBytes(StandardCharsets.ISO_8859_1)).put(datos).array();
+        CRC32 crc = new CRC32();
+        crc.update(tipoYDatos);
+        salida.put(tipoYDatos).putInt((int) crc.getValue());
+        salida.put(png, despuesDeIhdr, png.length - despuesDeIhdr);
+        return salida.array();
+    }
+
+    private static boolean contiene(byte[] datos, String texto) {
+        return new String(datos, StandardCharsets.ISO_8859_1).contains(texto);
+    }
+}
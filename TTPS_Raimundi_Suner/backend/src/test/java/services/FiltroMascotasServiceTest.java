@@ -0,0 +1,144 @@
+package services;
+
+import APP.dto.MascotaResumenDTO;
+import APP.dto.ResultadoFiltroMascotasDTO;
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.Mascota;
+import APP.models.dao.MascotaDAO;
+import APP.services.FiltroMascotasService;
+import APP.services.FiltroMascotasService.Faceta;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara los índices en memoria con el mismo filtro resuelto en SQL por MascotaDAO, para cada combinación de facetas.
+ */
+@ContextoAplicacionTest
+class FiltroMascotasServiceTest {
+
+    // Con variantes de mayúsculas y espacios, vacíos y nulos: el índice los normaliza igual que lower(trim()) en SQL
+    private static final Map<Faceta, String[]> VALORES = new EnumMap<>(Map.of(
+            Faceta.TIPO, new String[]{"Perro", "perro ", "Gato", "GATO", null},
+            Faceta.TAMANIO, new String[]{"Chico", "Mediano", "grande", " ", null},
+            Faceta.COLOR, new String[]{"Negro", "negro", "Blanco", "Marrón", null},
+            Faceta.RAZA, new String[]{"Caniche", "Mestizo", " mestizo", null},
+            Faceta.ESTADO, Arrays.stream(EstadoMascota.values()).map(Enum::name).toArray(String[]::new)));
+
+    @Autowired
+    private FiltroMascotasService filtroMascotasService;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Test
+    void testCadaCombinacionDeFacetasCoincideConElFiltroSql() {
+        Random random = new Random(17);
+        List<Mascota> nuevas = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Filtrable " + i);
+            mascota.setTipo(alAzar(random, Faceta.TIPO));
+            mascota.setTamanio(alAzar(random, Faceta.TAMANIO));
+            mascota.setColor(alAzar(random, Faceta.COLOR));
+            mascota.setRaza(alAzar(random, Faceta.RAZA));
+            mascota.setEstadoMascota(EstadoMascota.valueOf(alAzar(random, Faceta.ESTADO)));
+            nuevas.add(mascota);
+        }
+        mascotaDAO.saveAll(nuevas);
+        // Otros tests guardan mascotas directo con el DAO: se recarga para comparar contra toda la tabla
+        filtroMascotasService.cargar();
+
+        Faceta[] facetas = Faceta.values();
+        for (int combinacion = 0; combinacion < 1 << facetas.length; combinacion++) {
+            Map<Faceta, List<String>> filtros = new EnumMap<>(Faceta.class);
+            for (Faceta faceta : facetas) {
+                if ((combinacion & 1 << faceta.ordinal()) != 0) {
+                    filtros.put(faceta, pedidos(random, faceta));
+                }
+            }
+
+            ResultadoFiltroMascotasDTO resultado = filtroMascotasService.filtrar(filtros, 0, Integer.MAX_VALUE);
+
+            List<Long> esperados = mascotaDAO.findAll(filtroSql(filtros, null), Sort.by(Sort.Direction.DESC, "id"))
+                    .stream().map(Mascota::getId).toList();
+            assertEquals(esperados.size(), resultado.getTotal(), "total de " + filtros);
+            assertEquals(esperados, resultado.getMascotas().stream().map(MascotaResumenDTO::getId).toList(),
+                    "mascotas de " + filtros);
+
+            for (Faceta faceta : facetas) {
+                Map<String, Integer> conteos = resultado.getFacetas().get(faceta.getNombre());
+                for (String valor : normalizados(faceta)) {
+                    // El conteo de una faceta aplica los filtros de las demás, no el propio
+                    long esperado = mascotaDAO.count(filtroSql(filtros, faceta).and(valorSql(faceta, List.of(valor))));
+                    assertEquals(esperado, conteos.getOrDefault(valor, 0).longValue(),
+                            faceta + "=" + valor + " con " + filtros);
+                }
+            }
+        }
+    }
+
+    // Uno o dos valores de la faceta, a veces con otra capitalización o uno que no existe
+    private static List<String> pedidos(Random random, Faceta faceta) {
+        List<String> pedidos = new ArrayList<>();
+        for (int i = 0; i < 1 + random.nextInt(2); i++) {
+            String valor = alAzar(random, faceta);
+            if (valor == null || valor.isBlank()) {
+                valor = "inexistente";
+            }
+            pedidos.add(random.nextBoolean() ? valor.toUpperCase(Locale.ROOT) : valor);
+        }
+        return pedidos;
+    }
+
+    private static String alAzar(Random random, Faceta faceta) {
+        String[] valores = VALORES.get(faceta);
+        return valores[random.nextInt(valores.length)];
+    }
+
+    private static List<String> normalizados(Faceta faceta) {
+        return Arrays.stream(VALORES.get(faceta))
+                .filter(valor -> valor != null && !valor.isBlank())
+                .map(valor -> normalizar(faceta, valor))
+                .distinct()
+                .toList();
+    }
+
+    private static String normalizar(Faceta faceta, String valor) {
+        return faceta == Faceta.ESTADO ? valor.trim().toUpperCase(Locale.ROOT) : valor.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // AND entre facetas de los OR de cada una, salvo la faceta excluida (null = ninguna)
+    private static Specification<Mascota> filtroSql(Map<Faceta, List<String>> filtros, Faceta excluida) {
+        Specification<Mascota> spec = Specification.where(null);
+        for (Map.Entry<Faceta, List<String>> filtro : filtros.entrySet()) {
+            if (filtro.getKey() != excluida) {
+                spec = spec.and(valorSql(filtro.getKey(), filtro.getValue()));
+            }
+        }
+        return spec;
+    }
+
+    private static Specification<Mascota> valorSql(Faceta faceta, List<String> valores) {
+        List<String> normalizados = valores.stream().map(valor -> normalizar(faceta, valor)).toList();
+        if (faceta == Faceta.ESTADO) {
+            List<EstadoMascota> estados = Arrays.stream(EstadoMascota.values())
+                    .filter(estado -> normalizados.contains(estado.name()))
+                    .toList();
+            return (root, query, cb) -> estados.isEmpty() ? cb.disjunction() : root.get("estadoMascota").in(estados);
+        }
+        return (root, query, cb) -> cb.lower(cb.trim(root.get(faceta.getNombre()))).in(normalizados);
+    }
+}
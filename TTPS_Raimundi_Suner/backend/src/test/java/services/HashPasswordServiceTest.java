@@ -0,0 +1,128 @@
+package services;
+
+import APP.config.PasswordConfig;
+import APP.services.HashPasswordService;
+import APP.services.ServicioSaturadoException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashPasswordServiceTest {
+
+    // Costo fijo: sin calibrar al construir
+    private static final PasswordConfig CONFIG = new PasswordConfig(4, 100, 4, 4);
+
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final AtomicInteger encodes = new AtomicInteger();
+    private HashPasswordService service;
+
+    // Encoder que se queda esperando hasta que el test lo libera: simula hashes lentos
+    private final PasswordEncoder encoderLento = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence password) {
+            esperar();
+            encodes.incrementAndGet();
+            return "$2a$04$" + password;
+        }
+
+        @Override
+        public boolean matches(CharSequence password, String hash) {
+            esperar();
+            return hash.equals("$2a$04$" + password);
+        }
+
+        private void esperar() {
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    @AfterEach
+    void detener() {
+        liberar.countDown();
+        if (service != null) {
+            service.detener();
+        }
+    }
+
+    @Test
+    void testHasheaYVerificaEnElPool() {
+        liberar.countDown();
+        service = new HashPasswordService(encoderLento, CONFIG, 2, 4, 1000);
+        String hash = service.hashear("secreto1");
+        assertTrue(service.coincide("secreto1", hash));
+    }
+
+    @Test
+    void testColaLlenaRechazaEnseguida() {
+        // Un hilo ocupado y un lugar en la cola: el tercer pedido no entra
+        service = new HashPasswordService(encoderLento, CONFIG, 1, 1, 10_000);
+        service.hashearEnSegundoPlano("primero1", nuevo -> { });
+        service.hashearEnSegundoPlano("segundo1", nuevo -> { });
+
+        long inicio = System.nanoTime();
+        assertThrows(ServicioSaturadoException.class, () -> service.hashear("tercero1"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1000);
+    }
+
+    @Test
+    void testEsperaMaximaVencida() {
+        service = new HashPasswordService(encoderLento, CONFIG, 1, 4, 100);
+        assertThrows(ServicioSaturadoException.class, () -> service.hashear("lento123"));
+    }
+
+    @Test
+    void testRehashEnSegundoPlanoSeDescartaConElPoolSaturado() throws InterruptedException {
+        service = new HashPasswordService(encoderLento, CONFIG, 1, 1, 10_000);
+        AtomicInteger rehashes = new AtomicInteger();
+        service.hashearEnSegundoPlano("primero1", nuevo -> rehashes.incrementAndGet());
+        service.hashearEnSegundoPlano("segundo1", nuevo -> rehashes.incrementAndGet());
+        // No lanza ni bloquea: el rehash se posterga al próximo login
+        service.hashearEnSegundoPlano("tercero1", nuevo -> rehashes.incrementAndGet());
+
+        liberar.countDown();
+        esperarHasta(() -> rehashes.get() == 2, 5000);
+        Thread.sleep(100);
+        assertEquals(2, encodes.get());
+        assertEquals(2, rehashes.get());
+    }
+
+    @Test
+    void testSoloSeRehasheanLosHashesDeCostoMenor() {
+        liberar.countDown();
+        service = new HashPasswordService(encoderLento, new PasswordConfig(10, 100, 4, 16), 1, 1, 1000);
+        assertTrue(service.requiereRehash("$2a$09$abcdefghijklmnopqrstuu"));
+        assertFalse(service.requiereRehash("$2a$10$abcdefghijklmnopqrstuu"));
+        // Una instancia que calibró un costo mayor no se deshace en otra más lenta
+        assertFalse(service.requiereRehash("$2a$12$abcdefghijklmnopqrstuu"));
+        assertTrue(service.requiereRehash("texto-plano"));
+    }
+
+    private static void esperarHasta(BooleanSupplier condicion, long maximoMs) {
+        long limite = System.currentTimeMillis() + maximoMs;
+        while (System.currentTimeMillis() < limite) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (condicion.getAsBoolean()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package services;
+
+import APP.models.clases.VarianteImagen;
+import APP.services.ProcesadorImagenesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcesadorImagenesServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private final ProcesadorImagenesService service = new ProcesadorImagenesService(1, 10);
+
+    @AfterEach
+    void detener() throws Exception {
+        service.detener();
+    }
+
+    @Test
+    void testGeneraLasVariantesSinAgrandar() throws Exception {
+        Path original = directorio.resolve("foto.png");
+        ImageIO.write(imagen(2000, 1000), "png", original.toFile());
+
+        service.procesarEnSegundoPlano(original);
+        esperarVariantes(original);
+
+        for (VarianteImagen variante : VarianteImagen.values()) {
+            BufferedImage generada = ImageIO.read(original.resolveSibling(variante.urlPara("foto.png")).toFile());
+            assertNotNull(generada, variante.name());
+            assertEquals(variante.getLadoMaximo(), generada.getWidth(), variante.name());
+            assertEquals(variante.getLadoMaximo() / 2, generada.getHeight(), variante.name());
+        }
+
+        // Una imagen más chica que la variante se deja en su tamaño
+        Path chica = directorio.resolve("chica.jpg");
+        ImageIO.write(imagen(300, 200), "jpg", chica.toFile());
+        service.procesarEnSegundoPlano(chica);
+        esperarVariantes(chica);
+        BufferedImage full = ImageIO.read(chica.resolveSibling(VarianteImagen.FULL.urlPara("chica.jpg")).toFile());
+        assertEquals(300, full.getWidth());
+        assertEquals(200, full.getHeight());
+    }
+
+    @Test
+    void testEliminarVariantes() throws Exception {
+        Path original = directorio.resolve("foto.png");
+        ImageIO.write(imagen(400, 300), "png", original.toFile());
+        service.procesarEnSegundoPlano(original);
+        esperarVariantes(original);
+
+        service.eliminarVariantes(original);
+
+        assertTrue(Files.exists(original));
+        for (VarianteImagen variante : VarianteImagen.values()) {
+            assertFalse(Files.exists(original.resolveSibling(variante.urlPara("foto.png"))), variante.name());
+        }
+    }
+
+    @Test
+    void testArchivoQueNoEsImagenNoGeneraVariantes() throws Exception {
+        Path original = directorio.resolve("roto.png");
+        Files.writeString(original, "no es una imagen");
+
+        service.procesarEnSegundoPlano(original);
+        service.detener();
+
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(1, archivos.count());
+        }
+    }
+
+    @Test
+    void testConLaColaLlenaLasVariantesSeDescartanSinFrenarAlQueSube() throws Exception {
+        ProcesadorImagenesService saturado = new ProcesadorImagenesService(1, 1);
+        Path ocupa = directorio.resolve("ocupa.png");
+        Path encolada = directorio.resolve("encolada.png");
+        Path descartada = directorio.resolve("descartada.png");
+        for (Path archivo : new Path[]{ocupa, encolada, descartada}) {
+            ImageIO.write(imagen(400, 300), "png", archivo.toFile());
+        }
+        CountDownLatch empezo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            // El único hilo queda ocupado y la única posición de la cola se llena
+            saturado.calcularHashEnSegundoPlano(ocupa, hash -> {
+                empezo.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(empezo.await(10, TimeUnit.SECONDS));
+            saturado.procesarEnSegundoPlano(encolada);
+
+            saturado.procesarEnSegundoPlano(descartada);
+            assertTrue(saturado.faltanVariantes(descartada));
+        } finally {
+            liberar.countDown();
+            saturado.detener();
+        }
+
+        assertFalse(saturado.faltanVariantes(encolada));
+        assertTrue(saturado.faltanVariantes(descartada));
+    }
+
+    @Test
+    void testHashPerceptualToleraRecompresionYCambioDeTamanio() throws Exception {
+        BufferedImage foto = foto(new Random(3));
+        Path original = directorio.resolve("original.png");
+        ImageIO.write(foto, "png", original.toFile());
+        Path recomprimida = directorio.resolve("recomprimida.jpg");
+        escribirJpeg(foto, recomprimida, 0.3f);
+        Path chica = directorio.resolve("chica.jpg");
+        escribirJpeg(escalada(foto, 300, 225), chica, 0.7f);
+        Path otra = directorio.resolve("otra.png");
+        ImageIO.write(foto(new Random(4)), "png", otra.toFile());
+
+        long hash = service.calcularHashPerceptual(original);
+        // Umbral por defecto de /api/mascotas/{id}/similares
+        assertTrue(Long.bitCount(hash ^ service.calcularHashPerceptual(recomprimida)) <= 10);
+        assertTrue(Long.bitCount(hash ^ service.calcularHashPerceptual(chica)) <= 10);
+        assertTrue(Long.bitCount(hash ^ service.calcularHashPerceptual(otra)) > 10);
+    }
+
+    @Test
+    void testHashEnSegundoPlano() throws Exception {
+        Path original = directorio.resolve("foto.png");
+        ImageIO.write(foto(new Random(5)), "png", original.toFile());
+        CompletableFuture<Long> hash = new CompletableFuture<>();
+
+        service.calcularHashEnSegundoPlano(original, hash::complete);
+
+        assertEquals(service.calcularHashPerceptual(original), hash.get(10, TimeUnit.SECONDS));
+    }
+
+    // Manchas de colores al azar sobre un degradé: algo con estructura, como una foto
+    private static BufferedImage foto(Random random) {
+        BufferedImage imagen = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt()), 1200, 900, new Color(random.nextInt())));
+        g.fillRect(0, 0, 1200, 900);
+        for (int i = 0; i < 12; i++) {
+            g.setColor(new Color(random.nextInt()));
+            g.fillOval(random.nextInt(1000), random.nextInt(700), 100 + random.nextInt(300), 100 + random.nextInt(300));
+        }
+        g.dispose();
+        return imagen;
+    }
+
+    private static BufferedImage escalada(BufferedImage imagen, int ancho, int alto) {
+        BufferedImage escalada = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = escalada.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(imagen, 0, 0, ancho, alto, null);
+        g.dispose();
+        return escalada;
+    }
+
+    private static void escribirJpeg(BufferedImage imagen, Path destino, float calidad) throws Exception {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(destino.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(calidad);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(imagen, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void esperarVariantes(Path original) throws InterruptedException {
+        String nombre = original.getFileName().toString();
+        long limite = System.currentTimeMillis() + 10_000;
+        for (VarianteImagen variante : VarianteImagen.values()) {
+            Path archivo = original.resolveSibling(variante.urlPara(nombre));
+            while (!Files.exists(archivo)) {
+                assertTrue(System.currentTimeMillis() < limite, "No se generó " + archivo.getFileName());
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static BufferedImage imagen(int ancho, int alto) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, ancho, alto);
+        g.setColor(Color.BLUE);
+        g.fillRect(ancho / 4, alto / 4, ancho / 2, alto / 2);
+        g.dispose();
+        return imagen;
+    }
+}
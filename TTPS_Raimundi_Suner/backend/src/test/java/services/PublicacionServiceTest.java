@@ -0,0 +1,215 @@
+package services;
+
+import APP.dto.CoincidenciaAvistamientoDTO;
+import APP.models.clases.Avistamiento;
+import APP.models.clases.EstadoMascota;
+import APP.models.clases.EstadoPublicacion;
+import APP.models.clases.Mascota;
+import APP.models.clases.Publicacion;
+import APP.models.clases.Ubicacion;
+import APP.models.clases.Usuario;
+import APP.models.dao.PublicacionDAO;
+import APP.models.dao.UsuarioDAO;
+import APP.services.AvistamientoService;
+import APP.services.MascotaService;
+import APP.services.PublicacionService;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ContextoAplicacionTest
+class PublicacionServiceTest {
+
+    @Autowired
+    private PublicacionService publicacionService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private PublicacionDAO publicacionDAO;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    private Mascota mascota;
+
+    @BeforeEach
+    void crearMascota() {
+        Mascota nueva = new Mascota();
+        nueva.setNombre("Publicada");
+        nueva.setTipo("Perro");
+        nueva.setEstadoMascota(EstadoMascota.PERDIDA_PROPIA);
+        mascota = mascotaService.crearMascota(nueva);
+    }
+
+    private Publicacion publicacion(EstadoPublicacion estado, LocalDate fecha, String descripcion) {
+        Publicacion publicacion = new Publicacion();
+        publicacion.setMascota(mascota);
+        publicacion.setEstadoPublicacion(estado);
+        publicacion.setFecha(fecha);
+        publicacion.setDescripcion(descripcion);
+        return publicacion;
+    }
+
+    @Test
+    void testSegundaPublicacionActivaSeRechaza() {
+        publicacionService.crearPublicacion(publicacion(EstadoPublicacion.ACTIVA, LocalDate.now(), "primera"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> publicacionService.crearPublicacion(publicacion(EstadoPublicacion.ACTIVA, LocalDate.now(), "segunda")));
+        assertTrue(e.getMessage().contains("publicación activa"));
+    }
+
+    @Test
+    void testOtrasViolacionesNoSeReportanComoPublicacionActiva() {
+        // Más larga que la columna: no tiene nada que ver con la publicación activa
+        Publicacion larga = publicacion(EstadoPublicacion.ACTIVA, LocalDate.now(), "x".repeat(2001));
+
+        assertThrows(DataIntegrityViolationException.class, () -> publicacionService.crearPublicacion(larga));
+    }
+
+    @Test
+    void testPublicacionNuevaSeRelacionaConLosAvistamientosCercanosPrevios() throws InterruptedException {
+        Long avistamientoId = avistamientoEnLaPlaza("vecino@test.com");
+
+        // El avistamiento es anterior a la publicación: sólo la publicación puede disparar la coincidencia
+        Long publicacionId = publicacionService.crearPublicacion(perdidaCercaDeLaPlaza()).getId();
+
+        esperarHasta(() -> relacionados(publicacionId).contains(avistamientoId));
+        assertTrue(relacionados(publicacionId).contains(avistamientoId));
+    }
+
+    @Test
+    void testCambiarElEstadoDeLaMascotaRecalculaSusCoincidencias() throws InterruptedException {
+        Long avistamientoId = avistamientoEnLaPlaza("otro.vecino@test.com");
+        Long publicacionId = publicacionService.crearPublicacion(perdidaCercaDeLaPlaza()).getId();
+        esperarHasta(() -> relacionados(publicacionId).contains(avistamientoId));
+
+        // Ya no está perdida: la publicación deja de ser candidata
+        mascotaService.cambiarEstado(mascota.getId(), EstadoMascota.ADOPTADA);
+        esperarHasta(() -> relacionados(publicacionId).isEmpty());
+        assertTrue(relacionados(publicacionId).isEmpty());
+
+        mascotaService.cambiarEstado(mascota.getId(), EstadoMascota.PERDIDA_PROPIA);
+        esperarHasta(() -> relacionados(publicacionId).contains(avistamientoId));
+        assertTrue(relacionados(publicacionId).contains(avistamientoId));
+    }
+
+    private Long avistamientoEnLaPlaza(String email) {
+        Usuario usuario = new Usuario();
+        usuario.setEmail(email);
+        usuario = usuarioDAO.save(usuario);
+        Mascota vista = new Mascota();
+        vista.setNombre("Vista en la plaza");
+        vista.setTipo("Perro");
+        vista.setEstadoMascota(EstadoMascota.ENCONTRADA);
+        vista = mascotaService.crearMascota(vista);
+
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setLat(-34.9214);
+        ubicacion.setLng(-57.9545);
+        Avistamiento avistamiento = new Avistamiento();
+        avistamiento.setMascota(vista);
+        avistamiento.setUsuario(usuario);
+        avistamiento.setUbicacion(ubicacion);
+        avistamiento.setFecha(LocalDate.now());
+        return avistamientoService.crearAvistamiento(avistamiento).getId();
+    }
+
+    private Publicacion perdidaCercaDeLaPlaza() {
+        Publicacion perdida = publicacion(EstadoPublicacion.ACTIVA, LocalDate.now(), "Se perdió cerca de la plaza");
+        perdida.setLat(-34.9230);
+        perdida.setLng(-57.9560);
+        return perdida;
+    }
+
+    // Las coincidencias se calculan en segundo plano después del commit
+    private static void esperarHasta(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicion.getAsBoolean() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Long> relacionados(Long publicacionId) {
+        return avistamientoService.obtenerCoincidenciasDePublicacion(publicacionId).stream()
+                .map(CoincidenciaAvistamientoDTO::getAvistamientoId)
+                .toList();
+    }
+
+    @Test
+    void testActivasDuplicadasAnterioresALaColumnaSeResuelvenAlCompletar() {
+        Publicacion vieja = publicacionService.crearPublicacion(
+                publicacion(EstadoPublicacion.FINALIZADA, LocalDate.now().minusDays(10), "vieja"));
+        Publicacion nueva = publicacionService.crearPublicacion(
+                publicacion(EstadoPublicacion.FINALIZADA, LocalDate.now(), "nueva"));
+        // Como quedaban antes de que existiera mascota_activa_id: las dos activas y sin marcar
+        jdbcTemplate.update("UPDATE publicacion SET estado_publicacion = 'ACTIVA', mascota_activa_id = NULL WHERE id IN (?, ?)",
+                vieja.getId(), nueva.getId());
+
+        publicacionService.completarMascotaActivaFaltante();
+
+        Publicacion nuevaGuardada = publicacionDAO.findById(nueva.getId()).orElseThrow();
+        Publicacion viejaGuardada = publicacionDAO.findById(vieja.getId()).orElseThrow();
+        assertEquals(EstadoPublicacion.ACTIVA, nuevaGuardada.getEstadoPublicacion());
+        assertEquals(mascota.getId(), nuevaGuardada.getMascotaActivaId());
+        assertEquals(EstadoPublicacion.CANCELADA, viejaGuardada.getEstadoPublicacion());
+        assertNull(viejaGuardada.getMascotaActivaId());
+        assertNotNull(viejaGuardada.getFechaCierre());
+        assertTrue(publicacionService.tienePublicacionActiva(mascota.getId()));
+    }
+
+    @Test
+    void testCercanasOrdenaPorDistanciaYRespetaElLimite() {
+        // Ushuaia: ningún otro test publica en la zona
+        double lat = -54.8019;
+        double lng = -68.3030;
+        Publicacion dosKm = publicacionService.crearPublicacion(ubicada(lat + 0.018, lng));
+        Publicacion medioKm = publicacionService.crearPublicacion(ubicada(lat + 0.0045, lng));
+        publicacionService.crearPublicacion(ubicada(lat + 0.18, lng));
+
+        assertEquals(List.of(medioKm.getId(), dosKm.getId()),
+                publicacionService.obtenerCercanas(lat, lng, 5, 10).stream().map(Publicacion::getId).toList());
+        assertEquals(List.of(medioKm.getId()),
+                publicacionService.obtenerCercanas(lat, lng, 5, 1).stream().map(Publicacion::getId).toList());
+    }
+
+    @Test
+    void testGeohashFaltanteSeCompletaAlIniciar() {
+        Publicacion publicacion = publicacionService.crearPublicacion(ubicada(-34.9214, -57.9545));
+        String geohash = publicacion.getGeohash();
+        // Como quedaban antes de que existiera la columna
+        jdbcTemplate.update("UPDATE publicacion SET geohash = NULL WHERE id = ?", publicacion.getId());
+
+        publicacionService.completarGeohashFaltantes();
+
+        assertEquals(geohash, publicacionDAO.findById(publicacion.getId()).orElseThrow().getGeohash());
+    }
+
+    private Publicacion ubicada(double lat, double lng) {
+        Publicacion publicacion = publicacion(EstadoPublicacion.FINALIZADA, LocalDate.now(), "ubicada");
+        publicacion.setLat(lat);
+        publicacion.setLng(lng);
+        return publicacion;
+    }
+}
@@ -0,0 +1,40 @@
+package services;
+
+import APP.models.clases.Usuario;
+import APP.models.dao.UsuarioDAO;
+import APP.services.UsuarioService;
+import config.ContextoAplicacionTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ContextoAplicacionTest
+class UsuarioServiceTest {
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    @Test
+    void testPasswordEnTextoPlanoSeMigraEnElMismoLogin() {
+        Usuario legado = new Usuario();
+        legado.setEmail("legado@test.com");
+        legado.setPassword("clave-vieja");
+        legado.setEstado(true);
+        legado = usuarioDAO.save(legado);
+
+        Usuario autenticado = usuarioService.autenticar("legado@test.com", "clave-vieja");
+        assertEquals(legado.getId(), autenticado.getId());
+
+        // Al volver el login ya está migrada, sin depender de que el pool tuviera lugar
+        String guardada = usuarioDAO.findById(legado.getId()).orElseThrow().getPassword();
+        assertTrue(guardada.startsWith("$2"), guardada);
+        assertEquals(legado.getId(), usuarioService.autenticar("legado@test.com", "clave-vieja").getId());
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.autenticar("legado@test.com", guardada));
+    }
+}